@@ -35,6 +35,7 @@ import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Instance conversion utility.  Convert from primitive to other primitives, plus support for Number, Date,
@@ -73,14 +74,23 @@ public final class Converter {
     public static final String VALUE = "_v";
     private static final String VALUE2 = "value";
 
-    private final Map<Map.Entry<Class<?>, Class<?>>, Convert<?>> factory;
-
     private final ConverterOptions options;
+    private volatile LongAdder inheritedConversions;   // null until countInheritedConversions() is called
 
     private static final Map<Class<?>, Set<Class<?>>> cacheParentTypes = new ConcurrentHashMap<>();
     private static final Map<Class<?>, Class<?>> primitiveToWrapper = new HashMap<>();
 
-    private static final Map<Map.Entry<Class<?>, Class<?>>, Convert<?>> DEFAULT_FACTORY = new HashMap<>();
+    // Built-in conversions are registered one target type at a time, the first time a conversion to that
+    // target is looked up.  Each conversion is a lambda, and linking all of them up front dominated startup.
+    private static final Map<Map.Entry<Class<?>, Class<?>>, Convert<?>> DEFAULT_FACTORY = new ConcurrentHashMap<>(500);
+    private static final Set<Class<?>> loadedTargets = ConcurrentHashMap.newKeySet();
+    private static final Class<?>[] BUILT_IN_TARGETS = {
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class, Boolean.class,
+            Character.class, BigInteger.class, BigDecimal.class, AtomicBoolean.class, AtomicInteger.class,
+            AtomicLong.class, Date.class, java.sql.Date.class, Timestamp.class, Calendar.class, LocalTime.class,
+            LocalDate.class, LocalDateTime.class, ZonedDateTime.class, UUID.class, Class.class, String.class,
+            Duration.class, Instant.class, MonthDay.class, Map.class
+    };
 
     private static Map.Entry<Class<?>, Class<?>> pair(Class<?> source, Class<?> target) {
         return new AbstractMap.SimpleImmutableEntry<>(source, target);
@@ -88,7 +98,6 @@ public final class Converter {
 
     static {
         buildPrimitiveWrappers();
-        buildFactoryConversions();
     }
 
     private static void buildPrimitiveWrappers() {
@@ -103,8 +112,94 @@ public final class Converter {
         primitiveToWrapper.put(void.class, Void.class);
     }
 
-    private static void buildFactoryConversions() {
-        // Byte/byte Conversions supported
+    /**
+     * Make sure the built-in conversions to the passed in target type (primitive targets share the set of their
+     * wrapper type) are in DEFAULT_FACTORY.  Cheap once loaded: a single Set lookup.
+     */
+    private static void ensureConversionsTo(Class<?> target) {
+        if (loadedTargets.contains(target)) {
+            return;
+        }
+        synchronized (loadedTargets) {
+            if (loadedTargets.contains(target)) {
+                return;
+            }
+            Class<?> wrapper = toPrimitiveWrapperClass(target);
+            if (!loadedTargets.contains(wrapper)) {
+                loadConversionsTo(wrapper);
+                loadedTargets.add(wrapper);
+            }
+            loadedTargets.add(target);
+        }
+    }
+
+    private static void loadAllConversions() {
+        for (Class<?> target : BUILT_IN_TARGETS) {
+            ensureConversionsTo(target);
+        }
+    }
+
+    private static void loadConversionsTo(Class<?> target) {
+        if (target == Byte.class) {
+            addByteConversions();
+        } else if (target == Short.class) {
+            addShortConversions();
+        } else if (target == Integer.class) {
+            addIntegerConversions();
+        } else if (target == Long.class) {
+            addLongConversions();
+        } else if (target == Float.class) {
+            addFloatConversions();
+        } else if (target == Double.class) {
+            addDoubleConversions();
+        } else if (target == Boolean.class) {
+            addBooleanConversions();
+        } else if (target == Character.class) {
+            addCharacterConversions();
+        } else if (target == BigInteger.class) {
+            addBigIntegerConversions();
+        } else if (target == BigDecimal.class) {
+            addBigDecimalConversions();
+        } else if (target == AtomicBoolean.class) {
+            addAtomicBooleanConversions();
+        } else if (target == AtomicInteger.class) {
+            addAtomicIntegerConversions();
+        } else if (target == AtomicLong.class) {
+            addAtomicLongConversions();
+        } else if (target == Date.class) {
+            addDateConversions();
+        } else if (target == java.sql.Date.class) {
+            addSqlDateConversions();
+        } else if (target == Timestamp.class) {
+            addTimestampConversions();
+        } else if (target == Calendar.class) {
+            addCalendarConversions();
+        } else if (target == LocalTime.class) {
+            addLocalTimeConversions();
+        } else if (target == LocalDate.class) {
+            addLocalDateConversions();
+        } else if (target == LocalDateTime.class) {
+            addLocalDateTimeConversions();
+        } else if (target == ZonedDateTime.class) {
+            addZonedDateTimeConversions();
+        } else if (target == UUID.class) {
+            addUUIDConversions();
+        } else if (target == Class.class) {
+            addClassConversions();
+        } else if (target == String.class) {
+            addStringConversions();
+        } else if (target == Duration.class) {
+            addDurationConversions();
+        } else if (target == Instant.class) {
+            addInstantConversions();
+        } else if (target == MonthDay.class) {
+            addMonthDayConversions();
+        } else if (target == Map.class) {
+            addMapConversions();
+        }
+    }
+
+    private static void addByteConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, byte.class), (fromInstance, converter, options) -> (byte) 0);
         DEFAULT_FACTORY.put(pair(Void.class, Byte.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, Byte.class), Converter::identity);
@@ -134,8 +229,9 @@ public final class Converter {
                 throw new IllegalArgumentException("Value: " + fromInstance + " not parseable as a byte value or outside " + Byte.MIN_VALUE + " to " + Byte.MAX_VALUE);
             }
         });
+    }
 
-        // Short/short conversions supported
+    private static void addShortConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, short.class), (fromInstance, converter, options) -> (short) 0);
         DEFAULT_FACTORY.put(pair(Void.class, Short.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, Short.class), NumberConversion::toShort);
@@ -165,8 +261,9 @@ public final class Converter {
                 throw new IllegalArgumentException("Value: " + fromInstance + " not parseable as a short value or outside " + Short.MIN_VALUE + " to " + Short.MAX_VALUE);
             }
         });
+    }
 
-        // Integer/int conversions supported
+    private static void addIntegerConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, int.class), (fromInstance, converter, options) -> 0);
         DEFAULT_FACTORY.put(pair(Void.class, Integer.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, Integer.class), NumberConversion::toInt);
@@ -196,8 +293,9 @@ public final class Converter {
                 throw new IllegalArgumentException("Value: " + fromInstance + " not parseable as an integer value or outside " + Integer.MIN_VALUE + " to " + Integer.MAX_VALUE);
             }
         });
+    }
 
-        // Long/long conversions supported
+    private static void addLongConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, long.class), (fromInstance, converter, options) -> 0L);
         DEFAULT_FACTORY.put(pair(Void.class, Long.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, Long.class), NumberConversion::toLong);
@@ -233,8 +331,9 @@ public final class Converter {
                 throw new IllegalArgumentException("Value: " + fromInstance + " not parseable as a long value or outside " + Long.MIN_VALUE + " to " + Long.MAX_VALUE);
             }
         });
+    }
 
-        // Float/float conversions supported
+    private static void addFloatConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, float.class), (fromInstance, converter, options) -> 0.0f);
         DEFAULT_FACTORY.put(pair(Void.class, Float.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, Float.class), NumberConversion::toFloat);
@@ -264,8 +363,9 @@ public final class Converter {
                 throw new IllegalArgumentException("Value: " + fromInstance + " not parseable as a float value");
             }
         });
+    }
 
-        // Double/double conversions supported
+    private static void addDoubleConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, double.class), NumberConversion::toDoubleZero);
         DEFAULT_FACTORY.put(pair(Void.class, Double.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, Double.class), NumberConversion::toDouble);
@@ -301,8 +401,9 @@ public final class Converter {
                 throw new IllegalArgumentException("Value: " + fromInstance + " not parseable as a double value");
             }
         });
+    }
 
-        // Boolean/boolean conversions supported
+    private static void addBooleanConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, boolean.class), (fromInstance, converter, options) -> false);
         DEFAULT_FACTORY.put(pair(Void.class, Boolean.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, Boolean.class), NumberConversion::isIntTypeNotZero);
@@ -333,8 +434,9 @@ public final class Converter {
             }
             return "true".equalsIgnoreCase(str);
         });
+    }
 
-        // Character/chat conversions supported
+    private static void addCharacterConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, char.class), (fromInstance, converter, options) -> (char) 0);
         DEFAULT_FACTORY.put(pair(Void.class, Character.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, Character.class), NumberConversion::numberToCharacter);
@@ -363,8 +465,9 @@ public final class Converter {
             // Treat as a String number, like "65" = 'A'
             return (char) Integer.parseInt(str.trim());
         });
+    }
 
-        // BigInteger versions supported
+    private static void addBigIntegerConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, BigInteger.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, BigInteger.class), (fromInstance, converter, options) -> BigInteger.valueOf((byte) fromInstance));
         DEFAULT_FACTORY.put(pair(Short.class, BigInteger.class), (fromInstance, converter, options) -> BigInteger.valueOf((short) fromInstance));
@@ -406,8 +509,9 @@ public final class Converter {
                 throw new IllegalArgumentException("Value: " + fromInstance + " not parseable as a BigInteger value.");
             }
         });
+    }
 
-        // BigDecimal conversions supported
+    private static void addBigDecimalConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, BigDecimal.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, BigDecimal.class), NumberConversion::numberToBigDecimal);
         DEFAULT_FACTORY.put(pair(Short.class, BigDecimal.class), NumberConversion::numberToBigDecimal);
@@ -449,8 +553,9 @@ public final class Converter {
                 throw new IllegalArgumentException("Value: " + fromInstance + " not parseable as a BigDecimal value.");
             }
         });
+    }
 
-        // AtomicBoolean conversions supported
+    private static void addAtomicBooleanConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, AtomicBoolean.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, AtomicBoolean.class), (fromInstance, converter, options) -> new AtomicBoolean(((Number) fromInstance).longValue() != 0));
         DEFAULT_FACTORY.put(pair(Short.class, AtomicBoolean.class), (fromInstance, converter, options) -> new AtomicBoolean(((Number) fromInstance).longValue() != 0));
@@ -474,8 +579,9 @@ public final class Converter {
             }
             return new AtomicBoolean("true".equalsIgnoreCase(str));
         });
+    }
 
-        // AtomicInteger conversions supported
+    private static void addAtomicIntegerConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, AtomicInteger.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, AtomicInteger.class), (fromInstance, converter, options) -> new AtomicInteger(((Number) fromInstance).intValue()));
         DEFAULT_FACTORY.put(pair(Short.class, AtomicInteger.class), (fromInstance, converter, options) -> new AtomicInteger(((Number) fromInstance).intValue()));
@@ -491,7 +597,7 @@ public final class Converter {
         DEFAULT_FACTORY.put(pair(AtomicBoolean.class, AtomicInteger.class), (fromInstance, converter, options) -> ((AtomicBoolean) fromInstance).get() ? new AtomicInteger(1) : new AtomicInteger(0));
         DEFAULT_FACTORY.put(pair(AtomicLong.class, AtomicInteger.class), (fromInstance, converter, options) -> new AtomicInteger(((Number) fromInstance).intValue()));
         DEFAULT_FACTORY.put(pair(LocalDate.class, AtomicInteger.class), (fromInstance, converter, options) -> new AtomicInteger((int) ((LocalDate) fromInstance).toEpochDay()));
-        DEFAULT_FACTORY.put(pair(Number.class, AtomicBoolean.class), (fromInstance, converter, options) -> new AtomicInteger(((Number) fromInstance).intValue()));
+        DEFAULT_FACTORY.put(pair(Number.class, AtomicInteger.class), (fromInstance, converter, options) -> new AtomicInteger(((Number) fromInstance).intValue()));
         DEFAULT_FACTORY.put(pair(Map.class, AtomicInteger.class), (fromInstance, converter, options) -> converter.fromValueMap((Map<?, ?>) fromInstance, AtomicInteger.class, null, options));
         DEFAULT_FACTORY.put(pair(String.class, AtomicInteger.class), (fromInstance, converter, options) -> {
             String str = ((String) fromInstance).trim();
@@ -504,8 +610,9 @@ public final class Converter {
                 throw new IllegalArgumentException("Value: " + fromInstance + " not parseable as an AtomicInteger value or outside " + Integer.MIN_VALUE + " to " + Integer.MAX_VALUE);
             }
         });
+    }
 
-        // AtomicLong conversions supported
+    private static void addAtomicLongConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, AtomicLong.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, AtomicLong.class), (fromInstance, converter, options) -> new AtomicLong(((Number) fromInstance).longValue()));
         DEFAULT_FACTORY.put(pair(Short.class, AtomicLong.class), (fromInstance, converter, options) -> new AtomicLong(((Number) fromInstance).longValue()));
@@ -540,8 +647,9 @@ public final class Converter {
                 throw new IllegalArgumentException("Value: " + fromInstance + " not parseable as a AtomicLong value or outside " + Long.MIN_VALUE + " to " + Long.MAX_VALUE);
             }
         });
+    }
 
-        // Date conversions supported
+    private static void addDateConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, Date.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Long.class, Date.class), (fromInstance, converter, options) -> new Date((long) fromInstance));
         DEFAULT_FACTORY.put(pair(Double.class, Date.class), (fromInstance, converter, options) -> new Date(((Number) fromInstance).longValue()));
@@ -565,8 +673,9 @@ public final class Converter {
             }
         });
         DEFAULT_FACTORY.put(pair(String.class, Date.class), (fromInstance, converter, options) -> DateUtilities.parseDate(((String) fromInstance).trim()));
+    }
 
-        // java.sql.Date conversion supported
+    private static void addSqlDateConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, java.sql.Date.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Long.class, java.sql.Date.class), (fromInstance, converter, options) -> new java.sql.Date((long) fromInstance));
         DEFAULT_FACTORY.put(pair(Double.class, java.sql.Date.class), (fromInstance, converter, options) -> new java.sql.Date(((Number) fromInstance).longValue()));
@@ -597,8 +706,9 @@ public final class Converter {
             }
             return new java.sql.Date(date.getTime());
         });
+    }
 
-        // Timestamp conversions supported
+    private static void addTimestampConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, Timestamp.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Long.class, Timestamp.class), (fromInstance, converter, options) -> new Timestamp((long) fromInstance));
         DEFAULT_FACTORY.put(pair(Double.class, Timestamp.class), (fromInstance, converter, options) -> new Timestamp(((Number) fromInstance).longValue()));
@@ -633,8 +743,9 @@ public final class Converter {
             }
             return new Timestamp(date.getTime());
         });
+    }
 
-        // Calendar conversions supported
+    private static void addCalendarConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, Calendar.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Long.class, Calendar.class), (fromInstance, converter, options) -> initCal((Long) fromInstance));
         DEFAULT_FACTORY.put(pair(Double.class, Calendar.class), (fromInstance, converter, options) -> initCal(((Number) fromInstance).longValue()));
@@ -677,8 +788,9 @@ public final class Converter {
             }
             return initCal(date.getTime());
         });
+    }
 
-        // LocalTime conversions supported
+    private static void addLocalTimeConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, LocalTime.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(LocalTime.class, LocalTime.class), Converter::identity);
         DEFAULT_FACTORY.put(pair(String.class, LocalTime.class), (fromInstance, converter, options) -> {
@@ -701,8 +813,9 @@ public final class Converter {
                 return converter.fromValueMap(map, LocalTime.class, MetaUtils.setOf("hour", "minute", "second", "nano"), options);
             }
         });
+    }
 
-        // LocalDate conversions supported
+    private static void addLocalDateConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, LocalDate.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Short.class, LocalDate.class), (fromInstance, converter, options) -> LocalDate.ofEpochDay(((Number) fromInstance).longValue()));
         DEFAULT_FACTORY.put(pair(Integer.class, LocalDate.class), (fromInstance, converter, options) -> LocalDate.ofEpochDay(((Number) fromInstance).longValue()));
@@ -740,8 +853,9 @@ public final class Converter {
             }
             return date.toInstant().atZone(options.getTargetZoneId()).toLocalDate();
         });
+    }
 
-        // LocalDateTime conversions supported
+    private static void addLocalDateTimeConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, LocalDateTime.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Long.class, LocalDateTime.class), (fromInstance, converter, options) -> Instant.ofEpochMilli((Long) fromInstance).atZone(options.getSourceZoneId()).toLocalDateTime());
         DEFAULT_FACTORY.put(pair(Double.class, LocalDateTime.class), (fromInstance, converter, options) -> Instant.ofEpochMilli(((Number) fromInstance).longValue()).atZone(options.getSourceZoneId()).toLocalDateTime());
@@ -768,8 +882,9 @@ public final class Converter {
             }
             return date.toInstant().atZone(options.getSourceZoneId()).toLocalDateTime();
         });
+    }
 
-        // ZonedDateTime conversions supported
+    private static void addZonedDateTimeConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, ZonedDateTime.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Long.class, ZonedDateTime.class), (fromInstance, converter, options) -> Instant.ofEpochMilli((Long) fromInstance).atZone(options.getSourceZoneId()));
         DEFAULT_FACTORY.put(pair(Double.class, ZonedDateTime.class), (fromInstance, converter, options) -> Instant.ofEpochMilli(((Number) fromInstance).longValue()).atZone(options.getSourceZoneId()));
@@ -796,8 +911,9 @@ public final class Converter {
             }
             return date.toInstant().atZone(options.getSourceZoneId());
         });
+    }
 
-        // UUID conversions supported
+    private static void addUUIDConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, UUID.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(UUID.class, UUID.class), Converter::identity);
         DEFAULT_FACTORY.put(pair(String.class, UUID.class), (fromInstance, converter, options) -> UUID.fromString(((String) fromInstance).trim()));
@@ -825,8 +941,9 @@ public final class Converter {
             }
             throw new IllegalArgumentException("To convert Map to UUID, the Map must contain both 'mostSigBits' and 'leastSigBits' keys");
         });
+    }
 
-        // Class conversions supported
+    private static void addClassConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, Class.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Class.class, Class.class), Converter::identity);
         DEFAULT_FACTORY.put(pair(Map.class, Class.class), (fromInstance, converter, options) -> converter.fromValueMap((Map<?, ?>) fromInstance, AtomicLong.class, null, options));
@@ -838,8 +955,9 @@ public final class Converter {
             }
             throw new IllegalArgumentException("Cannot convert String '" + str + "' to class.  Class not found.");
         });
+    }
 
-        // String conversions supported
+    private static void addStringConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, String.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, String.class), Converter::toString);
         DEFAULT_FACTORY.put(pair(Short.class, String.class), Converter::toString);
@@ -893,8 +1011,9 @@ public final class Converter {
         DEFAULT_FACTORY.put(pair(Instant.class, String.class), Converter::toString);
         DEFAULT_FACTORY.put(pair(LocalTime.class, String.class), Converter::toString);
         DEFAULT_FACTORY.put(pair(MonthDay.class, String.class), Converter::toString);
+    }
 
-        // Duration conversions supported
+    private static void addDurationConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, Duration.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Duration.class, Duration.class), Converter::identity);
         DEFAULT_FACTORY.put(pair(String.class, Duration.class), (fromInstance, converter, options) -> Duration.parse((String) fromInstance));
@@ -908,8 +1027,9 @@ public final class Converter {
                 return converter.fromValueMap(map, Duration.class, MetaUtils.setOf("seconds", "nanos"), options);
             }
         });
+    }
 
-        // Instant conversions supported
+    private static void addInstantConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, Instant.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Instant.class, Instant.class), Converter::identity);
         DEFAULT_FACTORY.put(pair(String.class, Instant.class), (fromInstance, converter, options) -> {
@@ -938,8 +1058,9 @@ public final class Converter {
 //        java.time.ZoneId = com.cedarsoftware.util.io.DEFAULT_FACTORY.ZoneIdFactory
 //        java.time.ZoneOffset = com.cedarsoftware.util.io.DEFAULT_FACTORY.ZoneOffsetFactory
 //        java.time.ZoneRegion = com.cedarsoftware.util.io.DEFAULT_FACTORY.ZoneIdFactory
+    }
 
-        // MonthDay conversions supported
+    private static void addMonthDayConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, MonthDay.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(MonthDay.class, MonthDay.class), Converter::identity);
         DEFAULT_FACTORY.put(pair(String.class, MonthDay.class), (fromInstance, converter, options) -> {
@@ -956,8 +1077,9 @@ public final class Converter {
                 return converter.fromValueMap(map, MonthDay.class, MetaUtils.setOf("month", "day"), options);
             }
         });
+    }
 
-        // Map conversions supported
+    private static void addMapConversions() {
         DEFAULT_FACTORY.put(pair(Void.class, Map.class), VoidConversion::toNull);
         DEFAULT_FACTORY.put(pair(Byte.class, Map.class), (fromInstance, converter, options) -> initMap(fromInstance));
         DEFAULT_FACTORY.put(pair(Short.class, Map.class), (fromInstance, converter, options) -> initMap(fromInstance));
@@ -1030,7 +1152,30 @@ public final class Converter {
 
     public Converter(ConverterOptions options) {
         this.options = options;
-        this.factory = new ConcurrentHashMap<>(DEFAULT_FACTORY);
+    }
+
+    /**
+     * Start counting convert() calls that are resolved by searching the source type's class hierarchy (for
+     * metrics).  Counting is off by default, so the conversion path does no extra work.  Calling it again is harmless.
+     */
+    public void countInheritedConversions() {
+        if (inheritedConversions == null) {
+            synchronized (this) {
+                if (inheritedConversions == null) {
+                    inheritedConversions = new LongAdder();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of convert() calls, since countInheritedConversions() was called, that had no direct conversion
+     * for the source and target types, and were resolved by searching the source type's class hierarchy.  Always 0
+     * if counting was never turned on.
+     */
+    public long getInheritedConversionCount() {
+        final LongAdder counter = inheritedConversions;
+        return counter == null ? 0 : counter.sum();
     }
 
     /**
@@ -1110,12 +1255,17 @@ public final class Converter {
         }
 
         // Direct Mapping
+        ensureConversionsTo(toType);
         Convert<?> converter = DEFAULT_FACTORY.get(pair(sourceType, toType));
         if (converter != null) {
             return (T) converter.convert(fromInstance, this, options);
         }
 
         // Try inheritance
+        final LongAdder counter = inheritedConversions;
+        if (counter != null) {
+            counter.increment();
+        }
         converter = getInheritedConverter(sourceType, toType);
         if (converter != null) {
             return (T) converter.convert(fromInstance, this, options);
@@ -1142,6 +1292,7 @@ public final class Converter {
         for (Class<?> toClass : targetTypes) {
             sourceClass = null;
             targetClass = null;
+            ensureConversionsTo(toClass);
 
             for (Class<?> fromClass : sourceTypes) {
                 if (DEFAULT_FACTORY.containsKey(pair(fromClass, toClass))) {
@@ -1255,6 +1406,7 @@ public final class Converter {
     public boolean isDirectConversionSupportedFor(Class<?> source, Class<?> target) {
         source = toPrimitiveWrapperClass(source);
         target = toPrimitiveWrapperClass(target);
+        ensureConversionsTo(target);
         return DEFAULT_FACTORY.containsKey(pair(source, target));
     }
 
@@ -1268,6 +1420,7 @@ public final class Converter {
     public boolean isConversionSupportedFor(Class<?> source, Class<?> target) {
         source = toPrimitiveWrapperClass(source);
         target = toPrimitiveWrapperClass(target);
+        ensureConversionsTo(target);
         if (DEFAULT_FACTORY.containsKey(pair(source, target))) {
             return true;
         }
@@ -1279,6 +1432,7 @@ public final class Converter {
      * and the Set contains all the target types (classes) that the source can be converted to.
      */
     public Map<Class<?>, Set<Class<?>>> allSupportedConversions() {
+        loadAllConversions();
         Map<Class<?>, Set<Class<?>>> toFrom = new TreeMap<>((c1, c2) -> c1.getName().compareToIgnoreCase(c2.getName()));
 
         for (Map.Entry<Class<?>, Class<?>> pairs : DEFAULT_FACTORY.keySet()) {
@@ -1292,6 +1446,7 @@ public final class Converter {
      * name, and the Set contains all the target class names that the source can be converted to.
      */
     public Map<String, Set<String>> getSupportedConversions() {
+        loadAllConversions();
         Map<String, Set<String>> toFrom = new TreeMap<>(String::compareToIgnoreCase);
 
         for (Map.Entry<Class<?>, Class<?>> pairs : DEFAULT_FACTORY.keySet()) {
@@ -1311,6 +1466,7 @@ public final class Converter {
     public Convert<?> addConversion(Class<?> source, Class<?> target, Convert<?> conversionFunction) {
         source = toPrimitiveWrapperClass(source);
         target = toPrimitiveWrapperClass(target);
+        ensureConversionsTo(target);
         return DEFAULT_FACTORY.put(pair(source, target), conversionFunction);
     }
 
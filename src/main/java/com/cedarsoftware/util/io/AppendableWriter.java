@@ -0,0 +1,68 @@
+package com.cedarsoftware.util.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Writer that appends straight to an Appendable (StringBuilder, CharBuffer, another Writer, ...), so JSON can be
+ * produced into a caller-supplied character destination without buffering or encoding it first.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class AppendableWriter extends Writer {
+    private final Appendable target;
+    private final StringBuilder builder;
+
+    AppendableWriter(Appendable target) {
+        this.target = target;
+        this.builder = target instanceof StringBuilder ? (StringBuilder) target : null;
+    }
+
+    public void write(int c) throws IOException {
+        if (builder != null) {
+            builder.append((char) c);
+        } else {
+            target.append((char) c);
+        }
+    }
+
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (builder != null) {
+            builder.append(cbuf, off, len);
+        } else {
+            target.append(CharBuffer.wrap(cbuf, off, len));
+        }
+    }
+
+    public void write(String str, int off, int len) throws IOException {
+        if (builder != null) {
+            builder.append(str, off, off + len);
+        } else {
+            target.append(str, off, off + len);
+        }
+    }
+
+    public void flush() throws IOException {
+        if (target instanceof java.io.Flushable) {
+            ((java.io.Flushable) target).flush();
+        }
+    }
+
+    public void close() {
+    }
+}
@@ -0,0 +1,193 @@
+package com.cedarsoftware.util.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Base64 (RFC 4648) encoding straight into a Writer, and incremental decoding one character at a time, so that
+ * large byte[] / ByteBuffer values can be written to and read from JSON without building an intermediate String
+ * of the whole value.  Encoding uses the standard alphabet with '=' padding.  Decoding also accepts the URL-safe
+ * alphabet, missing padding, and ignores whitespace (e.g. MIME line breaks).
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+public final class Base64Codec {
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final byte[] DECODE = new byte[128];
+    private static final int CHUNK_CHARS = 4096;                // written to the Writer in pieces of this size
+    private static final int CHUNK_BYTES = CHUNK_CHARS / 4 * 3;
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+        }
+        DECODE['-'] = 62;   // URL-safe alphabet
+        DECODE['_'] = 63;
+    }
+
+    private Base64Codec() {
+    }
+
+    /**
+     * Write bytes[offset, offset + length) to the output as Base64 characters (no surrounding quotes).
+     */
+    public static void encode(Writer output, byte[] bytes, int offset, int length) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        final char[] chunk = new char[Math.min(CHUNK_CHARS, (length + 2) / 3 * 4)];
+        final char[] alphabet = ALPHABET;
+        final int end = offset + length;
+        final int end3 = end - length % 3;
+        int n = 0;
+        int i = offset;
+
+        while (i < end3) {
+            final int bits = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+            i += 3;
+            chunk[n] = alphabet[bits >>> 18];
+            chunk[n + 1] = alphabet[(bits >>> 12) & 0x3F];
+            chunk[n + 2] = alphabet[(bits >>> 6) & 0x3F];
+            chunk[n + 3] = alphabet[bits & 0x3F];
+            n += 4;
+            if (n == chunk.length) {
+                output.write(chunk, 0, n);
+                n = 0;
+            }
+        }
+
+        if (i < end) {   // 1 or 2 trailing bytes
+            final int bits = (bytes[i] & 0xFF) << 16 | (i + 1 < end ? (bytes[i + 1] & 0xFF) << 8 : 0);
+            chunk[n] = alphabet[bits >>> 18];
+            chunk[n + 1] = alphabet[(bits >>> 12) & 0x3F];
+            chunk[n + 2] = i + 1 < end ? alphabet[(bits >>> 6) & 0x3F] : '=';
+            chunk[n + 3] = '=';
+            n += 4;
+        }
+        output.write(chunk, 0, n);
+    }
+
+    /**
+     * Write the remaining bytes of the buffer (position to limit) to the output as Base64 characters.  The
+     * buffer's position is not changed.
+     */
+    public static void encode(Writer output, ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            encode(output, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        final ByteBuffer source = buffer.duplicate();
+        final byte[] bytes = new byte[Math.min(CHUNK_BYTES, source.remaining())];
+        while (source.hasRemaining()) {   // every piece but the last is a multiple of 3 bytes, so no padding mid-stream
+            final int len = Math.min(bytes.length, source.remaining());
+            source.get(bytes, 0, len);
+            encode(output, bytes, 0, len);
+        }
+    }
+
+    /**
+     * @param chars Base64 characters.
+     * @return decoded bytes.
+     * @throws JsonIoException if the characters are not valid Base64.
+     */
+    public static byte[] decode(CharSequence chars) {
+        final int len = chars.length();
+        final Decoder decoder = new Decoder(len / 4 * 3 + 2);
+        for (int i = 0; i < len; i++) {
+            decoder.append(chars.charAt(i));
+        }
+        return decoder.toByteArray();
+    }
+
+    /**
+     * Incremental Base64 decoder - characters are fed one at a time (for example, directly from the JSON input),
+     * and the decoded bytes are accumulated in a growing byte[].
+     */
+    public static final class Decoder {
+        private byte[] bytes;
+        private int size = 0;
+        private int bits = 0;
+        private int count = 0;
+        private boolean padded = false;
+
+        /**
+         * @param expectedBytes int initial capacity of the decoded byte[].
+         */
+        public Decoder(int expectedBytes) {
+            bytes = new byte[Math.max(16, expectedBytes)];
+        }
+
+        /**
+         * Decode one more character.
+         * @throws JsonIoException if c is not a Base64 character, or data follows the '=' padding.
+         */
+        public void append(char c) {
+            final int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                if (c == '=') {
+                    padded = true;
+                } else if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                    throw new JsonIoException("Invalid base64 character: '" + c + "'");
+                }
+                return;
+            }
+            if (padded) {
+                throw new JsonIoException("Invalid base64 data, characters found after '=' padding");
+            }
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                ensureCapacity(3);
+                bytes[size] = (byte) (bits >> 16);
+                bytes[size + 1] = (byte) (bits >> 8);
+                bytes[size + 2] = (byte) bits;
+                size += 3;
+                bits = 0;
+                count = 0;
+            }
+        }
+
+        /**
+         * @return the decoded bytes (sized exactly).
+         * @throws JsonIoException if the input ended in the middle of a byte.
+         */
+        public byte[] toByteArray() {
+            if (count == 1) {
+                throw new JsonIoException("Invalid base64 data, incomplete final quantum");
+            }
+            if (count == 2) {
+                ensureCapacity(1);
+                bytes[size++] = (byte) (bits >> 4);
+            } else if (count == 3) {
+                ensureCapacity(2);
+                bytes[size++] = (byte) (bits >> 10);
+                bytes[size++] = (byte) (bits >> 2);
+            }
+            bits = 0;
+            count = 0;
+            return size == bytes.length ? bytes : Arrays.copyOf(bytes, size);
+        }
+
+        private void ensureCapacity(int more) {
+            if (size + more > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, size + more));
+            }
+        }
+    }
+}
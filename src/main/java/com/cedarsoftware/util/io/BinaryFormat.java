@@ -0,0 +1,79 @@
+package com.cedarsoftware.util.io;
+
+/**
+ * Tag values for the json-io binary encoding.  The binary form carries exactly the same data model as the
+ * JSON text form (objects, arrays, strings, longs, doubles, booleans, null, plus the @id, @ref, @type,
+ * @items and @keys meta-properties), so everything downstream of the parser (Resolver, ClassFactory,
+ * JsonClassReader) works unchanged.<br>
+ * <br>
+ * Layout differences from JSON text:
+ * <ul>
+ * <li>Field names and @type values are written once and then referred to by their index in a per-document
+ * string table.</li>
+ * <li>Integral numbers and @id/@ref values are zig-zag / unsigned varints.</li>
+ * <li>Doubles are the raw 8-byte IEEE 754 bits.</li>
+ * <li>Primitive arrays are packed (type code, count, then the values with no per-element tags).</li>
+ * <li>Values rendered by a custom JsonClassWriter (other than the built-in primitive writers) are embedded
+ * as a length-prefixed UTF-8 JSON fragment and parsed by the regular JsonParser on read.</li>
+ * </ul>
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class BinaryFormat {
+    static final byte MAGIC_0 = 'J';
+    static final byte MAGIC_1 = 'B';
+    static final byte VERSION = 1;
+
+    // Values
+    static final int NULL = 0x00;
+    static final int FALSE = 0x01;
+    static final int TRUE = 0x02;
+    static final int INTEGER = 0x03;        // zig-zag varint
+    static final int DOUBLE = 0x04;         // 8 bytes, IEEE 754 bits, big endian
+    static final int STRING = 0x05;         // varint byte length, UTF-8 bytes
+    static final int OBJECT = 0x06;         // entries..., END
+    static final int ARRAY = 0x07;          // values..., END
+    static final int END = 0x08;
+    static final int REF = 0x09;            // varint id
+    static final int PACKED = 0x0A;         // primitive code, varint count, values
+    static final int JSON_TEXT = 0x0B;      // varint byte length, UTF-8 JSON
+
+    // Object entries (END closes the object)
+    static final int KEY = 0x10;            // varint byte length, UTF-8 bytes (added to string table)
+    static final int KEY_INDEX = 0x11;      // varint string table index
+    static final int ID = 0x12;             // varint id
+    static final int TYPE = 0x13;           // varint byte length, UTF-8 bytes (added to string table)
+    static final int TYPE_INDEX = 0x14;     // varint string table index
+
+    // Packed primitive array codes (JVM descriptor letters)
+    static final int PACKED_BOOLEAN = 'Z';
+    static final int PACKED_BYTE = 'B';
+    static final int PACKED_SHORT = 'S';
+    static final int PACKED_INT = 'I';
+    static final int PACKED_LONG = 'J';
+    static final int PACKED_FLOAT = 'F';
+    static final int PACKED_DOUBLE = 'D';
+
+    /**
+     * Upper bound on string table entries.  Once reached, keys and type names are still written in full,
+     * but no longer remembered, which keeps documents with unbounded distinct Map keys from growing the table.
+     */
+    static final int MAX_STRING_TABLE = 1 << 16;
+
+    private BinaryFormat() {
+    }
+}
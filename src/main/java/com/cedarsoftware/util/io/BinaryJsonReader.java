@@ -0,0 +1,585 @@
+package com.cedarsoftware.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.cedarsoftware.util.FastByteArrayInputStream;
+import com.cedarsoftware.util.io.factory.ArrayFactory;
+import com.cedarsoftware.util.reflect.Injector;
+import lombok.Getter;
+
+/**
+ * Reads documents written by {@link BinaryJsonWriter}.  The binary input is decoded into exactly the same
+ * representation the JsonParser produces from JSON text (JsonObject, Object[], Long, Double, String, Boolean,
+ * null - with @id / @ref / @type already applied), and is then handed to the same Resolver, so ClassFactory,
+ * JsonClassReader, MissingFieldHandler and every other ReadOptions setting behave as they do for JSON.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+public class BinaryJsonReader implements Closeable {
+    private static final int CHUNK = 1 << 16;    // first allocation for a value whose length can not be verified yet
+
+    private final InputStream in;
+    private final byte[] buf = new byte[8192];
+    private int pos = 0;
+    private int limit = 0;
+
+    private final JsonReader reader;
+    private final Resolver resolver;
+    @Getter
+    private final ReadOptions readOptions;
+    private final ReferenceTracker references;
+    private final int maxParseDepth;
+    private int curParseDepth = 0;
+
+    // Resource budgets, as JsonParser enforces them for JSON text.  Every length read from the input is checked
+    // against the bytes that can still be left in it before anything is allocated for it.
+    private final int maxStringLength;
+    private final int maxArrayLength;
+    private final int maxObjectCount;
+    private final int maxIdCount;
+    private final long maxDocumentBytes;
+    private final boolean sizeKnown;   // in-memory input: available() is exactly the number of bytes not yet read
+    private long filled = 0;           // bytes read from the InputStream so far
+    private long docStart = 0;         // input offset of the current document
+    private int objectCount = 0;
+    private int idCount = 0;
+
+    // Per-document string table (field names and @type values), with the Class resolved for each @type entry.
+    private final List<String> strings = new ArrayList<>();
+    private final List<Class<?>> types = new ArrayList<>();
+
+    /**
+     * @param in InputStream supplying binary json-io content.
+     * @param readOptions Read Options to turn on/off various feature options, or supply additional ClassFactory data,
+     *                    etc. If null, readOptions will use all defaults.
+     */
+    public BinaryJsonReader(InputStream in, ReadOptions readOptions) {
+        this.in = in;
+        this.reader = new JsonReader(readOptions);
+        this.readOptions = reader.getReadOptions();
+        this.resolver = reader.getResolver();
+        this.references = resolver.getReferences();
+        this.maxParseDepth = this.readOptions.getMaxDepth();
+        this.maxStringLength = this.readOptions.getMaxStringLength();
+        this.maxArrayLength = this.readOptions.getMaxArrayLength();
+        this.maxObjectCount = this.readOptions.getMaxObjectCount();
+        this.maxIdCount = this.readOptions.getMaxIdCount();
+        this.maxDocumentBytes = this.readOptions.getMaxDocumentBytes();
+        this.sizeKnown = in instanceof FastByteArrayInputStream || in instanceof ByteArrayInputStream;
+    }
+
+    /**
+     * Read the next binary document and convert it to Java objects (or JsonObjects, depending on the ReadOptions).
+     * @param rootType Class of the root type of object that will be returned. Can be null.
+     * @return the root of the object graph.
+     */
+    public <T> T readObject(Class<T> rootType) {
+        Object value;
+        try {
+            docStart = position();
+            if (read() != BinaryFormat.MAGIC_0 || read() != BinaryFormat.MAGIC_1) {
+                error("Input is not json-io binary content");
+            }
+            int version = read();
+            if (version != BinaryFormat.VERSION) {
+                error("Unsupported json-io binary version: " + version);
+            }
+            strings.clear();
+            types.clear();
+            objectCount = 0;
+            idCount = 0;
+            value = readValue(read(), rootType);
+            if (position() - docStart > maxDocumentBytes) {
+                error("Maximum document size exceeded: " + maxDocumentBytes + " bytes");
+            }
+        } catch (JsonIoException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonIoException("error parsing binary JSON value", e);
+        }
+        return reader.toJavaObjects(value, rootType);
+    }
+
+    private Object readValue(int tag, Class<?> suggestedClass) throws IOException {
+        if (curParseDepth > maxParseDepth) {
+            error("Maximum parsing depth exceeded");
+        }
+
+        switch (tag) {
+            case BinaryFormat.NULL:
+                return null;
+            case BinaryFormat.FALSE:
+                return false;
+            case BinaryFormat.TRUE:
+                return true;
+            case BinaryFormat.INTEGER:
+                return readZigZag();
+            case BinaryFormat.DOUBLE:
+                return Double.longBitsToDouble(readFixed64());
+            case BinaryFormat.STRING:
+                return readUtf8();
+            case BinaryFormat.OBJECT:
+                return readJsonObject(suggestedClass);
+            case BinaryFormat.ARRAY:
+                return readArray(suggestedClass);
+            case BinaryFormat.REF:
+                JsonObject ref = new JsonObject();
+                ref.setHintType(suggestedClass);
+                ref.setReferenceId(readVarLong());
+                ref.setFinished();
+                return ref;
+            case BinaryFormat.PACKED:
+                return readPackedArray(suggestedClass);
+            case BinaryFormat.JSON_TEXT:
+                return readJsonText(suggestedClass);
+            default:
+                return error("Unknown binary JSON value tag: " + tag);
+        }
+    }
+
+    private Object readJsonObject(Class<?> suggestedClass) throws IOException {
+        countObject();
+        int tag = read();
+        if (tag == BinaryFormat.END) {   // empty object
+            return new JsonObject();
+        }
+
+        JsonObject jObj = new JsonObject();
+        jObj.setHintType(suggestedClass);
+        Map<String, Injector> injectors = readOptions.getDeepInjectorMap(suggestedClass);
+        ++curParseDepth;
+
+        do {
+            switch (tag) {
+                case BinaryFormat.ID:
+                    if (++idCount > maxIdCount) {
+                        error("Maximum " + JsonObject.ID + " count exceeded: " + maxIdCount);
+                    }
+                    Long id = readVarLong();
+                    references.put(id, jObj);
+                    jObj.setId(id);
+                    break;
+
+                case BinaryFormat.TYPE:
+                    int entry = strings.size();
+                    Class<?> type = loadType(readTableString());
+                    if (entry < types.size()) {
+                        types.set(entry, type);
+                    }
+                    jObj.setJavaType(type);
+                    injectors = injectorsFor(type, injectors);
+                    break;
+
+                case BinaryFormat.TYPE_INDEX:
+                    int index = (int) readVarLong();
+                    Class<?> cached = types.get(index);
+                    if (cached == null) {
+                        cached = loadType(strings.get(index));
+                        types.set(index, cached);
+                    }
+                    jObj.setJavaType(cached);
+                    injectors = injectorsFor(cached, injectors);
+                    break;
+
+                case BinaryFormat.KEY:
+                case BinaryFormat.KEY_INDEX:
+                    String field = tag == BinaryFormat.KEY ? readTableString() : strings.get((int) readVarLong());
+                    Injector injector = injectors.get(field);
+                    jObj.put(field, readValue(read(), injector == null ? null : injector.getType()));
+                    break;
+
+                default:
+                    error("Unknown binary JSON object entry tag: " + tag);
+            }
+            tag = read();
+        } while (tag != BinaryFormat.END);
+
+        --curParseDepth;
+
+        if (jObj.isLogicalPrimitive() && readOptions.isReturningJsonObjects()) {
+            jObj.isFinished = true;
+            return jObj.getPrimitiveValue(resolver.getConverter());
+        }
+        return jObj;
+    }
+
+    /**
+     * The writer puts @type ahead of the fields, so the fields are matched against the @type class.
+     */
+    private Map<String, Injector> injectorsFor(Class<?> type, Map<String, Injector> injectors) {
+        return type == null ? injectors : readOptions.getDeepInjectorMap(type);
+    }
+
+    private Object[] readArray(Class<?> suggestedClass) throws IOException {
+        countObject();
+        final List<Object> array = new ArrayList<>();
+        // Elements are suggested the component type of a (single dimension) array, as the JsonParser does
+        final Class<?> elementClass = suggestedClass != null && suggestedClass.isArray() &&
+                !suggestedClass.getComponentType().isArray() ? suggestedClass.getComponentType() : null;
+        ++curParseDepth;
+
+        int tag;
+        while ((tag = read()) != BinaryFormat.END) {
+            if (array.size() == maxArrayLength) {
+                error("Maximum array length exceeded: " + maxArrayLength);
+            }
+            array.add(readValue(tag, elementClass));
+        }
+
+        --curParseDepth;
+        return array.toArray();
+    }
+
+    private boolean isPlainArray(Class<?> arrayType) {
+        if (readOptions.isReturningJsonObjects() || readOptions.getCustomReader(arrayType) != null) {
+            return false;
+        }
+        // The built-in primitive array factories convert the items to exactly the array built here
+        JsonReader.ClassFactory factory = readOptions.getClassFactory(arrayType);
+        return factory == null || factory instanceof ArrayFactory;
+    }
+
+    /**
+     * @param suggestedClass declared type of the field the array is read for.  When it is the primitive array type
+     *                       that was packed, the array is built directly; otherwise the values are boxed into an
+     *                       Object[] (Long, Double, Boolean), as the JsonParser would produce them.
+     */
+    private Object readPackedArray(Class<?> suggestedClass) throws IOException {
+        countObject();
+        final int code = read();
+        final Class<?> arrayType;
+        final int len;
+        switch (code) {
+            case BinaryFormat.PACKED_DOUBLE:
+                arrayType = double[].class;
+                len = readLength(8);
+                break;
+            case BinaryFormat.PACKED_FLOAT:
+                arrayType = float[].class;
+                len = readLength(4);
+                break;
+            case BinaryFormat.PACKED_INT:
+                arrayType = int[].class;
+                len = readLength(1);
+                break;
+            case BinaryFormat.PACKED_LONG:
+                arrayType = long[].class;
+                len = readLength(1);
+                break;
+            case BinaryFormat.PACKED_SHORT:
+                arrayType = short[].class;
+                len = readLength(1);
+                break;
+            case BinaryFormat.PACKED_BYTE:
+                arrayType = byte[].class;
+                len = readLength(1);
+                break;
+            case BinaryFormat.PACKED_BOOLEAN:
+                arrayType = boolean[].class;
+                len = readLength(1);
+                break;
+            default:
+                error("Unknown packed array type: " + code);
+                return null;
+        }
+        if (len > maxArrayLength) {
+            error("Maximum array length exceeded: " + maxArrayLength);
+        }
+
+        if (arrayType == suggestedClass && isPlainArray(arrayType)) {
+            return readPrimitiveArray(code, len);
+        }
+
+        Object[] items = new Object[capacity(len)];
+        for (int i = 0; i < len; i++) {
+            if (i == items.length) {
+                items = Arrays.copyOf(items, grow(i, len));
+            }
+            switch (code) {
+                case BinaryFormat.PACKED_BYTE:
+                    items[i] = (long) (byte) read();
+                    break;
+                case BinaryFormat.PACKED_BOOLEAN:
+                    items[i] = read() != 0;
+                    break;
+                case BinaryFormat.PACKED_DOUBLE:
+                    items[i] = Double.longBitsToDouble(readFixed64());
+                    break;
+                case BinaryFormat.PACKED_FLOAT:
+                    items[i] = (double) Float.intBitsToFloat(readFixed32());
+                    break;
+                default:
+                    items[i] = readZigZag();
+            }
+        }
+        return items;
+    }
+
+    private Object readPrimitiveArray(int code, int len) throws IOException {
+        switch (code) {
+            case BinaryFormat.PACKED_BYTE:
+                return readBytes(len);
+            case BinaryFormat.PACKED_BOOLEAN:
+                boolean[] booleans = new boolean[capacity(len)];
+                for (int i = 0; i < len; i++) {
+                    if (i == booleans.length) {
+                        booleans = Arrays.copyOf(booleans, grow(i, len));
+                    }
+                    booleans[i] = read() != 0;
+                }
+                return booleans;
+            case BinaryFormat.PACKED_SHORT:
+                short[] shorts = new short[capacity(len)];
+                for (int i = 0; i < len; i++) {
+                    if (i == shorts.length) {
+                        shorts = Arrays.copyOf(shorts, grow(i, len));
+                    }
+                    shorts[i] = (short) readZigZag();
+                }
+                return shorts;
+            case BinaryFormat.PACKED_INT:
+                int[] ints = new int[capacity(len)];
+                for (int i = 0; i < len; i++) {
+                    if (i == ints.length) {
+                        ints = Arrays.copyOf(ints, grow(i, len));
+                    }
+                    ints[i] = (int) readZigZag();
+                }
+                return ints;
+            case BinaryFormat.PACKED_LONG:
+                long[] longs = new long[capacity(len)];
+                for (int i = 0; i < len; i++) {
+                    if (i == longs.length) {
+                        longs = Arrays.copyOf(longs, grow(i, len));
+                    }
+                    longs[i] = readZigZag();
+                }
+                return longs;
+            case BinaryFormat.PACKED_FLOAT:
+                float[] floats = new float[capacity(len)];
+                for (int i = 0; i < len; i++) {
+                    if (i == floats.length) {
+                        floats = Arrays.copyOf(floats, grow(i, len));
+                    }
+                    floats[i] = Float.intBitsToFloat(readFixed32());
+                }
+                return floats;
+            default:
+                double[] doubles = new double[capacity(len)];
+                for (int i = 0; i < len; i++) {
+                    if (i == doubles.length) {
+                        doubles = Arrays.copyOf(doubles, grow(i, len));
+                    }
+                    doubles[i] = Double.longBitsToDouble(readFixed64());
+                }
+                return doubles;
+        }
+    }
+
+    private void countObject() {
+        if (++objectCount > maxObjectCount) {
+            error("Maximum object count exceeded: " + maxObjectCount);
+        }
+    }
+
+    /**
+     * Values written by custom JsonClassWriters are embedded as JSON text, parsed here with the regular JsonParser
+     * against this reader's Resolver (so any @id / @ref inside the fragment resolve normally).
+     */
+    private Object readJsonText(Class<?> suggestedClass) throws IOException {
+        final int len = readLength(1);
+        final byte[] bytes = readBytes(len);
+        return new JsonParser(InMemoryReader.ofUtf8(bytes, 0, len), resolver).readValue(suggestedClass);
+    }
+
+    private Class<?> loadType(String name) {
+        Class<?> clazz = JsonParser.resolveType(name, readOptions);
+        if (clazz == null) {
+            error("Class: " + name + " not defined.");
+        }
+        return clazz;
+    }
+
+    private String readTableString() throws IOException {
+        String s = readUtf8();
+        if (strings.size() < BinaryFormat.MAX_STRING_TABLE) {
+            strings.add(s);
+            types.add(null);
+        }
+        return s;
+    }
+
+    private String readUtf8() throws IOException {
+        final int len = readLength(1);
+        if (len / 3 > maxStringLength) {    // at most 3 UTF-8 bytes per char
+            error("Maximum string length exceeded: " + maxStringLength);
+        }
+        final String s;
+        if (len <= limit - pos) {
+            s = decode(buf, pos, len);
+            pos += len;
+        } else {
+            s = decode(readBytes(len), 0, len);
+        }
+        if (s.length() > maxStringLength) {
+            error("Maximum string length exceeded: " + maxStringLength);
+        }
+        return s;
+    }
+
+    private static String decode(byte[] bytes, int offset, int len) {
+        for (int i = offset, end = offset + len; i < end; i++) {
+            if (bytes[i] < 0) {
+                return new String(bytes, offset, len, StandardCharsets.UTF_8);
+            }
+        }
+        return new String(bytes, offset, len, StandardCharsets.ISO_8859_1);   // ASCII
+    }
+
+    private long readZigZag() throws IOException {
+        long v = readVarLong();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = read();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        error("Malformed varint");
+        return 0;
+    }
+
+    /**
+     * Read the length of a value whose items take at least bytesPerItem bytes each, rejecting it if they can not
+     * fit in what is left of the input (in-memory input) or of maxDocumentBytes.
+     */
+    private int readLength(int bytesPerItem) throws IOException {
+        long len = readVarLong();
+        if (len < 0 || len > Integer.MAX_VALUE) {
+            error("Invalid length: " + len);
+        }
+        if (len * bytesPerItem > bytesLeft()) {
+            error("Invalid length: " + len + ", more than the bytes left in the input");
+        }
+        return (int) len;
+    }
+
+    /**
+     * @return the most bytes the rest of the current document can take.
+     */
+    private long bytesLeft() throws IOException {
+        final int buffered = limit - pos;
+        final long left = maxDocumentBytes - (position() - docStart);
+        return sizeKnown ? Math.min(left, buffered + (long) in.available()) : left;
+    }
+
+    /**
+     * @return input offset of the next byte to be read.
+     */
+    private long position() {
+        return filled - (limit - pos);
+    }
+
+    /**
+     * @return first allocation for len items.  When the input size is unknown, len is only an upper bound, so it
+     * starts small and grows as the items arrive.
+     */
+    private int capacity(int len) {
+        return sizeKnown ? len : Math.min(len, CHUNK);
+    }
+
+    private static int grow(int size, int len) {
+        return (int) Math.min(len, (long) size << 1);
+    }
+
+    private int readFixed32() throws IOException {
+        return read() << 24 | read() << 16 | read() << 8 | read();
+    }
+
+    private long readFixed64() throws IOException {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | read();
+        }
+        return bits;
+    }
+
+    private byte[] readBytes(int len) throws IOException {
+        byte[] bytes = new byte[capacity(len)];
+        int copied = 0;
+        while (copied < len) {
+            if (pos == limit) {
+                fill();
+            }
+            if (copied == bytes.length) {
+                bytes = Arrays.copyOf(bytes, grow(copied, len));
+            }
+            int n = Math.min(bytes.length - copied, limit - pos);
+            System.arraycopy(buf, pos, bytes, copied, n);
+            pos += n;
+            copied += n;
+        }
+        return bytes;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            fill();
+        }
+        return buf[pos++] & 0xFF;
+    }
+
+    private void fill() throws IOException {
+        if (filled - docStart >= maxDocumentBytes) {
+            error("Maximum document size exceeded: " + maxDocumentBytes + " bytes");
+        }
+        int n = in.read(buf, 0, buf.length);
+        if (n <= 0) {
+            error("EOF reached prematurely");
+        }
+        filled += n;
+        pos = 0;
+        limit = n;
+    }
+
+    private Object error(String msg) {
+        throw new JsonIoException(msg);
+    }
+
+    public void close() {
+        try {
+            if (in != null) {
+                in.close();
+            }
+        } catch (Exception e) {
+            throw new JsonIoException("Unable to close input", e);
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package com.cedarsoftware.util.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.cedarsoftware.util.FastByteArrayOutputStream;
+import com.cedarsoftware.util.io.writers.ByteArrayWriter;
+import com.cedarsoftware.util.io.writers.LongWriter;
+
+/**
+ * Writes a Java object graph in the json-io binary encoding (see {@link BinaryFormat}).  The graph is walked with
+ * the same rules as {@link JsonWriter}: references are traced up front so that only multiply-referenced objects
+ * receive an @id, @type is emitted under the same conditions, fields come from the same Accessors, and the
+ * WriteOptions (skipNullFields, showTypeInfo, enum handling, ...) are honored.  Values that have a custom
+ * JsonClassWriter are rendered by that writer, so any registered custom writer keeps working; the built-in
+ * primitive writers are encoded natively instead of as text.<br>
+ * <br>
+ * Each call to {@link #write(Object)} produces one self-contained document, readable by {@link BinaryJsonReader}.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+public class BinaryJsonWriter extends ObjectGraphWriter implements Closeable, Flushable {
+    private static final Object NOT_NATIVE = new Object();
+
+    private final OutputStream out;
+    private final byte[] buf = new byte[8192];
+    private int pos = 0;
+
+    // The JsonWriter supplies reference tracing and renders the values embedded as JSON text.  It shares this
+    // writer's reference table, so ids stay consistent across both encodings.
+    private final FastByteArrayOutputStream fragment = new FastByteArrayOutputStream(256);
+    private final JsonWriter textWriter;
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    /**
+     * @param out OutputStream to which the binary output will be written.
+     * @param writeOptions WriteOptions containing many feature options to control the output.  Can be null,
+     *                     in which case the default WriteOptions will be used.
+     */
+    public BinaryJsonWriter(OutputStream out, WriteOptions writeOptions) {
+        super(writeOptions, new ReferenceTable());
+        this.out = out;
+        this.textWriter = new JsonWriter(fragment, getWriteOptions(), references);
+    }
+
+    /**
+     * Write the passed in Java object as one binary json-io document.
+     * @param obj Object any Java Object.
+     */
+    public void write(Object obj) {
+        textWriter.traceReferences(obj);
+        try {
+            writeByte(BinaryFormat.MAGIC_0);
+            writeByte(BinaryFormat.MAGIC_1);
+            writeByte(BinaryFormat.VERSION);
+            writeImpl(obj, true);
+        } catch (JsonIoException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonIoException("Error writing object to binary JSON:", e);
+        } finally {
+            references.clear();
+            strings.clear();
+        }
+        flush();
+    }
+
+    void startValue(Object obj) {
+    }
+
+    boolean writeCustomWritten(Object obj, boolean showType) throws IOException {
+        final Class<?> c = obj.getClass();
+        if (writeOptions.isNotCustomWrittenClass(c)) {
+            return false;
+        }
+        JsonWriter.JsonClassWriter writer = writeOptions.getCustomWriter(c);
+        if (writer == null || writer instanceof ByteArrayWriter) {   // byte[] is packed natively, smaller than Base64
+            return false;
+        }
+        writeCustom(writer, obj, showType);
+        return true;
+    }
+
+    boolean writeJsonObject(Object obj, boolean showType) throws IOException {
+        if (!(obj instanceof JsonObject)) {
+            return false;
+        }
+        writeJsonText(obj, showType);   // Map-of-Maps input is rare on this path - let the JSON writer render it.
+        return true;
+    }
+
+    private void writeCustom(JsonWriter.JsonClassWriter writer, Object o, boolean showType) throws IOException {
+        final Object primitive = nativePrimitiveForm(writer, o);
+        if (primitive == NOT_NATIVE) {
+            writeJsonText(o, showType);
+            return;
+        }
+
+        if (writeOptionalReference(o)) {
+            return;
+        }
+
+        boolean referenced = references.isReferenced(o);
+        if ((!referenced && !showType) || writer instanceof Writers.JsonStringWriter) {
+            writeNative(primitive);
+            return;
+        }
+
+        beginObject();
+        if (referenced) {
+            writeId(references.getId(o));
+        }
+        if (showType) {
+            writeType(o.getClass().getName());
+        }
+        writeFieldName(((Writers.PrimitiveTypeWriter) writer).getKey());
+        writeNative(primitive);
+        endObject();
+    }
+
+    /**
+     * The built-in writers for JSON primitive-like values are encoded natively.  Any other writer (including
+     * user supplied subclasses of the built-in writers) is given the chance to render its JSON.
+     * @return the Boolean, Long, Double, String (or null) equivalent of what the writer emits in primitive form,
+     * or NOT_NATIVE.
+     */
+    private Object nativePrimitiveForm(JsonWriter.JsonClassWriter writer, Object o) {
+        final Class<?> wc = writer.getClass();
+        if (wc == Writers.JsonStringWriter.class || wc == Writers.PrimitiveUtf8StringWriter.class) {
+            return o.toString();
+        } else if (wc == LongWriter.class) {
+            return ((Number) o).longValue();
+        } else if (wc == Writers.DoubleWriter.class || wc == Writers.FloatWriter.class) {
+            return floatingPoint(((Number) o).doubleValue());
+        } else if (wc == Writers.PrimitiveValueWriter.class) {
+            if (o instanceof Boolean) {
+                return o;
+            } else if (o instanceof AtomicBoolean) {
+                return ((AtomicBoolean) o).get();
+            } else if (o instanceof Number) {
+                return ((Number) o).longValue();
+            }
+        } else if (wc == Writers.CharacterWriter.class) {
+            return String.valueOf((char) (Character) o);
+        } else if (wc == Writers.EnumsAsStringWriter.class) {
+            return ((Enum<?>) o).name();
+        } else if (wc == Writers.EnumsAsOrdinalWriter.class) {
+            return (long) ((Enum<?>) o).ordinal();
+        } else if (wc == Writers.ClassWriter.class) {
+            return ((Class<?>) o).getName();
+        }
+        return NOT_NATIVE;
+    }
+
+    private Object floatingPoint(double d) {
+        if (!writeOptions.isAllowNanAndInfinity() && (Double.isNaN(d) || Double.isInfinite(d))) {
+            return null;
+        }
+        return d;
+    }
+
+    /**
+     * Render the value with the JsonWriter and embed the resulting JSON.  The JsonWriter shares this writer's
+     * reference table, so it emits @id / @ref exactly as it would inside a JSON document.
+     */
+    private void writeJsonText(Object o, boolean showType) throws IOException {
+        fragment.reset();
+        textWriter.clearTypeTokens();   // each fragment is parsed by its own JsonParser
+        textWriter.writeImpl(o, showType);
+        textWriter.flush();
+        final int len = fragment.size();
+        writeByte(BinaryFormat.JSON_TEXT);
+        writeVarLong(len);
+        writeBytes(fragment.getBuffer(), 0, len);
+    }
+
+    void writePrimitiveArray(Object array) throws IOException {
+        final Class<?> arrayType = array.getClass();
+        writeByte(BinaryFormat.PACKED);
+        if (int[].class == arrayType) {
+            int[] ints = (int[]) array;
+            writeByte(BinaryFormat.PACKED_INT);
+            writeVarLong(ints.length);
+            for (int i : ints) {
+                writeZigZag(i);
+            }
+        } else if (long[].class == arrayType) {
+            long[] longs = (long[]) array;
+            writeByte(BinaryFormat.PACKED_LONG);
+            writeVarLong(longs.length);
+            for (long l : longs) {
+                writeZigZag(l);
+            }
+        } else if (double[].class == arrayType) {
+            double[] doubles = (double[]) array;
+            writeByte(BinaryFormat.PACKED_DOUBLE);
+            writeVarLong(doubles.length);
+            for (double d : doubles) {
+                writeFixed64(Double.doubleToRawLongBits(d));
+            }
+        } else if (byte[].class == arrayType) {
+            byte[] bytes = (byte[]) array;
+            writeByte(BinaryFormat.PACKED_BYTE);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        } else if (boolean[].class == arrayType) {
+            boolean[] booleans = (boolean[]) array;
+            writeByte(BinaryFormat.PACKED_BOOLEAN);
+            writeVarLong(booleans.length);
+            for (boolean b : booleans) {
+                writeByte(b ? 1 : 0);
+            }
+        } else if (short[].class == arrayType) {
+            short[] shorts = (short[]) array;
+            writeByte(BinaryFormat.PACKED_SHORT);
+            writeVarLong(shorts.length);
+            for (short s : shorts) {
+                writeZigZag(s);
+            }
+        } else if (float[].class == arrayType) {
+            float[] floats = (float[]) array;
+            writeByte(BinaryFormat.PACKED_FLOAT);
+            writeVarLong(floats.length);
+            for (float f : floats) {
+                int bits = Float.floatToRawIntBits(f);
+                ensure(4);
+                buf[pos++] = (byte) (bits >>> 24);
+                buf[pos++] = (byte) (bits >>> 16);
+                buf[pos++] = (byte) (bits >>> 8);
+                buf[pos++] = (byte) bits;
+            }
+        } else {
+            throw new JsonIoException("Unsupported primitive array type: " + arrayType.getName());
+        }
+    }
+
+    void writePrimitive(Object o) throws IOException {
+        if (o instanceof Double || o instanceof Float) {
+            writeNative(floatingPoint(((Number) o).doubleValue()));
+        } else if (o instanceof Number) {
+            writeNative(((Number) o).longValue());
+        } else if (o instanceof Character) {
+            writeNative(o.toString());
+        } else {
+            writeNative(o);
+        }
+    }
+
+    private void writeNative(Object value) throws IOException {
+        if (value == null) {
+            writeByte(BinaryFormat.NULL);
+        } else if (value instanceof Boolean) {
+            writeByte((Boolean) value ? BinaryFormat.TRUE : BinaryFormat.FALSE);
+        } else if (value instanceof Long) {
+            writeInteger((Long) value);
+        } else if (value instanceof Double) {
+            writeByte(BinaryFormat.DOUBLE);
+            writeFixed64(Double.doubleToRawLongBits((Double) value));
+        } else {
+            writeString((String) value);
+        }
+    }
+
+    void beginObject() throws IOException {
+        writeByte(BinaryFormat.OBJECT);
+    }
+
+    void endObject() throws IOException {
+        writeByte(BinaryFormat.END);
+    }
+
+    void beginArray() throws IOException {
+        writeByte(BinaryFormat.ARRAY);
+    }
+
+    void endArray() throws IOException {
+        writeByte(BinaryFormat.END);
+    }
+
+    void separator() {
+    }
+
+    void writeId(long id) throws IOException {
+        writeByte(BinaryFormat.ID);
+        writeVarLong(id);
+    }
+
+    void writeType(String name) throws IOException {
+        if (writeOptions.isNeverShowingType()) {
+            return;
+        }
+        writeTableString(BinaryFormat.TYPE, BinaryFormat.TYPE_INDEX, name);
+    }
+
+    void writeRef(long id) throws IOException {
+        writeByte(BinaryFormat.REF);
+        writeVarLong(id);
+    }
+
+    void writeFieldName(String name) throws IOException {
+        writeKey(name);
+    }
+
+    void writeMetaKey(String key) throws IOException {
+        writeKey(key);
+    }
+
+    void writeKey(String key) throws IOException {
+        writeTableString(BinaryFormat.KEY, BinaryFormat.KEY_INDEX, key);
+    }
+
+    void writeNull() throws IOException {
+        writeByte(BinaryFormat.NULL);
+    }
+
+    void writeInteger(long value) throws IOException {
+        writeByte(BinaryFormat.INTEGER);
+        writeZigZag(value);
+    }
+
+    private void writeTableString(int tag, int indexTag, String s) throws IOException {
+        Integer index = strings.get(s);
+        if (index != null) {
+            writeByte(indexTag);
+            writeVarLong(index);
+            return;
+        }
+        if (strings.size() < BinaryFormat.MAX_STRING_TABLE) {
+            strings.put(s, strings.size());
+        }
+        writeByte(tag);
+        writeUtf8(s);
+    }
+
+    void writeString(String s) throws IOException {
+        writeByte(BinaryFormat.STRING);
+        writeUtf8(s);
+    }
+
+    private void writeUtf8(String s) throws IOException {
+        final int len = s.length();
+        int i = 0;
+        while (i < len && s.charAt(i) < 0x80) {
+            i++;
+        }
+
+        if (i < len) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+            return;
+        }
+
+        writeVarLong(len);
+        for (i = 0; i < len; ) {   // ASCII - copy chars straight into the buffer
+            if (pos == buf.length) {
+                flushBuffer();
+            }
+            int end = Math.min(len, i + buf.length - pos);
+            while (i < end) {
+                buf[pos++] = (byte) s.charAt(i++);
+            }
+        }
+    }
+
+    private void writeZigZag(long value) throws IOException {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+    }
+
+    private void writeFixed64(long bits) throws IOException {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buf[pos++] = (byte) (bits >>> shift);
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (pos == buf.length) {
+            flushBuffer();
+        }
+        buf[pos++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int len) throws IOException {
+        if (len > buf.length - pos) {
+            flushBuffer();
+            if (len > buf.length) {
+                out.write(bytes, offset, len);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buf, pos, len);
+        pos += len;
+    }
+
+    private void ensure(int n) throws IOException {
+        if (buf.length - pos < n) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+    }
+
+    public void flush() {
+        try {
+            flushBuffer();
+            out.flush();
+        } catch (IOException e) {
+            throw new JsonIoException("Unable to flush binary JSON output", e);
+        }
+    }
+
+    public void close() {
+        try {
+            flushBuffer();
+            out.close();
+        } catch (Exception ignore) {
+        }
+    }
+}
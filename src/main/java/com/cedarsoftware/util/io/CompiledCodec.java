@@ -0,0 +1,30 @@
+package com.cedarsoftware.util.io;
+
+/**
+ * A JsonClassWriter and ClassFactory pair for exactly one class, generated by JsonIoCompiledProcessor for classes
+ * annotated with @JsonIoCompiled.  Codecs listed in META-INF/services/com.cedarsoftware.util.io.CompiledCodec are
+ * loaded with ServiceLoader and registered as base custom writers and class factories.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+public interface CompiledCodec extends JsonWriter.JsonClassWriter, JsonReader.ClassFactory {
+    /**
+     * @return Class read and written by this codec.  Instances of subclasses are handed back to the reflective
+     * code path.
+     */
+    Class<?> getType();
+}
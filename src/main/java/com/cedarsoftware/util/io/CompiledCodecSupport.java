@@ -0,0 +1,183 @@
+package com.cedarsoftware.util.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.cedarsoftware.util.reflect.Accessor;
+import com.cedarsoftware.util.reflect.Injector;
+
+/**
+ * Runtime support for the codecs generated by JsonIoCompiledProcessor: loading them, converting parsed JSON values
+ * to field types, and the reflective fallback for subclasses of a compiled class and for options that change its
+ * fields.  Not intended to be called from hand-written code.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+public final class CompiledCodecSupport {
+    private static final Logger LOG = Logger.getLogger(CompiledCodecSupport.class.getName());
+    private static volatile List<CompiledCodec> codecs;
+
+    private CompiledCodecSupport() {
+    }
+
+    /**
+     * @return the CompiledCodecs listed in META-INF/services/com.cedarsoftware.util.io.CompiledCodec, loaded once.
+     */
+    static List<CompiledCodec> getCodecs() {
+        List<CompiledCodec> result = codecs;
+        if (result == null) {
+            synchronized (CompiledCodecSupport.class) {
+                result = codecs;
+                if (result == null) {
+                    result = loadCodecs();
+                    codecs = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<CompiledCodec> loadCodecs() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = CompiledCodec.class.getClassLoader();
+        }
+        List<CompiledCodec> list = new ArrayList<>();
+        Iterator<CompiledCodec> i = ServiceLoader.load(CompiledCodec.class, classLoader).iterator();
+        while (true) {
+            try {
+                if (!i.hasNext()) {
+                    break;
+                }
+                list.add(i.next());
+            } catch (ServiceConfigurationError e) {
+                LOG.log(Level.WARNING, "Compiled codec could not be loaded, the class will be read and written reflectively", e);
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return true if the reflective writer would write exactly the named fields of c, in the same order, each read
+     * from the field itself or its standard getter.  false when field exclusions, inclusions, filters or non-standard
+     * accessors in the WriteOptions change what is written, in which case the codec writes through writeFields().
+     */
+    public static boolean writesFields(Class<?> c, String[] names, WriterContext context) {
+        List<Accessor> accessors = context.getWriteOptions().getAccessorsForClass(c);
+        if (accessors.size() != names.length) {
+            return false;
+        }
+        for (int i = 0; i < names.length; i++) {
+            Accessor accessor = accessors.get(i);
+            if (!accessor.getUniqueFieldName().equals(names[i]) || !isStandardAccessor(accessor)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isStandardAccessor(Accessor accessor) {
+        String method = accessor.getDisplayName();
+        String field = accessor.getActualFieldName();
+        if (method.equals(field)) {
+            return true;
+        }
+        int prefix = method.startsWith("get") ? 3 : method.startsWith("is") ? 2 : 0;
+        return prefix > 0 && method.length() == prefix + field.length() &&
+                method.charAt(prefix) == Character.toUpperCase(field.charAt(0)) &&
+                method.regionMatches(prefix + 1, field, 1, field.length() - 1);
+    }
+
+    /**
+     * @return true if the reader injects every one of the named fields of c.  false when excluded injector fields or
+     * included fields (ReadOptionsBuilder.addIncludedField()) leave any of them out, in which case the codec only
+     * creates the instance and leaves the fields to the reflective path.
+     */
+    public static boolean injectsFields(Class<?> c, String[] names, ReaderContext context) {
+        Map<String, Injector> injectors = context.getReadOptions().getDeepInjectorMap(c);
+        for (String name : names) {
+            if (!injectors.containsKey(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the fields of an instance of a subclass of a compiled class, the way JsonWriter does for any object.
+     * @return the 'first' flag for the next field.
+     */
+    public static boolean writeFields(Object obj, boolean first, WriterContext context) throws IOException {
+        for (Accessor accessor : context.getWriteOptions().getAccessorsForClass(obj.getClass())) {
+            first = context.writeField(first, accessor.getUniqueFieldName(), accessor.retrieve(obj), accessor.getFieldType());
+        }
+        return first;
+    }
+
+    public static boolean toBoolean(Object value, ReaderContext context) {
+        return value instanceof Boolean ? (Boolean) value : context.getConverter().convert(value, boolean.class);
+    }
+
+    public static byte toByte(Object value, ReaderContext context) {
+        return value instanceof Number ? ((Number) value).byteValue() : context.getConverter().convert(value, byte.class);
+    }
+
+    public static short toShort(Object value, ReaderContext context) {
+        return value instanceof Number ? ((Number) value).shortValue() : context.getConverter().convert(value, short.class);
+    }
+
+    public static int toInt(Object value, ReaderContext context) {
+        return value instanceof Number ? ((Number) value).intValue() : context.getConverter().convert(value, int.class);
+    }
+
+    public static long toLong(Object value, ReaderContext context) {
+        return value instanceof Number ? ((Number) value).longValue() : context.getConverter().convert(value, long.class);
+    }
+
+    public static float toFloat(Object value, ReaderContext context) {
+        return value instanceof Number ? ((Number) value).floatValue() : context.getConverter().convert(value, float.class);
+    }
+
+    public static double toDouble(Object value, ReaderContext context) {
+        return value instanceof Number ? ((Number) value).doubleValue() : context.getConverter().convert(value, double.class);
+    }
+
+    public static char toChar(Object value, ReaderContext context) {
+        return value instanceof Character ? (Character) value : context.getConverter().convert(value, char.class);
+    }
+
+    /**
+     * Convert a parsed value to a primitive wrapper or String field type.  null stays null.
+     */
+    public static <T> T convert(Object value, Class<T> type, ReaderContext context) {
+        if (value == null) {
+            return null;
+        }
+        if (value.getClass() == type) {
+            return type.cast(value);
+        }
+        return context.getConverter().convert(value, type);
+    }
+}
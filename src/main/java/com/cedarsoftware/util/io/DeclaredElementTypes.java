@@ -0,0 +1,100 @@
+package com.cedarsoftware.util.io;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What the declared generic type of a Collection or Map field (List&lt;Foo&gt;, Map&lt;String, Bar&gt;, ...) tells
+ * JsonWriter about its elements, worked out once per generic type.  An element whose class is exactly the declared
+ * element class is written without @type, because the reader types untyped elements from the same declaration.
+ * Only plain classes qualify: interfaces, abstract classes, arrays, Collections, Maps and logical primitives (whose
+ * JSON form the reader could not type) keep the per-element decision.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class DeclaredElementTypes {
+    private static final DeclaredElementTypes NONE = new DeclaredElementTypes(null, null, null);
+    private static final Map<Type, DeclaredElementTypes> cache = new ConcurrentHashMap<>();
+
+    /** Collection element class written without @type, or null. */
+    final Class<?> element;
+    /** Map key class written without @type (in the @keys array), or null. */
+    final Class<?> key;
+    /** Map value class written without @type, or null. */
+    final Class<?> value;
+
+    private DeclaredElementTypes(Class<?> element, Class<?> key, Class<?> value) {
+        this.element = element;
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * @param genericType Type a field is declared with.
+     * @return the element types for a parameterized Collection or Map type, or null if it gives nothing to use.
+     */
+    static DeclaredElementTypes of(Type genericType) {
+        if (!(genericType instanceof ParameterizedType)) {
+            return null;
+        }
+        DeclaredElementTypes types = cache.get(genericType);
+        if (types == null) {
+            types = build((ParameterizedType) genericType);
+            cache.putIfAbsent(genericType, types);
+        }
+        return types == NONE ? null : types;
+    }
+
+    private static DeclaredElementTypes build(ParameterizedType type) {
+        final Type raw = type.getRawType();
+        final Type[] args = type.getActualTypeArguments();
+        if (!(raw instanceof Class)) {
+            return NONE;
+        }
+        final Class<?> rawClass = (Class<?>) raw;
+        if (Collection.class.isAssignableFrom(rawClass) && args.length == 1) {
+            Class<?> element = untyped(args[0]);
+            return element == null ? NONE : new DeclaredElementTypes(element, null, null);
+        }
+        if (Map.class.isAssignableFrom(rawClass) && args.length == 2) {
+            Class<?> key = untyped(args[0]);
+            Class<?> value = untyped(args[1]);
+            return key == null && value == null ? NONE : new DeclaredElementTypes(null, key, value);
+        }
+        return NONE;
+    }
+
+    /**
+     * @return the type argument as a Class if an instance of exactly that class can be written without @type.
+     */
+    private static Class<?> untyped(Type arg) {
+        if (!(arg instanceof Class)) {
+            return null;    // type variable, wildcard or nested parameterized type
+        }
+        final Class<?> c = (Class<?>) arg;
+        if (c.isInterface() || c.isArray() || Modifier.isAbstract(c.getModifiers()) ||
+                Collection.class.isAssignableFrom(c) || Map.class.isAssignableFrom(c) ||
+                MetaUtils.isLogicalPrimitive(c) || c == Object.class) {
+            return null;
+        }
+        return c;
+    }
+}
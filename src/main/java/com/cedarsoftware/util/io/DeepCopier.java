@@ -0,0 +1,404 @@
+package com.cedarsoftware.util.io;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.cedarsoftware.util.convert.Converter;
+import com.cedarsoftware.util.reflect.Accessor;
+import com.cedarsoftware.util.reflect.Injector;
+
+/**
+ * Copies an object graph directly, object to object, without producing JSON text.  The graph is walked with the
+ * same Accessors the JsonWriter uses (so field inclusion/exclusion and accessor methods apply), instances are
+ * created the way the Resolver creates them (MetaUtils.newInstance()), and fields are set through the ReadOptions'
+ * Injectors.  An IdentityHashMap maps each source object to its copy, so shared references and cycles are
+ * preserved exactly as @id/@ref would preserve them.<br>
+ * <br>
+ * Immutable values (Strings, primitive wrappers, enums, java.time, UUID, ...) are shared rather than copied.
+ * Collections and maps are populated only after everything reachable from their elements has been copied, so
+ * element hashCodes are final when they are inserted (the JSON path does the same with its rehash step).<br>
+ * <br>
+ * Anything whose JSON form is decided by user configuration - a custom writer, custom reader, ClassFactory or
+ * class coercion - or a Collection / Map class not listed here, makes copy() throw {@link #UNSUPPORTED}; the
+ * caller then copies the graph through JSON instead, so results never differ from the JSON round trip.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class DeepCopier {
+    static final Unsupported UNSUPPORTED = new Unsupported();
+
+    /**
+     * Signals that the graph must be copied through JSON.  Shared and stackless - it is control flow, not an error.
+     */
+    static final class Unsupported extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private Unsupported() {
+            super("Graph requires JSON based copy", null, false, false);
+        }
+    }
+
+    private static final Set<Class<?>> IMMUTABLE = new HashSet<>();
+    private static final Set<Class<?>> COLLECTIONS = new HashSet<>();
+    private static final Set<Class<?>> MAPS = new HashSet<>();
+
+    static {
+        Class<?>[] immutable = {String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class,
+                Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class, Class.class, UUID.class,
+                Locale.class, URI.class, URL.class, Instant.class, Duration.class, Period.class, LocalDate.class,
+                LocalTime.class, LocalDateTime.class, ZonedDateTime.class, OffsetDateTime.class, OffsetTime.class,
+                Year.class, YearMonth.class, MonthDay.class};
+        for (Class<?> c : immutable) {
+            IMMUTABLE.add(c);
+        }
+
+        Class<?>[] collections = {ArrayList.class, LinkedList.class, Vector.class, CopyOnWriteArrayList.class,
+                HashSet.class, LinkedHashSet.class, TreeSet.class, ConcurrentSkipListSet.class, CopyOnWriteArraySet.class,
+                ArrayDeque.class, ConcurrentLinkedQueue.class, ConcurrentLinkedDeque.class};
+        for (Class<?> c : collections) {
+            COLLECTIONS.add(c);
+        }
+
+        Class<?>[] maps = {HashMap.class, LinkedHashMap.class, TreeMap.class, ConcurrentHashMap.class,
+                ConcurrentSkipListMap.class, Hashtable.class};
+        for (Class<?> c : maps) {
+            MAPS.add(c);
+        }
+    }
+
+    private static final ClassValue<Constructor<?>> NO_ARG_CONSTRUCTOR = new ClassValue<Constructor<?>>() {
+        protected Constructor<?> computeValue(Class<?> c) {
+            try {
+                Constructor<?> constructor = c.getDeclaredConstructor();
+                MetaUtils.trySetAccessible(constructor);
+                return constructor;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    };
+
+    private final ReadOptions readOptions;
+    private final WriteOptions writeOptions;
+    private Converter converter;
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+    private final Map<Class<?>, Boolean> plainClasses = new HashMap<>();
+    private final Deque<Frame> stack = new ArrayDeque<>();
+
+    /**
+     * An object whose copy has been created but not yet filled in (expanded == false), or whose descendants are
+     * still being copied (expanded == true).  Collections and Maps hold their copied contents in items until then.
+     */
+    private static final class Frame {
+        private final Object src;
+        private final Object copy;
+        private boolean expanded = false;
+        private Object[] items;
+
+        private Frame(Object src, Object copy) {
+            this.src = src;
+            this.copy = copy;
+        }
+    }
+
+    DeepCopier(ReadOptions readOptions, WriteOptions writeOptions) {
+        this.readOptions = readOptions;
+        this.writeOptions = writeOptions;
+    }
+
+    /**
+     * @return deep copy of source.
+     * @throws Unsupported if the graph contains something that must be copied via JSON.
+     */
+    Object copy(Object source) {
+        if (readOptions.isReturningJsonObjects()) {
+            throw UNSUPPORTED;
+        }
+        Object root = copyOf(source);
+
+        // Depth-first: a frame is finished only after every frame pushed while filling it, so a Collection or Map
+        // is populated after all of its elements are complete, and their hashCodes are final.
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (!frame.expanded) {
+                frame.expanded = true;
+                fill(frame);
+            } else {
+                stack.pop();
+                if (frame.items != null) {
+                    populate(frame.copy, frame.items);
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * @return number of distinct (mutable) objects copied.
+     */
+    int getCopyCount() {
+        return copies.size();
+    }
+
+    /**
+     * @return the copy of src, creating (but not yet filling) it on first encounter.
+     */
+    private Object copyOf(Object src) {
+        if (src == null) {
+            return null;
+        }
+        final Class<?> c = src.getClass();
+        if (IMMUTABLE.contains(c) || src instanceof Enum || src instanceof ZoneId) {
+            return src;
+        }
+        Object copy = copies.get(src);
+        if (copy != null) {
+            return copy;
+        }
+
+        if (c.isArray()) {
+            final int len = Array.getLength(src);
+            copy = Array.newInstance(c.getComponentType(), len);
+            if (c.getComponentType().isPrimitive()) {
+                System.arraycopy(src, 0, copy, 0, len);
+            } else {
+                stack.push(new Frame(src, copy));
+            }
+        } else if (src instanceof Collection || src instanceof Map) {
+            copy = newContainer(src, c);
+            stack.push(new Frame(src, copy));
+        } else {
+            copy = copyLeaf(src, c);
+            if (copy == null) {
+                if (!isPlainClass(c)) {
+                    throw UNSUPPORTED;
+                }
+                copy = newInstance(c);
+                stack.push(new Frame(src, copy));
+            }
+        }
+        copies.put(src, copy);
+        return copy;
+    }
+
+    /**
+     * @return copy of a mutable value type, or null if src is not one.
+     */
+    private static Object copyLeaf(Object src, Class<?> c) {
+        if (c == Date.class || c == java.sql.Date.class || c == java.sql.Timestamp.class) {
+            return ((Date) src).clone();
+        }
+        if (src instanceof Calendar) {
+            return ((Calendar) src).clone();
+        }
+        if (src instanceof TimeZone) {
+            return ((TimeZone) src).clone();
+        }
+        if (c == StringBuilder.class) {
+            return new StringBuilder((StringBuilder) src);
+        }
+        if (c == StringBuffer.class) {
+            return new StringBuffer((StringBuffer) src);
+        }
+        if (c == AtomicInteger.class) {
+            return new AtomicInteger(((AtomicInteger) src).get());
+        }
+        if (c == AtomicLong.class) {
+            return new AtomicLong(((AtomicLong) src).get());
+        }
+        if (c == AtomicBoolean.class) {
+            return new AtomicBoolean(((AtomicBoolean) src).get());
+        }
+        return null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object newContainer(Object src, Class<?> c) {
+        if (src instanceof EnumSet) {
+            return ((EnumSet) src).clone();   // enum constants are shared, so this is already a deep copy
+        }
+        if (c == EnumMap.class) {
+            EnumMap copy = new EnumMap((EnumMap) src);
+            copy.clear();
+            return copy;
+        }
+        if (src instanceof SortedSet && COLLECTIONS.contains(c)) {
+            return c == TreeSet.class ? new TreeSet(((SortedSet) src).comparator()) : new ConcurrentSkipListSet(((SortedSet) src).comparator());
+        }
+        if (src instanceof SortedMap && MAPS.contains(c)) {
+            return c == TreeMap.class ? new TreeMap(((SortedMap) src).comparator()) : new ConcurrentSkipListMap(((SortedMap) src).comparator());
+        }
+        if (!COLLECTIONS.contains(c) && !MAPS.contains(c)) {
+            throw UNSUPPORTED;
+        }
+        return newInstance(c);
+    }
+
+    /**
+     * Classes with a no-arg constructor are created with it directly (what MetaUtils.newInstance() ends up doing
+     * for them).  Everything else goes through MetaUtils.newInstance(), which needs a Converter to make up
+     * constructor arguments - costly to build, so it is created only then.
+     */
+    private Object newInstance(Class<?> c) {
+        Constructor<?> constructor = NO_ARG_CONSTRUCTOR.get(c);
+        if (constructor != null) {
+            try {
+                return constructor.newInstance();
+            } catch (Exception ignore) {
+                // let MetaUtils try the other constructors
+            }
+        }
+        if (converter == null) {
+            converter = new Converter(new ConverterReadOptionsAdapter(readOptions));
+        }
+        return MetaUtils.newInstance(converter, c, null);
+    }
+
+    /**
+     * @return true if c is an ordinary class that the JSON path would write field by field and read back with
+     * MetaUtils.newInstance() and Injectors - i.e. nothing in the options changes how it is written or read.
+     */
+    private boolean isPlainClass(Class<?> c) {
+        return plainClasses.computeIfAbsent(c, k ->
+                !Throwable.class.isAssignableFrom(k) &&
+                isPlainFactory(readOptions.getClassFactory(k)) &&
+                readOptions.getCustomReader(k) == null &&
+                readOptions.getCoercedClass(k) == null &&
+                (writeOptions.isNotCustomWrittenClass(k) || isPlainWriter(writeOptions.getCustomWriter(k))));
+    }
+
+    // A CompiledCodec reads and writes exactly the fields that are copied here, so it does not change the copy.
+    private static boolean isPlainFactory(JsonReader.ClassFactory factory) {
+        return factory == null || factory instanceof CompiledCodec;
+    }
+
+    private static boolean isPlainWriter(JsonWriter.JsonClassWriter writer) {
+        return writer == null || writer instanceof CompiledCodec;
+    }
+
+    private void fill(Frame frame) {
+        final Object src = frame.src;
+        if (src instanceof Collection) {
+            if (!(src instanceof EnumSet)) {
+                Collection<?> col = (Collection<?>) src;
+                Object[] items = new Object[col.size()];
+                int i = 0;
+                for (Object item : col) {
+                    items[i++] = copyOf(item);
+                }
+                frame.items = items;
+            }
+        } else if (src instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) src;
+            Object[] entries = new Object[map.size() << 1];
+            int i = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                entries[i++] = copyOf(entry.getKey());
+                entries[i++] = copyOf(entry.getValue());
+            }
+            frame.items = entries;
+        } else if (src.getClass().isArray()) {
+            Object[] from = (Object[]) src;
+            Object[] to = (Object[]) frame.copy;
+            for (int i = 0; i < from.length; i++) {
+                to[i] = copyOf(from[i]);
+            }
+        } else {
+            fillFields(src, frame.copy);
+        }
+    }
+
+    private void fillFields(Object src, Object copy) {
+        final Class<?> c = src.getClass();
+        final Map<String, Injector> injectors = readOptions.getDeepInjectorMap(c);
+        for (Accessor accessor : writeOptions.getAccessorsForClass(c)) {
+            Injector injector = injectors.get(accessor.getUniqueFieldName());
+            if (injector == null) {
+                continue;
+            }
+            Object value = accessor.retrieve(src);
+            injector.inject(copy, accessor.getFieldType().isPrimitive() ? value : copyOf(value));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void populate(Object container, Object[] items) {
+        if (container instanceof Collection) {
+            Collection col = (Collection) container;
+            for (Object item : items) {
+                col.add(item);
+            }
+        } else {
+            Map map = (Map) container;
+            for (int i = 0; i < items.length; i += 2) {
+                map.put(items[i], items[i + 1]);
+            }
+        }
+    }
+}
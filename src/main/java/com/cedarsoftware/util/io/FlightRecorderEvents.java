@@ -0,0 +1,191 @@
+package com.cedarsoftware.util.io;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The JFR event classes and their FlightRecorderSupport.  Only loaded (reflectively) when jdk.jfr is present.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class FlightRecorderEvents extends FlightRecorderSupport {
+    /**
+     * EventType.getEventType() starts the JFR metadata repository, so the types are only looked up (by initializing
+     * this holder) once FlightRecorder is initialized, which happens when a recording is started.
+     */
+    private static final class Types {
+        static final EventType READ = EventType.getEventType(ReadEvent.class);
+        static final EventType WRITE = EventType.getEventType(WriteEvent.class);
+        static final EventType DEEP_COPY = EventType.getEventType(DeepCopyEvent.class);
+    }
+
+    @Name("com.cedarsoftware.jsonio.Read")
+    @Label("JSON Read")
+    @Category("json-io")
+    @Description("JsonReader.readObject(): JSON to Java objects or Maps")
+    @StackTrace(false)
+    static final class ReadEvent extends Event {
+        @Label("Document Size")
+        @Description("Bytes read from the InputStream, or the length of in-memory input")
+        long documentSize;
+
+        @Label("Root Type")
+        Class<?> rootType;
+
+        @Label("Parse Time")
+        @Timespan
+        long parseTime;
+
+        @Label("Resolve Time")
+        @Timespan
+        long resolveTime;
+
+        @Label("Cleanup Time")
+        @Description("Patching forward @ref's and rehashing Maps and Sets")
+        @Timespan
+        long cleanupTime;
+
+        @Label("Objects Instantiated")
+        long objectsInstantiated;
+
+        @Label("References Patched")
+        long referencesPatched;
+    }
+
+    @Name("com.cedarsoftware.jsonio.Write")
+    @Label("JSON Write")
+    @Category("json-io")
+    @Description("JsonWriter.write(): Java objects to JSON")
+    @StackTrace(false)
+    static final class WriteEvent extends Event {
+        @Label("Document Size")
+        @Description("Characters written")
+        long documentSize;
+
+        @Label("Root Type")
+        Class<?> rootType;
+
+        @Label("Trace References Time")
+        @Timespan
+        long traceTime;
+
+        @Label("Write Time")
+        @Timespan
+        long writeTime;
+
+        @Label("Objects Written")
+        long objectsWritten;
+
+        @Label("Referenced Objects")
+        long referencedObjects;
+    }
+
+    @Name("com.cedarsoftware.jsonio.DeepCopy")
+    @Label("JSON Deep Copy")
+    @Category("json-io")
+    @Description("JsonIo.deepCopy()")
+    @StackTrace(false)
+    static final class DeepCopyEvent extends Event {
+        @Label("Root Type")
+        Class<?> rootType;
+
+        @Label("Objects Copied")
+        @Description("Objects copied directly; 0 when copied through JSON")
+        long objectsCopied;
+
+        @Label("Via JSON")
+        @Description("Copied by writing and reading JSON (see the nested Write and Read events)")
+        boolean viaJson;
+    }
+
+    boolean isReadEnabled() {
+        return FlightRecorder.isInitialized() && Types.READ.isEnabled();
+    }
+
+    boolean isWriteEnabled() {
+        return FlightRecorder.isInitialized() && Types.WRITE.isEnabled();
+    }
+
+    boolean isDeepCopyEnabled() {
+        return FlightRecorder.isInitialized() && Types.DEEP_COPY.isEnabled();
+    }
+
+    Object beginRead() {
+        ReadEvent event = new ReadEvent();
+        event.begin();
+        return event;
+    }
+
+    void commitRead(Object started, Class<?> rootType, ReadMetrics metrics) {
+        ReadEvent event = (ReadEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.documentSize = metrics.inputSize;
+            event.rootType = rootType;
+            event.parseTime = metrics.parseNanos;
+            event.resolveTime = metrics.resolveNanos;
+            event.cleanupTime = metrics.cleanupNanos;
+            event.objectsInstantiated = metrics.objectsInstantiated;
+            event.referencesPatched = metrics.referencesPatched;
+            event.commit();
+        }
+    }
+
+    Object beginWrite() {
+        WriteEvent event = new WriteEvent();
+        event.begin();
+        return event;
+    }
+
+    void commitWrite(Object started, Class<?> rootType, WriteMetrics metrics) {
+        WriteEvent event = (WriteEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.documentSize = metrics.charsWritten;
+            event.rootType = rootType;
+            event.traceTime = metrics.traceNanos;
+            event.writeTime = metrics.writeNanos;
+            event.objectsWritten = metrics.objectsWritten;
+            event.referencedObjects = metrics.referencedObjects;
+            event.commit();
+        }
+    }
+
+    Object beginDeepCopy() {
+        DeepCopyEvent event = new DeepCopyEvent();
+        event.begin();
+        return event;
+    }
+
+    void commitDeepCopy(Object started, Class<?> rootType, long objectsCopied, boolean viaJson) {
+        DeepCopyEvent event = (DeepCopyEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.rootType = rootType;
+            event.objectsCopied = objectsCopied;
+            event.viaJson = viaJson;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.cedarsoftware.util.io;
+
+/**
+ * Emits JDK Flight Recorder events for JsonIo reads, writes and deep copies, when the running JDK has JFR
+ * (jdk.jfr, JDK 11+ and 8u262+).  The event classes live in FlightRecorderEvents, which is only loaded after
+ * jdk.jfr.Event has been found, so json-io still runs on a JRE without JFR; INSTANCE is then null.  While no
+ * recording has the events enabled, the is*Enabled() checks return false and nothing is measured.
+ * <br><br>
+ * The events are "com.cedarsoftware.jsonio.Read", "com.cedarsoftware.jsonio.Write" and
+ * "com.cedarsoftware.jsonio.DeepCopy", in the "json-io" category.  Enable them in a .jfc file or with
+ * Recording.enable(name).
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+abstract class FlightRecorderSupport {
+    static final FlightRecorderSupport INSTANCE = load();
+
+    private static FlightRecorderSupport load() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightRecorderSupport.class.getClassLoader());
+            return (FlightRecorderSupport) Class.forName("com.cedarsoftware.util.io.FlightRecorderEvents")
+                    .getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    static boolean readEnabled() {
+        return INSTANCE != null && INSTANCE.isReadEnabled();
+    }
+
+    static boolean writeEnabled() {
+        return INSTANCE != null && INSTANCE.isWriteEnabled();
+    }
+
+    static boolean deepCopyEnabled() {
+        return INSTANCE != null && INSTANCE.isDeepCopyEnabled();
+    }
+
+    abstract boolean isReadEnabled();
+
+    abstract boolean isWriteEnabled();
+
+    abstract boolean isDeepCopyEnabled();
+
+    /**
+     * @return started read event, handed back to commitRead().
+     */
+    abstract Object beginRead();
+
+    abstract void commitRead(Object event, Class<?> rootType, ReadMetrics metrics);
+
+    /**
+     * @return started write event, handed back to commitWrite().
+     */
+    abstract Object beginWrite();
+
+    abstract void commitWrite(Object event, Class<?> rootType, WriteMetrics metrics);
+
+    /**
+     * @return started deep copy event, handed back to commitDeepCopy().
+     */
+    abstract Object beginDeepCopy();
+
+    abstract void commitDeepCopy(Object event, Class<?> rootType, long objectsCopied, boolean viaJson);
+}
@@ -0,0 +1,265 @@
+package com.cedarsoftware.util.io;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What a generic type (a field's declared type, or a root type from a TypeHolder) says about the untyped JSON
+ * objects beneath it, worked out once per Type and then reused by every read.  The resolver hands each child plan
+ * down as it visits Collection elements, array elements, Map keys / values and the fields of generic holder classes,
+ * so an untyped {...} or [...] gets its class the moment it is reached - the value tree is not walked a second time
+ * just to stamp types on it.  Type variables of a holder class (class Pair&lt;A, B&gt;, including those bound through
+ * its superclasses) are resolved against the actual type arguments, per field.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class GenericTypePlan {
+    private static final GenericTypePlan NONE = new GenericTypePlan(Object.class, null, null, null, null);
+    private static final Map<Type, GenericTypePlan> plans = new ConcurrentHashMap<>();
+
+    /** Class an untyped JSON value of this type is created as. */
+    final Class<?> raw;
+    /** Plan for Collection or array elements, or null. */
+    final GenericTypePlan element;
+    /** Plan for the @keys array of a Map (its element plan is the key plan), or null. */
+    final GenericTypePlan keys;
+    /** Plan for the @items array of a Map (its element plan is the value plan), or null. */
+    final GenericTypePlan items;
+    /** Type variable bindings of a generic holder class, or null. */
+    private final Map<TypeVariable<?>, Type> bindings;
+    private final Map<String, GenericTypePlan> fieldPlans;
+
+    private GenericTypePlan(Class<?> raw, GenericTypePlan element, GenericTypePlan keys, GenericTypePlan items,
+                            Map<TypeVariable<?>, Type> bindings) {
+        this.raw = raw;
+        this.element = element;
+        this.keys = keys;
+        this.items = items;
+        this.bindings = bindings;
+        this.fieldPlans = bindings == null ? null : new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param type generic Type (ParameterizedType, GenericArrayType, WildcardType or Class).
+     * @return the cached plan for the type, or null if it says nothing (e.g. an unbound type variable).
+     */
+    static GenericTypePlan of(Type type) {
+        if (type == null) {
+            return null;
+        }
+        GenericTypePlan plan = plans.get(type);
+        if (plan == null) {
+            plan = build(type);
+            GenericTypePlan existing = plans.putIfAbsent(type, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan == NONE ? null : plan;
+    }
+
+    /**
+     * @param name String name of a field on the holder class.
+     * @param genericType Type the field is declared with.
+     * @return plan for the field's value with this holder's type variables substituted, or null if the field's
+     * declared type does not involve them.
+     */
+    GenericTypePlan field(String name, Type genericType) {
+        if (fieldPlans == null) {
+            return null;
+        }
+        GenericTypePlan plan = fieldPlans.get(name);
+        if (plan == null) {
+            Type resolved = substitute(genericType, bindings);
+            plan = resolved == genericType ? NONE : of(resolved);
+            fieldPlans.putIfAbsent(name, plan == null ? NONE : plan);
+        }
+        return plan == NONE ? null : plan;
+    }
+
+    private static GenericTypePlan build(Type type) {
+        if (type instanceof Class) {
+            Class<?> c = (Class<?>) type;
+            return c.isArray() ? new GenericTypePlan(c, of(c.getComponentType()), null, null, null) :
+                    new GenericTypePlan(c, null, null, null, null);
+        }
+        if (type instanceof WildcardType) {
+            GenericTypePlan plan = of(((WildcardType) type).getUpperBounds()[0]);
+            return plan == null ? NONE : plan;
+        }
+        if (type instanceof GenericArrayType) {
+            GenericTypePlan component = of(((GenericArrayType) type).getGenericComponentType());
+            if (component == null) {
+                return NONE;
+            }
+            return new GenericTypePlan(Array.newInstance(component.raw, 0).getClass(), component, null, null, null);
+        }
+        if (!(type instanceof ParameterizedType) || !(((ParameterizedType) type).getRawType() instanceof Class)) {
+            return NONE;    // unbound type variable
+        }
+
+        final ParameterizedType pType = (ParameterizedType) type;
+        final Class<?> raw = (Class<?>) pType.getRawType();
+        final Type[] args = pType.getActualTypeArguments();
+        if (Collection.class.isAssignableFrom(raw) && args.length == 1) {
+            return new GenericTypePlan(raw, of(args[0]), null, null, null);
+        }
+        if (Map.class.isAssignableFrom(raw) && args.length == 2) {
+            return new GenericTypePlan(raw, null, arrayOf(of(args[0])), arrayOf(of(args[1])), null);
+        }
+
+        // Generic holder class: bind its type variables, and those of its generic superclasses
+        final Map<TypeVariable<?>, Type> bindings = new HashMap<>();
+        bind(raw, args, bindings);
+        Class<?> c = raw;
+        while (c.getSuperclass() != null) {
+            Type sup = c.getGenericSuperclass();
+            c = c.getSuperclass();
+            if (sup instanceof ParameterizedType) {
+                Type[] supArgs = ((ParameterizedType) sup).getActualTypeArguments().clone();
+                for (int i = 0; i < supArgs.length; i++) {
+                    supArgs[i] = substitute(supArgs[i], bindings);
+                }
+                bind(c, supArgs, bindings);
+            }
+        }
+        return new GenericTypePlan(raw, null, null, null, bindings);
+    }
+
+    private static GenericTypePlan arrayOf(GenericTypePlan element) {
+        return element == null ? null : new GenericTypePlan(Object[].class, element, null, null, null);
+    }
+
+    private static void bind(Class<?> c, Type[] args, Map<TypeVariable<?>, Type> bindings) {
+        final TypeVariable<?>[] vars = c.getTypeParameters();
+        for (int i = 0; i < vars.length && i < args.length; i++) {
+            bindings.put(vars[i], args[i]);
+        }
+    }
+
+    /**
+     * @return type with bound type variables replaced, or the same instance if nothing in it was bound.
+     */
+    private static Type substitute(Type type, Map<TypeVariable<?>, Type> bindings) {
+        if (type instanceof TypeVariable) {
+            Type bound = bindings.get(type);
+            return bound == null ? type : bound;
+        }
+        if (type instanceof WildcardType) {
+            Type[] upper = ((WildcardType) type).getUpperBounds();
+            Type bound = substitute(upper[0], bindings);
+            return bound == upper[0] ? type : bound;
+        }
+        if (type instanceof GenericArrayType) {
+            Type component = ((GenericArrayType) type).getGenericComponentType();
+            Type resolved = substitute(component, bindings);
+            if (resolved == component) {
+                return type;
+            }
+            return resolved instanceof Class ? Array.newInstance((Class<?>) resolved, 0).getClass() : new ArrayOf(resolved);
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType pType = (ParameterizedType) type;
+            Type[] args = pType.getActualTypeArguments();
+            Type[] resolved = null;
+            for (int i = 0; i < args.length; i++) {
+                Type arg = substitute(args[i], bindings);
+                if (arg != args[i]) {
+                    if (resolved == null) {
+                        resolved = args.clone();
+                    }
+                    resolved[i] = arg;
+                }
+            }
+            return resolved == null ? type : new Parameterized(pType.getRawType(), resolved, pType.getOwnerType());
+        }
+        return type;
+    }
+
+    /**
+     * ParameterizedType produced by substituting type variables; equal to any ParameterizedType with the same parts.
+     */
+    private static final class Parameterized implements ParameterizedType {
+        private final Type raw;
+        private final Type[] args;
+        private final Type owner;
+
+        Parameterized(Type raw, Type[] args, Type owner) {
+            this.raw = raw;
+            this.args = args;
+            this.owner = owner;
+        }
+
+        public Type[] getActualTypeArguments() {
+            return args.clone();
+        }
+
+        public Type getRawType() {
+            return raw;
+        }
+
+        public Type getOwnerType() {
+            return owner;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof ParameterizedType)) {
+                return false;
+            }
+            ParameterizedType that = (ParameterizedType) o;
+            return raw.equals(that.getRawType()) && Objects.equals(owner, that.getOwnerType()) &&
+                    Arrays.equals(args, that.getActualTypeArguments());
+        }
+
+        public int hashCode() {
+            return Arrays.hashCode(args) ^ Objects.hashCode(owner) ^ raw.hashCode();
+        }
+    }
+
+    /**
+     * GenericArrayType produced by substituting type variables.
+     */
+    private static final class ArrayOf implements GenericArrayType {
+        private final Type component;
+
+        ArrayOf(Type component) {
+            this.component = component;
+        }
+
+        public Type getGenericComponentType() {
+            return component;
+        }
+
+        public boolean equals(Object o) {
+            return o instanceof GenericArrayType && component.equals(((GenericArrayType) o).getGenericComponentType());
+        }
+
+        public int hashCode() {
+            return component.hashCode();
+        }
+    }
+}
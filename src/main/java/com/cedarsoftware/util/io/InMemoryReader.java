@@ -0,0 +1,265 @@
+package com.cedarsoftware.util.io;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import com.cedarsoftware.util.FastReader;
+
+/**
+ * FastReader over JSON that is already in memory (a CharSequence, a char[] range or a UTF-8 byte[] range).
+ * Characters are handed to the parser straight from the caller's buffer - there is no InputStream,
+ * InputStreamReader or intermediate char buffer - and UTF-8 is decoded on the fly.  Line and column, which
+ * FastReader tracks per character, are brought up to date only when asked for.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+abstract class InMemoryReader extends FastReader {
+    private static final int PUSHBACK_SIZE = 10;
+    private static final int SNIPPET_SIZE = 8192;
+    private final char[] pushbackBuffer = new char[PUSHBACK_SIZE];
+    private int pushbackCount = 0;
+    private int mark;
+    private int line = 1;
+    private int col = 0;
+    protected final int start;
+    protected final int end;
+    protected int position;
+
+    InMemoryReader(int start, int end) {
+        super(new StringReader(""), 1, 1);   // FastReader's own buffers are not used
+        this.start = start;
+        this.end = end;
+        this.position = start;
+        this.mark = start;
+    }
+
+    static FastReader of(CharSequence json) {
+        return new OfCharSequence(json);
+    }
+
+    static FastReader of(char[] json, int offset, int length) {
+        checkRange(json.length, offset, length);
+        return new OfChars(json, offset, offset + length);
+    }
+
+    static FastReader ofUtf8(byte[] json, int offset, int length) {
+        checkRange(json.length, offset, length);
+        return new OfUtf8(json, offset, offset + length);
+    }
+
+    private static void checkRange(int size, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new JsonIoException("Invalid offset/length: " + offset + "/" + length + " for JSON input of length: " + size);
+        }
+    }
+
+    /**
+     * @return next character from the underlying buffer, or -1 at the end.
+     */
+    protected abstract int next();
+
+    /**
+     * @return the text of buffer positions [from, to), used for error snippets.
+     */
+    protected abstract String text(int from, int to);
+
+    /**
+     * @return true if the buffer position holds the first unit of a character (counted for the column).
+     */
+    protected boolean isCharStart(int index) {
+        return true;
+    }
+
+    protected abstract boolean isNewLine(int index);
+
+    public int read() {
+        if (pushbackCount > 0) {
+            return pushbackBuffer[--pushbackCount];
+        }
+        return next();
+    }
+
+    public int read(char[] cbuf, int off, int len) {
+        int count = 0;
+        while (count < len) {
+            int c = read();
+            if (c == -1) {
+                return count == 0 ? -1 : count;
+            }
+            cbuf[off + count++] = (char) c;
+        }
+        return count;
+    }
+
+    public void pushback(char c) throws IOException {
+        if (pushbackCount == PUSHBACK_SIZE) {
+            throw new IOException("Pushback buffer overflow");
+        }
+        pushbackBuffer[pushbackCount++] = c;
+    }
+
+    public int getLine() {
+        advanceMark();
+        return line;
+    }
+
+    public int getCol() {
+        advanceMark();
+        return Math.max(0, col - pushbackCount);
+    }
+
+    /**
+     * Bring line / col up to the current position, scanning only the text read since the previous call.
+     */
+    private void advanceMark() {
+        for (int i = mark; i < position; i++) {
+            if (isNewLine(i)) {
+                line++;
+                col = 0;
+            } else if (isCharStart(i)) {
+                col++;
+            }
+        }
+        mark = position;
+    }
+
+    public String getLastSnippet() {
+        return text(Math.max(start, position - SNIPPET_SIZE), position);
+    }
+
+    public void close() {
+    }
+
+    private static final class OfCharSequence extends InMemoryReader {
+        private final CharSequence chars;
+
+        private OfCharSequence(CharSequence chars) {
+            super(0, chars.length());
+            this.chars = chars;
+        }
+
+        protected int next() {
+            return position < end ? chars.charAt(position++) : -1;
+        }
+
+        protected String text(int from, int to) {
+            return chars.subSequence(from, to).toString();
+        }
+
+        protected boolean isNewLine(int index) {
+            return chars.charAt(index) == '\n';
+        }
+    }
+
+    private static final class OfChars extends InMemoryReader {
+        private final char[] chars;
+
+        private OfChars(char[] chars, int start, int end) {
+            super(start, end);
+            this.chars = chars;
+        }
+
+        protected int next() {
+            return position < end ? chars[position++] : -1;
+        }
+
+        protected String text(int from, int to) {
+            return new String(chars, from, to - from);
+        }
+
+        protected boolean isNewLine(int index) {
+            return chars[index] == '\n';
+        }
+    }
+
+    /**
+     * Decodes UTF-8 as it is read.  Malformed input is replaced with U+FFFD, as InputStreamReader does.
+     */
+    private static final class OfUtf8 extends InMemoryReader {
+        private static final char REPLACEMENT = '\uFFFD';
+        private final byte[] bytes;
+        private char lowSurrogate = 0;
+
+        private OfUtf8(byte[] bytes, int start, int end) {
+            super(start, end);
+            this.bytes = bytes;
+        }
+
+        protected int next() {
+            if (lowSurrogate != 0) {
+                char c = lowSurrogate;
+                lowSurrogate = 0;
+                return c;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            final int b = bytes[position++];
+            return b >= 0 ? b : decode(b & 0xFF);
+        }
+
+        private int decode(int b) {
+            int cp;
+            int more;
+            int min;
+            if ((b & 0xE0) == 0xC0) {
+                cp = b & 0x1F;
+                more = 1;
+                min = 0x80;
+            } else if ((b & 0xF0) == 0xE0) {
+                cp = b & 0x0F;
+                more = 2;
+                min = 0x800;
+            } else if ((b & 0xF8) == 0xF0) {
+                cp = b & 0x07;
+                more = 3;
+                min = 0x10000;
+            } else {
+                return REPLACEMENT;
+            }
+
+            while (more-- > 0) {
+                if (position >= end || (bytes[position] & 0xC0) != 0x80) {
+                    return REPLACEMENT;
+                }
+                cp = cp << 6 | (bytes[position++] & 0x3F);
+            }
+
+            if (cp < min || cp > Character.MAX_CODE_POINT || (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)) {
+                return REPLACEMENT;
+            }
+            if (cp >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                lowSurrogate = Character.lowSurrogate(cp);
+                return Character.highSurrogate(cp);
+            }
+            return cp;
+        }
+
+        protected String text(int from, int to) {
+            return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+        }
+
+        protected boolean isCharStart(int index) {
+            return (bytes[index] & 0xC0) != 0x80;
+        }
+
+        protected boolean isNewLine(int index) {
+            return bytes[index] == '\n';
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.cedarsoftware.util.io;
+
+/**
+ * Lock-free, fixed-size intern cache shared by all parsing threads.  Each value hashes to exactly one slot
+ * (direct-mapped); a lookup returns the instance already in the slot when it is equal, otherwise the new value
+ * replaces it.  There is no lock, no access ordering and no allocation, so any number of threads (platform or
+ * virtual) can intern concurrently without contending or pinning a carrier thread.
+ * <br><br>
+ * Races are benign: the cached values are immutable (String, Long, Double) and safely published through their
+ * final fields, so a thread sees either an older value, a newer value, or null, and at worst stores a duplicate
+ * instance.  Collisions simply evict, which bounds memory the same way the LRU cache it replaced did.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class InternCache<T> {
+    private final Object[] table;
+    private final int mask;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of 2.
+     */
+    InternCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        table = new Object[size];
+        mask = size - 1;
+    }
+
+    /**
+     * @return the cached instance equal to value, or value itself after caching it.  Callers can tell a hit from a
+     * miss by comparing the result to value with ==.
+     */
+    @SuppressWarnings("unchecked")
+    T intern(T value) {
+        final int i = index(value);
+        final Object cached = table[i];
+        if (cached != null && cached.equals(value)) {
+            return (T) cached;
+        }
+        table[i] = value;
+        return value;
+    }
+
+    private int index(Object value) {
+        int h = value.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h & mask;
+    }
+}
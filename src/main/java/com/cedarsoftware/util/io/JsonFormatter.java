@@ -0,0 +1,378 @@
+package com.cedarsoftware.util.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Re-indents (pretty-print) or minifies JSON token by token, from an InputStream straight to an OutputStream.
+ * Nothing is parsed into objects: strings, numbers and literals are copied byte for byte exactly as they appear in
+ * the input (all JSON structural characters are ASCII, so UTF-8 never needs decoding), and only whitespace between
+ * tokens is replaced.  Memory use is two fixed buffers plus one entry per level of nesting, regardless of document
+ * size.  Several whitespace separated root values (NDJSON) are formatted one after another, separated by a newline.
+ * <br><br>
+ * Pretty-printed output uses the same layout as JsonWriter with prettyPrint(true): two space indentation, no space
+ * after ':', and empty objects / arrays written as {} / [].  The input is validated (brackets, commas, colons,
+ * string termination, the number grammar and the literals true, false, null, NaN and Infinity), but lexemes are
+ * copied without being interpreted - string escapes are not decoded, nor numbers converted.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class JsonFormatter {
+    private static final byte[] NEW_LINE = System.getProperty("line.separator").getBytes();
+
+    // What may come next
+    private static final int VALUE = 0;               // root value, after ':' or after ',' in an array
+    private static final int VALUE_OR_CLOSE = 1;      // after '['
+    private static final int KEY_OR_CLOSE = 2;        // after '{'
+    private static final int KEY = 3;                 // after ',' in an object
+    private static final int COLON = 4;               // after a key
+    private static final int COMMA_OR_CLOSE = 5;      // after a value inside an object or array
+    private static final int NEXT_ROOT = 6;           // after a complete root value
+
+    private final InputStream in;
+    private final OutputStream out;
+    private final boolean prettyPrint;
+    private final byte[] inBuf = new byte[8192];
+    private int inPos = 0;
+    private int inLimit = 0;
+    private final byte[] outBuf = new byte[8192];
+    private int outPos = 0;
+    private long offset = 0;
+    private byte[] bare = new byte[64];   // number or literal being copied
+
+    private boolean[] objectAtDepth = new boolean[32];
+    private int depth = 0;
+    private boolean pendingOpen = false;   // '{' or '[' written, but whether it is empty is not known yet
+
+    JsonFormatter(InputStream in, OutputStream out, boolean prettyPrint) {
+        this.in = in;
+        this.out = out;
+        this.prettyPrint = prettyPrint;
+    }
+
+    /**
+     * Format all of the input.  The streams are not closed; the output is flushed.
+     */
+    void format() throws IOException {
+        int state = VALUE;
+        boolean any = false;
+        int c;
+        while ((c = nextToken()) != -1) {
+            switch (c) {
+                case '{':
+                case '[':
+                    if (state == NEXT_ROOT) {
+                        newLine();
+                        state = VALUE;
+                    }
+                    expect(state == VALUE || state == VALUE_OR_CLOSE, c);
+                    beforeValue();
+                    write(c);
+                    push(c == '{');
+                    pendingOpen = true;
+                    state = c == '{' ? KEY_OR_CLOSE : VALUE_OR_CLOSE;
+                    break;
+
+                case '}':
+                case ']':
+                    boolean object = c == '}';
+                    expect(depth > 0 && objectAtDepth[depth - 1] == object &&
+                            (state == COMMA_OR_CLOSE || state == (object ? KEY_OR_CLOSE : VALUE_OR_CLOSE)), c);
+                    depth--;
+                    if (pendingOpen) {
+                        pendingOpen = false;
+                    } else {
+                        indent();
+                    }
+                    write(c);
+                    state = depth == 0 ? NEXT_ROOT : COMMA_OR_CLOSE;
+                    break;
+
+                case ',':
+                    expect(state == COMMA_OR_CLOSE, c);
+                    write(c);
+                    indent();
+                    state = objectAtDepth[depth - 1] ? KEY : VALUE;
+                    break;
+
+                case ':':
+                    expect(state == COLON, c);
+                    write(c);
+                    state = VALUE;
+                    break;
+
+                case '"':
+                    if (state == NEXT_ROOT) {
+                        newLine();
+                        state = VALUE;
+                    }
+                    boolean key = state == KEY_OR_CLOSE || state == KEY;
+                    expect(key || state == VALUE || state == VALUE_OR_CLOSE, c);
+                    beforeValue();
+                    copyString();
+                    state = key ? COLON : afterValue();
+                    break;
+
+                default:
+                    if (state == NEXT_ROOT) {
+                        newLine();
+                        state = VALUE;
+                    }
+                    expect(isBare(c) && (state == VALUE || state == VALUE_OR_CLOSE), c);
+                    beforeValue();
+                    copyBare(c);
+                    state = afterValue();
+            }
+            any = true;
+        }
+
+        if (depth > 0 || state == COLON || (any && state == VALUE)) {
+            throw new JsonIoException("EOF reached before the end of the JSON, at offset: " + offset);
+        }
+        flushOut();
+        out.flush();
+    }
+
+    private int afterValue() {
+        return depth == 0 ? NEXT_ROOT : COMMA_OR_CLOSE;
+    }
+
+    private void beforeValue() throws IOException {
+        if (pendingOpen) {
+            pendingOpen = false;
+            indent();
+        }
+    }
+
+    private void push(boolean object) {
+        if (depth == objectAtDepth.length) {
+            objectAtDepth = Arrays.copyOf(objectAtDepth, depth << 1);
+        }
+        objectAtDepth[depth++] = object;
+    }
+
+    private void expect(boolean ok, int c) {
+        if (!ok) {
+            throw new JsonIoException("Unexpected character '" + (char) c + "' at offset: " + (offset - 1));
+        }
+    }
+
+    /**
+     * @return next non-whitespace byte, or -1 at the end of the input.
+     */
+    private int nextToken() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private static boolean isBare(int c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '+' || c == '.';
+    }
+
+    /**
+     * Copy a number or literal (true, false, null, NaN, Infinity) verbatim, after checking that it is one.
+     */
+    private void copyBare(int c) throws IOException {
+        final long start = offset - 1;
+        int len = 0;
+        do {
+            if (len == bare.length) {
+                bare = Arrays.copyOf(bare, len << 1);
+            }
+            bare[len++] = (byte) c;
+        } while ((c = read()) != -1 && isBare(c));
+        if (c != -1) {
+            unread();
+        }
+        if (!isNumberOrLiteral(bare, len)) {
+            throw new JsonIoException("Invalid number or literal '" + new String(bare, 0, len, StandardCharsets.US_ASCII) + "' at offset: " + start);
+        }
+        writeBytes(bare, 0, len);
+    }
+
+    private static final byte[][] LITERALS = {
+            "true".getBytes(StandardCharsets.US_ASCII), "false".getBytes(StandardCharsets.US_ASCII),
+            "null".getBytes(StandardCharsets.US_ASCII), "NaN".getBytes(StandardCharsets.US_ASCII),
+            "Infinity".getBytes(StandardCharsets.US_ASCII), "-Infinity".getBytes(StandardCharsets.US_ASCII)
+    };
+
+    /**
+     * @return true if b[0, len) is one of the LITERALS or a JSON number: -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+     */
+    private static boolean isNumberOrLiteral(byte[] b, int len) {
+        for (byte[] literal : LITERALS) {
+            if (matches(b, len, literal)) {
+                return true;
+            }
+        }
+        int i = 0;
+        if (b[i] == '-') {
+            i++;
+        }
+        if (i < len && b[i] == '0') {
+            i++;
+        } else {
+            int digits = skipDigits(b, i, len);
+            if (digits == i) {
+                return false;
+            }
+            i = digits;
+        }
+        if (i < len && b[i] == '.') {
+            int digits = skipDigits(b, ++i, len);
+            if (digits == i) {
+                return false;
+            }
+            i = digits;
+        }
+        if (i < len && (b[i] == 'e' || b[i] == 'E')) {
+            i++;
+            if (i < len && (b[i] == '+' || b[i] == '-')) {
+                i++;
+            }
+            int digits = skipDigits(b, i, len);
+            if (digits == i) {
+                return false;
+            }
+            i = digits;
+        }
+        return i == len;
+    }
+
+    private static boolean matches(byte[] b, int len, byte[] literal) {
+        if (len != literal.length) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (b[i] != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipDigits(byte[] b, int i, int len) {
+        while (i < len && b[i] >= '0' && b[i] <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Copy a string, opening quote already read, verbatim through its closing quote.
+     */
+    private void copyString() throws IOException {
+        write('"');
+        while (true) {
+            // Copy runs of plain bytes in bulk
+            int start = inPos;
+            while (inPos < inLimit) {
+                byte b = inBuf[inPos];
+                if (b == '"' || b == '\\') {
+                    break;
+                }
+                inPos++;
+            }
+            writeBytes(inBuf, start, inPos - start);
+            offset += inPos - start;
+
+            int c = read();
+            if (c == -1) {
+                throw new JsonIoException("EOF reached inside a string, at offset: " + offset);
+            }
+            write(c);
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                c = read();
+                if (c == -1) {
+                    throw new JsonIoException("EOF reached inside a string, at offset: " + offset);
+                }
+                write(c);
+            }
+        }
+    }
+
+    private void indent() throws IOException {
+        if (prettyPrint) {
+            writeBytes(NEW_LINE, 0, NEW_LINE.length);
+            for (int i = 0; i < depth; i++) {
+                write(' ');
+                write(' ');
+            }
+        }
+    }
+
+    private void newLine() throws IOException {
+        if (prettyPrint) {
+            writeBytes(NEW_LINE, 0, NEW_LINE.length);
+        } else {
+            write('\n');
+        }
+    }
+
+    private int read() throws IOException {
+        if (inPos == inLimit) {
+            int n = in.read(inBuf, 0, inBuf.length);
+            if (n <= 0) {
+                return -1;
+            }
+            inPos = 0;
+            inLimit = n;
+        }
+        offset++;
+        return inBuf[inPos++] & 0xFF;
+    }
+
+    private void unread() {
+        inPos--;
+        offset--;
+    }
+
+    private void write(int b) throws IOException {
+        if (outPos == outBuf.length) {
+            flushOut();
+        }
+        outBuf[outPos++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes, int off, int len) throws IOException {
+        if (len > outBuf.length - outPos) {
+            flushOut();
+            if (len > outBuf.length) {
+                out.write(bytes, off, len);
+                return;
+            }
+        }
+        System.arraycopy(bytes, off, outBuf, outPos, len);
+        outPos += len;
+    }
+
+    private void flushOut() throws IOException {
+        if (outPos > 0) {
+            out.write(outBuf, 0, outPos);
+            outPos = 0;
+        }
+    }
+}
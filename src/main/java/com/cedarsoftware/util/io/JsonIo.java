@@ -4,9 +4,21 @@ import com.cedarsoftware.util.Convention;
 import com.cedarsoftware.util.convert.Converter;
 import com.cedarsoftware.util.convert.DefaultConverterOptions;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 import com.cedarsoftware.util.FastByteArrayInputStream;
 import com.cedarsoftware.util.FastByteArrayOutputStream;
@@ -82,10 +94,100 @@ public class JsonIo {
      * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
      */
     public static String toJson(Object srcObject, WriteOptions writeOptions) {
-        FastByteArrayOutputStream out = new FastByteArrayOutputStream();
-        try (JsonWriter writer = new JsonWriter(out, writeOptions)) {
+        StringBuilder json = new StringBuilder(256);
+        toJson(json, srcObject, writeOptions);
+        return json.toString();
+    }
+
+    /**
+     * Convert the passed in Java source object to UTF-8 encoded JSON.  The characters are encoded as they are
+     * written, so there is no intermediate String.
+     * @param srcObject Java instance to convert to JSON format.  Can be a JsonObject that was loaded earlier
+     *                  via .toObjects() with readOptions.returnAsNativeJsonObjects().
+     * @param writeOptions Feature options settings to control the JSON output.  Can be null,
+     *                     in which case, default settings will be used.
+     * @return byte[] of exactly the size of the UTF-8 JSON.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static byte[] toJsonBytes(Object srcObject, WriteOptions writeOptions) {
+        Utf8ByteWriter out = new Utf8ByteWriter();
+        writeTo(out, srcObject, writeOptions);
+        return out.toByteArray();
+    }
+
+    /**
+     * Convert the passed in Java source object to JSON, appending the characters directly to the destination.
+     * @param out Appendable destination (StringBuilder, Writer, CharBuffer, ...).  It is not closed.
+     * @param srcObject Java instance to convert to JSON format.  Can be a JsonObject that was loaded earlier
+     *                  via .toObjects() with readOptions.returnAsNativeJsonObjects().
+     * @param writeOptions Feature options settings to control the JSON output.  Can be null,
+     *                     in which case, default settings will be used.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static void toJson(Appendable out, Object srcObject, WriteOptions writeOptions) {
+        Convention.throwIfNull(out, "Appendable cannot be null");
+        writeTo(new AppendableWriter(out), srcObject, writeOptions);
+    }
+
+    /**
+     * Convert the passed in Java source object to UTF-8 encoded JSON, placed into the ByteBuffer starting at its
+     * position.  On return, the position is just past the JSON.  If the JSON does not fit, a JsonIoException is
+     * thrown and the position is left unchanged.
+     * @param out ByteBuffer destination (heap or direct).
+     * @param srcObject Java instance to convert to JSON format.
+     * @param writeOptions Feature options settings to control the JSON output.  Can be null,
+     *                     in which case, default settings will be used.
+     * @return int number of bytes written.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static int toJson(ByteBuffer out, Object srcObject, WriteOptions writeOptions) {
+        Convention.throwIfNull(out, "ByteBuffer cannot be null");
+        final int start = out.position();
+        try {
+            writeTo(new Utf8ByteWriter(out), srcObject, writeOptions);
+        } catch (JsonIoException e) {
+            out.position(start);
+            if (e.getCause() instanceof BufferOverflowException) {
+                throw new JsonIoException("JSON does not fit in ByteBuffer, remaining: " + (out.limit() - start), e.getCause());
+            }
+            throw e;
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Convert the passed in Java source object to UTF-8 encoded JSON, written to the channel in chunks.  The
+     * channel is closed afterward unless writeOptions.closeStream(false) is set.
+     * @param out WritableByteChannel destination (FileChannel, SocketChannel, ...).
+     * @param srcObject Java instance to convert to JSON format.
+     * @param writeOptions Feature options settings to control the JSON output.  Can be null,
+     *                     in which case, default settings will be used.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static void toJson(WritableByteChannel out, Object srcObject, WriteOptions writeOptions) {
+        Convention.throwIfNull(out, "WritableByteChannel cannot be null");
+        try {
+            writeTo(new Utf8ByteWriter(out), srcObject, writeOptions);
+        } finally {
+            if (writeOptions == null || writeOptions.isCloseStream()) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    throw new JsonIoException("Unable to close channel", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * JsonWriter.flush() and close() swallow IOExceptions, so the destination Writer is flushed here directly,
+     * letting a failed write (full ByteBuffer, closed channel) surface as a JsonIoException.
+     */
+    private static void writeTo(Writer out, Object srcObject, WriteOptions writeOptions) {
+        try {
+            JsonWriter writer = new JsonWriter(out, writeOptions);
             writer.write(srcObject);
-            return out.toString();
+            out.close();
         } catch (JsonIoException je) {
             throw je;
         } catch (Exception e) {
@@ -146,7 +248,52 @@ public class JsonIo {
         if (json == null) {
             json = "";
         }
-        return toObjects(new FastByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), readOptions, rootType);
+        return readInMemory(new JsonReader(json, readOptions), rootType);
+    }
+
+    /**
+     * Convert the passed in JSON to Java Objects.  The characters are parsed in place - the array is not copied,
+     * and must not be modified while it is being read.
+     * @param json char[] containing JSON content.
+     * @param readOptions Feature options settings to control the JSON processing.  Can be null,
+     *                     in which case, default settings will be used.
+     * @param rootType Class of the root type of object that will be returned. Can be null, in which
+     *                 case a best-guess will be made for the Class type of the return object.
+     * @return rootType Java instance that represents the Java equivalent of the passed in JSON.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static <T> T toObjects(char[] json, ReadOptions readOptions, Class<T> rootType) {
+        Convention.throwIfNull(json, "char[] cannot be null");
+        return readInMemory(new JsonReader(json, 0, json.length, readOptions), rootType);
+    }
+
+    /**
+     * Convert the passed in UTF-8 encoded JSON to Java Objects.  The bytes are decoded as they are parsed, straight
+     * from the array (no InputStream, Reader or intermediate String), so a slice of a larger buffer (e.g. a network
+     * frame) can be read without copying it.
+     * @param utf8 byte[] containing UTF-8 encoded JSON content.
+     * @param offset int index of the first byte of the JSON.
+     * @param length int number of bytes of JSON.
+     * @param readOptions Feature options settings to control the JSON processing.  Can be null,
+     *                     in which case, default settings will be used.
+     * @param rootType Class of the root type of object that will be returned. Can be null, in which
+     *                 case a best-guess will be made for the Class type of the return object.
+     * @return rootType Java instance that represents the Java equivalent of the passed in JSON.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static <T> T toObjects(byte[] utf8, int offset, int length, ReadOptions readOptions, Class<T> rootType) {
+        Convention.throwIfNull(utf8, "byte[] cannot be null");
+        return readInMemory(new JsonReader(utf8, offset, length, readOptions), rootType);
+    }
+
+    private static <T> T readInMemory(JsonReader jr, Class<T> rootType) {
+        try {
+            return jr.readObject(rootType);
+        } catch (JsonIoException je) {
+            throw je;
+        } catch (Exception e) {
+            throw new JsonIoException(e);
+        }
     }
 
     /**
@@ -187,6 +334,161 @@ public class JsonIo {
         }
     }
 
+    /**
+     * Convert the passed in JSON to Java Objects of a generic root type, such as Map&lt;String, List&lt;Dto&gt;&gt;,
+     * that a Class cannot express.  Untyped JSON objects anywhere beneath the root are created as the classes the
+     * type declares for them, while the graph is resolved.
+     * @param json String containing JSON content.
+     * @param readOptions Feature options settings to control the JSON processing.  Can be null,
+     *                     in which case, default settings will be used.
+     * @param rootType TypeHolder capturing the generic root type, e.g. new TypeHolder&lt;List&lt;Dto&gt;&gt;() {}
+     * @return rootType Java instance that represents the Java equivalent of the passed in JSON string.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static <T> T toObjectsOfType(String json, ReadOptions readOptions, TypeHolder<T> rootType) {
+        if (json == null) {
+            json = "";
+        }
+        try {
+            return new JsonReader(json, readOptions).readObjectOfType(rootType);
+        } catch (JsonIoException je) {
+            throw je;
+        } catch (Exception e) {
+            throw new JsonIoException(e);
+        }
+    }
+
+    /**
+     * Convert the passed in JSON to Java Objects of a generic root type, such as Map&lt;String, List&lt;Dto&gt;&gt;.
+     * @param in InputStream bringing JSON content.  By default, it will be closed.  If you don't want
+     *           it closed after reading, set readOptions.closeStream(false).
+     * @param readOptions Feature options settings to control the JSON processing.  Can be null,
+     *                     in which case, default settings will be used.
+     * @param rootType TypeHolder capturing the generic root type, e.g. new TypeHolder&lt;List&lt;Dto&gt;&gt;() {}
+     * @return rootType Java instance that represents the Java equivalent of the JSON input.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static <T> T toObjectsOfType(InputStream in, ReadOptions readOptions, TypeHolder<T> rootType) {
+        Convention.throwIfNull(in, "InputStream cannot be null");
+
+        JsonReader jr = null;
+        try  {
+            jr = new JsonReader(in, readOptions);
+            return jr.readObjectOfType(rootType);
+        } catch (JsonIoException je) {
+            throw je;
+        } catch (Exception e) {
+            throw new JsonIoException(e);
+        }
+        finally {
+            if (readOptions != null && readOptions.isCloseStream()) {
+                if (jr != null) {
+                    jr.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Read an NDJSON (newline delimited JSON) file on all cores of the common ForkJoinPool.  Each line is one record,
+     * converted to Java exactly as toObjects() would convert it on its own; blank lines are skipped.
+     * @param ndjson Path of the NDJSON file (UTF-8).
+     * @param readOptions Feature options settings to control the JSON processing.  Can be null,
+     *                     in which case, default settings will be used.
+     * @param rootType Class of the root type of each record. Can be null, in which case a best-guess will be made.
+     * @param ordered boolean true to receive the records in file order, on the calling thread.  false to receive
+     *                them as soon as they are read, concurrently on the pool's threads (the consumer must then be
+     *                thread-safe).
+     * @param consumer Consumer receiving each record.
+     * @throws JsonIoException A runtime exception thrown if the file cannot be read or a record is invalid.
+     */
+    public static <T> void readNdjson(Path ndjson, ReadOptions readOptions, Class<T> rootType, boolean ordered, Consumer<? super T> consumer) {
+        Convention.throwIfNull(ndjson, "Path cannot be null");
+        try (FileChannel channel = FileChannel.open(ndjson, StandardOpenOption.READ)) {
+            readNdjson(channel, readOptions, rootType, ordered, null, consumer);
+        } catch (IOException e) {
+            throw new JsonIoException("Unable to read NDJSON file: " + ndjson, e);
+        }
+    }
+
+    /**
+     * Read NDJSON (newline delimited JSON) from a FileChannel in parallel: the channel is split into chunks of
+     * about 1MB at newlines, and the chunks are read (positional reads, so the channel's position is not used or
+     * changed) and converted concurrently.  The channel is not closed.
+     * @param channel FileChannel holding UTF-8 NDJSON, from offset 0 to its size.
+     * @param readOptions Feature options settings to control the JSON processing.  Can be null,
+     *                     in which case, default settings will be used.
+     * @param rootType Class of the root type of each record. Can be null, in which case a best-guess will be made.
+     * @param ordered boolean true to receive the records in file order, on the calling thread.  false to receive
+     *                them as soon as they are read, concurrently on the pool's threads (the consumer must then be
+     *                thread-safe).
+     * @param pool ForkJoinPool to read on.  Can be null, in which case the common pool is used.
+     * @param consumer Consumer receiving each record.
+     * @throws JsonIoException A runtime exception thrown if the channel cannot be read or a record is invalid.
+     */
+    public static <T> void readNdjson(FileChannel channel, ReadOptions readOptions, Class<T> rootType, boolean ordered, ForkJoinPool pool, Consumer<? super T> consumer) {
+        Convention.throwIfNull(channel, "FileChannel cannot be null");
+        Convention.throwIfNull(consumer, "Consumer cannot be null");
+        try {
+            new NdjsonParallelReader<>(channel, readOptions, rootType, pool, NdjsonParallelReader.CHUNK_SIZE).read(ordered, consumer);
+        } catch (JsonIoException je) {
+            throw je;
+        } catch (Exception e) {
+            throw new JsonIoException("Unable to read NDJSON", e);
+        }
+    }
+
+    /**
+     * Read just the value at a JSON Pointer (RFC 6901) out of a JSON document, e.g.
+     * <pre>String tenant = JsonIo.extract(in, "/header/tenantId", null, String.class);</pre>
+     * Members and elements not on the path are skipped without being built, reading stops as soon as the value
+     * has been read, and only that value is converted to Java.
+     * @param in InputStream bringing JSON content.  By default, it will be closed.  If you don't want
+     *           it closed after reading, set readOptions.closeStream(false).
+     * @param pointer String JSON Pointer, e.g. "/a/b/0/c".  "" selects the whole document.
+     * @param readOptions Feature options settings to control the JSON processing.  Can be null,
+     *                     in which case, default settings will be used.
+     * @param type Class of the value to return.  Can be null, in which case the natural type is returned.
+     * @return the value at the pointer, or null if the document does not contain it.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during parsing
+     */
+    public static <T> T extract(InputStream in, String pointer, ReadOptions readOptions, Class<T> type) {
+        Convention.throwIfNull(in, "InputStream cannot be null");
+        Convention.throwIfNull(pointer, "JSON Pointer cannot be null");
+        JsonReader jr = new JsonReader(in, readOptions);
+        try {
+            return jr.extract(pointer, type);
+        } finally {
+            if (readOptions == null || readOptions.isCloseStream()) {
+                jr.close();
+            }
+        }
+    }
+
+    /**
+     * Read just the values at several JSON Pointers (RFC 6901) out of a JSON document, in a single pass that stops
+     * as soon as the last one has been found.
+     * @param in InputStream bringing JSON content.  By default, it will be closed.  If you don't want
+     *           it closed after reading, set readOptions.closeStream(false).
+     * @param pointers Collection of JSON Pointer Strings.
+     * @param readOptions Feature options settings to control the JSON processing.  Can be null,
+     *                     in which case, default settings will be used.
+     * @return Map of pointer to value, for the pointers found in the document.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during parsing
+     */
+    public static Map<String, Object> extract(InputStream in, Collection<String> pointers, ReadOptions readOptions) {
+        Convention.throwIfNull(in, "InputStream cannot be null");
+        Convention.throwIfNull(pointers, "JSON Pointers cannot be null");
+        JsonReader jr = new JsonReader(in, readOptions);
+        try {
+            return jr.extract(pointers);
+        } finally {
+            if (readOptions == null || readOptions.isCloseStream()) {
+                jr.close();
+            }
+        }
+    }
+
     /**
      * Convert a root JsonObject that represents parsed JSON, into an actual Java object.
      * @param rootType The class that represents, in Java, the root of the underlying JSON from which the JsonObject
@@ -202,6 +504,98 @@ public class JsonIo {
         return reader.convertJsonValueToJava(jsonObject, rootType);
     }
 
+    /**
+     * Convert the passed in Java source object to the json-io binary format.  The binary format carries the same
+     * content as the JSON (including @type, @id and @ref), but is smaller and faster to write and read.  Use
+     * fromBinary() to read it back.
+     * @param srcObject Java instance to convert to binary format.
+     * @param writeOptions Feature options settings to control the output.  Can be null,
+     *                     in which case, default settings will be used.
+     * @return byte[] containing the binary representation of srcObject.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static byte[] toBinary(Object srcObject, WriteOptions writeOptions) {
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream();
+        try (BinaryJsonWriter writer = new BinaryJsonWriter(out, writeOptions)) {
+            writer.write(srcObject);
+            return out.toByteArray();
+        } catch (JsonIoException je) {
+            throw je;
+        } catch (Exception e) {
+            throw new JsonIoException("Unable to convert object to binary JSON", e);
+        }
+    }
+
+    /**
+     * Convert the passed in Java source object to the json-io binary format, written to the passed in OutputStream.
+     * @param out OutputStream destination for the binary output.  The OutputStream will be closed by default.  If
+     *            you don't want this, set writeOptions.closeStream(false).
+     * @param source Java instance to convert to binary format.
+     * @param writeOptions Feature options settings to control the output.  Can be null,
+     *                     in which case, default settings will be used.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during serialization
+     */
+    public static void toBinary(OutputStream out, Object source, WriteOptions writeOptions) {
+        Convention.throwIfNull(out, "OutputStream cannot be null");
+        BinaryJsonWriter writer = null;
+        try {
+            writer = new BinaryJsonWriter(out, writeOptions);
+            writer.write(source);
+        } catch (JsonIoException je) {
+            throw je;
+        } catch (Exception e) {
+            throw new JsonIoException("Unable to convert object and send in binary JSON format to OutputStream.", e);
+        }
+        finally {
+            if (writer != null && writer.getWriteOptions().isCloseStream()) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Convert json-io binary content (written by toBinary()) to Java Objects.
+     * @param bytes byte[] containing binary json-io content.
+     * @param readOptions Feature options settings to control the processing.  Can be null,
+     *                     in which case, default settings will be used.
+     * @param rootType Class of the root type of object that will be returned. Can be null.
+     * @return rootType Java instance that represents the Java equivalent of the binary content.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during deserialization
+     */
+    public static <T> T fromBinary(byte[] bytes, ReadOptions readOptions, Class<T> rootType) {
+        Convention.throwIfNull(bytes, "bytes cannot be null");
+        return fromBinary(new FastByteArrayInputStream(bytes), readOptions, rootType);
+    }
+
+    /**
+     * Convert json-io binary content (written by toBinary()) to Java Objects.
+     * @param in InputStream bringing binary json-io content.  By default, it will be closed.  If you don't want
+     *           it closed after reading, set readOptions.closeStream(false).
+     * @param readOptions Feature options settings to control the processing.  Can be null,
+     *                     in which case, default settings will be used.
+     * @param rootType Class of the root type of object that will be returned. Can be null.
+     * @return rootType Java instance that represents the Java equivalent of the binary content.
+     * @throws JsonIoException A runtime exception thrown if any errors happen during deserialization
+     */
+    public static <T> T fromBinary(InputStream in, ReadOptions readOptions, Class<T> rootType) {
+        Convention.throwIfNull(in, "InputStream cannot be null");
+
+        BinaryJsonReader reader = null;
+        try {
+            reader = new BinaryJsonReader(in, readOptions);
+            return reader.readObject(rootType);
+        } catch (JsonIoException je) {
+            throw je;
+        } catch (Exception e) {
+            throw new JsonIoException(e);
+        }
+        finally {
+            if (reader != null && reader.getReadOptions().isCloseStream()) {
+                reader.close();
+            }
+        }
+    }
+
     /**
      * Format the passed in JSON into multi-line, indented format, commonly used in JSON online editors.
      * @param readOptions ReadOptions to control the feature options. Can be null to take the defaults.
@@ -231,13 +625,51 @@ public class JsonIo {
      * @return String JSON formatted in human readable, standard multi-line, indented format.
      */
     public static String formatJson(String json) {
-        return formatJson(json,
-                new ReadOptionsBuilder().returnAsNativeJsonObjects().build(),
-                new WriteOptionsBuilder().prettyPrint(true).build());
+        return reformatJson(json, true);
+    }
+
+    /**
+     * Remove all whitespace between the tokens of the passed in JSON.  Strings and numbers are copied verbatim.
+     * @param json String JSON content.
+     * @return String JSON on a single line, with no optional whitespace.
+     */
+    public static String minifyJson(String json) {
+        return reformatJson(json, false);
+    }
+
+    /**
+     * Re-indent or minify JSON from an InputStream to an OutputStream, token by token.  Nothing is parsed into
+     * objects - strings, numbers and literals are copied byte for byte - so memory use stays constant no matter
+     * how large the input is.  Several root values in a row (NDJSON) are each formatted and separated by a newline.
+     * Neither stream is closed; the OutputStream is flushed.
+     * @param in InputStream supplying UTF-8 JSON.
+     * @param out OutputStream receiving the formatted UTF-8 JSON.
+     * @param prettyPrint boolean true for multi-line, indented output (the layout of WriteOptions.prettyPrint()),
+     *                    false for minified output.
+     * @throws JsonIoException if the JSON structure is invalid, or on an I/O error.
+     */
+    public static void formatJson(InputStream in, OutputStream out, boolean prettyPrint) {
+        Convention.throwIfNull(in, "InputStream cannot be null");
+        Convention.throwIfNull(out, "OutputStream cannot be null");
+        try {
+            new JsonFormatter(in, out, prettyPrint).format();
+        } catch (IOException e) {
+            throw new JsonIoException("Unable to format JSON", e);
+        }
+    }
+
+    private static String reformatJson(String json, boolean prettyPrint) {
+        Convention.throwIfNull(json, "JSON cannot be null");
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream(json.length() + (json.length() >> 1));
+        formatJson(new FastByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), out, prettyPrint);
+        return new String(out.getBuffer(), 0, out.size(), StandardCharsets.UTF_8);
     }
 
     /**
-     * Copy an object graph using JSON.
+     * Copy an object graph.  Ordinary graphs (plain classes, arrays, the common JDK collections and maps, and
+     * value types) are copied object to object, honoring the same field Accessors, Injectors and options that a
+     * JSON round trip would, with shared references and cycles preserved.  Graphs containing classes with a
+     * custom writer, custom reader, ClassFactory or coercion are copied through JSON.
      * @param source Object root object to copy
      * @param readOptions ReadOptions feature settings. Can be null for default ReadOptions.
      * @param writeOptions WriteOptions feature settings. Can be null for default WriteOptions.
@@ -250,8 +682,26 @@ public class JsonIo {
             return null;
         }
 
+        Object event = FlightRecorderSupport.deepCopyEnabled() ? FlightRecorderSupport.INSTANCE.beginDeepCopy() : null;
+        DeepCopier copier = new DeepCopier(
+                readOptions == null ? new ReadOptionsBuilder().returnAsJavaObjects().build() : readOptions,
+                writeOptions == null ? new WriteOptionsBuilder().build() : writeOptions);
+        try {
+            T copy = (T) copier.copy(source);
+            if (event != null) {
+                FlightRecorderSupport.INSTANCE.commitDeepCopy(event, source.getClass(), copier.getCopyCount(), false);
+            }
+            return copy;
+        } catch (DeepCopier.Unsupported e) {
+            // fall through to the JSON round trip
+        }
+
         String json = toJson(source, writeOptions);
-        return (T) toObjects(json, readOptions, source.getClass());
+        T copy = (T) toObjects(json, readOptions, source.getClass());
+        if (event != null) {
+            FlightRecorderSupport.INSTANCE.commitDeepCopy(event, source.getClass(), 0, true);
+        }
+        return copy;
     }
 
     /**
@@ -0,0 +1,46 @@
+package com.cedarsoftware.util.io;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class for which JsonIoCompiledProcessor generates a CompiledCodec at compile time: a JsonClassWriter and
+ * ClassFactory that read and write the fields with plain field access (or the field's getter / setter when the field
+ * is private), instead of the reflective Accessors and Injectors.  The generated codecs are listed in
+ * META-INF/services/com.cedarsoftware.util.io.CompiledCodec and added to the base custom writers and class factories
+ * when ReadOptionsBuilder / WriteOptionsBuilder are first used, so nothing has to be registered by hand.
+ * <br><br>
+ * The processor is not registered automatically.  Enable it with javac -processor
+ * com.cedarsoftware.util.io.JsonIoCompiledProcessor, or list it under the maven-compiler-plugin's
+ * &lt;annotationProcessors&gt;.
+ * <br><br>
+ * The JSON is the same as the reflective form: the same field names and order, @type / @id / @ref handling and
+ * WriteOptions such as skipNullFields() and writeLongsAsStrings() apply.  The field set is fixed at compile time
+ * (all non-static, non-transient fields including inherited ones), so included / excluded field and FieldFilter
+ * options are not applied to the class; use WriteOptionsBuilder.addNotCustomWrittenClass() to write it reflectively
+ * again.  Subclasses of an annotated class are written and read reflectively unless they are annotated themselves.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface JsonIoCompiled {
+}
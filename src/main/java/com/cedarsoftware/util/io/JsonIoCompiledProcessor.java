@@ -0,0 +1,429 @@
+package com.cedarsoftware.util.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that generates a CompiledCodec (JsonClassWriter + ClassFactory) for each class annotated with
+ * {@link JsonIoCompiled}, named &lt;Class&gt;_JsonIoCodec (nested class names joined with '_') in the package of the
+ * class, and lists the codecs in META-INF/services/com.cedarsoftware.util.io.CompiledCodec.
+ * <br><br>
+ * The writer writes every non-static, non-transient field (subclass fields first, then superclass fields, in
+ * declaration order; a field hidden by a subclass field of the same name is written as "Class.field" - the same
+ * names and order the reflective writer uses) with direct field access, or through the field's getter when the field
+ * cannot be accessed from the class's package.  The factory instantiates the class with its no-arg constructor and,
+ * when every field is a primitive, primitive wrapper or String that it can assign (directly or through a setter),
+ * fills the whole object itself.  Otherwise it only creates the instance and the fields are injected as usual.
+ * <br><br>
+ * The field list is fixed when the codec is generated, so it is checked against the options at runtime: when field
+ * exclusions, inclusions, filters or non-standard accessors give the reflective writer a different list, the object
+ * is written reflectively, and when the reader would not inject every field, the factory leaves the fields to the
+ * reflective path.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+public class JsonIoCompiledProcessor extends AbstractProcessor {
+    static final String CODEC_SUFFIX = "_JsonIoCodec";
+    private static final String SERVICE_FILE = "META-INF/services/" + CompiledCodec.class.getName();
+    private static final String SUPPORT = CompiledCodecSupport.class.getName();
+    private static final Set<String> WRAPPERS = new HashSet<>(Arrays.asList(
+            "java.lang.Boolean", "java.lang.Byte", "java.lang.Short", "java.lang.Integer", "java.lang.Long",
+            "java.lang.Float", "java.lang.Double", "java.lang.Character", "java.lang.String"));
+
+    private final Set<String> codecNames = new LinkedHashSet<>();
+
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(JsonIoCompiled.class.getName());
+    }
+
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(JsonIoCompiled.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@JsonIoCompiled can only be placed on a class");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            try {
+                ClassModel model = buildModel(type);
+                if (model != null) {
+                    writeCodec(model);
+                    codecNames.add(model.codecName);
+                }
+            } catch (IOException e) {
+                error(type, "Unable to write the json-io codec for " + type.getQualifiedName() + ": " + e.getMessage());
+            }
+        }
+
+        if (roundEnv.processingOver() && !codecNames.isEmpty()) {
+            writeServiceFile();
+        }
+        return true;
+    }
+
+    /**
+     * One field as the generated code reads and writes it.
+     */
+    private static class FieldModel {
+        String jsonName;
+        String typeName;         // erased type, usable as a class literal
+        TypeKind kind;           // primitive kind, or DECLARED / ARRAY
+        boolean simple;          // primitive, primitive wrapper or String
+        String read;             // expression reading the field from 'obj'
+        String assign;           // statement assigning %s to the field of 'obj', or null if it cannot be assigned
+    }
+
+    private static class ClassModel {
+        TypeElement type;
+        String packageName;
+        String className;        // qualified source name of the annotated class
+        String codecSimpleName;
+        String codecName;
+        boolean noArgConstructor;
+        final List<FieldModel> fields = new ArrayList<>();
+    }
+
+    private ClassModel buildModel(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(type, "@JsonIoCompiled class must not be abstract");
+            return null;
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            TypeElement t = (TypeElement) e;
+            if (t.getModifiers().contains(Modifier.PRIVATE)) {
+                error(type, "@JsonIoCompiled class must not be private, or nested in a private class");
+                return null;
+            }
+            if (t.getNestingKind() == NestingKind.MEMBER && !t.getModifiers().contains(Modifier.STATIC)) {
+                error(type, "@JsonIoCompiled class must be a top level or static nested class");
+                return null;
+            }
+            if (t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS) {
+                error(type, "@JsonIoCompiled class must be a top level or static nested class");
+                return null;
+            }
+        }
+        if (isSubtypeOf(type, "java.util.Map") || isSubtypeOf(type, "java.util.Collection")) {
+            error(type, "@JsonIoCompiled class must not be a Map or Collection");
+            return null;
+        }
+
+        ClassModel model = new ClassModel();
+        model.type = type;
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        model.packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        model.className = type.getQualifiedName().toString();
+        StringBuilder simple = new StringBuilder();
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            simple.insert(0, simple.length() == 0 ? e.getSimpleName() : e.getSimpleName() + "_");
+        }
+        model.codecSimpleName = simple + CODEC_SUFFIX;
+        model.codecName = model.packageName.isEmpty() ? model.codecSimpleName : model.packageName + '.' + model.codecSimpleName;
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && isAccessible(constructor, model.packageName)) {
+                model.noArgConstructor = true;
+            }
+        }
+
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+        Set<String> names = new HashSet<>();
+        boolean ok = true;
+        TypeElement curr = type;
+        while (curr != null && !"java.lang.Object".contentEquals(curr.getQualifiedName())) {
+            for (VariableElement field : ElementFilter.fieldsIn(curr.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                String name = field.getSimpleName().toString();
+                FieldModel f = new FieldModel();
+                f.jsonName = names.add(name) ? name : curr.getSimpleName() + "." + name;
+                TypeMirror fieldType = field.asType();
+                f.typeName = typeName(fieldType);
+                f.kind = fieldType.getKind();
+                f.simple = fieldType.getKind().isPrimitive() || WRAPPERS.contains(f.typeName);
+
+                String property = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+                if (isAccessible(field, model.packageName)) {
+                    // A field hidden by a subclass field of the same name is reached through a cast
+                    String target = curr == type ? "obj" : "((" + curr.getQualifiedName() + ") obj)";
+                    f.read = target + "." + name;
+                    f.assign = modifiers.contains(Modifier.FINAL) ? null : f.read + " = %s";
+                } else if (!f.jsonName.equals(name)) {
+                    error(field, "Hidden field " + curr.getSimpleName() + "." + name + " of @JsonIoCompiled class " +
+                            type.getQualifiedName() + " cannot be accessed from its package");
+                    ok = false;
+                    continue;
+                } else {
+                    ExecutableElement getter = findMethod(methods, "get" + property, fieldType, model.packageName);
+                    if (getter == null && fieldType.getKind() == TypeKind.BOOLEAN) {
+                        getter = findMethod(methods, "is" + property, fieldType, model.packageName);
+                    }
+                    if (getter == null) {
+                        error(field, "Field " + curr.getSimpleName() + "." + name + " of @JsonIoCompiled class " +
+                                type.getQualifiedName() + " cannot be accessed from its package and has no getter");
+                        ok = false;
+                        continue;
+                    }
+                    f.read = "obj." + getter.getSimpleName() + "()";
+                    ExecutableElement setter = findSetter(methods, "set" + property, fieldType, model.packageName);
+                    if (setter != null) {
+                        f.assign = "obj." + setter.getSimpleName() + "(%s)";
+                    }
+                }
+                model.fields.add(f);
+            }
+            TypeMirror superclass = curr.getSuperclass();
+            curr = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return ok ? model : null;
+    }
+
+    private void writeCodec(ClassModel model) throws IOException {
+        boolean fillsObject = true;
+        for (FieldModel f : model.fields) {
+            fillsObject &= f.simple && f.assign != null;
+        }
+
+        StringBuilder s = new StringBuilder();
+        if (!model.packageName.isEmpty()) {
+            s.append("package ").append(model.packageName).append(";\n\n");
+        }
+        s.append("/**\n * json-io codec for ").append(model.className)
+                .append(", generated by ").append(getClass().getName()).append(".  Do not edit.\n */\n");
+        s.append("public final class ").append(model.codecSimpleName).append(" implements ")
+                .append(CompiledCodec.class.getName()).append(" {\n");
+
+        s.append("    private static final String[] FIELDS = {");
+        for (int i = 0; i < model.fields.size(); i++) {
+            s.append(i == 0 ? "\"" : ", \"").append(model.fields.get(i).jsonName).append('"');
+        }
+        s.append("};\n\n");
+
+        s.append("    public Class<?> getType() {\n");
+        s.append("        return ").append(model.className).append(".class;\n");
+        s.append("    }\n\n");
+
+        // Writer
+        s.append("    @SuppressWarnings(\"unused\")\n");
+        s.append("    public void write(Object o, boolean showType, java.io.Writer output, ")
+                .append(WriterContext.class.getName()).append(" context) throws java.io.IOException {\n");
+        s.append("        boolean first = !showType;\n");
+        s.append("        if (o.getClass() != ").append(model.className).append(".class || !").append(SUPPORT)
+                .append(".writesFields(").append(model.className).append(".class, FIELDS, context)) {\n");
+        s.append("            ").append(SUPPORT).append(".writeFields(o, first, context);\n");
+        s.append("            return;\n");
+        s.append("        }\n");
+        s.append("        ").append(model.className).append(" obj = (").append(model.className).append(") o;\n");
+        for (FieldModel f : model.fields) {
+            s.append("        first = context.writeField(first, \"").append(f.jsonName).append("\", ")
+                    .append(f.read).append(", ").append(f.typeName).append(".class);\n");
+        }
+        s.append("    }\n\n");
+
+        // Factory
+        String jsonObject = JsonObject.class.getName();
+        s.append("    public Object newInstance(Class<?> c, ").append(jsonObject).append(" jObj, ")
+                .append(ReaderContext.class.getName()).append(" context) {\n");
+        if (model.noArgConstructor) {
+            s.append("        if (c != ").append(model.className).append(".class) {\n");
+            s.append("            return ").append(MetaUtils.class.getName()).append(".newInstance(context.getConverter(), c, null);\n");
+            s.append("        }\n");
+            s.append("        ").append(model.className).append(" obj = new ").append(model.className).append("();\n");
+        } else {
+            s.append("        Object instance = ").append(MetaUtils.class.getName()).append(".newInstance(context.getConverter(), c, null);\n");
+            s.append("        if (c != ").append(model.className).append(".class) {\n");
+            s.append("            return instance;\n");
+            s.append("        }\n");
+            s.append("        ").append(model.className).append(" obj = (").append(model.className).append(") instance;\n");
+        }
+        if (fillsObject) {
+            // Every field is assigned here; anything unexpected is left to the reflective path, which sets all fields.
+            s.append("        if (!").append(SUPPORT).append(".injectsFields(").append(model.className).append(".class, FIELDS, context)) {\n");
+            s.append("            return obj;\n");
+            s.append("        }\n");
+            s.append("        for (java.util.Map.Entry<Object, Object> entry : jObj.entrySet()) {\n");
+            s.append("            Object value = entry.getValue();\n");
+            s.append("            if (value instanceof ").append(jsonObject).append(") {\n");
+            s.append("                return obj;\n");
+            s.append("            }\n");
+            s.append("            switch ((String) entry.getKey()) {\n");
+            for (FieldModel f : model.fields) {
+                s.append("                case \"").append(f.jsonName).append("\":\n");
+                s.append("                    ").append(String.format(f.assign, conversion(f))).append(";\n");
+                s.append("                    break;\n");
+            }
+            s.append("                default:\n");
+            s.append("                    if (context.getReadOptions().getMissingFieldHandler() != null) {\n");
+            s.append("                        return obj;\n");
+            s.append("                    }\n");
+            s.append("            }\n");
+            s.append("        }\n");
+            s.append("        jObj.setFinished();\n");
+        }
+        s.append("        return obj;\n");
+        s.append("    }\n");
+        s.append("}\n");
+
+        FileObject file = processingEnv.getFiler().createSourceFile(model.codecName, model.type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(s.toString());
+        }
+    }
+
+    private static String conversion(FieldModel f) {
+        switch (f.kind) {
+            case BOOLEAN:
+                return SUPPORT + ".toBoolean(value, context)";
+            case BYTE:
+                return SUPPORT + ".toByte(value, context)";
+            case SHORT:
+                return SUPPORT + ".toShort(value, context)";
+            case INT:
+                return SUPPORT + ".toInt(value, context)";
+            case LONG:
+                return SUPPORT + ".toLong(value, context)";
+            case FLOAT:
+                return SUPPORT + ".toFloat(value, context)";
+            case DOUBLE:
+                return SUPPORT + ".toDouble(value, context)";
+            case CHAR:
+                return SUPPORT + ".toChar(value, context)";
+            default:
+                return SUPPORT + ".convert(value, " + f.typeName + ".class, context)";
+        }
+    }
+
+    private void writeServiceFile() {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer writer = file.openWriter()) {
+                for (String name : codecNames) {
+                    writer.write(name);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + SERVICE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private ExecutableElement findMethod(List<ExecutableElement> methods, String name, TypeMirror returnType, String packageName) {
+        for (ExecutableElement method : methods) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().isEmpty() &&
+                    !method.getModifiers().contains(Modifier.STATIC) && isAccessible(method, packageName) &&
+                    processingEnv.getTypeUtils().isSameType(method.getReturnType(), returnType)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private ExecutableElement findSetter(List<ExecutableElement> methods, String name, TypeMirror paramType, String packageName) {
+        for (ExecutableElement method : methods) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == 1 &&
+                    !method.getModifiers().contains(Modifier.STATIC) && isAccessible(method, packageName) &&
+                    processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), paramType)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the member can be used from a class in packageName (the generated codec is not a subclass, so
+     * protected and package-private members are only accessible from their own package).
+     */
+    private boolean isAccessible(Element member, String packageName) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(member);
+        return (pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString()).equals(packageName);
+    }
+
+    private boolean isSubtypeOf(TypeElement type, String superTypeName) {
+        TypeElement superType = processingEnv.getElementUtils().getTypeElement(superTypeName);
+        return superType != null && processingEnv.getTypeUtils().isAssignable(
+                processingEnv.getTypeUtils().erasure(type.asType()), processingEnv.getTypeUtils().erasure(superType.asType()));
+    }
+
+    /**
+     * @return source name of the erasure of the type, usable in a class literal.
+     */
+    private static String typeName(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+            case CHAR:
+                return type.getKind().name().toLowerCase();
+            case ARRAY:
+                return typeName(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+            case TYPEVAR:
+                return typeName(((TypeVariable) type).getUpperBound());
+            default:
+                return "java.lang.Object";
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -2,13 +2,18 @@ package com.cedarsoftware.util.io;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.cedarsoftware.util.FastReader;
-import com.cedarsoftware.util.LRUCache;
 import com.cedarsoftware.util.reflect.Injector;
 
 import static com.cedarsoftware.util.io.JsonObject.ID;
@@ -55,9 +60,16 @@ import static com.cedarsoftware.util.io.JsonObject.TYPE;
  */
 class JsonParser {
     private static final JsonObject EMPTY_ARRAY = new JsonObject();  // compared with ==
-    private static final Map<String, String> stringCache = new LRUCache<>(2500);
-    private static final Map<Number, Number> numberCache = new LRUCache<>(2500);
+    private static final InternCache<String> stringCache = new InternCache<>(4096);
+    private static final InternCache<Number> numberCache = new InternCache<>(4096);
     private static final Map<String, String> substitutes = new LinkedHashMap<>();
+    // What skipValue() accepts next
+    private static final int SKIP_VALUE = 0;              // a value (start, after ':' or after ',' in an array)
+    private static final int SKIP_VALUE_OR_CLOSE = 1;     // after '['
+    private static final int SKIP_KEY_OR_CLOSE = 2;       // after '{'
+    private static final int SKIP_KEY = 3;                // after ',' in an object
+    private static final int SKIP_COLON = 4;              // after a key
+    private static final int SKIP_COMMA_OR_CLOSE = 5;     // after a value inside an object or array
     private final FastReader input;
     private final StringBuilder strBuf = new StringBuilder(256);
     private final StringBuilder hexBuf = new StringBuilder();
@@ -65,9 +77,21 @@ class JsonParser {
     private int curParseDepth = 0;
     private final boolean allowNanAndInfinity;
     private final int maxParseDepth;
+    // Resource budgets, all Integer.MAX_VALUE unless set in ReadOptions.  Counts are per document (startDocument()).
+    private final int maxStringLength;
+    private final int maxArrayLength;
+    private final int maxObjectCount;
+    private final int maxIdCount;
+    private int objectCount = 0;
+    private int idCount = 0;
     private final ReadOptions readOptions;
     private final ReferenceTracker references;
     private final Resolver resolver;
+    // Classes for the compact @type tokens ("N=className" / "N") seen so far, indexed by token.
+    private final List<Class<?>> typeTokens = new ArrayList<>();
+    private long[] skipNesting = new long[1];
+    private final boolean skipUnmappedFields;
+    private Map<Class<?>, Boolean> projectedClasses;
 
     static {
         // substitutes
@@ -78,53 +102,53 @@ class JsonParser {
         substitutes.put(SHORT_KEYS, KEYS);
 
         // Save heap memory by re-using common strings (String's immutable)
-        stringCache.put("", "");
-        stringCache.put("true", "true");
-        stringCache.put("True", "True");
-        stringCache.put("TRUE", "TRUE");
-        stringCache.put("false", "false");
-        stringCache.put("False", "False");
-        stringCache.put("FALSE", "FALSE");
-        stringCache.put("null", "null");
-        stringCache.put("yes", "yes");
-        stringCache.put("Yes", "Yes");
-        stringCache.put("YES", "YES");
-        stringCache.put("no", "no");
-        stringCache.put("No", "No");
-        stringCache.put("NO", "NO");
-        stringCache.put("on", "on");
-        stringCache.put("On", "On");
-        stringCache.put("ON", "ON");
-        stringCache.put("off", "off");
-        stringCache.put("Off", "Off");
-        stringCache.put("OFF", "OFF");
-        stringCache.put(ID, ID);
-        stringCache.put(REF, REF);
-        stringCache.put(ITEMS, ITEMS);
-        stringCache.put(TYPE, TYPE);
-        stringCache.put(KEYS, KEYS);
-        stringCache.put("0", "0");
-        stringCache.put("1", "1");
-        stringCache.put("2", "2");
-        stringCache.put("3", "3");
-        stringCache.put("4", "4");
-        stringCache.put("5", "5");
-        stringCache.put("6", "6");
-        stringCache.put("7", "7");
-        stringCache.put("8", "8");
-        stringCache.put("9", "9");
-
-        numberCache.put(-1L, -1L);
-        numberCache.put(0L, 0L);
-        numberCache.put(1L, 1L);
-        numberCache.put(-1.0d, -1.0d);
-        numberCache.put(0.0d, 0.0d);
-        numberCache.put(1.0d, 1.0d);
-        numberCache.put(Double.MIN_VALUE, Double.MIN_VALUE);
-        numberCache.put(Double.MAX_VALUE, Double.MAX_VALUE);
-        numberCache.put(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
-        numberCache.put(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
-        numberCache.put(Double.NaN, Double.NaN);
+        stringCache.intern("");
+        stringCache.intern("true");
+        stringCache.intern("True");
+        stringCache.intern("TRUE");
+        stringCache.intern("false");
+        stringCache.intern("False");
+        stringCache.intern("FALSE");
+        stringCache.intern("null");
+        stringCache.intern("yes");
+        stringCache.intern("Yes");
+        stringCache.intern("YES");
+        stringCache.intern("no");
+        stringCache.intern("No");
+        stringCache.intern("NO");
+        stringCache.intern("on");
+        stringCache.intern("On");
+        stringCache.intern("ON");
+        stringCache.intern("off");
+        stringCache.intern("Off");
+        stringCache.intern("OFF");
+        stringCache.intern(ID);
+        stringCache.intern(REF);
+        stringCache.intern(ITEMS);
+        stringCache.intern(TYPE);
+        stringCache.intern(KEYS);
+        stringCache.intern("0");
+        stringCache.intern("1");
+        stringCache.intern("2");
+        stringCache.intern("3");
+        stringCache.intern("4");
+        stringCache.intern("5");
+        stringCache.intern("6");
+        stringCache.intern("7");
+        stringCache.intern("8");
+        stringCache.intern("9");
+
+        numberCache.intern(-1L);
+        numberCache.intern(0L);
+        numberCache.intern(1L);
+        numberCache.intern(-1.0d);
+        numberCache.intern(0.0d);
+        numberCache.intern(1.0d);
+        numberCache.intern(Double.MIN_VALUE);
+        numberCache.intern(Double.MAX_VALUE);
+        numberCache.intern(Double.NEGATIVE_INFINITY);
+        numberCache.intern(Double.POSITIVE_INFINITY);
+        numberCache.intern(Double.NaN);
     }
 
     JsonParser(FastReader reader, Resolver resolver) {
@@ -133,7 +157,13 @@ class JsonParser {
         this.readOptions = resolver.getReadOptions();
         this.references = resolver.getReferences();
         maxParseDepth = readOptions.getMaxDepth();
+        maxStringLength = readOptions.getMaxStringLength();
+        maxArrayLength = readOptions.getMaxArrayLength();
+        maxObjectCount = readOptions.getMaxObjectCount();
+        maxIdCount = readOptions.getMaxIdCount();
         allowNanAndInfinity = readOptions.isAllowNanAndInfinity();
+        skipUnmappedFields = readOptions.isSkipUnmappedFields() && !readOptions.isReturningJsonObjects() &&
+                readOptions.getMissingFieldHandler() == null;
     }
 
     /**
@@ -144,6 +174,7 @@ class JsonParser {
      * JsonObject.
      */
     private JsonObject readJsonObject(Class<?> suggestedClass) throws IOException {
+        countObject();
         JsonObject jObj = new JsonObject();
         jObj.setHintType(suggestedClass);
         final FastReader in = input;
@@ -161,6 +192,8 @@ class JsonParser {
         ++curParseDepth;
 
         Map<String, Injector> injectors = readOptions.getDeepInjectorMap(suggestedClass);
+        boolean project = isProjected(suggestedClass);
+        boolean skipped = false;
 
         while (true) {
             String field = readField();
@@ -168,36 +201,50 @@ class JsonParser {
                 field = substitutes.get(field);
             }
             Injector injector = injectors.get(field);
-            Object value = readValue(injector == null ? null : injector.getType());
+            if (injector == null && project && !field.startsWith("@")) {
+                // No field will receive this value - pass over it without building anything.
+                skipValue();
+                skipped = true;
+            } else {
+                Object value = readValue(injector == null ? null : injector.getType());
 
-            // process key-value pairing
-            switch (field) {
-                case TYPE:
-                    Class<?> type = loadType(value);    // TODO: Can we remove @enum and fold that into @type?
-                    jObj.setJavaType(type);
-                    break;
+                // process key-value pairing
+                switch (field) {
+                    case TYPE:
+                        Class<?> type = loadType(value);    // TODO: Can we remove @enum and fold that into @type?
+                        jObj.setJavaType(type);
+                        if (skipUnmappedFields && type != suggestedClass) {
+                            // Fields are now matched against the @type class
+                            if (skipped) {
+                                error("@type must come before the other fields of an object when skipUnmappedFields is enabled");
+                            }
+                            project = isProjected(type);
+                            injectors = readOptions.getDeepInjectorMap(type);
+                        }
+                        break;
 
-                case REF:
-                    loadRef(value, jObj);
-                    break;
+                    case REF:
+                        loadRef(value, jObj);
+                        break;
 
-                case ID:
-                    loadId(value, jObj);
-                    break;
+                    case ID:
+                        loadId(value, jObj);
+                        break;
 
-                case ITEMS:
-                    // load Items
-                    jObj.put(field, value);
-                    break;
+                    case ITEMS:
+                        // load Items
+                        jObj.put(field, value);
+                        break;
 
-                case KEYS:
-                    // load Keys
-                    jObj.put(field, value);
-                    break;
+                    case KEYS:
+                        // load Keys
+                        jObj.put(field, value);
+                        break;
 
-                default:
-                    jObj.put(field, value); // Load field/value pair
-                    break;
+                    default:
+                        jObj.put(field, value); // Load field/value pair
+                        break;
+                }
             }
 
             c = skipWhitespaceRead(true);
@@ -217,6 +264,37 @@ class JsonParser {
         return jObj;
     }
 
+    /**
+     * @return true if values of fields that the class has no Injector for can be skipped while parsing.  This
+     * holds for plain classes whose fields are injected one by one; classes that are built from the whole
+     * JsonObject (ClassFactory, custom reader, Maps, Collections, primitives, Converter supported types), as well
+     * as interfaces and abstract classes whose fields are not known yet, always keep every field.
+     */
+    private boolean isProjected(Class<?> c) {
+        if (!skipUnmappedFields || c == null) {
+            return false;
+        }
+        if (projectedClasses == null) {
+            projectedClasses = new IdentityHashMap<>();
+        }
+        Boolean projected = projectedClasses.get(c);
+        if (projected == null) {
+            projected = c != Object.class &&
+                    !c.isInterface() &&
+                    !Modifier.isAbstract(c.getModifiers()) &&
+                    !c.isArray() &&
+                    !MetaUtils.isLogicalPrimitive(c) &&
+                    !Map.class.isAssignableFrom(c) &&
+                    !Collection.class.isAssignableFrom(c) &&
+                    readOptions.getClassFactory(c) == null &&
+                    readOptions.getCoercedClass(c) == null &&
+                    (readOptions.isNotCustomReaderClass(c) || readOptions.getCustomReader(c) == null) &&
+                    !resolver.getConverter().isConversionSupportedFor(Map.class, c);
+            projectedClasses.put(c, projected);
+        }
+        return projected;
+    }
+
     /**
      * Read the field name of a JSON object.
      *
@@ -251,6 +329,9 @@ class JsonParser {
         }
         switch (c) {
             case '"':
+                if ((suggestedClass == byte[].class || suggestedClass == ByteBuffer.class) && !readOptions.isReturningJsonObjects()) {
+                    return readBase64();
+                }
                 String str = readString();
                 return str;
 
@@ -290,17 +371,226 @@ class JsonParser {
         return error("Unknown JSON value type");
     }
 
+    /**
+     * Requested JSON Pointers (RFC 6901), as a trie of reference tokens.  A node whose pointer is non-null ends a
+     * requested path; its value is read in full.  The type is the Class requested for that value (can be null).
+     */
+    static final class PathNode {
+        final Map<String, PathNode> children = new HashMap<>();
+        String pointer;
+        Class<?> type;
+
+        /**
+         * Add a JSON Pointer ("" for the whole document, otherwise "/token/token...", with ~1 for '/' and ~0 for '~').
+         */
+        void add(String pointer, Class<?> type) {
+            if (!pointer.isEmpty() && pointer.charAt(0) != '/') {
+                throw new JsonIoException("Invalid JSON Pointer, must be empty or start with '/': " + pointer);
+            }
+            PathNode node = this;
+            int start = 1;
+            while (start <= pointer.length()) {
+                int end = pointer.indexOf('/', start);
+                if (end == -1) {
+                    end = pointer.length();
+                }
+                String token = pointer.substring(start, end).replace("~1", "/").replace("~0", "~");
+                node = node.children.computeIfAbsent(token, k -> new PathNode());
+                start = end + 1;
+            }
+            node.pointer = pointer;
+            node.type = type;
+        }
+    }
+
+    /**
+     * Walk the value at the current position along the requested paths.  Object members and array elements that are
+     * not on a requested path are skipped without building values, and the walk returns as soon as the last
+     * requested value has been read (the rest of the input is not consumed).
+     * @param found Map receiving pointer to parsed value (JsonObject, Object[] or JSON primitive).
+     * @param remaining int number of requested pointers not found yet.
+     * @return int number of requested pointers still not found.
+     */
+    int extract(PathNode node, Map<String, Object> found, int remaining) throws IOException {
+        if (node.pointer != null) {
+            Object value = readValue(node.type);
+            found.put(node.pointer, value);
+            return extractNested(value, node, found, remaining - 1);
+        }
+
+        int c = skipWhitespaceRead(true);
+        if (c != '{' && c != '[') {
+            input.pushback((char) c);
+            skipValue();
+            return remaining;
+        }
+        final boolean object = c == '{';
+        c = skipWhitespaceRead(true);
+        if (c == (object ? '}' : ']')) {
+            return remaining;
+        }
+        input.pushback((char) c);
+        if (++curParseDepth > maxParseDepth) {
+            error("Maximum parsing depth exceeded");
+        }
+
+        int index = 0;
+        try {
+            while (true) {
+                PathNode child = node.children.get(object ? readField() : Integer.toString(index++));
+                if (child == null) {
+                    skipValue();
+                } else {
+                    remaining = extract(child, found, remaining);
+                    if (remaining == 0) {
+                        return 0;
+                    }
+                }
+                c = skipWhitespaceRead(true);
+                if (c == (object ? '}' : ']')) {
+                    return remaining;
+                } else if (c != ',') {
+                    error(object ? "Object not ended with '}', instead found '" + (char) c + "'" : "Expected ',' or ']' inside array");
+                }
+            }
+        } finally {
+            --curParseDepth;
+        }
+    }
+
+    /**
+     * A requested path that continues inside an already read value (e.g. both "/a" and "/a/b" requested) is looked
+     * up in the parsed value.
+     */
+    private static int extractNested(Object value, PathNode node, Map<String, Object> found, int remaining) {
+        for (Map.Entry<String, PathNode> entry : node.children.entrySet()) {
+            Object child;
+            if (value instanceof Map) {
+                child = ((Map<?, ?>) value).get(entry.getKey());
+            } else if (value instanceof Object[] && entry.getKey().matches("0|[1-9][0-9]{0,8}")) {
+                int index = Integer.parseInt(entry.getKey());
+                Object[] array = (Object[]) value;
+                child = index < array.length ? array[index] : null;
+            } else {
+                continue;
+            }
+            PathNode childNode = entry.getValue();
+            if (childNode.pointer != null && child != null) {
+                found.put(childNode.pointer, child);
+                remaining--;
+            }
+            remaining = extractNested(child, childNode, found, remaining);
+        }
+        return remaining;
+    }
+
+    /**
+     * Read past the next JSON value (of any size) without building it: strings are scanned, not collected, and
+     * nesting is tracked in a bit stack (1 = object) rather than by recursion.  The structure (brackets, commas,
+     * colons, keys) is validated as it is when values are read; numbers and literals are only checked lexically.
+     */
+    void skipValue() throws IOException {
+        final FastReader in = input;
+        int depth = 0;
+        int state = SKIP_VALUE;
+        do {
+            int c = skipWhitespaceRead(true);
+            switch (c) {
+                case '{':
+                case '[':
+                    if (state != SKIP_VALUE && state != SKIP_VALUE_OR_CLOSE) {
+                        error("Unexpected '" + (char) c + "'");
+                    }
+                    if (curParseDepth + depth >= maxParseDepth) {
+                        error("Maximum parsing depth exceeded");
+                    }
+                    if (depth >> 6 == skipNesting.length) {
+                        skipNesting = Arrays.copyOf(skipNesting, skipNesting.length << 1);
+                    }
+                    if (c == '{') {
+                        skipNesting[depth >> 6] |= 1L << depth;
+                        state = SKIP_KEY_OR_CLOSE;
+                    } else {
+                        skipNesting[depth >> 6] &= ~(1L << depth);
+                        state = SKIP_VALUE_OR_CLOSE;
+                    }
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    if (--depth < 0 || isSkippedObject(depth) != (c == '}') ||
+                            (state != SKIP_COMMA_OR_CLOSE && state != (c == '}' ? SKIP_KEY_OR_CLOSE : SKIP_VALUE_OR_CLOSE))) {
+                        error("Unexpected '" + (char) c + "'");
+                    }
+                    state = SKIP_COMMA_OR_CLOSE;
+                    break;
+                case ',':
+                    if (state != SKIP_COMMA_OR_CLOSE) {
+                        error("Unexpected ','");
+                    }
+                    state = isSkippedObject(depth - 1) ? SKIP_KEY : SKIP_VALUE;
+                    break;
+                case ':':
+                    if (state != SKIP_COLON) {
+                        error("Unexpected ':'");
+                    }
+                    state = SKIP_VALUE;
+                    break;
+                case '"':
+                    if (state == SKIP_COLON || state == SKIP_COMMA_OR_CLOSE) {
+                        error("Expected ',' or ':' before '\"'");
+                    }
+                    while ((c = in.read()) != '"') {
+                        if (c == '\\') {
+                            c = in.read();
+                        }
+                        if (c == -1) {
+                            error("EOF reached while reading JSON string");
+                        }
+                    }
+                    state = state == SKIP_KEY || state == SKIP_KEY_OR_CLOSE ? SKIP_COLON : SKIP_COMMA_OR_CLOSE;
+                    break;
+                default:
+                    if (!isLiteralChar(c) || (state != SKIP_VALUE && state != SKIP_VALUE_OR_CLOSE)) {
+                        error("Unknown JSON value type");
+                    }
+                    while (isLiteralChar(c = in.read())) {
+                    }
+                    if (c != -1) {
+                        in.pushback((char) c);
+                    }
+                    state = SKIP_COMMA_OR_CLOSE;
+            }
+        } while (depth > 0);
+    }
+
+    private boolean isSkippedObject(int depth) {
+        return (skipNesting[depth >> 6] >>> depth & 1L) == 1L;
+    }
+
+    private static boolean isLiteralChar(int c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '+' || c == '.';
+    }
+
     /**
      * Read a JSON array
      */
     private Object[] readArray(Class<?> suggestedClass) throws IOException {
+        countObject();
         final List<Object> array = new ArrayList<>();
+        // Elements are suggested the component type of a (single dimension) array, never the array or Collection
+        // type itself.  Collection elements are typed later from the field's generic type.
+        final Class<?> elementClass = suggestedClass != null && suggestedClass.isArray() &&
+                !suggestedClass.getComponentType().isArray() ? suggestedClass.getComponentType() : null;
         ++curParseDepth;
 
         while (true) {
-            final Object value = readValue(suggestedClass);
+            final Object value = readValue(elementClass);
 
             if (value != EMPTY_ARRAY) {
+                if (array.size() == maxArrayLength) {
+                    error("Maximum array length exceeded: " + maxArrayLength);
+                }
                 array.add(value);
             }
             
@@ -317,6 +607,20 @@ class JsonParser {
         return array.toArray();
     }
 
+    /**
+     * Reset the per-document budget counts (objects and arrays, @ids) before reading the next root value.
+     */
+    void startDocument() {
+        objectCount = 0;
+        idCount = 0;
+    }
+
+    private void countObject() {
+        if (++objectCount > maxObjectCount) {
+            error("Maximum object count exceeded: " + maxObjectCount);
+        }
+    }
+
     /**
      * Return the specified token from the reader.  If it is not found,
      * throw an IOException indicating that.  Converting to c to
@@ -412,13 +716,7 @@ class JsonParser {
             } else {
                 val = Long.parseLong(number.toString(), 10);
             }
-            final Number cachedInstance = numberCache.get(val);
-            if (cachedInstance != null) {
-                return cachedInstance;
-            } else {
-                numberCache.put(val, val);  // caching all numbers (LRU has upper limit)
-                return val;
-            }
+            return numberCache.intern(val);
         }
         catch (Exception e) {
             return (Number) error("Invalid number: " + number, e);
@@ -429,6 +727,80 @@ class JsonParser {
     private static final int STRING_SLASH = 1;
     private static final int HEX_DIGITS = 2;
 
+    /**
+     * Decode a Base64 String value (byte[] / ByteBuffer field) directly from the input, without first building
+     * the String.  JSON escapes are decoded first (HTML-safe writers emit '=' as a \\u escape), and the
+     * whitespace the Base64 decoder skips may appear escaped (\n, \r, \t) or not.
+     */
+    private byte[] readBase64() throws IOException {
+        final Base64Codec.Decoder decoder = new Base64Codec.Decoder(256);
+        final FastReader in = input;
+        int length = 0;
+
+        while (true) {
+            int c = in.read();
+            if (c == '"') {
+                return decoder.toByteArray();
+            }
+            if (++length > maxStringLength) {
+                error("Maximum string length exceeded: " + maxStringLength);
+            }
+            if (c == -1) {
+                error("EOF reached while reading base64 string");
+            }
+            if (c == '\\') {
+                c = readEscape();
+            }
+            decoder.append((char) c);
+        }
+    }
+
+    /**
+     * Decode one JSON escape sequence, the '\' already read.
+     *
+     * @return the escaped character.
+     * @throws IOException for stream errors or an invalid escape sequence.
+     */
+    private int readEscape() throws IOException {
+        final FastReader in = input;
+        int c = in.read();
+        switch (c) {
+            case '\\':
+            case '/':
+            case '"':
+            case '\'':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    c = in.read();
+                    if (c >= '0' && c <= '9') {
+                        value = value << 4 | (c - '0');
+                    } else if (c >= 'A' && c <= 'F') {
+                        value = value << 4 | (c - 'A' + 10);
+                    } else if (c >= 'a' && c <= 'f') {
+                        value = value << 4 | (c - 'a' + 10);
+                    } else {
+                        error("Expected hexadecimal digits");
+                    }
+                }
+                return value;
+            default:
+                error("Invalid character escape sequence specified: " + c);
+                return -1;
+        }
+    }
+
     /**
      * Read a JSON string
      * This method assumes the initial quote has already been read.
@@ -442,8 +814,12 @@ class JsonParser {
         final StringBuilder hex = hexBuf;
         int state = STRING_START;
         final FastReader in = input;
+        final int maxLength = maxStringLength;
 
         while (true) {
+            if (str.length() > maxLength) {
+                error("Maximum string length exceeded: " + maxLength);
+            }
             int c = in.read();
             if (c == -1) {
                 error("EOF reached while reading JSON string");
@@ -519,13 +895,16 @@ class JsonParser {
         }
 
         final String s = str.toString();
-        final String cachedInstance = stringCache.get(s);
-        if (cachedInstance != null) {
-            return cachedInstance;
-        } else {
-            stringCache.put(s, s);  // caching all strings (LRU has upper limit)
-            return s;
+        final String cachedInstance = stringCache.intern(s);
+        final ReadMetrics metrics = resolver.metrics;
+        if (metrics != null) {
+            if (cachedInstance != s) {
+                metrics.stringCacheHits++;
+            } else {
+                metrics.stringCacheMisses++;
+            }
         }
+        return cachedInstance;
     }
 
     /**
@@ -558,6 +937,9 @@ class JsonParser {
         if (!(value instanceof Long)) {
             error("Expected a number for " + ID + ", instead got: " + value);
         }
+        if (++idCount > maxIdCount) {
+            error("Maximum " + ID + " count exceeded: " + maxIdCount);
+        }
         Long id = (Long) value;
         references.put(id, jObj);
         jObj.setId(id);
@@ -587,6 +969,60 @@ class JsonParser {
             error("Expected a String for " + TYPE + ", instead got: " + value);
         }
         String javaType = (String) value;
+        if (!javaType.isEmpty() && Character.isDigit(javaType.charAt(0))) {
+            return loadTypeToken(javaType);
+        }
+        Class<?> clazz = resolveType(javaType, readOptions);
+        if (clazz == null) {
+            error("Class: " + value + " not defined.");
+        }
+        return clazz;
+    }
+
+    /**
+     * Resolve a compact @type token, written by WriteOptions.isCompactTypeNames().  "N=className" defines
+     * token N, and a bare "N" refers back to a previously defined token (Java class names cannot start with a
+     * digit, so these never collide with real type names).
+     */
+    private Class<?> loadTypeToken(String token) {
+        int eq = token.indexOf('=');
+        int index = parseTypeToken(eq < 0 ? token : token.substring(0, eq));
+        if (eq < 0) {
+            if (index >= typeTokens.size()) {
+                error("Undefined " + TYPE + " token: " + token);
+            }
+            return typeTokens.get(index);
+        }
+
+        Class<?> clazz = loadType(token.substring(eq + 1));
+        if (index < typeTokens.size()) {
+            typeTokens.set(index, clazz);
+        } else if (index == typeTokens.size()) {
+            typeTokens.add(clazz);
+        } else {
+            error("Out of order " + TYPE + " token: " + token);
+        }
+        return clazz;
+    }
+
+    private int parseTypeToken(String token) {
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            error("Invalid " + TYPE + " token: " + token, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Resolve an @type value (class name or alias) to a Class, honoring the unknown type settings.
+     *
+     * @param javaType String class name or alias from the @type field.
+     * @param readOptions ReadOptions supplying the aliases, ClassLoader and unknown type handling.
+     * @return Class for the type, the unknown type class if the class cannot be loaded, or null if the class
+     * cannot be loaded and readOptions.isFailOnUnknownType() is true.
+     */
+    static Class<?> resolveType(String javaType, ReadOptions readOptions) {
         final String substitute = readOptions.getTypeNameAlias(javaType);
         if (substitute != null) {
             javaType = substitute;
@@ -596,7 +1032,7 @@ class JsonParser {
         Class<?> clazz = MetaUtils.classForName(javaType, readOptions.getClassLoader());
         if (clazz == null) {
             if (readOptions.isFailOnUnknownType()) {
-                error("Class: " + javaType + " not defined.");
+                return null;
             }
             clazz = readOptions.getUnknownTypeClass();
             if (clazz == null) {
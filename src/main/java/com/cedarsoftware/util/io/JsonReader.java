@@ -5,11 +5,17 @@ import com.cedarsoftware.util.convert.Converter;
 import lombok.Getter;
 
 import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -77,6 +83,11 @@ public class JsonReader implements Closeable, ReaderContext
 
     private final JsonParser parser;
 
+    private final MetricsListener metricsListener;
+    private static final int READ_AHEAD = 16384;   // bytes InputStreamReader and FastReader buffer ahead
+    private CountingInputStream countingInput;     // only when measuring or size-limiting an InputStream
+    private long inputSize;                        // length of in-memory input
+
     /**
      * Subclass this interface and create a class that will return a new instance of the
      * passed in Class (c).  Your factory subclass will be called when json-io encounters an
@@ -218,9 +229,66 @@ public class JsonReader implements Closeable, ReaderContext
     }
 
     public JsonReader(InputStream inputStream, ReadOptions readOptions, ReferenceTracker references) {
+        this(null, inputStream, readOptions, references, null);
+    }
+
+    /**
+     * Creates a json reader that parses JSON already held in memory, reading the characters directly from it
+     * (no InputStream or decoding Reader in between).
+     * @param json CharSequence (String, StringBuilder, CharBuffer, ...) containing JSON content.
+     * @param readOptions Read Options to turn on/off various feature options, or supply additional ClassFactory data,
+     *                    etc. If null, readOptions will use all defaults.
+     */
+    public JsonReader(CharSequence json, ReadOptions readOptions) {
+        this(InMemoryReader.of(json), null, readOptions, new DefaultReferenceTracker(), null);
+        inputSize = json.length();
+    }
+
+    /**
+     * Creates a json reader that parses JSON from a range of a char[], without copying it.
+     * @param json char[] containing JSON content.
+     * @param offset int index of the first character of the JSON.
+     * @param length int number of characters of JSON.
+     * @param readOptions Read Options to turn on/off various feature options, or supply additional ClassFactory data,
+     *                    etc. If null, readOptions will use all defaults.
+     */
+    public JsonReader(char[] json, int offset, int length, ReadOptions readOptions) {
+        this(InMemoryReader.of(json, offset, length), null, readOptions, new DefaultReferenceTracker(), null);
+        inputSize = length;
+    }
+
+    /**
+     * Creates a json reader that parses UTF-8 encoded JSON from a range of a byte[], decoding it as it is read.
+     * @param utf8 byte[] containing UTF-8 encoded JSON content.
+     * @param offset int index of the first byte of the JSON.
+     * @param length int number of bytes of JSON.
+     * @param readOptions Read Options to turn on/off various feature options, or supply additional ClassFactory data,
+     *                    etc. If null, readOptions will use all defaults.
+     */
+    public JsonReader(byte[] utf8, int offset, int length, ReadOptions readOptions) {
+        this(InMemoryReader.ofUtf8(utf8, offset, length), null, readOptions, new DefaultReferenceTracker(), null);
+        inputSize = length;
+    }
+
+    /**
+     * Reads UTF-8 encoded JSON from a range of a byte[], reusing a Converter and ReferenceTracker across readers
+     * (one after another, never at the same time), e.g. per worker thread for the records of an NDJSON file.
+     */
+    JsonReader(byte[] utf8, int offset, int length, ReadOptions readOptions, Converter converter, ReferenceTracker references) {
+        this(InMemoryReader.ofUtf8(utf8, offset, length), null, readOptions, references, converter);
+        inputSize = length;
+    }
+
+    private JsonReader(FastReader reader, InputStream inputStream, ReadOptions readOptions, ReferenceTracker references, Converter converter) {
         this.readOptions = readOptions == null ? new ReadOptionsBuilder().returnAsJavaObjects().build() : readOptions;
-        this.converter = new Converter(new ConverterReadOptionsAdapter(this.readOptions));
-        this.input = getReader(inputStream);
+        this.converter = converter == null ? new Converter(new ConverterReadOptionsAdapter(this.readOptions)) : converter;
+        this.metricsListener = this.readOptions.getMetricsListener();
+        if (reader == null && (metricsListener != null || FlightRecorderSupport.readEnabled() ||
+                this.readOptions.getMaxDocumentBytes() != Long.MAX_VALUE)) {
+            countingInput = new CountingInputStream(inputStream);
+            inputStream = countingInput;
+        }
+        this.input = reader == null ? getReader(inputStream) : reader;
 
         this.resolver = this.readOptions.isReturningJsonObjects() ?
                 new MapResolver(this.readOptions, references, this.converter) :
@@ -242,9 +310,169 @@ public class JsonReader implements Closeable, ReaderContext
     }
 
     public <T> T readObject(Class<T> rootType) {
-        T returnValue;
+        return readObject(rootType, null);
+    }
+
+    /**
+     * Read the next JSON value as the generic type held by the TypeHolder, e.g. Map&lt;String, List&lt;Dto&gt;&gt;.
+     * Untyped objects anywhere beneath the root are created as the classes the type declares for them.
+     * @param rootType TypeHolder capturing the generic root type.
+     * @return the root of the resolved graph.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T readObjectOfType(TypeHolder<T> rootType) {
+        Convention.throwIfNull(rootType, "TypeHolder cannot be null");
+        GenericTypePlan plan = GenericTypePlan.of(rootType.getType());
+        return readObject(plan == null ? null : (Class<T>) plan.raw, plan);
+    }
+
+    private <T> T readObject(Class<T> rootType, GenericTypePlan plan) {
+        if (metricsListener != null || FlightRecorderSupport.readEnabled()) {
+            return readObjectMeasured(rootType, plan);
+        }
+        return toJavaObjects(parse(rootType), rootType, plan);
+    }
+
+    private Object parse(Class<?> rootType) {
+        startDocument();
+        try {
+            return parser.readValue(rootType);
+        }
+        catch (JsonIoException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new JsonIoException("error parsing JSON value", e);
+        }
+    }
+
+    private <T> T readObjectMeasured(Class<T> rootType, GenericTypePlan plan) {
+        ReadMetrics metrics = new ReadMetrics();
+        Object event = FlightRecorderSupport.readEnabled() ? FlightRecorderSupport.INSTANCE.beginRead() : null;
+        converter.countInheritedConversions();
+        long inheritedBefore = converter.getInheritedConversionCount();
+        long bytesBefore = countingInput == null ? 0 : countingInput.count;
+        resolver.metrics = metrics;
+        try {
+            long start = System.nanoTime();
+            Object parsed = parse(rootType);
+            long parsedAt = System.nanoTime();
+            T graph = toJavaObjects(parsed, rootType, plan);
+            metrics.resolveNanos = System.nanoTime() - parsedAt - metrics.cleanupNanos;
+            metrics.parseNanos = parsedAt - start;
+            metrics.inputSize = countingInput == null ? inputSize : countingInput.count - bytesBefore;
+            metrics.inheritedConversions = converter.getInheritedConversionCount() - inheritedBefore;
+            if (event != null) {
+                FlightRecorderSupport.INSTANCE.commitRead(event, graph == null ? null : graph.getClass(), metrics);
+            }
+            if (metricsListener != null) {
+                metricsListener.readCompleted(metrics);
+            }
+            return graph;
+        } finally {
+            resolver.metrics = null;
+        }
+    }
+
+    /**
+     * Reset the per-document budgets.  In-memory input that is over maxDocumentBytes is rejected before any of it
+     * is parsed; a stream gets the next maxDocumentBytes from where it is now, plus READ_AHEAD for the bytes the
+     * decoder and FastReader buffer ahead of the parser (possibly from the next document).
+     */
+    private void startDocument() {
+        parser.startDocument();
+        final long max = readOptions.getMaxDocumentBytes();
+        if (countingInput != null) {
+            final long count = countingInput.count;
+            countingInput.max = max;
+            countingInput.limit = max > Long.MAX_VALUE - count - READ_AHEAD ? Long.MAX_VALUE : count + max + READ_AHEAD;
+        } else if (inputSize > max) {
+            throw new JsonIoException("Maximum document size exceeded: " + max + ", document size: " + inputSize);
+        }
+    }
+
+    /**
+     * Counts the bytes read through it, for ReadMetrics, and fails once more than limit bytes have been read
+     * (maxDocumentBytes).
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+        long max = Long.MAX_VALUE;
+        long limit = Long.MAX_VALUE;     // count at which the current document exceeds max
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1 && ++count > limit) {
+                exceeded();
+            }
+            return b;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0 && (count += n) > limit) {
+                exceeded();
+            }
+            return n;
+        }
+
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if ((count += skipped) > limit) {
+                exceeded();
+            }
+            return skipped;
+        }
+
+        private void exceeded() {
+            throw new JsonIoException("Maximum document size exceeded: " + max + " bytes");
+        }
+    }
+
+    /**
+     * Read only the value at the given JSON Pointer (RFC 6901), e.g. "/header/tenantId" or "/items/0/name".
+     * Everything not on the path is skipped without being built, and reading stops once the value has been read.
+     * Only the matched value is converted to Java.  An @ref inside it can only be resolved if its @id is also
+     * inside it.
+     * @param pointer String JSON Pointer.  "" selects the whole document.
+     * @param type Class of the value to return.  Can be null, in which case the natural type is returned.
+     * @return the value at the pointer, or null if the document has no such value.
+     */
+    public <T> T extract(String pointer, Class<T> type) {
+        JsonParser.PathNode root = new JsonParser.PathNode();
+        root.add(pointer, type);
+        Map<String, Object> found = readPaths(root, 1);
+        return toJavaObjects(found.get(pointer), type);
+    }
+
+    /**
+     * Read only the values at the given JSON Pointers (RFC 6901), in one pass over the input.  Subtrees not on any
+     * path are skipped without being built, and reading stops once all the values have been found.
+     * @param pointers Collection of JSON Pointer Strings.
+     * @return Map of pointer to value (natural types), in the order the values appear in the document.  Pointers
+     * with no value in the document are absent.
+     */
+    public Map<String, Object> extract(Collection<String> pointers) {
+        JsonParser.PathNode root = new JsonParser.PathNode();
+        for (String pointer : pointers) {
+            root.add(pointer, null);
+        }
+        Map<String, Object> found = readPaths(root, new HashSet<>(pointers).size());
+        for (Map.Entry<String, Object> entry : found.entrySet()) {
+            entry.setValue(toJavaObjects(entry.getValue(), null));
+        }
+        return found;
+    }
+
+    private Map<String, Object> readPaths(JsonParser.PathNode root, int count) {
+        Map<String, Object> found = new LinkedHashMap<>();
+        startDocument();
         try {
-            returnValue = (T) parser.readValue(rootType);
+            parser.extract(root, found, count);
         }
         catch (JsonIoException e) {
             throw e;
@@ -252,7 +480,24 @@ public class JsonReader implements Closeable, ReaderContext
         catch (Exception e) {
             throw new JsonIoException("error parsing JSON value", e);
         }
+        return found;
+    }
+
+    /**
+     * Resolve a parsed value (JsonObject, Object[] or JSON primitive) into the returned graph.  This is the
+     * second half of readObject(), shared with the other front-ends (e.g. BinaryJsonReader) that produce the
+     * same parsed representation.
+     * @param parsed Object the parsed root value.
+     * @param rootType Class of the root type, can be null.
+     * @return the root of the resolved graph (or the JsonObject graph when returning JsonObjects).
+     */
+    <T> T toJavaObjects(Object parsed, Class<T> rootType) {
+        return toJavaObjects(parsed, rootType, null);
+    }
 
+    @SuppressWarnings("unchecked")
+    private <T> T toJavaObjects(Object parsed, Class<T> rootType, GenericTypePlan plan) {
+        T returnValue = (T) parsed;
         if (returnValue == null) {
             return null;
         }
@@ -281,12 +526,18 @@ public class JsonReader implements Closeable, ReaderContext
         
         T graph;
         if (returnValue instanceof Object[]) {
-            rootObj.setJavaType(Object[].class);
-            rootObj.setTarget(returnValue);
+            rootObj.typePlan = plan;
+            if (plan != null && Collection.class.isAssignableFrom(plan.raw)) {
+                rootObj.setJavaType(plan.raw);     // e.g. List<Dto>: the Collection is created from the items
+            } else {
+                rootObj.setJavaType(Object[].class);
+                rootObj.setTarget(returnValue);
+            }
             rootObj.put(ITEMS, returnValue);
             graph = convertJsonValueToJava(rootObj, rootType);
         } else {
             if (returnValue instanceof JsonObject) {
+                ((JsonObject) returnValue).typePlan = plan;
                 graph = convertJsonValueToJava((JsonObject) returnValue, rootType);
             } else {
                 rootObj.setValue(returnValue);
@@ -374,7 +625,13 @@ public class JsonReader implements Closeable, ReaderContext
             //  In case we decide to only go with Hinted Types (passing class in here),
             //  we'll need to rename and make sure that this cleanup only happens
             //  from the outer (initial) JsonReader and not from class factories.
-            resolver.cleanup();
+            if (resolver.metrics == null) {
+                resolver.cleanup();
+            } else {
+                long start = System.nanoTime();
+                resolver.cleanup();
+                resolver.metrics.cleanupNanos += System.nanoTime() - start;
+            }
         }
     }
 
@@ -398,22 +655,45 @@ public class JsonReader implements Closeable, ReaderContext
     }
 
     /**
-     * Implementation of ReferenceTracker
+     * Maps @id to JsonObject.  Writers hand out ids sequentially from 1, so ids up to a few times the number of
+     * entries are kept in an array indexed by id; any other id (sparse, negative, hand written) goes to a HashMap.
      */
     static class DefaultReferenceTracker implements ReferenceTracker {
+        private static final int MIN_DENSE = 1024;
 
+        private JsonObject[] dense = new JsonObject[16];
+        private int denseCount = 0;
+        private int maxDenseId = 0;
         final Map<Long, JsonObject> references = new HashMap<>();
 
         public JsonObject put(Long l, JsonObject o) {
+            final long id = l;
+            if (id > 0 && id < Math.max(MIN_DENSE, (size() + 1L) << 2)) {
+                final int index = (int) id;
+                if (index >= dense.length) {
+                    dense = Arrays.copyOf(dense, Math.max(index + 1, dense.length << 1));
+                }
+                JsonObject previous = dense[index];
+                dense[index] = o;
+                if (previous == null) {
+                    denseCount++;
+                    maxDenseId = Math.max(maxDenseId, index);
+                    return references.remove(l);    // may have been put sparse before the table grew
+                }
+                return previous;
+            }
             return this.references.put(l, o);
         }
 
         public void clear() {
+            Arrays.fill(dense, 0, maxDenseId + 1, null);
+            denseCount = 0;
+            maxDenseId = 0;
             this.references.clear();
         }
 
         public int size() {
-            return this.references.size();
+            return denseCount + this.references.size();
         }
 
         public JsonObject get(JsonObject jObj) {
@@ -424,15 +704,25 @@ public class JsonReader implements Closeable, ReaderContext
             return get(jObj.getReferenceId());
         }
 
+        private JsonObject lookup(long id) {
+            if (id > 0 && id < dense.length) {
+                JsonObject target = dense[(int) id];
+                if (target != null) {
+                    return target;
+                }
+            }
+            return references.isEmpty() ? null : references.get(id);
+        }
+
         public JsonObject get(Long id) {
-            JsonObject target = references.get(id);
+            JsonObject target = lookup(id);
             if (target == null) {
                 throw new JsonIoException("Forward reference @ref: " + id + ", but no object defined (@id) with that value");
             }
 
             while (target.isReference()) {
                 id = target.getReferenceId();
-                target = references.get(id);
+                target = lookup(id);
                 if (target == null) {
                     throw new JsonIoException("Forward reference @ref: " + id + ", but no object defined (@id) with that value");
                 }
@@ -0,0 +1,260 @@
+package com.cedarsoftware.util.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a JSON document incrementally, so that a top-level array or object can be produced from an Iterator or
+ * a Stream without first materializing the whole collection in memory.  The structure (arrays, objects and field
+ * names) is written by calling beginArray() / beginObject() / name() / endArray() / endObject(), and each value
+ * handed to value() or writeAll() is written exactly the way JsonWriter writes an element of a Collection:
+ * custom writers, @type output, aliases and all other WriteOptions apply.<br>
+ * <br>
+ * Each value is traced on its own, so @id/@ref pairs are only emitted for objects referenced more than once within
+ * the same value.  An object that appears in two different values is written out twice.<br>
+ * <br>
+ * Example:
+ * <pre>
+ * try (JsonStreamWriter writer = new JsonStreamWriter(out, writeOptions, 1000)) {
+ *     writer.beginObject().name("rows").beginArray();
+ *     writer.writeAll(repository.streamAll());
+ *     writer.endArray().endObject();
+ * }
+ * </pre>
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+public class JsonStreamWriter implements Closeable, Flushable {
+    private final JsonWriter writer;
+    private final Writer out;
+    private final int flushEvery;
+    private final Deque<Scope> scopes = new ArrayDeque<>();
+    private boolean rootWritten = false;
+    private int sinceFlush = 0;
+
+    private static final class Scope {
+        private final boolean object;
+        private int count = 0;
+        private boolean named = false;
+
+        private Scope(boolean object) {
+            this.object = object;
+        }
+    }
+
+    /**
+     * @param out OutputStream to which the JSON will be written.
+     * @param writeOptions WriteOptions controlling the output.  Can be null, in which case the defaults are used.
+     */
+    public JsonStreamWriter(OutputStream out, WriteOptions writeOptions) {
+        this(out, writeOptions, 0);
+    }
+
+    /**
+     * @param out OutputStream to which the JSON will be written.
+     * @param writeOptions WriteOptions controlling the output.  Can be null, in which case the defaults are used.
+     * @param flushEvery int number of values after which the buffered output is flushed through to the
+     *                   OutputStream.  0 leaves flushing to the internal buffer (it flushes whenever it fills).
+     */
+    public JsonStreamWriter(OutputStream out, WriteOptions writeOptions, int flushEvery) {
+        this.writer = new JsonWriter(out, writeOptions);
+        this.out = writer.getOut();
+        this.flushEvery = flushEvery;
+    }
+
+    /**
+     * @return WriteOptions in use by this stream writer.
+     */
+    public WriteOptions getWriteOptions() {
+        return writer.getWriteOptions();
+    }
+
+    /**
+     * Start a JSON array [
+     * @return JsonStreamWriter for chained access.
+     */
+    public JsonStreamWriter beginArray() {
+        return begin(false);
+    }
+
+    /**
+     * End the current JSON array ]
+     * @return JsonStreamWriter for chained access.
+     */
+    public JsonStreamWriter endArray() {
+        return end(false);
+    }
+
+    /**
+     * Start a JSON object {
+     * @return JsonStreamWriter for chained access.
+     */
+    public JsonStreamWriter beginObject() {
+        return begin(true);
+    }
+
+    /**
+     * End the current JSON object }
+     * @return JsonStreamWriter for chained access.
+     */
+    public JsonStreamWriter endObject() {
+        return end(true);
+    }
+
+    /**
+     * Write a field name within the current JSON object.  Must be followed by value(), beginArray() or beginObject().
+     * @param name String field name.
+     * @return JsonStreamWriter for chained access.
+     */
+    public JsonStreamWriter name(String name) {
+        Scope scope = scopes.peekFirst();
+        if (scope == null || !scope.object) {
+            throw new JsonIoException("name() can only be called inside a JSON object");
+        }
+        if (scope.named) {
+            throw new JsonIoException("name() called twice without a value, name: " + name);
+        }
+        try {
+            separate(scope);
+            JsonWriter.writeJsonUtf8String(out, name);
+            out.write(':');
+            scope.named = true;
+        } catch (IOException e) {
+            throw new JsonIoException("Error writing JSON stream", e);
+        }
+        return this;
+    }
+
+    /**
+     * Write one value: an array element, the value of the last name(), or the root value.
+     * @param value Object to write (any Java object or JsonObject, or null).
+     * @return JsonStreamWriter for chained access.
+     */
+    public JsonStreamWriter value(Object value) {
+        try {
+            beforeValue();
+            writer.writeStreamElement(value);
+        } catch (JsonIoException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonIoException("Error writing object to JSON stream:", e);
+        }
+        if (flushEvery > 0 && ++sinceFlush >= flushEvery) {
+            flush();
+        }
+        return this;
+    }
+
+    /**
+     * Write each remaining element of the Iterator as an element of the current JSON array.
+     * @param items Iterator supplying the elements.
+     * @return JsonStreamWriter for chained access.
+     */
+    public JsonStreamWriter writeAll(Iterator<?> items) {
+        Scope scope = scopes.peekFirst();
+        if (scope == null || scope.object) {
+            throw new JsonIoException("writeAll() can only be called inside a JSON array");
+        }
+        while (items.hasNext()) {
+            value(items.next());
+        }
+        return this;
+    }
+
+    /**
+     * Write each element of the Stream, in encounter order, as an element of the current JSON array.  The Stream
+     * is consumed, but not closed.
+     * @param items Stream supplying the elements.
+     * @return JsonStreamWriter for chained access.
+     */
+    public JsonStreamWriter writeAll(Stream<?> items) {
+        return writeAll(items.iterator());
+    }
+
+    public void flush() {
+        sinceFlush = 0;
+        writer.flush();
+    }
+
+    public void close() {
+        writer.close();
+    }
+
+    private JsonStreamWriter begin(boolean object) {
+        try {
+            beforeValue();
+            out.write(object ? '{' : '[');
+        } catch (IOException e) {
+            throw new JsonIoException("Error writing JSON stream", e);
+        }
+        scopes.addFirst(new Scope(object));
+        return this;
+    }
+
+    private JsonStreamWriter end(boolean object) {
+        Scope scope = scopes.peekFirst();
+        if (scope == null || scope.object != object) {
+            throw new JsonIoException(object ? "endObject() called without a matching beginObject()" : "endArray() called without a matching beginArray()");
+        }
+        if (scope.named) {
+            throw new JsonIoException("endObject() called after name() without a value");
+        }
+        scopes.removeFirst();
+        try {
+            if (scope.count > 0) {
+                writer.tabOut();
+            }
+            out.write(object ? '}' : ']');
+        } catch (IOException e) {
+            throw new JsonIoException("Error writing JSON stream", e);
+        }
+        return this;
+    }
+
+    private void beforeValue() throws IOException {
+        Scope scope = scopes.peekFirst();
+        if (scope == null) {
+            if (rootWritten) {
+                throw new JsonIoException("JSON stream already contains a complete root value");
+            }
+            rootWritten = true;
+        } else if (scope.object) {
+            if (!scope.named) {
+                throw new JsonIoException("name() must be called before each value inside a JSON object");
+            }
+            scope.named = false;
+        } else {
+            separate(scope);
+        }
+    }
+
+    private void separate(Scope scope) throws IOException {
+        if (scope.count++ == 0) {
+            writer.tabIn();
+        } else {
+            out.write(',');
+            writer.newLine();
+        }
+    }
+}
@@ -35,6 +35,7 @@ public abstract class JsonValue {
     public static final String VALUE = "value";
     protected Class<?> javaType = null;
     protected Class<?> hintType = null;
+    GenericTypePlan typePlan = null;    // generic type the value was declared with, applied to its children
     private Object target = null;
     protected boolean isFinished = false;
     protected long id = -1L;
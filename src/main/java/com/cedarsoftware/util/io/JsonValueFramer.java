@@ -0,0 +1,271 @@
+package com.cedarsoftware.util.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Frames whole root JSON values out of UTF-8 bytes pushed in chunks, for NIO and event-loop servers that must not
+ * block a thread waiting for input.  Bytes are fed with feed() as they arrive, and endOfInput() is called when the
+ * input ends.  This is a framing helper, not a resumable parser: only a light scan (nesting depth, inside a string,
+ * after a backslash) carries across chunk boundaries, so a chunk may end anywhere, even inside a string or a multibyte
+ * character, but the bytes of each root value are buffered until its last byte arrives.  Then the value is read,
+ * exactly as JsonReader would read it (same JsonObject tree or typed result, same ReadOptions), inside the feed() call
+ * that completed it, and queued for hasNext() / next().
+ * <br><br>
+ * Memory use is therefore the size of the largest single root value (bounded by ReadOptions maxDocumentBytes), and
+ * the whole cost of reading a value lands on one feed() call.  It suits NDJSON or other streams of many
+ * whitespace separated, modestly sized values - each produces one result, and only the bytes of the value being
+ * received are held.  Use JsonReader on an InputStream for one very large document.
+ * <br><br>
+ * Example (e.g. in a Netty channelRead()):
+ * <pre>
+ * framer.feed(byteBuf.nioBuffer());
+ * while (framer.hasNext()) {
+ *     handle(framer.next());
+ * }
+ * </pre>
+ * A JsonValueFramer is not thread-safe; feed it from one thread at a time.  After an exception, discard it.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+public final class JsonValueFramer<T> {
+    private static final Object NULL = new Object();     // ArrayDeque does not hold null
+
+    private final ReadOptions readOptions;
+    private final Class<T> rootType;
+    private final ArrayDeque<Object> results = new ArrayDeque<>();
+
+    private byte[] buf = new byte[8192];
+    private int limit = 0;            // end of the bytes fed so far
+    private int scanPos = 0;          // next byte to scan
+    private int valueStart = -1;      // start of the root value being received, -1 between values
+    private long discarded = 0;       // bytes dropped from the front of buf, for error offsets
+
+    private int depth = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+    private boolean inBare = false;   // root number or literal (true, false, null, ...), which ends at the next token
+    private boolean ended = false;
+
+    /**
+     * @param rootType Class of the root type of each value read.  Can be null, in which case a best-guess will be
+     *                 made, as with JsonReader.readObject().
+     * @param readOptions Read Options to turn on/off various feature options, or supply additional ClassFactory data,
+     *                    etc. If null, readOptions will use all defaults.
+     */
+    public JsonValueFramer(Class<T> rootType, ReadOptions readOptions) {
+        this.rootType = rootType;
+        this.readOptions = readOptions == null ? new ReadOptionsBuilder().build() : readOptions;
+    }
+
+    /**
+     * Feed the remaining bytes of the chunk (its position is advanced to its limit).  Every root value completed by
+     * this chunk is read before returning.
+     * @param chunk ByteBuffer holding the next bytes of UTF-8 encoded JSON.
+     */
+    public void feed(ByteBuffer chunk) {
+        ensureOpen();
+        final int n = chunk.remaining();
+        ensureCapacity(n);
+        chunk.get(buf, limit, n);
+        limit += n;
+        scan();
+    }
+
+    /**
+     * Feed a range of bytes (copied, so the array may be reused once this returns).
+     * @param utf8 byte[] holding the next bytes of UTF-8 encoded JSON.
+     * @param offset int index of the first byte.
+     * @param length int number of bytes.
+     */
+    public void feed(byte[] utf8, int offset, int length) {
+        ensureOpen();
+        ensureCapacity(length);
+        System.arraycopy(utf8, offset, buf, limit, length);
+        limit += length;
+        scan();
+    }
+
+    /**
+     * Signal that no more input will be fed.  A root number or literal still being received is read now.
+     * @throws JsonIoException if the input ended part way through a value.
+     */
+    public void endOfInput() {
+        if (ended) {
+            return;
+        }
+        ended = true;
+        if (inBare) {
+            inBare = false;
+            complete(scanPos);
+        } else if (valueStart >= 0) {
+            throw new JsonIoException("EOF reached before the end of the JSON, at offset: " + (discarded + limit));
+        }
+        buf = new byte[0];
+        limit = scanPos = 0;
+    }
+
+    /**
+     * @return true if a completed value is waiting to be taken with next().
+     */
+    public boolean hasNext() {
+        return !results.isEmpty();
+    }
+
+    /**
+     * @return the next completed value, in input order.
+     * @throws NoSuchElementException if no completed value is waiting.
+     */
+    @SuppressWarnings("unchecked")
+    public T next() {
+        Object value = results.poll();
+        if (value == null) {
+            throw new NoSuchElementException("No complete JSON value available");
+        }
+        return value == NULL ? null : (T) value;
+    }
+
+    private void ensureOpen() {
+        if (ended) {
+            throw new JsonIoException("Cannot feed JsonValueFramer after endOfInput()");
+        }
+    }
+
+    /**
+     * Make room for n more bytes, first dropping the bytes of values already read.
+     */
+    private void ensureCapacity(int n) {
+        final int keep = valueStart >= 0 ? valueStart : scanPos;
+        if (keep > 0) {
+            System.arraycopy(buf, keep, buf, 0, limit - keep);
+            limit -= keep;
+            scanPos -= keep;
+            if (valueStart >= 0) {
+                valueStart = 0;
+            }
+            discarded += keep;
+        }
+        if (limit + n > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, limit + n));
+        }
+    }
+
+    private void scan() {
+        final byte[] b = buf;
+        final int end = limit;
+        int i = scanPos;
+        while (i < end) {
+            final byte c = b[i];
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                    if (depth == 0) {
+                        complete(i + 1);
+                    }
+                }
+                i++;
+                continue;
+            }
+            if (inBare) {
+                if (isBare(c)) {
+                    i++;
+                    continue;
+                }
+                inBare = false;
+                complete(i);    // c is scanned again below as the token after the value
+            }
+
+            switch (c) {
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                    break;
+
+                case '{':
+                case '[':
+                    if (depth++ == 0) {
+                        valueStart = i;
+                    }
+                    break;
+
+                case '}':
+                case ']':
+                    if (depth == 0) {
+                        throw unexpected(c, i);
+                    }
+                    if (--depth == 0) {
+                        complete(i + 1);
+                    }
+                    break;
+
+                case '"':
+                    if (depth == 0) {
+                        valueStart = i;
+                    }
+                    inString = true;
+                    break;
+
+                default:
+                    if (depth == 0) {
+                        if (!isBare(c)) {
+                            throw unexpected(c, i);
+                        }
+                        valueStart = i;
+                        inBare = true;
+                    }
+            }
+            i++;
+        }
+        scanPos = i;
+        // A value still being received is rejected once over maxDocumentBytes, rather than buffered to its end
+        if (valueStart >= 0 && limit - valueStart > readOptions.getMaxDocumentBytes()) {
+            throw new JsonIoException("Maximum document size exceeded: " + readOptions.getMaxDocumentBytes() + " bytes");
+        }
+    }
+
+    private static boolean isBare(byte c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '+' || c == '.';
+    }
+
+    private JsonIoException unexpected(byte c, int index) {
+        return new JsonIoException("Unexpected character '" + (char) c + "' at offset: " + (discarded + index));
+    }
+
+    /**
+     * Read the root value held in buf[valueStart, end).
+     */
+    private void complete(int end) {
+        final int start = valueStart;
+        valueStart = -1;
+        Object value;
+        try {
+            value = new JsonReader(buf, start, end - start, readOptions).readObject(rootType);
+        } catch (JsonIoException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonIoException(e);
+        }
+        results.add(value == null ? NULL : value);
+    }
+}
@@ -1,31 +1,31 @@
 package com.cedarsoftware.util.io;
 
+import java.io.CharArrayWriter;
 import java.io.Closeable;
+import java.io.FilterWriter;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.lang.reflect.Array;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Deque;
-import java.util.EnumSet;
-import java.util.IdentityHashMap;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import com.cedarsoftware.util.FastWriter;
+import com.cedarsoftware.util.io.writers.LongWriter;
 import com.cedarsoftware.util.reflect.Accessor;
-import lombok.Getter;
 
 import static com.cedarsoftware.util.io.JsonObject.ITEMS;
 
@@ -69,31 +69,25 @@ import static com.cedarsoftware.util.io.JsonObject.ITEMS;
  *         See the License for the specific language governing permissions and
  *         limitations under the License.
  */
-public class JsonWriter implements WriterContext, Closeable, Flushable
+public class JsonWriter extends ObjectGraphWriter implements WriterContext, Closeable, Flushable
 {
     private static final Object[] byteStrings = new Object[256];
     private static final String NEW_LINE = System.getProperty("line.separator");
-    private static final Long ZERO = 0L;
-
-    @Getter
-    private final WriteOptions writeOptions;
-
-    /**
-     * Map containing all objects that were visited within input object graph
-     */
-    @Getter
-    private final Map<Object, Long> objVisited = new IdentityHashMap<>();
 
     /**
-     *  Map containing all objects that were referenced within input object graph.
+     * @type tokens assigned in the current document when writeOptions.isCompactTypeNames() is on.
      */
-    @Getter
-    private final Map<Object, Long> objsReferenced = new IdentityHashMap<>();
+    private final Map<String, Integer> typeTokens = new HashMap<>();
 
     private final Writer out;
 
-    private long identity = 1;
+    private final MetricsListener metricsListener;
+    private WriteMetrics metrics;       // non-null only during a measured write()
+    private final ArrayDeque<CharArrayWriter> rangeBuffers = new ArrayDeque<>();
+
     private int depth = 0;
+    private boolean pendingOpen;        // '{' or '[' written, its tabIn() deferred so an empty one stays {} or []
+    private final char[] numBuf = new char[NumberChars.MAX_CHARS];
 
     static
     {
@@ -187,8 +181,35 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
      * @see WriteOptions Javadoc.
      */
     public JsonWriter(OutputStream out, WriteOptions writeOptions) {
-        this.out = new FastWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
-        this.writeOptions = writeOptions == null ? new WriteOptionsBuilder().build() : writeOptions;
+        this(new FastWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), writeOptions);
+    }
+
+    /**
+     * @param out Writer to which the JSON characters will be written.  It is used as given (not wrapped in a
+     *            buffer), so supply a buffered Writer when writing to a file or socket.
+     * @param writeOptions WriteOptions containing many feature options to control the JSON output.  Can be null,
+     *                     in which case the default WriteOptions will be used.
+     * @see WriteOptions Javadoc.
+     */
+    public JsonWriter(Writer out, WriteOptions writeOptions) {
+        this(out, writeOptions, new ReferenceTable(), false);
+    }
+
+    /**
+     * @param references ReferenceTable shared with the BinaryJsonWriter that embeds this JsonWriter's output.
+     */
+    JsonWriter(OutputStream out, WriteOptions writeOptions, ReferenceTable references) {
+        this(new FastWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), writeOptions, references, false);
+    }
+
+    /**
+     * @param range boolean true for a JsonWriter writing one range of a parallel write: out is used exactly as
+     *              given (the caller measures).
+     */
+    private JsonWriter(Writer out, WriteOptions writeOptions, ReferenceTable references, boolean range) {
+        super(writeOptions, references);
+        this.metricsListener = range ? null : this.writeOptions.getMetricsListener();
+        this.out = range || (metricsListener == null && !FlightRecorderSupport.writeEnabled()) ? out : new CountingWriter(out);
     }
 
     /**
@@ -315,7 +336,7 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
             return true;
         }
 
-        boolean referenced = objsReferenced.containsKey(o);
+        boolean referenced = references.isReferenced(o);
 
         if (closestWriter.hasPrimitiveForm(this)) {
             if ((!referenced && !showType) || closestWriter instanceof Writers.JsonStringWriter) {
@@ -341,7 +362,8 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
             writeType(o.getClass().getName(), output);
         }
 
-        if (referenced || showType)
+        // A CompiledCodec writes its fields through writeField(), which adds the separating comma itself
+        if ((referenced || showType) && !(closestWriter instanceof CompiledCodec))
         {
             output.write(',');
             newLine();
@@ -360,26 +382,241 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
      */
     public void write(Object obj)
     {
+        if (metricsListener != null || FlightRecorderSupport.writeEnabled())
+        {
+            writeMeasured(obj);
+            return;
+        }
         traceReferences(obj);
-        objVisited.clear();
+        typeTokens.clear();
+        try {
+            writeTraced(obj);
+        } finally {
+            references.clear();
+        }
+    }
+
+    private void writeTraced(Object obj)
+    {
+        parallelRoot = isParallelRoot(obj) ? obj : null;
         try {
             writeImpl(obj, true);
         } catch (JsonIoException e) {
             throw e;
         } catch (Exception e) {
             throw new JsonIoException("Error writing object to JSON:", e);
+        } finally {
+            parallelRoot = null;
+            rangeBuffers.clear();
         }
         flush();
-        objVisited.clear();
-        this.objsReferenced.clear();
+    }
+
+    /**
+     * @return true if root's elements may be written in parallel ranges (WriteOptions.getParallelWriteThreshold()).
+     * Must be called after traceReferences(): with no object referenced more than once there are no @id / @ref
+     * pairs, so each range can be written on its own.
+     */
+    private boolean isParallelRoot(Object root)
+    {
+        final int threshold = writeOptions.getParallelWriteThreshold();
+        if (threshold <= 0 || root == null || references.getReferencedCount() != 0 ||
+                writeOptions.isCompactTypeNames() || writeOptions.isSkipNullFields())
+        {
+            return false;
+        }
+        if (root instanceof Collection)
+        {
+            return ((Collection<?>) root).size() >= threshold;
+        }
+        if (root instanceof Object[])
+        {
+            return ((Object[]) root).length >= threshold;
+        }
+        if (root instanceof Map && !(root instanceof JsonObject))
+        {
+            return ((Map<?, ?>) root).size() >= threshold;
+        }
+        return false;
+    }
+
+    /**
+     * Write the elements of the parallel root in ranges: each range is written concurrently by its own JsonWriter
+     * (same WriteOptions, same indentation depth) into a separate buffer, and the buffers are copied to the output
+     * in order, with the same separators as a sequential write.  At most two ranges per worker are in flight.
+     */
+    void writeParallel(final Object[] elements, final ElementWriter elementWriter) throws IOException
+    {
+        flushOpen();
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+        final int parallelism = pool.getParallelism();
+        final int rangeSize = Math.max(1, (elements.length + parallelism * 4 - 1) / (parallelism * 4));
+        final int maxInFlight = parallelism * 2;
+        final ArrayDeque<ForkJoinTask<JsonWriter>> inFlight = new ArrayDeque<>();
+        final Writer output = this.out;
+        try
+        {
+            int from = 0;
+            boolean first = true;
+            while (from < elements.length || !inFlight.isEmpty())
+            {
+                while (from < elements.length && inFlight.size() < maxInFlight)
+                {
+                    final int start = from;
+                    final int end = Math.min(elements.length, from + rangeSize);
+                    inFlight.add(pool.submit(() -> writeRange(elements, start, end, elementWriter)));
+                    from = end;
+                }
+                final JsonWriter range = inFlight.poll().join();
+                if (!first)
+                {
+                    separator();
+                }
+                first = false;
+                final CharArrayWriter buffer = (CharArrayWriter) range.out;
+                buffer.writeTo(output);
+                if (range.metrics != null)
+                {
+                    metrics.add(range.metrics);
+                }
+                buffer.reset();
+                synchronized (rangeBuffers)
+                {
+                    rangeBuffers.add(buffer);
+                }
+            }
+        }
+        finally
+        {
+            for (ForkJoinTask<JsonWriter> task : inFlight)
+            {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * @return JsonWriter (its out a CharArrayWriter) that has written elements [from, to) and the separators
+     * between them.
+     */
+    private JsonWriter writeRange(Object[] elements, int from, int to, ElementWriter elementWriter) throws IOException
+    {
+        CharArrayWriter buffer;
+        synchronized (rangeBuffers)
+        {
+            buffer = rangeBuffers.poll();
+        }
+        final JsonWriter range = new JsonWriter(buffer == null ? new CharArrayWriter(8192) : buffer, writeOptions, new ReferenceTable(), true);
+        range.depth = depth;
+        range.metrics = metrics == null ? null : new WriteMetrics();
+        for (int i = from; i < to; i++)
+        {
+            elementWriter.write(range, elements[i]);
+            if (i != to - 1)
+            {
+                range.separator();
+            }
+        }
+        return range;
+    }
+
+    private void writeMeasured(Object obj)
+    {
+        WriteMetrics measured = new WriteMetrics();
+        Object event = FlightRecorderSupport.writeEnabled() ? FlightRecorderSupport.INSTANCE.beginWrite() : null;
+        // A recording may have started after this JsonWriter was created, leaving out unwrapped
+        CountingWriter counter = out instanceof CountingWriter ? (CountingWriter) out : null;
+        long charsBefore = counter == null ? 0 : counter.count;
+        metrics = measured;
+        try {
+            long start = System.nanoTime();
+            traceReferences(obj);
+            long tracedAt = System.nanoTime();
+            typeTokens.clear();
+            measured.referencedObjects = references.getReferencedCount();
+            writeTraced(obj);
+            measured.writeNanos = System.nanoTime() - tracedAt;
+            measured.traceNanos = tracedAt - start;
+            measured.charsWritten = counter == null ? -1 : counter.count - charsBefore;
+        } finally {
+            metrics = null;
+            references.clear();
+        }
+        if (event != null)
+        {
+            FlightRecorderSupport.INSTANCE.commitWrite(event, obj == null ? null : obj.getClass(), measured);
+        }
+        if (metricsListener != null)
+        {
+            metricsListener.writeCompleted(measured);
+        }
+    }
+
+    /**
+     * Counts the characters written through it, for WriteMetrics.
+     */
+    private static final class CountingWriter extends FilterWriter
+    {
+        long count;
+
+        CountingWriter(Writer out)
+        {
+            super(out);
+        }
+
+        public void write(int c) throws IOException
+        {
+            out.write(c);
+            count++;
+        }
+
+        public void write(char[] cbuf, int off, int len) throws IOException
+        {
+            out.write(cbuf, off, len);
+            count += len;
+        }
+
+        public void write(String str, int off, int len) throws IOException
+        {
+            out.write(str, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * Forget the @type tokens assigned so far (compactTypeNames), so the next output starts a new token table.
+     */
+    void clearTypeTokens() {
+        typeTokens.clear();
+    }
+
+    /**
+     * Write one element of a streamed document (see JsonStreamWriter).  Each element is traced on its own, so
+     * @id/@ref pairs only span a single element, while the @id values themselves stay unique across the stream.
+     * @param obj Object element to write, formatted the same way as an element of a Collection.
+     */
+    void writeStreamElement(Object obj) throws IOException {
+        traceReferences(obj);
+        try {
+            writeCollectionElement(obj);
+        } finally {
+            references.clear();
+        }
+    }
+
+    /**
+     * @return Writer that this JsonWriter writes to (used by JsonStreamWriter for the structural characters).
+     */
+    Writer getOut() {
+        return out;
     }
 
     /**
      * Walk object graph and visit each instance, following each field, each Collection, Map and so on.
      * Tracks visited to handle cycles and to determine if an item is referenced elsewhere.  If an
      * object is never referenced more than once, no @id field needs to be emitted for it.
-     * @param root Object to be deeply traced.  The objVisited and objsReferenced Maps will be written to
-     * during the trace.
+     * @param root Object to be deeply traced.  Each object reached is recorded in the reference table, and given an
+     * @id when it is reached a second time.
      */
     protected void traceReferences(Object root) {
         if (root == null) {
@@ -388,31 +625,15 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
 
         final Deque<Object> stack = new ArrayDeque<>();
         stack.addFirst(root);
-        final Map<Object, Long> visited = this.objVisited;
-        final Map<Object, Long> referenced = this.objsReferenced;
+        final ReferenceTable references = this.references;
 
         while (!stack.isEmpty())
         {
             final Object obj = stack.removeFirst();
 
-            if (!writeOptions.isNonReferenceableClass(obj.getClass()))
-            {
-                Long id = visited.get(obj);
-                if (id != null)
-                {   // Only write an object once.
-                    if (id.equals(ZERO))
-                    {   // 2nd time this object has been seen, so give it a unique ID and mark it referenced
-                        id = identity++;
-                        visited.put(obj, id);
-                        referenced.put(obj, id);
-                    }
-                    continue;
-                }
-                else
-                {   // Initially, mark an object with 0 as the ID, in case it is never referenced,
-                    // we don't waste the memory to store a Long instance that is never used.
-                    visited.put(obj, ZERO);
-                }
+            if (!writeOptions.isNonReferenceableClass(obj.getClass()) && !references.visit(obj))
+            {   // 2nd (or later) time this object has been seen: it now has a unique ID.  Only trace it once.
+                continue;
             }
 
             final Class<?> clazz = obj.getClass();
@@ -471,8 +692,9 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
                 }
             }
             else
-            {   // Speed up: do not traceReferences of non-referenceable classes
-                if (!writeOptions.isNonReferenceableClass(obj.getClass()))
+            {   // Speed up: do not traceReferences of non-referenceable classes, nor look inside classes whose
+                // fields can only hold non-referenceable values
+                if (!writeOptions.isNonReferenceableClass(clazz) && !writeOptions.isLeafClass(clazz))
                 {
                     traceFields(stack, obj);
                 }
@@ -497,39 +719,24 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
 
         for (final Accessor accessor : fields)
         {
-            MetaUtils.safelyIgnoreException(() -> {
-                final Object o = accessor.retrieve(obj);
-                if (o != null && !writeOptions.isNonReferenceableClass(o.getClass())) {   // Trace through objects that can reference other objects
-                    stack.addFirst(o);
-                }
-            });
-        }
-    }
-
-    private boolean writeOptionalReference(Object obj) throws IOException
-    {
-        if (obj == null || writeOptions.isNonReferenceableClass(obj.getClass()))
-        {
-            return false;
-        }
-
-        final Writer output = this.out;
-        if (objVisited.containsKey(obj))
-        {    // Only write (define) an object once in the JSON stream, otherwise emit a @ref
-            String id = getId(obj);
-            if (id == null)
-            {   // Test for null because of Weak/Soft references being gc'd during serialization.
-                return false;
+            if (accessor.getFieldType().isPrimitive())
+            {   // Not boxing a value that can never be referenced
+                continue;
+            }
+            final Object o;
+            try
+            {
+                o = accessor.retrieve(obj);
+            }
+            catch (Throwable ignored)
+            {
+                continue;
+            }
+            if (o != null && !writeOptions.isNonReferenceableClass(o.getClass()))
+            {   // Trace through objects that can reference other objects
+                stack.addFirst(o);
             }
-            output.write(writeOptions.isShortMetaKeys() ? "{\"@r\":" : "{\"@ref\":");
-            output.write(id);
-            output.write('}');
-            return true;
         }
-
-        // Mark the object as visited by putting it in the Map (this map is re-used / clear()'d after walk()).
-        objVisited.put(obj, null);
-        return false;
     }
 
     /**
@@ -544,63 +751,173 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
      */
     public void writeImpl(Object obj, boolean showType) throws IOException
     {
-        // For security - write instances of these classes out as null
-        if (obj == null ||
-                obj instanceof ProcessBuilder ||
-                obj instanceof Process ||
-                obj instanceof ClassLoader ||
-                obj instanceof Constructor ||
-                obj instanceof Method ||
-                obj instanceof Field) {
-            out.write("null");
-            return;
+        super.writeImpl(obj, showType);
+    }
+
+    void startValue(Object obj) throws IOException
+    {
+        flushOpen();    // custom writers write straight to out
+        if (metrics != null && !references.isWritten(obj)) {    // not counting @ref's
+            metrics.written(obj.getClass());
         }
+    }
 
-        if (writeOptions.isNeverShowingType()) {
-            showType = false;
+    boolean writeCustomWritten(Object obj, boolean showType)
+    {
+        return writeUsingCustomWriter(obj, showType, out);
+    }
+
+    boolean writeJsonObject(Object obj, boolean showType) throws IOException
+    {
+        if (!(obj instanceof JsonObject))
+        {
+            return false;
         }
+        if (writeOptionalReference(obj))
+        {
+            return true;
+        }
+        // symmetric support for writing Map of Maps representation back as equivalent JSON format.
+        JsonObject jObj = (JsonObject) obj;
+        if (jObj.isArray()) {
+            writeJsonObjectArray(jObj, showType);
+        } else if (jObj.isCollection()) {
+            writeJsonObjectCollection(jObj, showType);
+        } else if (jObj.isMap()) {
+            if (!writeJsonObjectMapWithStringKeys(jObj, showType)) {
+                writeJsonObjectMap(jObj, showType);
+            }
+        } else {
+            writeJsonObjectObject(jObj, showType);
+        }
+        return true;
+    }
 
-        if (writeUsingCustomWriter(obj, showType, out) || writeOptionalReference(obj)) {
-            return;
+    /**
+     * Indent for the first entry of the object or array just opened.
+     */
+    private void flushOpen() throws IOException
+    {
+        if (pendingOpen)
+        {
+            pendingOpen = false;
+            tabIn();
         }
+    }
 
-        if (obj.getClass().isArray()) {
-            writeArray(obj, showType);
-        } else if (obj instanceof EnumSet) {
-            writeEnumSet((EnumSet<?>)obj);
-        } else if (obj instanceof Collection) {
-            writeCollection((Collection<?>) obj, showType);
-        } else if (obj instanceof JsonObject) {   // symmetric support for writing Map of Maps representation back as equivalent JSON format.
-            JsonObject jObj = (JsonObject) obj;
-            if (jObj.isArray()) {
-                writeJsonObjectArray(jObj, showType);
-            } else if (jObj.isCollection()) {
-                writeJsonObjectCollection(jObj, showType);
-            } else if (jObj.isMap()) {
-                if (!writeJsonObjectMapWithStringKeys(jObj, showType)) {
-                    writeJsonObjectMap(jObj, showType);
-                }
-            } else {
-                writeJsonObjectObject(jObj, showType);
-            }
+    void beginObject() throws IOException
+    {
+        flushOpen();
+        out.write('{');
+        pendingOpen = true;
+    }
+
+    void endObject() throws IOException
+    {
+        if (pendingOpen)
+        {
+            pendingOpen = false;
         }
-        else if (obj instanceof Map)
-        {   // Map instanceof check must be after JsonObject check above (JsonObject is a subclass of Map)
-            if (!writeMapWithStringKeys((Map) obj, showType))
-            {
-                writeMap((Map) obj, showType);
-            }
+        else
+        {
+            tabOut();
+        }
+        out.write('}');
+    }
+
+    void beginArray() throws IOException
+    {
+        flushOpen();
+        out.write('[');
+        pendingOpen = true;
+    }
+
+    void endArray() throws IOException
+    {
+        if (pendingOpen)
+        {
+            pendingOpen = false;
         }
         else
         {
-            writeObject(obj, showType, false);
+            tabOut();
         }
+        out.write(']');
+    }
+
+    void separator() throws IOException
+    {
+        out.write(',');
+        newLine();
     }
 
-    private void writeId(final String id) throws IOException
+    void writeId(final long id) throws IOException
     {
+        flushOpen();
         out.write(writeOptions.isShortMetaKeys() ? "\"@i\":" : "\"@id\":");
-        out.write(id == null ? "0" : id);
+        writeLongValue(id);
+    }
+
+    void writeType(String name) throws IOException
+    {
+        flushOpen();
+        writeType(name, out);
+    }
+
+    void writeRef(long id) throws IOException
+    {
+        flushOpen();
+        out.write(writeOptions.isShortMetaKeys() ? "{\"@r\":" : "{\"@ref\":");
+        writeLongValue(id);
+        out.write('}');
+    }
+
+    void writeFieldName(String name) throws IOException
+    {
+        flushOpen();
+        out.write('"');
+        out.write(name);   // Not using slower UTF String writer for field names
+        out.write("\":");
+    }
+
+    void writeMetaKey(String key) throws IOException
+    {
+        if (writeOptions.isShortMetaKeys())
+        {
+            key = ITEMS.equals(key) ? "@e" : "@k";
+        }
+        writeFieldName(key);
+    }
+
+    void writeKey(String key) throws IOException
+    {
+        flushOpen();
+        writeJsonUtf8String(out, key);
+        out.write(':');
+    }
+
+    void writeNull() throws IOException
+    {
+        flushOpen();
+        out.write("null");
+    }
+
+    void writeString(String s) throws IOException
+    {
+        flushOpen();
+        writeJsonUtf8String(out, s);
+    }
+
+    void writeInteger(long value) throws IOException
+    {
+        flushOpen();
+        writeLongValue(value);
+    }
+
+    void writePrimitive(Object value) throws IOException
+    {
+        flushOpen();
+        writePrimitive(value, writeOptions.isWriteLongsAsStrings());   // showType only applies to a Long
     }
 
     private void writeType(String name, Writer output) throws IOException {
@@ -609,6 +926,18 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         }
         output.write(writeOptions.isShortMetaKeys() ? "\"@t\":\"" : "\"@type\":\"");
         String alias = writeOptions.getTypeNameAlias(name);
+        if (writeOptions.isCompactTypeNames()) {
+            Integer token = typeTokens.get(alias);
+            if (token != null) {
+                output.write(Integer.toString(token));
+                output.write('"');
+                return;
+            }
+            token = typeTokens.size();
+            typeTokens.put(alias, token);
+            output.write(Integer.toString(token));
+            output.write('=');
+        }
         output.write(alias);
         output.write('"');
     }
@@ -636,67 +965,62 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
             out.write("null");
         } else if (!writeOptions.isAllowNanAndInfinity() && obj instanceof Float && (Float.isNaN((Float) obj) || Float.isInfinite((Float) obj))) {
             out.write("null");
+        } else if (obj instanceof Double) {
+            writeDoubleValue((Double) obj);
+        } else if (obj instanceof Long || obj instanceof Integer || obj instanceof Short || obj instanceof Byte) {
+            writeLongValue(((Number) obj).longValue());
         } else {
             out.write(obj.toString());
         }
     }
 
-    private void writeArray(final Object array, boolean showType) throws IOException
+    /**
+     * Write the decimal digits of a long (or int, short, byte) to the output, without creating a String.
+     * @param output Writer to which the digits are written.
+     * @param value long value to write.
+     * @throws IOException if thrown by the Writer.
+     */
+    public static void writeLong(Writer output, long value) throws IOException
     {
-        if (writeOptions.isNeverShowingType())
-        {
-            showType = false;
-        }
-        Class<?> arrayType = array.getClass();
-        int len = Array.getLength(array);
-        boolean referenced = objsReferenced.containsKey(array);
-        boolean typeWritten = showType && !(arrayType.equals(Object[].class));
-        final Writer output = this.out; // performance opt: place in final local for quicker access
-        
-        if (typeWritten || referenced)
-        {
-            output.write('{');
-            tabIn();
-        }
+        final char[] chars = new char[NumberChars.MAX_CHARS];
+        output.write(chars, 0, NumberChars.formatLong(value, chars, 0));
+    }
 
-        if (referenced)
-        {
-            writeId(getId(array));
-            output.write(',');
-            newLine();
-        }
+    /**
+     * Write a double to the output using the shortest decimal that reads back as the same double, laid out like
+     * Double.toString() (NaN and Infinity are written as such, so check for them first if they are not wanted).
+     * No String is created.
+     * @param output Writer to which the characters are written.
+     * @param value double value to write.
+     * @throws IOException if thrown by the Writer.
+     */
+    public static void writeDouble(Writer output, double value) throws IOException
+    {
+        final char[] chars = new char[NumberChars.MAX_CHARS];
+        output.write(chars, 0, NumberChars.formatDouble(value, chars, 0));
+    }
 
-        if (typeWritten)
-        {
-            writeType(arrayType.getName(), output);
-            output.write(',');
-            newLine();
-        }
+    private void writeLongValue(long value) throws IOException
+    {
+        out.write(numBuf, 0, NumberChars.formatLong(value, numBuf, 0));
+    }
 
+    private void writeDoubleValue(double value) throws IOException
+    {
+        out.write(numBuf, 0, NumberChars.formatDouble(value, numBuf, 0));
+    }
+
+    void writePrimitiveArray(final Object array) throws IOException
+    {
+        final Class<?> arrayType = array.getClass();
+        final int len = Array.getLength(array);
+        beginArray();
         if (len == 0)
         {
-            if (typeWritten || referenced)
-            {
-                output.write(writeOptions.isShortMetaKeys() ? "\"@e\":[]" : "\"@items\":[]");
-                tabOut();
-                output.write('}');
-            }
-            else
-            {
-                output.write("[]");
-            }
+            endArray();
             return;
         }
-
-        if (typeWritten || referenced)
-        {
-            output.write(writeOptions.isShortMetaKeys() ? "\"@e\":[" : "\"@items\":[");
-        }
-        else
-        {
-            output.write('[');
-        }
-        tabIn();
+        flushOpen();
 
         final int lenMinus1 = len - 1;
 
@@ -707,8 +1031,6 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         if (byte[].class == arrayType)
         {
             writeByteArray((byte[]) array, lenMinus1);
-        } else if (char[].class == arrayType) {
-            writeJsonUtf8String(output, new String((char[]) array));
         }
         else if (short[].class == arrayType)
         {
@@ -734,37 +1056,7 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         {
             writeBooleanArray((boolean[]) array, lenMinus1);
         }
-        else
-        {
-            final Class<?> componentClass = array.getClass().getComponentType();
-            for (int i = 0; i < len; i++)
-            {
-                final Object value = Array.get(array, i);
-
-                if (value == null) {
-                    output.write("null");
-                } else {
-                    final boolean forceType = isForceType(value.getClass(), componentClass);
-                    if (!writeArrayElementIfMatching(componentClass, value, forceType, output)) {
-                        writeImpl(value, forceType);
-                    }
-                }
-
-                if (i != lenMinus1)
-                {   // Make sure no bogus comma at the end of the array
-                    output.write(',');
-                    newLine();
-                }
-            }
-        }
-
-        tabOut();
-        output.write(']');
-        if (typeWritten || referenced)
-        {
-            tabOut();
-            output.write('}');
-        }
+        endArray();
     }
 
     private void writeBooleanArray(boolean[] booleans, int lenMinus1) throws IOException
@@ -781,6 +1073,27 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
     {
         final Writer output = this.out;
         final JsonClassWriter writer = getWriteOptions().getCustomWriter(Double.class);
+        if (writer.getClass() == Writers.DoubleWriter.class)
+        {   // Stock writer: format straight into the output instead of boxing each element
+            final boolean allowNanAndInfinity = writeOptions.isAllowNanAndInfinity();
+            for (int i = 0; i <= lenMinus1; i++)
+            {
+                final double d = doubles[i];
+                if (!allowNanAndInfinity && (Double.isNaN(d) || Double.isInfinite(d)))
+                {
+                    output.write("null");
+                }
+                else
+                {
+                    writeDoubleValue(d);
+                }
+                if (i != lenMinus1)
+                {
+                    output.write(',');
+                }
+            }
+            return;
+        }
         for (int i = 0; i < lenMinus1; i++)
         {
             writer.write(doubles[i], false, output, this);
@@ -807,6 +1120,14 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         final Writer output = this.out;
 
         JsonClassWriter writer = getWriteOptions().getCustomWriter(long.class);
+        if (writer.getClass() == LongWriter.class && !writeOptions.isWriteLongsAsStrings()) {
+            for (int i = 0; i < lenMinus1; i++) {
+                writeLongValue(longs[i]);
+                output.write(',');
+            }
+            writeLongValue(longs[lenMinus1]);
+            return;
+        }
         for (int i = 0; i < lenMinus1; i++) {
             writer.write(longs[i], false, output, this);
             output.write(',');
@@ -820,10 +1141,10 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         final Writer output = this.out;
         for (int i = 0; i < lenMinus1; i++)
         {
-            output.write(Integer.toString(ints[i]));
+            writeLongValue(ints[i]);
             output.write(',');
         }
-        output.write(Integer.toString(ints[lenMinus1]));
+        writeLongValue(ints[lenMinus1]);
     }
 
     private void writeShortArray(short[] shorts, int lenMinus1) throws IOException
@@ -831,10 +1152,10 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         final Writer output = this.out;
         for (int i = 0; i < lenMinus1; i++)
         {
-            output.write(Integer.toString(shorts[i]));
+            writeLongValue(shorts[i]);
             output.write(',');
         }
-        output.write(Integer.toString(shorts[lenMinus1]));
+        writeLongValue(shorts[lenMinus1]);
     }
 
     private void writeByteArray(byte[] bytes, int lenMinus1) throws IOException
@@ -849,92 +1170,6 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         output.write((char[]) byteStrs[bytes[lenMinus1] + 128]);
     }
 
-    private void writeCollection(Collection<?> col, boolean showType) throws IOException
-    {
-        if (writeOptions.isNeverShowingType())
-        {
-            showType = false;
-        }
-        final Writer output = this.out;
-        boolean referenced = this.objsReferenced.containsKey(col);
-        boolean isEmpty = col.isEmpty();
-
-        if (referenced || showType)
-        {
-            output.write('{');
-            tabIn();
-        }
-        else if (isEmpty)
-        {
-            output.write('[');
-        }
-
-        writeIdAndTypeIfNeeded(col, showType, referenced);
-
-        if (isEmpty)
-        {
-            if (referenced || showType)
-            {
-                tabOut();
-                output.write('}');
-            }
-            else
-            {
-                output.write(']');
-            }
-            return;
-        }
-
-        beginCollection(showType, referenced);
-        Iterator<?> i = col.iterator();
-
-        writeElements(output, i);
-
-        tabOut();
-        output.write(']');
-        if (showType || referenced)
-        {   // Finished object, as it was output as an object if @id or @type was output
-            tabOut();
-            output.write("}");
-        }
-    }
-
-    private void writeElements(Writer output, Iterator<?> i) throws IOException
-    {
-        while (i.hasNext())
-        {
-            writeCollectionElement(i.next());
-
-            if (i.hasNext())
-            {
-                output.write(',');
-                newLine();
-            }
-        }
-    }
-
-    private void writeIdAndTypeIfNeeded(Object col, boolean showType, boolean referenced) throws IOException
-    {
-        if (writeOptions.isNeverShowingType())
-        {
-            showType = false;
-        }
-        if (referenced)
-        {
-            writeId(getId(col));
-        }
-
-        if (showType)
-        {
-            if (referenced)
-            {
-                out.write(',');
-                newLine();
-            }
-            writeType(col.getClass().getName(), out);
-        }
-    }
-
     private void beginCollection(boolean showType, boolean referenced) throws IOException
     {
         if (showType || referenced)
@@ -975,7 +1210,7 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         }
 
         if (referenced) {
-            writeId(Long.toString(jObj.id));
+            writeId(jObj.id);
             output.write(',');
             newLine();
         }
@@ -1060,7 +1295,7 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
 
         if (referenced)
         {
-            writeId(String.valueOf(jObj.id));
+            writeId(jObj.id);
         }
 
         if (showType)
@@ -1129,7 +1364,8 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
             newLine();
         }
 
-        writeMapToEnd(jObj, output);
+        writeMapToEnd(jObj, null);
+        endObject();
     }
 
     private boolean writeJsonObjectMapWithStringKeys(JsonObject jObj, boolean showType) throws IOException
@@ -1154,13 +1390,9 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
             return true;
         }
 
-        if (showType)
-        {
-            output.write(',');
-            newLine();
-        }
-
-        return writeMapBody(jObj.entrySet().iterator());
+        writeMapBody(jObj.entrySet().iterator(), !showType, null);
+        endObject();
+        return true;
     }
 
     private boolean emitIdAndTypeIfNeeded(JsonObject jObj, boolean showType, Writer output) throws IOException
@@ -1171,7 +1403,7 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
 
         if (referenced)
         {
-            writeId(String.valueOf(jObj.getId()));
+            writeId(jObj.getId());
         }
 
         if (showType)
@@ -1213,7 +1445,7 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         tabIn();
         if (referenced)
         {
-            writeId(String.valueOf(jObj.id));
+            writeId(jObj.id);
         }
 
         Class<?> type = null;
@@ -1271,6 +1503,10 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
             else if (value instanceof BigDecimal || value instanceof BigInteger)
             {
                 writeImpl(value, !doesValueTypeMatchFieldType(type, fieldName, value));
+            } else if (value instanceof Long) {
+                writeLongValue((Long) value);
+            } else if (value instanceof Double) {
+                writeDoubleValue((Double) value);
             } else if (value instanceof Number || value instanceof Boolean) {
                 output.write(value.toString());
             } else if (value instanceof String) {
@@ -1289,12 +1525,12 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
 
     private boolean adjustIfReferenced(JsonObject jObj)
     {
-        Long idx = objsReferenced.get(jObj);
-        if (!jObj.hasId() && idx != null && idx > 0)
+        long idx = references.getId(jObj);
+        if (!jObj.hasId() && idx > 0)
         {   // Referenced object that needs an ID copied to it.
             jObj.id = idx;
         }
-        return objsReferenced.containsKey(jObj) && jObj.hasId();
+        return idx > 0 && jObj.hasId();
     }
 
     // Hopefully this method goes away when the converters are done.
@@ -1312,129 +1548,6 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         return false;
     }
 
-    private void writeMap(Map map, boolean showType) throws IOException
-    {
-        if (writeOptions.isNeverShowingType())
-        {
-            showType = false;
-        }
-        final Writer output = this.out;
-        boolean referenced = this.objsReferenced.containsKey(map);
-
-        output.write('{');
-        tabIn();
-        if (referenced)
-        {
-            writeId(getId(map));
-        }
-
-        if (showType)
-        {
-            if (referenced)
-            {
-                output.write(',');
-                newLine();
-            }
-            writeType(map.getClass().getName(), output);
-        }
-
-        if (map.isEmpty())
-        {
-            tabOut();
-            output.write('}');
-            return;
-        }
-
-        if (showType || referenced)
-        {
-            output.write(',');
-            newLine();
-        }
-
-        writeMapToEnd(map, output);
-    }
-
-    private void writeMapToEnd(Map map, Writer output) throws IOException
-    {
-        output.write(writeOptions.isShortMetaKeys() ? "\"@k\":[" : "\"@keys\":[");
-        tabIn();
-        Iterator<?> i = map.keySet().iterator();
-
-        writeElements(output, i);
-
-        tabOut();
-        output.write("],");
-        newLine();
-        output.write(writeOptions.isShortMetaKeys() ? "\"@e\":[" : "\"@items\":[");
-        tabIn();
-        i = map.values().iterator();
-
-        writeElements(output, i);
-
-        tabOut();
-        output.write(']');
-        tabOut();
-        output.write('}');
-    }
-    
-    private boolean writeMapWithStringKeys(Map map, boolean showType) throws IOException
-    {
-        if (writeOptions.isNeverShowingType())
-        {
-            showType = false;
-        }
-        if (writeOptions.isForceMapOutputAsTwoArrays() || !ensureJsonPrimitiveKeys(map))
-        {
-            return false;
-        }
-
-        boolean referenced = this.objsReferenced.containsKey(map);
-
-        out.write('{');
-        tabIn();
-        writeIdAndTypeIfNeeded(map, showType, referenced);
-
-        if (map.isEmpty())
-        {
-            tabOut();
-            out.write('}');
-            return true;
-        }
-
-        if (showType || referenced)
-        {
-            out.write(',');
-            newLine();
-        }
-
-        return writeMapBody(map.entrySet().iterator());
-    }
-
-    private boolean writeMapBody(final Iterator i) throws IOException {
-        final Writer output = out;
-        while (i.hasNext()) {
-            Entry att2value = (Entry) i.next();
-            Object value = att2value.getValue();
-            
-            if (writeOptions.isSkipNullFields() && value == null) {
-                continue;
-            }
-            
-            writeJsonUtf8String(output, (String) att2value.getKey());
-            output.write(":");
-            writeCollectionElement(value);
-
-            if (i.hasNext()) {
-                output.write(',');
-                newLine();
-            }
-        }
-
-        tabOut();
-        output.write('}');
-        return true;
-    }
-
     /**
      * Ensure that all keys within the Map are String instances
      * @param map Map to inspect that all keys are primitive.  This allows the output JSON
@@ -1455,126 +1568,6 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         return true;
     }
 
-    /**
-     * Write an element that is contained in some type of Collection or Map.
-     * @param o Collection element to output in JSON format.
-     * @throws IOException if an error occurs writing to the output stream.
-     */
-    private void writeCollectionElement(Object o) throws IOException
-    {
-        if (o == null)
-        {
-            out.write("null");
-        } else if (o instanceof Boolean || o instanceof Double) {
-            writePrimitive(o, false);
-        } else if (o instanceof Long) {
-            writePrimitive(o, getWriteOptions().isWriteLongsAsStrings());
-        } else if (o instanceof String) {   // Never do an @ref to a String (they are treated as logical primitives and intern'ed on read)
-            writeJsonUtf8String(out, (String) o);
-        } else if (getWriteOptions().isNeverShowingType() && MetaUtils.isPrimitive(o.getClass())) {   // If neverShowType, then force primitives (and primitive wrappers)
-            // to be output with toString() - prevents {"value":6} for example
-            writePrimitive(o, false);
-        } else {
-            writeImpl(o, true);
-        }
-    }
-
-    private void writeEnumSet(final EnumSet<?> enumSet) throws IOException
-    {
-        out.write('{');
-        tabIn();
-
-        boolean referenced = this.objsReferenced.containsKey(enumSet);
-        if (referenced)
-        {
-            writeId(getId(enumSet));
-            out.write(',');
-            newLine();
-        }
-
-        out.write("\"@enum\":");
-
-        Enum<? extends Enum<?>> ee = null;
-        if (!enumSet.isEmpty())
-        {
-            ee = enumSet.iterator().next();
-        }
-        else
-        {
-            EnumSet<? extends Enum<?>> complement = EnumSet.complementOf(enumSet);
-            if (!complement.isEmpty())
-            {
-                ee = complement.iterator().next();
-            }
-        }
-
-        Field elementTypeField = writeOptions.getDeepDeclaredFields(EnumSet.class).get("elementType");
-
-        Class<?> elementType = (Class<?>) getValueByReflect(enumSet, elementTypeField);
-        if ( elementType != null)
-        {
-            // nice we got the right to sneak into
-        }
-        else if (ee == null)
-        {
-            elementType = MetaUtils.Dumpty.class;
-        }
-        else
-        {
-            elementType = ee.getClass();
-        }
-        writeBasicString(out, elementType.getName());
-
-        if (!enumSet.isEmpty())
-        {
-            Collection<Accessor> mapOfFields = writeOptions.getAccessorsForClass(elementType);
-            int enumFieldsCount = mapOfFields.size();
-
-            out.write(",");
-            newLine();
-
-            writeBasicString(out, "@items");
-            out.write(":[");
-            if (enumFieldsCount > 2)
-            {
-                newLine();
-            }
-
-            boolean firstInSet = true;
-            for (Enum e : enumSet)
-            {
-                if (!firstInSet)
-                {
-                    out.write(",");
-                    if (enumFieldsCount > 2)
-                    {
-                        newLine();
-                    }
-                }
-                firstInSet = false;
-
-                if (enumFieldsCount <= 2) {
-                    writeJsonUtf8String(out, e.name());
-                }
-                else
-                {
-                    boolean firstInEntry = true;
-                    out.write('{');
-                    for (Accessor f : mapOfFields)
-                    {
-                        firstInEntry = writeField(e, firstInEntry, f.getUniqueFieldName(), f);
-                    }
-                    out.write('}');
-                }
-            }
-
-            out.write("]");
-        }
-        
-        tabOut();
-        out.write('}');
-    }
-
     /**
      * @param obj      Object to be written in JSON format
      * @param showType boolean true means show the "@type" field, false
@@ -1585,135 +1578,12 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
      */
     public void writeObject(final Object obj, boolean showType, boolean bodyOnly) throws IOException
     {
-        if (writeOptions.isNeverShowingType())
-        {
-            showType = false;
-        }
-        final boolean referenced = this.objsReferenced.containsKey(obj);
-        if (!bodyOnly)
-        {
-            out.write('{');
-            tabIn();
-            if (referenced)
-            {
-                writeId(getId(obj));
-            }
-
-            if (referenced && showType)
-            {
-                out.write(',');
-                newLine();
-            }
-
-            if (showType)
-            {
-                writeType(obj.getClass().getName(), out);
-            }
-        }
-
-        boolean first = !showType;
-        if (referenced && !showType)
-        {
-            first = false;
-        }
-
-        Collection<Accessor> accessors = writeOptions.getAccessorsForClass(obj.getClass());
-
-        for (final Accessor accessor : accessors) {
-            final String fieldName = accessor.getUniqueFieldName();
-            first = writeField(obj, first, fieldName, accessor);
-        }
-
-        if (!bodyOnly)
-        {
-            tabOut();
-            out.write('}');
-        }
+        super.writeObject(obj, showType, bodyOnly);
     }
 
-    private Object getValueByReflect(Object obj, Field field) {
-        try {
-            return field.get(obj);
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
-    private boolean writeField(Object obj, boolean first, String fieldName, Accessor accessor) throws IOException
+    public boolean writeField(boolean first, String fieldName, Object o, Class<?> declaredType) throws IOException
     {
-        final Class<?> fieldDeclaringClass = accessor.getDeclaringClass();
-        Object o;
-
-        //  Only here for enumAsObject writing,.
-        if (Enum.class.isAssignableFrom(fieldDeclaringClass)) {
-            if (!accessor.isPublic() && writeOptions.isEnumPublicFieldsOnly()) {
-                return first;
-            }
-
-            o = accessor.retrieve(obj);
-        } else {
-            o = accessor.retrieve(obj);
-        }
-
-        if (writeOptions.isSkipNullFields() && o == null)
-        {   // If skip null, skip field and return the same status on first field written indicator
-            return first;
-        }
-
-        if (!first)
-        {
-            out.write(',');
-            newLine();
-        }
-
-        out.write("\"");
-        out.write(fieldName);   // Not using slower UTF String writer for field names
-        out.write("\":");
-
-        if (o == null)
-        {    // don't quote null
-            out.write("null");
-            return false;
-        }
-
-        // check to see if type needs to be written.
-        Class<?> type = accessor.getFieldType();
-        writeImpl(o, isForceType(o.getClass(), type));
-        return false;
-    }
-
-    private boolean isForceType(Class<?> objectClass, Class<?> declaredType) {
-        // When no type is written we can check the Object itself not the declaration
-        final boolean writeLongsAsStrings = writeOptions.isWriteLongsAsStrings();
-        final boolean objectClassIsLongWrittenAsString = (objectClass == Long.class || objectClass == long.class) && writeLongsAsStrings;
-        final boolean declaredClassIsLongWrittenAsString = (declaredType == Long.class || objectClass == long.class) && writeLongsAsStrings;
-
-        if (Primitives.isNativeJsonType(objectClass) && !objectClassIsLongWrittenAsString) {
-            return false;
-        }
-
-        if (Primitives.isPrimitive(declaredType) && !declaredClassIsLongWrittenAsString) {
-            return false;
-        }
-
-        if (writeOptions.isNeverShowingType() && Primitives.isPrimitive(objectClass) && !objectClassIsLongWrittenAsString) {
-            return false;
-        }
-
-        if (writeOptions.isAlwaysShowingType()) {
-            return true;
-        }
-
-        if (objectClass == declaredType) {
-            return false;
-        }
-
-        if (declaredType.isEnum() && declaredType.isAssignableFrom(objectClass)) {
-            Optional<Class<?>> optionalClass = MetaUtils.getClassIfEnum(objectClass);
-            return declaredType != optionalClass.orElse(null);
-        }
-
-        return true;
+        return super.writeField(first, fieldName, o, declaredType);
     }
 
     public void flush()
@@ -1737,18 +1607,27 @@ public class JsonWriter implements WriterContext, Closeable, Flushable
         catch (Exception ignore) { }
     }
 
-    private String getId(Object o)
+    /**
+     * @return read-only view of the objects written so far by the current write(), mapped to their @id (null
+     * when not referenced more than once).
+     */
+    public Map<Object, Long> getObjVisited()
     {
-        if (o instanceof JsonObject)
-        {
-            long id = ((JsonObject) o).id;
-            if (id > 0)
-            {
-                return String.valueOf(id);
-            }
-        }
-        Long id = this.objsReferenced.get(o);
-        return id == null ? null : Long.toString(id);
+        return references.writtenView();
+    }
+
+    /**
+     * @return read-only view of the objects referenced more than once within the input object graph, mapped to
+     * their @id.
+     */
+    public Map<Object, Long> getObjsReferenced()
+    {
+        return references.referencedView();
+    }
+
+    ReferenceTable getReferenceTable()
+    {
+        return references;
     }
 
     /**
@@ -17,7 +17,6 @@ import java.math.BigInteger;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
-import java.text.SimpleDateFormat;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -29,6 +28,7 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -38,7 +38,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -89,14 +88,13 @@ public class MetaUtils
 
     public static final String META_CLASS_NAME = "groovy.lang.MetaClass";
 
-    private static final Map<String, Class<?>> nameToClass = new HashMap<>();
+    private static final Map<String, Class<?>> nameToClass = new ConcurrentHashMap<>();
     private static final ConcurrentMap<String, CachedConstructor> constructors = new ConcurrentHashMap<>();
     private static final Collection<?> unmodifiableCollection = Collections.unmodifiableCollection(new ArrayList<>());
     private static final Set<?> unmodifiableSet = Collections.unmodifiableSet(new HashSet<>());
     private static final SortedSet<?> unmodifiableSortedSet = Collections.unmodifiableSortedSet(new TreeSet<>());
     private static final Map<?, ?> unmodifiableMap = Collections.unmodifiableMap(new HashMap<>());
     private static final SortedMap<?, ?> unmodifiableSortedMap = Collections.unmodifiableSortedMap(new TreeMap<>());
-    static final ThreadLocal<SimpleDateFormat> dateFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ"));
     private static boolean useUnsafe = false;
     private static Unsafe unsafe;
     private static final Map<Class<?>, Supplier<Object>> DIRECT_CLASS_MAPPING = new HashMap<>();
@@ -248,6 +246,132 @@ public class MetaUtils
         return enclosingClass != null && enclosingClass.isEnum() ? Optional.of(enclosingClass) : Optional.empty();
     }
 
+    private static final Map<Class<?>, EnumTable> enumTables = new ConcurrentHashMap<>();
+    private static final Field enumSetElementType = accessibleField(EnumSet.class, "elementType");
+    private static final Field enumMapKeyType = accessibleField(EnumMap.class, "keyType");
+
+    /**
+     * Constants of one enum class, by ordinal and by name.  Built once per class, so looking a constant up costs
+     * no Optional, no Class.getEnumConstants() array clone, and no exception for an ordinal.
+     */
+    static final class EnumTable {
+        final Class<?> enumClass;
+        final Enum<?>[] constants;
+        private final Map<String, Enum<?>> byName;
+
+        private EnumTable(Class<?> enumClass) {
+            this.enumClass = enumClass;
+            this.constants = (Enum<?>[]) enumClass.getEnumConstants();
+            this.byName = new HashMap<>(constants.length * 2);
+            for (Enum<?> constant : constants) {
+                byName.put(constant.name(), constant);
+            }
+        }
+
+        Enum<?> byName(String name) {
+            Enum<?> constant = byName.get(name);
+            if (constant == null) {
+                throw new IllegalArgumentException("No enum constant " + enumClass.getCanonicalName() + "." + name);
+            }
+            return constant;
+        }
+
+        Enum<?> byOrdinal(long ordinal) {
+            if (ordinal < 0 || ordinal >= constants.length) {
+                throw new JsonIoException("Enum ordinal " + ordinal + " out of range for: " + enumClass.getName());
+            }
+            return constants[(int) ordinal];
+        }
+    }
+
+    /**
+     * @param c Class of an enum, or of an enum constant with a body.
+     * @return the cached constant table of the enum.
+     */
+    static EnumTable getEnumTable(Class<?> c) {
+        EnumTable table = enumTables.get(c);
+        if (table == null) {
+            Optional<Class<?>> enumClass = getClassIfEnum(c);
+            if (!enumClass.isPresent()) {
+                throw new JsonIoException("Not an enum: " + c.getName());
+            }
+            table = enumTables.computeIfAbsent(enumClass.get(), EnumTable::new);
+            enumTables.putIfAbsent(c, table);
+        }
+        return table;
+    }
+
+    /**
+     * Look up an enum constant by name, like Enum.valueOf(), from a table built once per enum class.
+     * @param c Class of an enum, or of an enum constant with a body.
+     * @param name String name of the constant.
+     * @return the enum constant.
+     * @throws IllegalArgumentException if the enum has no constant with that name.
+     */
+    public static Enum<?> getEnumConstant(Class<?> c, String name) {
+        return getEnumTable(c).byName(name);
+    }
+
+    /**
+     * Look up an enum constant by ordinal, from a table built once per enum class.
+     * @param c Class of an enum, or of an enum constant with a body.
+     * @param ordinal long ordinal of the constant.
+     * @return the enum constant.
+     * @throws JsonIoException if the ordinal is out of range.
+     */
+    public static Enum<?> getEnumConstant(Class<?> c, long ordinal) {
+        return getEnumTable(c).byOrdinal(ordinal);
+    }
+
+    /**
+     * @param enumSet EnumSet to inspect.
+     * @return the enum class of the EnumSet's elements, or null if it cannot be determined (an empty EnumSet of an
+     * enum without constants, when EnumSet's internals are not accessible).
+     */
+    static Class<?> getEnumSetElementType(EnumSet<?> enumSet) {
+        if (!enumSet.isEmpty()) {
+            return enumSet.iterator().next().getDeclaringClass();
+        }
+        Object type = getFieldValue(enumSetElementType, enumSet);
+        if (type != null) {
+            return (Class<?>) type;
+        }
+        EnumSet<?> complement = EnumSet.complementOf(enumSet);
+        return complement.isEmpty() ? null : complement.iterator().next().getDeclaringClass();
+    }
+
+    /**
+     * @param enumMap EnumMap to inspect.
+     * @return the enum class of the EnumMap's keys, or null if it is empty and EnumMap's internals are not accessible.
+     */
+    static Class<?> getEnumMapKeyType(EnumMap<?, ?> enumMap) {
+        if (!enumMap.isEmpty()) {
+            return enumMap.keySet().iterator().next().getDeclaringClass();
+        }
+        return (Class<?>) getFieldValue(enumMapKeyType, enumMap);
+    }
+
+    private static Field accessibleField(Class<?> c, String name) {
+        try {
+            Field field = c.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (Exception e) {   // Java 9+ strong encapsulation of java.util
+            return null;
+        }
+    }
+
+    private static Object getFieldValue(Field field, Object o) {
+        if (field == null) {
+            return null;
+        }
+        try {
+            return field.get(o);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * Given the passed in String class name, return the named JVM class.
      * @param name String name of a JVM class.
@@ -891,6 +1015,20 @@ public class MetaUtils
         return builtMap;
     }
 
+    /**
+     * Populates a map with a mapping of class name -> Set of Strings.  Unlike loadClassToSetOfStrings(), the
+     * listed classes are not loaded (resolving a class that is not on the classpath searches the whole classpath).
+     */
+    public static Map<String, Set<String>> loadClassNameToSetOfStrings(String fileName) {
+        Map<String, String> map = loadMapDefinition(fileName);
+        Map<String, Set<String>> builtMap = new HashMap<>();
+
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            builtMap.put(entry.getKey(), commaSeparatedStringToSet(entry.getValue()));
+        }
+        return builtMap;
+    }
+
     public static Set<String> commaSeparatedStringToSet(String commaSeparatedString) {
         return Arrays.stream(commaSeparatedString.split(","))
                 .map(String::trim)
@@ -935,15 +1073,12 @@ public class MetaUtils
         Map<String, String> map = new LinkedHashMap<>();
         try {
             String contents = MetaUtils.loadResourceAsString(resName);
-            Scanner scanner = new Scanner(contents);
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
+            for (String line : splitLines(contents)) {
                 if (!line.trim().startsWith("#") && !line.isEmpty()) {
                     String[] parts = line.split("=");
                     map.put(parts[0].trim(), parts[1].trim());
                 }
             }
-            scanner.close();
         }  catch (Exception e) {
             throw new JsonIoException("Error reading in " + resName + ". The file should be in the resources folder. The contents are expected to have two strings separated by '='. You can use # or blank lines in the file, they will be skipped.");
         }
@@ -960,20 +1095,42 @@ public class MetaUtils
         Set<String> set = new LinkedHashSet<>();
         try {
             String contents = MetaUtils.loadResourceAsString(resName);
-            Scanner scanner = new Scanner(contents);
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine().trim();
+            for (String line : splitLines(contents)) {
+                line = line.trim();
                 if (!line.startsWith("#") && !line.isEmpty()) {
                     set.add(line);
                 }
             }
-            scanner.close();
         }  catch (Exception e) {
             throw new JsonIoException("Error reading in " + resName + ". The file should be in the resources folder. The contents have a single String per line.  You can use # or blank lines in the file, they will be skipped.");
         }
         return set;
     }
 
+    /**
+     * Split text into lines ("\n", "\r\n" or "\r" terminated).  Used instead of java.util.Scanner, whose
+     * locale-aware number patterns and regex machinery are costly to initialize at startup.
+     */
+    private static List<String> splitLines(String contents) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        final int len = contents.length();
+        for (int i = 0; i < len; i++) {
+            char c = contents.charAt(i);
+            if (c == '\n' || c == '\r') {
+                lines.add(contents.substring(start, i));
+                if (c == '\r' && i + 1 < len && contents.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                start = i + 1;
+            }
+        }
+        if (start < len) {
+            lines.add(contents.substring(start));
+        }
+        return lines;
+    }
+
     /**
      * Loads resource content as a String.
      * @param resourceName Name of the resource file.
@@ -0,0 +1,36 @@
+package com.cedarsoftware.util.io;
+
+/**
+ * Receives the measurements of each JSON read or write, when set with ReadOptionsBuilder.metricsListener() or
+ * WriteOptionsBuilder.metricsListener().  The listener is called on the reading / writing thread once the call
+ * completes successfully.  When no listener is set, nothing is measured.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+public interface MetricsListener {
+    /**
+     * Called after JsonReader.readObject() (JsonIo.toObjects()) has parsed and resolved one JSON value.
+     */
+    default void readCompleted(ReadMetrics metrics) {
+    }
+
+    /**
+     * Called after JsonWriter.write() (JsonIo.toJson()) has written one object graph.
+     */
+    default void writeCompleted(WriteMetrics metrics) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.cedarsoftware.util.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import com.cedarsoftware.util.convert.Converter;
+
+/**
+ * Reads an NDJSON (newline delimited JSON) file on all cores.  The file is split into chunks of about CHUNK_SIZE
+ * bytes, each ending just after a newline (a newline byte never occurs inside a JSON record, as strings must escape
+ * it).  Each chunk is read with a positional read and its records parsed and resolved on a ForkJoinPool thread.
+ * The state a chunk needs (byte[] buffer, Converter, ReferenceTracker) is borrowed from a queue of Workers that
+ * belongs to one read() call, reused from one record and one chunk to the next, and dropped when read() returns,
+ * so nothing is left behind on the pool's threads.  ReadOptions is immutable after build(), so all workers share it.
+ * <br><br>
+ * In order, the records of each chunk are handed to the consumer on the calling thread, chunk after chunk, as they
+ * complete.  Unordered, each worker hands its records to the consumer as soon as they are read, so the consumer
+ * must be thread-safe.  Either way, at most two chunks per worker are in flight, bounding memory use regardless of
+ * file size.  Blank lines are skipped.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class NdjsonParallelReader<T> {
+    static final int CHUNK_SIZE = 1 << 20;
+    private static final int SCAN_SIZE = 8192;
+
+    private final FileChannel channel;
+    private final ReadOptions readOptions;
+    private final Class<T> rootType;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    NdjsonParallelReader(FileChannel channel, ReadOptions readOptions, Class<T> rootType, ForkJoinPool pool, int chunkSize) {
+        this.channel = channel;
+        this.readOptions = readOptions == null ? new ReadOptionsBuilder().build() : readOptions;
+        this.rootType = rootType;
+        this.pool = pool == null ? ForkJoinPool.commonPool() : pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * State used by one chunk task at a time, handed on to later chunks through the read() call's queue.
+     */
+    private static final class Worker {
+        private final Converter converter;
+        private final ReferenceTracker references = new JsonReader.DefaultReferenceTracker();
+        private byte[] buffer = new byte[0];
+
+        private Worker(ReadOptions readOptions) {
+            converter = new Converter(new ConverterReadOptionsAdapter(readOptions));
+        }
+
+        private byte[] buffer(int size) {
+            if (buffer.length < size) {
+                buffer = new byte[size];
+            }
+            return buffer;
+        }
+    }
+
+    void read(boolean ordered, Consumer<? super T> consumer) throws IOException {
+        final long size = channel.size();
+        final int maxInFlight = Math.max(2, pool.getParallelism() << 1);
+        final ArrayDeque<ForkJoinTask<List<T>>> inFlight = new ArrayDeque<>();
+        final Consumer<? super T> sink = ordered ? null : consumer;
+        final ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<>();
+        try {
+            long start = 0;
+            while (start < size) {
+                final long end = chunkEnd(start, size);
+                final long chunkStart = start;
+                inFlight.add(pool.submit(() -> readChunk(chunkStart, (int) (end - chunkStart), sink, workers)));
+                start = end;
+                if (inFlight.size() >= maxInFlight) {
+                    deliver(inFlight.poll().join(), consumer, ordered);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                deliver(inFlight.poll().join(), consumer, ordered);
+            }
+        } finally {
+            for (ForkJoinTask<List<T>> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private void deliver(List<T> records, Consumer<? super T> consumer, boolean ordered) {
+        if (ordered) {
+            for (T record : records) {
+                consumer.accept(record);
+            }
+        }
+    }
+
+    /**
+     * @return end of the chunk starting at start: just after the first newline at or beyond start + chunkSize.
+     */
+    private long chunkEnd(long start, long size) throws IOException {
+        long pos = start + chunkSize;
+        if (pos >= size) {
+            return size;
+        }
+        final ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+        while (pos < size) {
+            scan.clear();
+            int n = channel.read(scan, pos);
+            if (n <= 0) {
+                return size;
+            }
+            for (int i = 0; i < n; i++) {
+                if (scan.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+            if (pos - start > Integer.MAX_VALUE - SCAN_SIZE) {
+                throw new JsonIoException("NDJSON record starting before offset " + start + " is larger than 2GB");
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Read the records of the chunk [start, start + length).
+     * @param sink Consumer to hand each record to (unordered), or null to return them (ordered).
+     * @param workers idle Workers of this read() call; one is taken (or created) and put back when done.
+     */
+    private List<T> readChunk(long start, int length, Consumer<? super T> sink, ConcurrentLinkedQueue<Worker> workers) throws IOException {
+        Worker worker = workers.poll();
+        if (worker == null) {
+            worker = new Worker(readOptions);
+        }
+        try {
+            return readChunk(start, length, sink, worker);
+        } finally {
+            workers.offer(worker);
+        }
+    }
+
+    private List<T> readChunk(long start, int length, Consumer<? super T> sink, Worker worker) throws IOException {
+        final byte[] bytes = worker.buffer(length);
+        final ByteBuffer target = ByteBuffer.wrap(bytes, 0, length);
+        while (target.hasRemaining()) {
+            if (channel.read(target, start + target.position()) < 0) {
+                throw new JsonIoException("NDJSON file ended early, at offset: " + (start + target.position()));
+            }
+        }
+
+        final List<T> records = sink == null ? new ArrayList<>() : Collections.emptyList();
+        int pos = 0;
+        while (pos < length) {
+            int end = pos;
+            while (end < length && bytes[end] != '\n') {
+                end++;
+            }
+            if (!isBlank(bytes, pos, end)) {
+                T record;
+                try {
+                    record = new JsonReader(bytes, pos, end - pos, readOptions, worker.converter, worker.references).readObject(rootType);
+                } catch (Exception e) {
+                    throw new JsonIoException("Error reading NDJSON record at offset: " + (start + pos), e);
+                }
+                if (sink == null) {
+                    records.add(record);
+                } else {
+                    sink.accept(record);
+                }
+            }
+            pos = end + 1;
+        }
+        return records;
+    }
+
+    private static boolean isBlank(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,280 @@
+package com.cedarsoftware.util.io;
+
+import java.math.BigInteger;
+
+/**
+ * Formats longs and doubles directly into a char[] so the writers can copy the characters straight into their
+ * output buffer, without creating a temporary String per number.<br>
+ * <br>
+ * Doubles are formatted with the Schubfach algorithm (Raffaello Giulietti, "The Schubfach way to render doubles"),
+ * which produces the shortest decimal that rounds back to the same double.  The layout matches Double.toString():
+ * plain notation for 10^-3 &lt;= |v| &lt; 10^7 ("123.45", "0.001", "5.0") and computerized scientific notation
+ * otherwise ("1.0E7", "4.9E-324").  The digits are exactly those of Double.toString() on JDK 19+, and are never
+ * longer than those of older JDKs.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class NumberChars {
+    /**
+     * Enough room for any long ("-9223372036854775808") or double ("-2.2250738585072014E-308", "-0.0012345678901234567").
+     */
+    static final int MAX_CHARS = 32;
+
+    private static final char[] LONG_MIN = "-9223372036854775808".toCharArray();
+
+    // Schubfach constants for binary64
+    private static final int P = 53;
+    private static final int Q_MIN = -1074;
+    private static final long C_MIN = 1L << (P - 1);
+    private static final long C_TINY = 3;
+    private static final int K_MIN = -324;
+    private static final long MASK_63 = 0x7FFF_FFFF_FFFF_FFFFL;
+    private static final long T_MASK = (1L << (P - 1)) - 1;
+
+    private NumberChars() {
+    }
+
+    /**
+     * Write the decimal digits of value into buf starting at index.
+     * @return index just past the last character written.
+     */
+    static int formatLong(long value, char[] buf, int index) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                System.arraycopy(LONG_MIN, 0, buf, index, LONG_MIN.length);
+                return index + LONG_MIN.length;
+            }
+            buf[index++] = '-';
+            value = -value;
+        }
+        final int end = index + digitCount(value);
+        int pos = end;
+        while (value >= 10) {
+            long q = value / 10;
+            buf[--pos] = (char) ('0' + (int) (value - q * 10));
+            value = q;
+        }
+        buf[--pos] = (char) ('0' + (int) value);
+        return end;
+    }
+
+    private static int digitCount(long value) {
+        long p = 10;
+        for (int i = 1; i < 19; i++) {
+            if (value < p) {
+                return i;
+            }
+            p *= 10;
+        }
+        return 19;
+    }
+
+    /**
+     * Write the shortest round-trip representation of value into buf starting at index, in Double.toString()
+     * layout.  NaN and the infinities are written as "NaN", "Infinity" and "-Infinity".
+     * @return index just past the last character written.
+     */
+    static int formatDouble(double value, char[] buf, int index) {
+        final long bits = Double.doubleToRawLongBits(value);
+        final long t = bits & T_MASK;
+        final int bq = (int) (bits >>> (P - 1)) & 0x7FF;
+        if (bq == 0x7FF) {
+            return copy(t != 0 ? "NaN" : bits > 0 ? "Infinity" : "-Infinity", buf, index);
+        }
+        if (bits < 0) {
+            buf[index++] = '-';
+        }
+        if (bq != 0) {   // normal
+            final int mq = -Q_MIN + 1 - bq;
+            final long c = C_MIN | t;
+            if (0 < mq & mq < P) {   // integer values are exact, no need for Schubfach
+                final long f = c >> mq;
+                if (f << mq == c) {
+                    return layout(f, 0, buf, index);
+                }
+            }
+            return toDecimal(-mq, c, 0, buf, index);
+        }
+        if (t != 0) {   // subnormal
+            return t < C_TINY ? toDecimal(Q_MIN, 10 * t, -1, buf, index) : toDecimal(Q_MIN, t, 0, buf, index);
+        }
+        return copy("0.0", buf, index);
+    }
+
+    /**
+     * Schubfach core: find the shortest decimal in the rounding interval of c * 2^q, then lay it out.
+     */
+    private static int toDecimal(int q, long c, int dk, char[] buf, int index) {
+        final int out = (int) c & 0x1;
+        final long cb = c << 2;
+        final long cbr = cb + 2;
+        final long cbl;
+        final int k;
+        if (c != C_MIN | q == Q_MIN) {
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        final int h = q + flog2pow10(-k) + 2;
+
+        final long g1 = Pow10.G[(k - K_MIN) << 1];
+        final long g0 = Pow10.G[((k - K_MIN) << 1) + 1];
+
+        final long vb = rop(g1, g0, cb << h);
+        final long vbl = rop(g1, g0, cbl << h);
+        final long vbr = rop(g1, g0, cbr << h);
+
+        final long s = vb >> 2;
+        if (s >= 100) {
+            final long sp10 = 10 * multiplyHigh(s, 115_292_150_460_684_698L << 4);
+            final long tp10 = sp10 + 10;
+            final boolean upin = vbl + out <= sp10 << 2;
+            final boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return layout(upin ? sp10 : tp10, k, buf, index);
+            }
+        }
+
+        final long t = s + 1;
+        final boolean uin = vbl + out <= s << 2;
+        final boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return layout(uin ? s : t, k + dk, buf, index);
+        }
+
+        final long cmp = vb - (s + t << 1);
+        return layout(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk, buf, index);
+    }
+
+    /**
+     * Lay out f * 10^e (f > 0) in Double.toString() form.
+     */
+    private static int layout(long f, int e, char[] buf, int index) {
+        while (f % 10 == 0) {   // drop trailing zeros, f != 0 here
+            f /= 10;
+            e++;
+        }
+        final int len = digitCount(f);
+        final int exp = e + len;   // value = 0.d1d2...dlen * 10^exp
+
+        if (0 < exp && exp <= 7) {   // plain, >= 1
+            if (len <= exp) {
+                index = formatLong(f, buf, index);
+                for (int i = len; i < exp; i++) {
+                    buf[index++] = '0';
+                }
+                buf[index++] = '.';
+                buf[index++] = '0';
+                return index;
+            }
+            final int end = formatLong(f, buf, index + 1);   // leave room for the decimal point
+            System.arraycopy(buf, index + 1, buf, index, exp);
+            buf[index + exp] = '.';
+            return end;
+        }
+
+        if (-3 < exp && exp <= 0) {   // plain, < 1
+            buf[index++] = '0';
+            buf[index++] = '.';
+            for (int i = exp; i < 0; i++) {
+                buf[index++] = '0';
+            }
+            return formatLong(f, buf, index);
+        }
+
+        // scientific: d.ddd E n
+        final int end = formatLong(f, buf, index + 1);
+        buf[index] = buf[index + 1];
+        buf[index + 1] = '.';
+        index = end;
+        if (len == 1) {
+            buf[index++] = '0';
+        }
+        buf[index++] = 'E';
+        return formatLong(exp - 1, buf, index);
+    }
+
+    private static int copy(String s, char[] buf, int index) {
+        s.getChars(0, s.length(), buf, index);
+        return index + s.length();
+    }
+
+    private static long rop(long g1, long g0, long cp) {
+        final long x1 = multiplyHigh(g0, cp);
+        final long y0 = g1 * cp;
+        final long y1 = multiplyHigh(g1, cp);
+        final long z = (y0 >>> 1) + x1;
+        final long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    // floor(log10(2^q))
+    private static int flog10pow2(int q) {
+        return (int) (q * 661_971_961_083L >> 41);
+    }
+
+    // floor(log10(3/4 * 2^q))
+    private static int flog10threeQuartersPow2(int q) {
+        return (int) (q * 661_971_961_083L + -274_743_187_321L >> 41);
+    }
+
+    // floor(log2(10^e))
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    // Math.multiplyHigh() is Java 9+
+    private static long multiplyHigh(long x, long y) {
+        final long x1 = x >> 32;
+        final long x2 = x & 0xFFFFFFFFL;
+        final long y1 = y >> 32;
+        final long y2 = y & 0xFFFFFFFFL;
+        final long z2 = x2 * y2;
+        final long t = x1 * y2 + (z2 >>> 32);
+        long z1 = t & 0xFFFFFFFFL;
+        final long z0 = t >> 32;
+        z1 += x2 * y1;
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    /**
+     * 126-bit approximations g of 10^-k (g = floor(10^-k * 2^(125 - floor(log2(10^-k)))) + 1), split into the
+     * upper and lower 63 bits.  Computed on first use of formatDouble() so that applications that never write a
+     * double do not pay for the table.
+     */
+    private static final class Pow10 {
+        private static final long[] G;
+
+        static {
+            final int kMax = 292;
+            G = new long[(kMax - K_MIN + 1) << 1];
+            final BigInteger ten = BigInteger.TEN;
+            final BigInteger mask63 = BigInteger.valueOf(MASK_63);
+            for (int k = K_MIN; k <= kMax; k++) {
+                final int e = -k;
+                final int r = 125 - flog2pow10(e);
+                BigInteger num = ten.pow(Math.max(e, 0)).shiftLeft(Math.max(r, 0));
+                BigInteger den = ten.pow(Math.max(-e, 0)).shiftLeft(Math.max(-r, 0));
+                BigInteger g = num.divide(den).add(BigInteger.ONE);
+                G[(k - K_MIN) << 1] = g.shiftRight(63).longValue();
+                G[((k - K_MIN) << 1) + 1] = g.and(mask63).longValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,668 @@
+package com.cedarsoftware.util.io;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+import com.cedarsoftware.util.reflect.Accessor;
+import lombok.Getter;
+
+import static com.cedarsoftware.util.io.JsonObject.ITEMS;
+import static com.cedarsoftware.util.io.JsonObject.KEYS;
+
+/**
+ * Walks a Java object graph once references have been traced, deciding what is written and in which order: @id
+ * and @type, @ref for objects already written, arrays, Collections, Maps (JSON object form, two-array form or
+ * EnumMap form), EnumSets, and the fields of regular objects.  The walk emits tokens (begin / end of an object or
+ * array, an entry separator, a key, a value) that a subclass renders: {@link JsonWriter} as JSON text, and
+ * {@link BinaryJsonWriter} in the binary encoding.  Both formats therefore apply the WriteOptions identically.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+abstract class ObjectGraphWriter {
+    @Getter
+    final WriteOptions writeOptions;
+
+    /**
+     * Objects traced and written within the input object graph, with the @id of each one referenced more than once.
+     */
+    final ReferenceTable references;
+
+    Object parallelRoot;        // root whose elements may be written in parallel ranges, if any
+    private DeclaredElementTypes declaredTypes;    // of the field whose value writeImpl() is about to write
+
+    ObjectGraphWriter(WriteOptions writeOptions, ReferenceTable references) {
+        this.writeOptions = writeOptions == null ? new WriteOptionsBuilder().build() : writeOptions;
+        this.references = references;
+    }
+
+    // Tokens.  Entries of an object and elements of an array are separated by separator(); keys come before values.
+
+    abstract void beginObject() throws IOException;
+
+    abstract void endObject() throws IOException;
+
+    abstract void beginArray() throws IOException;
+
+    abstract void endArray() throws IOException;
+
+    abstract void separator() throws IOException;
+
+    /** The @id entry of the object being written. */
+    abstract void writeId(long id) throws IOException;
+
+    /** The @type entry of the object being written (nothing when type info is never shown). */
+    abstract void writeType(String name) throws IOException;
+
+    /** A @ref to an object written earlier, in place of a value. */
+    abstract void writeRef(long id) throws IOException;
+
+    /** Key of a field, or of a meta entry such as @enum, that needs no escaping. */
+    abstract void writeFieldName(String name) throws IOException;
+
+    /** Key of the @items or @keys entry. */
+    abstract void writeMetaKey(String key) throws IOException;
+
+    /** Key of a Map entry. */
+    abstract void writeKey(String key) throws IOException;
+
+    abstract void writeNull() throws IOException;
+
+    abstract void writeString(String s) throws IOException;
+
+    abstract void writeInteger(long value) throws IOException;
+
+    /** A Boolean, Number or Character value, written without @type. */
+    abstract void writePrimitive(Object value) throws IOException;
+
+    /** A whole array of a primitive type other than char. */
+    abstract void writePrimitiveArray(Object array) throws IOException;
+
+    /**
+     * Called for each non-null value, before anything is written for it.
+     */
+    abstract void startValue(Object obj) throws IOException;
+
+    /**
+     * @return true if obj was written by its custom writer.
+     */
+    abstract boolean writeCustomWritten(Object obj, boolean showType) throws IOException;
+
+    /**
+     * @return true if obj is a JsonObject (a Map-of-Maps input), which the subclass has written.
+     */
+    abstract boolean writeJsonObject(Object obj, boolean showType) throws IOException;
+
+    /**
+     * Writes one element of a range, on the given (range) writer.
+     */
+    interface ElementWriter {
+        void write(ObjectGraphWriter writer, Object element) throws IOException;
+    }
+
+    /**
+     * Write the elements of the parallel root, separated as in a sequential write.  This implementation writes
+     * them in order on the calling thread; JsonWriter writes ranges of them concurrently.
+     */
+    void writeParallel(Object[] elements, ElementWriter elementWriter) throws IOException {
+        for (int i = 0; i < elements.length; i++) {
+            if (i > 0) {
+                separator();
+            }
+            elementWriter.write(this, elements[i]);
+        }
+    }
+
+    /**
+     * Write whatever object type it is given: null, a custom written value, a JsonObject, an array, EnumSet,
+     * Collection, Map, or any regular object.
+     * @param obj Object to be written
+     * @param showType if set to true, the @type tag will be output.
+     * @throws IOException if one occurs on the underlying output stream.
+     */
+    void writeImpl(Object obj, boolean showType) throws IOException {
+        final DeclaredElementTypes declared = declaredTypes;
+        declaredTypes = null;
+
+        // For security - write instances of these classes out as null
+        if (obj == null ||
+                obj instanceof ProcessBuilder ||
+                obj instanceof Process ||
+                obj instanceof ClassLoader ||
+                obj instanceof Constructor ||
+                obj instanceof Method ||
+                obj instanceof Field) {
+            writeNull();
+            return;
+        }
+
+        startValue(obj);
+
+        if (writeOptions.isNeverShowingType()) {
+            showType = false;
+        }
+
+        if (writeCustomWritten(obj, showType) || writeJsonObject(obj, showType) || writeOptionalReference(obj)) {
+            return;
+        }
+
+        if (obj.getClass().isArray()) {
+            writeArray(obj, showType);
+        } else if (obj instanceof EnumSet) {
+            writeEnumSet((EnumSet<?>) obj);
+        } else if (obj instanceof Collection) {
+            writeCollection((Collection<?>) obj, showType, declared);
+        } else if (obj instanceof Map) {
+            if (obj instanceof EnumMap && writeEnumMap((EnumMap<?, ?>) obj, showType, declared)) {
+                return;
+            }
+            if (!writeMapWithStringKeys((Map<?, ?>) obj, showType, declared)) {
+                writeMap((Map<?, ?>) obj, showType, declared);
+            }
+        } else {
+            writeObject(obj, showType, false);
+        }
+    }
+
+    /**
+     * Write a @ref instead of obj when obj has already been written, otherwise mark it written.
+     * @return true if the @ref was written.
+     */
+    boolean writeOptionalReference(Object obj) throws IOException {
+        if (obj == null || writeOptions.isNonReferenceableClass(obj.getClass())) {
+            return false;
+        }
+
+        if (references.isWritten(obj)) {   // Only write (define) an object once, otherwise emit a @ref
+            long id = getId(obj);
+            if (id == 0) {   // Test for 0 because of Weak/Soft references being gc'd during serialization.
+                return false;
+            }
+            writeRef(id);
+            return true;
+        }
+
+        // Mark the object as written (the table is clear()'d after each write()).
+        references.markWritten(obj);
+        return false;
+    }
+
+    /**
+     * Write the @id (if referenced) and @type (if showType) entries of obj.
+     * @return true if anything was written, so the next entry needs a separator.
+     */
+    private boolean writeIdAndType(Object obj, boolean referenced, boolean showType) throws IOException {
+        if (referenced) {
+            writeId(getId(obj));
+        }
+        if (showType) {
+            if (referenced) {
+                separator();
+            }
+            writeType(obj.getClass().getName());
+        }
+        return referenced || showType;
+    }
+
+    private void writeArray(Object array, boolean showType) throws IOException {
+        final Class<?> arrayType = array.getClass();
+        final boolean referenced = references.isReferenced(array);
+        final boolean typeWritten = showType && arrayType != Object[].class;
+        final boolean wrapped = typeWritten || referenced;
+
+        if (wrapped) {
+            beginObject();
+            writeIdAndType(array, referenced, typeWritten);
+            separator();
+            writeMetaKey(ITEMS);
+        }
+
+        final Class<?> componentClass = arrayType.getComponentType();
+        if (char[].class == arrayType) {   // ["chars as a string"]
+            final char[] chars = (char[]) array;
+            beginArray();
+            if (chars.length > 0) {
+                writeString(new String(chars));
+            }
+            endArray();
+        } else if (componentClass.isPrimitive()) {
+            writePrimitiveArray(array);
+        } else {
+            final Object[] elements = (Object[]) array;
+            beginArray();
+            if (array == parallelRoot) {
+                writeParallel(elements, (writer, value) -> writer.writeArrayElement(value, componentClass));
+            } else {
+                for (int i = 0; i < elements.length; i++) {
+                    if (i > 0) {
+                        separator();
+                    }
+                    writeArrayElement(elements[i], componentClass);
+                }
+            }
+            endArray();
+        }
+
+        if (wrapped) {
+            endObject();
+        }
+    }
+
+    private void writeArrayElement(Object value, Class<?> componentClass) throws IOException {
+        if (value == null) {
+            writeNull();
+        } else {
+            writeImpl(value, isForceType(value.getClass(), componentClass));
+        }
+    }
+
+    private void writeCollection(Collection<?> col, boolean showType, DeclaredElementTypes declared) throws IOException {
+        final boolean referenced = references.isReferenced(col);
+        final boolean wrapped = referenced || showType;
+
+        if (wrapped) {
+            beginObject();
+            writeIdAndType(col, referenced, showType);
+            if (col.isEmpty()) {
+                endObject();
+                return;
+            }
+            separator();
+            writeMetaKey(ITEMS);
+        }
+
+        beginArray();
+        if (col == parallelRoot) {
+            writeParallel(col.toArray(), ObjectGraphWriter::writeCollectionElement);
+        } else {
+            writeElements(col.iterator(), untypedClass(declared == null ? null : declared.element));
+        }
+        endArray();
+
+        if (wrapped) {
+            endObject();
+        }
+    }
+
+    /**
+     * Write elements, those of exactly the untyped class (from the declared generic type) without @type.
+     * @param untyped Class returned by untypedClass(), or null to decide per element as writeCollectionElement() does.
+     */
+    private void writeElements(Iterator<?> i, Class<?> untyped) throws IOException {
+        boolean first = true;
+        while (i.hasNext()) {
+            if (!first) {
+                separator();
+            }
+            first = false;
+            if (untyped == null) {
+                writeCollectionElement(i.next());
+            } else {
+                writeDeclaredElement(i.next(), untyped);
+            }
+        }
+    }
+
+    private void writeDeclaredElement(Object o, Class<?> untyped) throws IOException {
+        if (o != null && o.getClass() == untyped) {
+            writeImpl(o, false);
+        } else {
+            writeCollectionElement(o);
+        }
+    }
+
+    /**
+     * @return the declared element class if its instances can be written without @type under these WriteOptions,
+     * otherwise null.
+     */
+    private Class<?> untypedClass(Class<?> declared) {
+        if (declared == null || writeOptions.isAlwaysShowingType() ||
+                (!writeOptions.isNotCustomWrittenClass(declared) && writeOptions.getCustomWriter(declared) != null)) {
+            return null;
+        }
+        return declared;
+    }
+
+    /**
+     * Write an element that is contained in some type of Collection or Map.
+     * @param o Collection element to output.
+     * @throws IOException if an error occurs writing to the output stream.
+     */
+    void writeCollectionElement(Object o) throws IOException {
+        if (o == null) {
+            writeNull();
+        } else if (o instanceof Boolean || o instanceof Double || o instanceof Long) {
+            writePrimitive(o);
+        } else if (o instanceof String) {   // Never do an @ref to a String (they are treated as logical primitives and intern'ed on read)
+            writeString((String) o);
+        } else if (writeOptions.isNeverShowingType() && MetaUtils.isPrimitive(o.getClass())) {
+            // If neverShowType, then force primitives (and primitive wrappers) out as values - prevents {"value":6}
+            writePrimitive(o);
+        } else {
+            writeImpl(o, true);
+        }
+    }
+
+    private void writeMap(Map<?, ?> map, boolean showType, DeclaredElementTypes declared) throws IOException {
+        beginObject();
+        final boolean idOrType = writeIdAndType(map, references.isReferenced(map), showType);
+        if (!map.isEmpty()) {
+            if (idOrType) {
+                separator();
+            }
+            writeMapToEnd(map, declared);
+        }
+        endObject();
+    }
+
+    /**
+     * Write the @keys and @items entries of a Map written as two arrays.
+     */
+    void writeMapToEnd(Map<?, ?> map, DeclaredElementTypes declared) throws IOException {
+        writeMetaKey(KEYS);
+        beginArray();
+        writeElements(map.keySet().iterator(), declared == null ? null : untypedClass(declared.key));
+        endArray();
+        separator();
+        writeMetaKey(ITEMS);
+        beginArray();
+        writeElements(map.values().iterator(), declared == null ? null : untypedClass(declared.value));
+        endArray();
+    }
+
+    private boolean writeMapWithStringKeys(Map<?, ?> map, boolean showType, DeclaredElementTypes declared) throws IOException {
+        if (writeOptions.isForceMapOutputAsTwoArrays()) {
+            return false;
+        }
+        // The keys are always checked: a Map declared with String keys can still hold others (raw types, heap pollution)
+        if (!JsonWriter.ensureJsonPrimitiveKeys(map)) {
+            return false;
+        }
+
+        beginObject();
+        final boolean idOrType = writeIdAndType(map, references.isReferenced(map), showType);
+        if (map == parallelRoot && !map.isEmpty()) {
+            if (idOrType) {
+                separator();
+            }
+            writeParallel(map.entrySet().toArray(), (writer, entry) -> writer.writeMapEntry((Map.Entry<?, ?>) entry));
+        } else if (!map.isEmpty()) {
+            writeMapBody(map.entrySet().iterator(), !idOrType, declared == null ? null : untypedClass(declared.value));
+        }
+        endObject();
+        return true;
+    }
+
+    /**
+     * Write the entries of a Map with String keys as "key":value entries.
+     * @param first boolean true if no entry has been written to the enclosing object yet.
+     */
+    void writeMapBody(Iterator<? extends Map.Entry<?, ?>> i, boolean first, Class<?> untypedValue) throws IOException {
+        while (i.hasNext()) {
+            final Map.Entry<?, ?> entry = i.next();
+            final Object value = entry.getValue();
+
+            if (writeOptions.isSkipNullFields() && value == null) {
+                continue;
+            }
+
+            if (!first) {
+                separator();
+            }
+            first = false;
+            if (untypedValue == null) {
+                writeMapEntry(entry);
+            } else {
+                writeKey((String) entry.getKey());
+                writeDeclaredElement(value, untypedValue);
+            }
+        }
+    }
+
+    private void writeMapEntry(Map.Entry<?, ?> entry) throws IOException {
+        writeKey((String) entry.getKey());
+        writeCollectionElement(entry.getValue());
+    }
+
+    /**
+     * Write an EnumMap as {"@enum":"KeyEnumClass","NAME":value, ...}: the keys are written by name as the keys of
+     * the object, instead of as enum objects in a @keys array, and the reader creates the EnumMap from @enum.
+     * Only used with WriteOptionsBuilder.writeEnumMapKeysAsNames().
+     * @return false if the key enum cannot be determined (an empty EnumMap whose internals are not accessible).
+     */
+    private boolean writeEnumMap(EnumMap<?, ?> map, boolean showType, DeclaredElementTypes declared) throws IOException {
+        if (!writeOptions.isEnumMapKeysAsNames() || writeOptions.isForceMapOutputAsTwoArrays()) {
+            return false;
+        }
+        final Class<?> keyType = MetaUtils.getEnumMapKeyType(map);
+        if (keyType == null) {
+            return false;
+        }
+
+        beginObject();
+        if (writeIdAndType(map, references.isReferenced(map), showType)) {
+            separator();
+        }
+        writeFieldName("@enum");
+        writeString(keyType.getName());
+
+        final Class<?> untypedValue = declared == null ? null : untypedClass(declared.value);
+        for (Map.Entry<? extends Enum<?>, ?> entry : map.entrySet()) {
+            final Object value = entry.getValue();
+            if (writeOptions.isSkipNullFields() && value == null) {
+                continue;
+            }
+            separator();
+            writeKey(entry.getKey().name());
+            if (untypedValue == null) {
+                writeCollectionElement(value);
+            } else {
+                writeDeclaredElement(value, untypedValue);
+            }
+        }
+        endObject();
+        return true;
+    }
+
+    private void writeEnumSet(EnumSet<?> enumSet) throws IOException {
+        beginObject();
+        if (references.isReferenced(enumSet)) {
+            writeId(getId(enumSet));
+            separator();
+        }
+
+        Class<?> elementType = MetaUtils.getEnumSetElementType(enumSet);
+        if (elementType == null) {
+            elementType = MetaUtils.Dumpty.class;
+        }
+        writeFieldName("@enum");
+        writeString(elementType.getName());
+
+        if (!enumSet.isEmpty() && writeOptions.isEnumsAsOrdinals()) {
+            separator();
+            writeFieldName("@bits");
+            writeEnumBits(enumSet, elementType);
+        } else if (!enumSet.isEmpty()) {
+            final Collection<Accessor> accessors = writeOptions.getAccessorsForClass(elementType);
+            separator();
+            writeFieldName("@items");
+            beginArray();
+            boolean first = true;
+            for (Enum<?> e : enumSet) {
+                if (!first) {
+                    separator();
+                }
+                first = false;
+                if (accessors.size() <= 2) {
+                    writeString(e.name());
+                } else {
+                    beginObject();
+                    boolean firstField = true;
+                    for (Accessor accessor : accessors) {
+                        firstField = writeField(e, firstField, accessor);
+                    }
+                    endObject();
+                }
+            }
+            endArray();
+        }
+        endObject();
+    }
+
+    /**
+     * Write the EnumSet as a bitmask of ordinals: one long when the enum has up to 64 constants, otherwise an array
+     * of longs, the constants with ordinals 0-63 in the first.
+     */
+    private void writeEnumBits(EnumSet<?> enumSet, Class<?> elementType) throws IOException {
+        final long[] words = new long[(MetaUtils.getEnumTable(elementType).constants.length + 63) >>> 6];
+        for (Enum<?> e : enumSet) {
+            words[e.ordinal() >>> 6] |= 1L << e.ordinal();
+        }
+        if (words.length == 1) {
+            writeInteger(words[0]);
+            return;
+        }
+        beginArray();
+        for (int i = 0; i < words.length; i++) {
+            if (i > 0) {
+                separator();
+            }
+            writeInteger(words[i]);
+        }
+        endArray();
+    }
+
+    /**
+     * @param obj      Object to be written
+     * @param showType boolean true means show the "@type" field, false
+     *                 eliminates it.  Many times the type can be dropped because it can be
+     *                 inferred from the field or array type.
+     * @param bodyOnly write only the body of the object
+     * @throws IOException if an error occurs writing to the output stream.
+     */
+    void writeObject(Object obj, boolean showType, boolean bodyOnly) throws IOException {
+        if (writeOptions.isNeverShowingType()) {
+            showType = false;
+        }
+        final boolean referenced = references.isReferenced(obj);
+        if (!bodyOnly) {
+            beginObject();
+            writeIdAndType(obj, referenced, showType);
+        }
+
+        boolean first = !showType && !referenced;
+        for (Accessor accessor : writeOptions.getAccessorsForClass(obj.getClass())) {
+            first = writeField(obj, first, accessor);
+        }
+
+        if (!bodyOnly) {
+            endObject();
+        }
+    }
+
+    private boolean writeField(Object obj, boolean first, Accessor accessor) throws IOException {
+        //  Only here for enumAsObject writing.
+        if (Enum.class.isAssignableFrom(accessor.getDeclaringClass()) &&
+                !accessor.isPublic() && writeOptions.isEnumPublicFieldsOnly()) {
+            return first;
+        }
+
+        final Object o = accessor.retrieve(obj);
+
+        // Throwables are rebuilt by ThrowableFactory from their raw fields, without typing elements from generics
+        if ((o instanceof Collection || o instanceof Map) && !(obj instanceof Throwable)) {
+            declaredTypes = DeclaredElementTypes.of(accessor.getGenericType());
+        }
+        return writeField(first, accessor.getUniqueFieldName(), o, accessor.getFieldType());
+    }
+
+    /**
+     * Write one field ("name":value, preceded by a separator unless it is the first).
+     * @return the 'first' flag for the next field - unchanged if the field was skipped, otherwise false.
+     */
+    boolean writeField(boolean first, String fieldName, Object o, Class<?> declaredType) throws IOException {
+        if (writeOptions.isSkipNullFields() && o == null) {
+            return first;
+        }
+
+        if (!first) {
+            separator();
+        }
+        writeFieldName(fieldName);
+
+        if (o == null) {
+            writeNull();
+        } else {   // check to see if type needs to be written.
+            writeImpl(o, isForceType(o.getClass(), declaredType));
+        }
+        return false;
+    }
+
+    boolean isForceType(Class<?> objectClass, Class<?> declaredType) {
+        // When no type is written we can check the Object itself not the declaration
+        final boolean writeLongsAsStrings = writeOptions.isWriteLongsAsStrings();
+        final boolean objectClassIsLongWrittenAsString = (objectClass == Long.class || objectClass == long.class) && writeLongsAsStrings;
+        final boolean declaredClassIsLongWrittenAsString = (declaredType == Long.class || objectClass == long.class) && writeLongsAsStrings;
+
+        if (Primitives.isNativeJsonType(objectClass) && !objectClassIsLongWrittenAsString) {
+            return false;
+        }
+
+        if (Primitives.isPrimitive(declaredType) && !declaredClassIsLongWrittenAsString) {
+            return false;
+        }
+
+        if (writeOptions.isNeverShowingType() && Primitives.isPrimitive(objectClass) && !objectClassIsLongWrittenAsString) {
+            return false;
+        }
+
+        if (writeOptions.isAlwaysShowingType()) {
+            return true;
+        }
+
+        if (objectClass == declaredType) {
+            return false;
+        }
+
+        if (declaredType.isEnum() && declaredType.isAssignableFrom(objectClass)) {
+            Optional<Class<?>> optionalClass = MetaUtils.getClassIfEnum(objectClass);
+            return declaredType != optionalClass.orElse(null);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return @id of o, or 0 when it is not referenced more than once.
+     */
+    long getId(Object o) {
+        if (o instanceof JsonObject) {
+            long id = ((JsonObject) o).id;
+            if (id > 0) {
+                return id;
+            }
+        }
+        return references.getId(o);
+    }
+}
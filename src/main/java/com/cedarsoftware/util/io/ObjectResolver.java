@@ -4,12 +4,10 @@ import com.cedarsoftware.util.convert.Converter;
 import com.cedarsoftware.util.reflect.Injector;
 
 import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.lang.reflect.TypeVariable;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.EnumSet;
@@ -18,7 +16,6 @@ import java.util.List;
 import java.util.Map;
 
 import static com.cedarsoftware.util.io.JsonObject.ITEMS;
-import static com.cedarsoftware.util.io.JsonObject.KEYS;
 
 /**
  * <p>The ObjectResolver converts the raw Maps created from the JsonParser to Java
@@ -148,18 +145,16 @@ public class ObjectResolver extends Resolver
             }
 
             // If there is a "tree" of objects (e.g, Map<String, List<Person>>), the sub-objects may not have a
-            // @type on them, if the source of the JSON is from JSON.stringify().  Deep traverse the args and
-            // mark @type on the items within the Maps and Collections, based on the parameterized type (if it
-            // exists).
+            // @type on them, if the source of the JSON is from JSON.stringify().  The plan for the field's
+            // parameterized type (worked out once per type) marks @type on the items within the Maps and
+            // Collections as the traversal reaches them.
+            final GenericTypePlan plan = fieldTypePlan(jsonObj, injector);
             if (rhs instanceof JsonObject)
             {
-                if (injector.getGenericType() instanceof ParameterizedType)
-                {   // Only JsonObject instances could contain unmarked objects.
-                    markUntypedObjects(injector.getGenericType(), rhs, fieldType);
-                }
+                final JsonObject job = (JsonObject) rhs;
+                applyTypePlan(job, plan, fieldType, false);
 
                 // Ensure 'type' field set on JsonObject
-                final JsonObject job = (JsonObject) rhs;
                 if (job.getJavaType() == null)
                 {
                     job.setJavaType(fieldType);
@@ -171,6 +166,10 @@ public class ObjectResolver extends Resolver
             {
                 injector.inject(target, special);
             }
+            else if (fieldType.isArray() && rhs.getClass() == fieldType && !(rhs instanceof Object[]))
+            {   // Primitive array built directly by the reader (BinaryJsonReader packed arrays)
+                injector.inject(target, rhs);
+            }
             else if (rhs.getClass().isArray())
             {    // LHS of assignment is an [] field or RHS is an array and LHS is Object
                 final Object[] elements = (Object[]) rhs;
@@ -191,6 +190,7 @@ public class ObjectResolver extends Resolver
                 {
                     jsonArray.put(ITEMS, elements);
                     jsonArray.setHintType(fieldType);
+                    applyTypePlan(jsonArray, plan, fieldType, true);
                     createInstance(jsonArray);
                     injector.inject(target, jsonArray.getTarget());
                     stack.addFirst(jsonArray);
@@ -403,10 +403,15 @@ public class ObjectResolver extends Resolver
         final boolean isImmutable = className != null && className.startsWith("java.util.Immutable");
         final Collection col = isImmutable ? new ArrayList<>() : (Collection) jsonObj.getTarget();
         final boolean isList = col instanceof List;
+        final GenericTypePlan elementPlan = jsonObj.typePlan == null ? null : jsonObj.typePlan.element;
         int idx = 0;
 
         for (final Object element : items)
         {
+            if (element instanceof JsonObject)
+            {
+                applyTypePlan((JsonObject) element, elementPlan, Object.class, false);
+            }
             Object special;
             if (element == null)
             {
@@ -421,13 +426,14 @@ public class ObjectResolver extends Resolver
                 if (mayEnumClass == null)
                     col.add(element);
                 else
-                    col.add(Enum.valueOf(mayEnumClass, (String)element));
+                    col.add(MetaUtils.getEnumConstant(mayEnumClass, (String)element));
             }
             else if (element.getClass().isArray())
             {
                 final JsonObject jObj = new JsonObject();
                 jObj.setHintType(Object.class);
                 jObj.put(ITEMS, element);
+                applyTypePlan(jObj, elementPlan, Object.class, true);
                 createInstance(jObj);
                 col.add(jObj.getTarget());
                 convertJsonValuesToJava(jObj);
@@ -547,10 +553,15 @@ public class ObjectResolver extends Resolver
         final boolean isPrimitive = Primitives.isPrimitive(compType);
         final Object array = jsonObj.getTarget();
         final Object[] items =  jsonObj.getArray();
+        final GenericTypePlan elementPlan = jsonObj.typePlan == null ? null : jsonObj.typePlan.element;
 
         for (int i=0; i < len; i++)
         {
             final Object element = items[i];
+            if (element instanceof JsonObject)
+            {
+                applyTypePlan((JsonObject) element, elementPlan, compType, false);
+            }
             Object special;
             
             if (element == null)
@@ -560,7 +571,7 @@ public class ObjectResolver extends Resolver
             else if ((special = readWithFactoryIfExists(element, compType, stack)) != null)
             {
                 if (compType.isEnum() && special instanceof String) {
-                    special = Enum.valueOf(compType, (String)special);
+                    special = MetaUtils.getEnumConstant(compType, (String)special);
                 }
                 Array.set(array, i, special);
             }
@@ -595,6 +606,7 @@ public class ObjectResolver extends Resolver
                     JsonObject jsonObject = new JsonObject();
                     jsonObject.put(ITEMS, element);
                     jsonObject.setHintType(compType);
+                    applyTypePlan(jsonObject, elementPlan, compType, true);
                     Array.set(array, i, createInstance(jsonObject));
                     stack.addFirst(jsonObject);
                 }
@@ -768,162 +780,48 @@ public class ObjectResolver extends Resolver
         return jsonObj.setFinishedTarget(read, true);
     }
 
-    private void markUntypedObjects(final Type type, final Object rhs, final Class<?> fieldType)
+    /**
+     * @return plan for the generic type of the field: from the holder's plan when the field is declared with the
+     * holder class's type variables (class Pair&lt;A, B&gt; { A first; List&lt;B&gt; rest; }), otherwise from
+     * the field's own parameterized type.  Null for a plain Class field.
+     */
+    private static GenericTypePlan fieldTypePlan(final JsonObject holder, final Injector injector)
     {
-        final Deque<Object[]> stack = new ArrayDeque<>();
-        stack.addFirst(new Object[] {type, rhs});
-
-        Map<String, Injector> classFields = getReadOptions().getDeepInjectorMap(fieldType);
-        while (!stack.isEmpty())
+        final Type genericType = injector.getGenericType();
+        GenericTypePlan plan = holder.typePlan == null ? null : holder.typePlan.field(injector.getName(), genericType);
+        if (plan == null && (genericType instanceof ParameterizedType || genericType instanceof GenericArrayType))
         {
-            Object[] item = stack.removeFirst();
-            final Type t = (Type) item[0];
-            final Object instance = item[1];
-            if (t instanceof ParameterizedType)
-            {
-                final Class clazz = getRawType(t);
-                final ParameterizedType pType = (ParameterizedType)t;
-                final Type[] typeArgs = pType.getActualTypeArguments();
-
-                if (typeArgs == null || typeArgs.length < 1 || clazz == null)
-                {
-                    continue;
-                }
-
-                stampTypeOnJsonObject(instance, t);
-
-                if (Map.class.isAssignableFrom(clazz))
-                {
-                    Map map = (Map) instance;
-                    if (!map.containsKey(KEYS) && !map.containsKey(ITEMS) && map instanceof JsonObject)
-                    {   // Maps created in Javascript will come over without @keys / @items.
-                        convertMapToKeysItems((JsonObject) map);
-                    }
-
-                    Object[] keys = (Object[])map.get(KEYS);
-                    getTemplateTraverseWorkItem(stack, keys, typeArgs[0]);
-
-                    Object[] items = (Object[])map.get(ITEMS);
-                    getTemplateTraverseWorkItem(stack, items, typeArgs[1]);
-                }
-                else if (Collection.class.isAssignableFrom(clazz))
-                {
-                    if (instance instanceof Object[])
-                    {
-                        Object[] array = (Object[]) instance;
-                        for (int i=0; i < array.length; i++)
-                        {
-                            Object vals = array[i];
-                            stack.addFirst(new Object[]{t, vals});
-
-                            if (vals instanceof JsonObject)
-                            {
-                                stack.addFirst(new Object[]{t, vals});
-                            }
-                            else if (vals instanceof Object[])
-                            {
-                                JsonObject coll = new JsonObject();
-                                coll.setJavaType(clazz);
-                                List items = Arrays.asList((Object[]) vals);
-                                coll.put(ITEMS, items.toArray());
-                                stack.addFirst(new Object[]{t, items});
-                                array[i] = coll;
-                            }
-                            else
-                            {
-                                stack.addFirst(new Object[]{t, vals});
-                            }
-                        }
-                    }
-                    else if (instance instanceof Collection)
-                    {
-                        final Collection col = (Collection)instance;
-                        for (Object o : col)
-                        {
-                            stack.addFirst(new Object[]{typeArgs[0], o});
-                        }
-                    }
-                    else if (instance instanceof JsonObject)
-                    {
-                        final JsonObject jObj = (JsonObject) instance;
-                        final Object[] array = jObj.getArray();
-                        if (array != null)
-                        {
-                            for (Object o : array)
-                            {
-                                stack.addFirst(new Object[]{typeArgs[0], o});
-                            }
-                        }
-                    }
-                }
-                else
-                {
-                    if (instance instanceof JsonObject)
-                    {
-                        final JsonObject jObj = (JsonObject) instance;
-
-                        for (Map.Entry<Object, Object> entry : jObj.entrySet())
-                        {
-                            final String fieldName = (String) entry.getKey();
-                            if (!fieldName.startsWith("this$"))
-                            {
-                                // TODO: If more than one type, need to associate correct typeArgs entry to value
-                                Injector injector = classFields.get(fieldName);
-
-                                if (injector != null && (injector.getType().getTypeParameters().length > 0 || injector.getGenericType() instanceof TypeVariable))
-                                {
-                                    Object pt = typeArgs[0];
-                                    if (entry.getValue() instanceof JsonObject && ((JsonObject)entry.getValue()).get("@enum") != null)
-                                    {
-                                        pt = injector.getGenericType();
-                                    }
-                                    stack.addFirst(new Object[]{pt, entry.getValue()});
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-            else
-            {
-                stampTypeOnJsonObject(instance, t);
-            }
+            plan = GenericTypePlan.of(genericType);
         }
+        return plan;
     }
 
-    private static void getTemplateTraverseWorkItem(final Deque<Object[]> stack, final Object[] items, final Type type)
+    /**
+     * Mark 'type' on an untyped JsonObject from the plan of the generic type it was declared with, and hand the
+     * plan on to it, so its own elements, keys, values or fields are typed when they are traversed.
+     * @param jObj JsonObject for a JSON object, or the wrapper of a JSON array.
+     * @param plan GenericTypePlan the value was declared with, can be null.
+     * @param declared Class the value must be assignable to (field type, array component type, or Object).
+     * @param isArray true if jObj wraps a JSON array, which can only become a Collection or array.
+     */
+    private static void applyTypePlan(final JsonObject jObj, final GenericTypePlan plan, final Class<?> declared, final boolean isArray)
     {
-        if (items == null || items.length < 1)
+        if (plan == null || jObj.isReference() || !declared.isAssignableFrom(plan.raw))
         {
             return;
         }
-        Class rawType = getRawType(type);
-        if (rawType != null && Collection.class.isAssignableFrom(rawType))
+        if (isArray && !plan.raw.isArray() && !Collection.class.isAssignableFrom(plan.raw))
         {
-            stack.add(new Object[]{type, items});
+            return;
         }
-        else
+        if (jObj.javaType == null && jObj.getTarget() == null && plan.raw != Object.class)
         {
-            for (Object o : items)
-            {
-                stack.add(new Object[]{type, o});
-            }
+            jObj.setJavaType(plan.raw);
         }
-    }
-
-    // Mark 'type' on JsonObject when the type is missing and it is a 'leaf'
-    // node (no further subtypes in it's parameterized type definition)
-    private static void stampTypeOnJsonObject(final Object o, final Type t)
-    {
-        Class clazz = t instanceof Class ? (Class)t : getRawType(t);
-
-        if (o instanceof JsonObject && clazz != null)
+        final Class<?> type = jObj.getJavaType();
+        if (type == null || plan.raw.isAssignableFrom(type))
         {
-            JsonObject jObj = (JsonObject) o;
-            if (jObj.getJavaType() == null && jObj.getTarget() == null)
-            {
-                jObj.setJavaType(clazz);
-            }
+            jObj.typePlan = plan;
         }
     }
 
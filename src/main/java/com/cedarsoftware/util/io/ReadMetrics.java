@@ -0,0 +1,83 @@
+package com.cedarsoftware.util.io;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Measurements of one JSON read, handed to MetricsListener.readCompleted().
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+@Getter
+public final class ReadMetrics {
+    /** Bytes read from the InputStream (including read-ahead), or the length of in-memory input (chars or bytes). */
+    long inputSize;
+    /** Time spent in JsonParser building the JsonObject graph. */
+    long parseNanos;
+    /** Time spent in the Resolver turning the JsonObject graph into Java objects, excluding cleanupNanos. */
+    long resolveNanos;
+    /** Time spent after resolving, patching forward @ref's and rehashing Maps and Sets. */
+    long cleanupNanos;
+    /** Java objects instantiated for JSON objects and arrays. */
+    long objectsInstantiated;
+    /** Forward @ref's patched in after the referenced object was read. */
+    long referencesPatched;
+    /** Strings served from the parser's string cache. */
+    long stringCacheHits;
+    /** Strings not found in the parser's string cache. */
+    long stringCacheMisses;
+    /** Conversions that had no direct Converter entry and were looked up through the class hierarchy. */
+    long inheritedConversions;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<Class<?>, long[]> counts = new IdentityHashMap<>();
+
+    ReadMetrics() {
+    }
+
+    void instantiated(Class<?> c) {
+        objectsInstantiated++;
+        long[] count = counts.get(c);
+        if (count == null) {
+            counts.put(c, new long[] {1});
+        } else {
+            count[0]++;
+        }
+    }
+
+    /**
+     * @return Map of Class to the number of instances of it created by this read.
+     */
+    public Map<Class<?>, Long> getObjectsReadByClass() {
+        Map<Class<?>, Long> map = new HashMap<>();
+        counts.forEach((c, count) -> map.put(c, count[0]));
+        return Collections.unmodifiableMap(map);
+    }
+
+    public String toString() {
+        return "ReadMetrics{inputSize=" + inputSize + ", parseNanos=" + parseNanos + ", resolveNanos=" + resolveNanos +
+                ", cleanupNanos=" + cleanupNanos + ", objectsInstantiated=" + objectsInstantiated +
+                ", referencesPatched=" + referencesPatched +
+                ", stringCacheHits=" + stringCacheHits + ", stringCacheMisses=" + stringCacheMisses +
+                ", inheritedConversions=" + inheritedConversions + '}';
+    }
+}
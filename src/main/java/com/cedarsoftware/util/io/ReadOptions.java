@@ -54,6 +54,12 @@ public interface ReadOptions {
      */
     ClassLoader getClassLoader();
 
+    /**
+     * @return boolean true if the values of fields that have no destination on the class being read into are
+     * skipped over while parsing, rather than parsed and then discarded.  Default is false.
+     */
+    boolean isSkipUnmappedFields();
+
     /**
      * @return boolean true if an 'unknownTypeClass' is set, false if it is not sell (null).
      */
@@ -76,6 +82,37 @@ public interface ReadOptions {
      */
     int getMaxDepth();
 
+    /**
+     * @return long maximum number of bytes (characters, for in-memory text) a single JSON document may have.
+     * Checked as the input is consumed, so an oversized document is rejected before it is read to the end.
+     * Long.MAX_VALUE (the default) means no limit.
+     */
+    long getMaxDocumentBytes();
+
+    /**
+     * @return int maximum length of a JSON string (after escapes are decoded), checked character by character while
+     * the string is read.  Integer.MAX_VALUE (the default) means no limit.
+     */
+    int getMaxStringLength();
+
+    /**
+     * @return int maximum number of elements in a single JSON array, checked as each element is read.
+     * Integer.MAX_VALUE (the default) means no limit.
+     */
+    int getMaxArrayLength();
+
+    /**
+     * @return int maximum number of JSON objects and arrays in a document, checked as each one is started.
+     * Integer.MAX_VALUE (the default) means no limit.
+     */
+    int getMaxObjectCount();
+
+    /**
+     * @return int maximum number of @id entries in a document, checked as each one is read.
+     * Integer.MAX_VALUE (the default) means no limit.
+     */
+    int getMaxIdCount();
+
 
     /**
      * Alias Type Names, e.g. "ArrayList" instead of "java.util.ArrayList".
@@ -102,6 +139,11 @@ public interface ReadOptions {
      */
     JsonReader.MissingFieldHandler getMissingFieldHandler();
 
+    /**
+     * @return MetricsListener to receive the measurements of each read, or null (the default) to measure nothing.
+     */
+    MetricsListener getMetricsListener();
+
     /**
      * @param clazz Class to check to see if it is non-referenceable.  Non-referenceable classes will always create
      *              a new instance when read in and never use @id/@ref. This uses more memory when the JSON is read in,
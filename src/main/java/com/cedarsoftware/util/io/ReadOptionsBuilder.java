@@ -38,22 +38,29 @@ public class ReadOptionsBuilder {
 
     private static final Map<Class<?>, JsonReader.JsonClassReader> BASE_READERS = new ConcurrentHashMap<>();
     private static final Map<Class<?>, JsonReader.ClassFactory> BASE_CLASS_FACTORIES = new ConcurrentHashMap<>();
+    // ClassFactories listed in resources/classFactory.txt (class name -> factory class name).  Each factory class
+    // is loaded and instantiated the first time its class is looked up, not when ReadOptionsBuilder is loaded.
+    private static final Map<String, String> BUILT_IN_CLASS_FACTORY_NAMES = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, JsonReader.ClassFactory> BUILT_IN_CLASS_FACTORIES = new ConcurrentHashMap<>();
     private static final Map<String, String> BASE_ALIAS_MAPPINGS = new ConcurrentHashMap<>();
     private static final Map<Class<?>, Class<?>> BASE_COERCED_TYPES = new ConcurrentHashMap<>();
     private static final Set<Class<?>> BASE_NON_REFS = Collections.synchronizedSet(new LinkedHashSet<>());
 
     private static final Map<Class<?>, Map<String, String>> BASE_NONSTANDARD_MAPPINGS = new ConcurrentHashMap<>();
 
-    private static final Map<Class<?>, Set<String>> BASE_EXCLUDED_FIELD_NAMES = new ConcurrentHashMap<>();
+    private static final Map<String, Set<String>> BASE_EXCLUDED_FIELD_NAMES = new ConcurrentHashMap<>();
 
     static {
         // ClassFactories
-        BASE_CLASS_FACTORIES.putAll(loadClassFactory());
+        BUILT_IN_CLASS_FACTORY_NAMES.putAll(MetaUtils.loadMapDefinition("classFactory.txt"));
+        for (CompiledCodec codec : CompiledCodecSupport.getCodecs()) {
+            BASE_CLASS_FACTORIES.put(codec.getType(), codec);
+        }
         BASE_READERS.putAll(loadReaders());
         BASE_ALIAS_MAPPINGS.putAll(loadMapDefinition("aliases.txt"));
         BASE_COERCED_TYPES.putAll(loadCoercedTypes());      // Load coerced types from resource/coerced.txt
         BASE_NON_REFS.addAll(MetaUtils.loadNonRefs());
-        BASE_EXCLUDED_FIELD_NAMES.putAll(MetaUtils.loadClassToSetOfStrings("excludedInjectorFields.txt"));
+        BASE_EXCLUDED_FIELD_NAMES.putAll(MetaUtils.loadClassNameToSetOfStrings("excludedInjectorFields.txt"));
         BASE_NONSTANDARD_MAPPINGS.putAll(MetaUtils.loadNonStandardMethodNames("nonStandardInjectors.txt"));
     }
 
@@ -80,6 +87,7 @@ public class ReadOptionsBuilder {
 
         this.options.excludedFieldNames = new HashMap<>();
         this.options.excludedInjectorFields = new HashMap<>();
+        this.options.includedFieldNames = new HashMap<>();
         this.options.nonStandardMappings = new HashMap<>();
         this.options.coercedTypes = new HashMap<>();
 
@@ -233,6 +241,7 @@ public class ReadOptionsBuilder {
      * @return ReadOptionsBuilder for chained access.
      */
     public ReadOptionsBuilder replaceClassFactories(Map<Class<?>, ? extends JsonReader.ClassFactory> factories) {
+        this.options.builtInClassFactories = false;
         this.options.classFactoryMap.clear();
         this.options.classFactoryMap.putAll(factories);
         return this;
@@ -322,6 +331,75 @@ public class ReadOptionsBuilder {
         return this;
     }
 
+    /**
+     * @param maxDocumentBytes long maximum number of bytes a single JSON document may have (characters when the JSON
+     *                         is already in memory as text).  In-memory input is checked before parsing starts; a
+     *                         stream is checked as it is consumed, allowing 16K for the bytes buffered ahead of the
+     *                         parser.
+     *                         The default is Long.MAX_VALUE (no limit).
+     * @return ReadOptionsBuilder for chained access.
+     */
+    public ReadOptionsBuilder maxDocumentBytes(long maxDocumentBytes) {
+        if (maxDocumentBytes < 1) {
+            throw new JsonIoException("maxDocumentBytes must be at least 1: " + maxDocumentBytes);
+        }
+        this.options.maxDocumentBytes = maxDocumentBytes;
+        return this;
+    }
+
+    /**
+     * @param maxStringLength int maximum length of any JSON string (field names included).  A longer string is
+     *                        rejected while it is being read, before it is built.  The default is Integer.MAX_VALUE
+     *                        (no limit).
+     * @return ReadOptionsBuilder for chained access.
+     */
+    public ReadOptionsBuilder maxStringLength(int maxStringLength) {
+        if (maxStringLength < 1) {
+            throw new JsonIoException("maxStringLength must be at least 1: " + maxStringLength);
+        }
+        this.options.maxStringLength = maxStringLength;
+        return this;
+    }
+
+    /**
+     * @param maxArrayLength int maximum number of elements in any single JSON array (which also bounds Collections
+     *                       and arrays read from it).  The default is Integer.MAX_VALUE (no limit).
+     * @return ReadOptionsBuilder for chained access.
+     */
+    public ReadOptionsBuilder maxArrayLength(int maxArrayLength) {
+        if (maxArrayLength < 1) {
+            throw new JsonIoException("maxArrayLength must be at least 1: " + maxArrayLength);
+        }
+        this.options.maxArrayLength = maxArrayLength;
+        return this;
+    }
+
+    /**
+     * @param maxObjectCount int maximum number of JSON objects {...} and arrays [...] in one document.  The default
+     *                       is Integer.MAX_VALUE (no limit).
+     * @return ReadOptionsBuilder for chained access.
+     */
+    public ReadOptionsBuilder maxObjectCount(int maxObjectCount) {
+        if (maxObjectCount < 1) {
+            throw new JsonIoException("maxObjectCount must be at least 1: " + maxObjectCount);
+        }
+        this.options.maxObjectCount = maxObjectCount;
+        return this;
+    }
+
+    /**
+     * @param maxIdCount int maximum number of @id entries in one document.  The default is Integer.MAX_VALUE
+     *                   (no limit).
+     * @return ReadOptionsBuilder for chained access.
+     */
+    public ReadOptionsBuilder maxIdCount(int maxIdCount) {
+        if (maxIdCount < 1) {
+            throw new JsonIoException("maxIdCount must be at least 1: " + maxIdCount);
+        }
+        this.options.maxIdCount = maxIdCount;
+        return this;
+    }
+
     /**
      * @param allowNanAndInfinity boolean 'allowNanAndInfinity' setting.  true will allow Double and Floats to be
      *                            read in as NaN and +Inf, -Inf [infinity], false and a JsonIoException will be
@@ -333,6 +411,57 @@ public class ReadOptionsBuilder {
         return this;
     }
 
+    /**
+     * @param skipUnmappedFields boolean set to 'true' to have the parser skip over the values of fields that the
+     *                           class being read into has no field for (unknown, excluded, or not among the
+     *                           included fields), without building Strings, numbers, or JsonObjects for them.
+     *                           Applies to plain classes (not Maps, Collections, or classes with a ClassFactory
+     *                           or custom reader), and only when no MissingFieldHandler is set.  When enabled,
+     *                           an @type that changes the class must come before the fields of its object.
+     *                           Values skipped this way cannot be the target of an @ref elsewhere in the JSON.
+     *                           The default is 'false'.
+     * @return ReadOptionsBuilder for chained access.
+     */
+    public ReadOptionsBuilder skipUnmappedFields(boolean skipUnmappedFields) {
+        this.options.skipUnmappedFields = skipUnmappedFields;
+        return this;
+    }
+
+    /**
+     * @param clazz             Class to add a single field to be read from the JSON.  Once any included field is
+     *                          added for a class, only included fields are loaded into instances of that class and
+     *                          of its subclasses (the included fields of a class and its superclasses are combined).
+     * @param includedFieldName String name of field to read from the JSON.
+     * @return ReadOptionsBuilder for chained access.
+     */
+    public ReadOptionsBuilder addIncludedField(Class<?> clazz, String includedFieldName) {
+        Convention.throwIfNull(includedFieldName, "includedFieldName cannot be null");
+        this.options.includedFieldNames.computeIfAbsent(clazz, k -> new LinkedHashSet<>()).add(includedFieldName);
+        return this;
+    }
+
+    /**
+     * @param clazz              Class to add a Collection of fields to be read from the JSON.  Once any included
+     *                           field is added for a class, only included fields are loaded into instances of that
+     *                           class and of its subclasses (the included fields of a class and its superclasses are
+     *                           combined).
+     * @param includedFieldNames Collection of String name of fields to read from the JSON.
+     * @return ReadOptionsBuilder for chained access.
+     */
+    public ReadOptionsBuilder addIncludedFields(Class<?> clazz, Collection<String> includedFieldNames) {
+        this.options.includedFieldNames.computeIfAbsent(clazz, k -> new LinkedHashSet<>()).addAll(includedFieldNames);
+        return this;
+    }
+
+    /**
+     * @param includedFieldNames Map of Class's mapped to Collection of String field names to read from the JSON.
+     * @return ReadOptionsBuilder for chained access.
+     */
+    public ReadOptionsBuilder addIncludedFields(Map<Class<?>, Collection<String>> includedFieldNames) {
+        includedFieldNames.forEach(this::addIncludedFields);
+        return this;
+    }
+
     /**
      * @param aliasTypeNames Map containing String class names to alias names.  The passed in Map will
      *                       be copied, and be the new baseline settings.
@@ -463,6 +592,17 @@ public class ReadOptionsBuilder {
         return this;
     }
 
+    /**
+     * @param metricsListener MetricsListener to receive timings and counters (parse and resolve time, objects
+     *                        instantiated per class, @ref patches, string cache hits, ...) of each read.  null, the
+     *                        default, turns measuring off.
+     * @return ReadOptionsBuilder for chained access.
+     */
+    public ReadOptionsBuilder metricsListener(MetricsListener metricsListener) {
+        this.options.metricsListener = metricsListener;
+        return this;
+    }
+
     /**
      * @param clazz class to add to be considered a non-referenceable object.  Just like an "int" for example, any
      *              class added here will never use an @id/@ref pair.  The downside, is that when read,
@@ -475,36 +615,34 @@ public class ReadOptionsBuilder {
     }
 
     /**
-     * Load JsonReader.ClassFactory classes based on contents of resources/classFactory.txt.
-     * Verify that classes listed are indeed valid classes loaded in the JVM.
+     * Fetch the ClassFactory listed for the passed in class in resources/classFactory.txt, creating it on first use.
      *
-     * @return Map<Class < ?>, JsonReader.ClassFactory> containing the resolved Class -> JsonClassFactory instance.
+     * @param c Class for which to fetch the built-in ClassFactory.
+     * @return JsonReader.ClassFactory instance, or null if none is listed for the class.
      */
-    private static Map<Class<?>, JsonReader.ClassFactory> loadClassFactory() {
-        Map<String, String> map = MetaUtils.loadMapDefinition("classFactory.txt");
-        Map<Class<?>, JsonReader.ClassFactory> factories = new HashMap<>();
-        ClassLoader classLoader = ReadOptions.class.getClassLoader();
+    private static JsonReader.ClassFactory getBuiltInClassFactory(Class<?> c) {
+        JsonReader.ClassFactory factory = BUILT_IN_CLASS_FACTORIES.get(c);
+        if (factory != null) {
+            return factory;
+        }
+        String factoryClassName = BUILT_IN_CLASS_FACTORY_NAMES.get(c.getName());
+        if (factoryClassName == null) {
+            return null;
+        }
+        return BUILT_IN_CLASS_FACTORIES.computeIfAbsent(c, k -> createClassFactory(k.getName(), factoryClassName));
+    }
 
-        for (Map.Entry<String, String> entry : map.entrySet()) {
-            String className = entry.getKey();
-            String factoryClassName = entry.getValue();
-            Class<?> clazz = MetaUtils.classForName(className, classLoader);
-            if (clazz == null) {
-                System.out.println("Skipping class: " + className + " not defined in JVM, but listed in resources/classFactories.txt");
-                continue;
-            }
-            Class<JsonReader.ClassFactory> factoryClass = (Class<JsonReader.ClassFactory>) MetaUtils.classForName(factoryClassName, classLoader);
-            if (factoryClass == null) {
-                System.out.println("Skipping class: " + factoryClassName + " not defined in JVM, but listed in resources/classFactories.txt, as factory for: " + className);
-                continue;
-            }
-            try {
-                factories.put(clazz, ReflectionUtils.newInstance(factoryClass));
-            } catch (Exception e) {
-                throw new JsonIoException("Unable to create JsonReader.ClassFactory class: " + factoryClassName + ", a factory class for: " + className + ", listed in resources/classFactories.txt", e);
-            }
+    private static JsonReader.ClassFactory createClassFactory(String className, String factoryClassName) {
+        Class<JsonReader.ClassFactory> factoryClass = (Class<JsonReader.ClassFactory>) MetaUtils.classForName(factoryClassName, ReadOptions.class.getClassLoader());
+        if (factoryClass == null) {
+            System.out.println("Skipping class: " + factoryClassName + " not defined in JVM, but listed in resources/classFactories.txt, as factory for: " + className);
+            return null;
+        }
+        try {
+            return ReflectionUtils.newInstance(factoryClass);
+        } catch (Exception e) {
+            throw new JsonIoException("Unable to create JsonReader.ClassFactory class: " + factoryClassName + ", a factory class for: " + className + ", listed in resources/classFactories.txt", e);
         }
-        return factories;
     }
 
     /**
@@ -573,8 +711,19 @@ public class ReadOptionsBuilder {
         private boolean failOnUnknownType = false;
         private boolean closeStream = true;
         private int maxDepth = 1000;
+        private long maxDocumentBytes = Long.MAX_VALUE;
+        private int maxStringLength = Integer.MAX_VALUE;
+        private int maxArrayLength = Integer.MAX_VALUE;
+        private int maxObjectCount = Integer.MAX_VALUE;
+        private int maxIdCount = Integer.MAX_VALUE;
         private JsonReader.MissingFieldHandler missingFieldHandler = null;
 
+        /**
+         * @return MetricsListener to receive the measurements of each read, or null to measure nothing.
+         */
+        @Getter
+        private MetricsListener metricsListener = null;
+
         /**
          * @return ReconstructionType which is how you will receive the parsed JSON objects.  This will be either
          * JAVA_OBJECTS (default) or JSON_VALUE's (useful for large, more simplistic objects within the JSON data sets).
@@ -588,16 +737,27 @@ public class ReadOptionsBuilder {
         @Getter
         private boolean allowNanAndInfinity = false;
 
+        /**
+         * @return boolean will return true if values of fields with no destination are skipped while parsing.
+         */
+        @Getter
+        private boolean skipUnmappedFields = false;
+
         private Map<String, String> aliasTypeNames = new ConcurrentHashMap<>();
         private Map<Class<?>, Class<?>> coercedTypes = new ConcurrentHashMap<>();
         private Map<Class<?>, JsonReader.JsonClassReader> customReaderClasses = new ConcurrentHashMap<>();
         private Map<Class<?>, JsonReader.ClassFactory> classFactoryMap = new ConcurrentHashMap<>();
-        private Set<Class<?>> notCustomReadClasses = Collections.synchronizedSet(new LinkedHashSet<>());
-        private Set<Class<?>> nonRefClasses = Collections.synchronizedSet(new LinkedHashSet<>());
+        private boolean builtInClassFactories = true;   // false once replaceClassFactories() is called
+        // Concurrent (not synchronized) sets: they are read on every value of every parse, from any number of threads
+        private Set<Class<?>> notCustomReadClasses = ConcurrentHashMap.newKeySet();
+        private Set<Class<?>> nonRefClasses = ConcurrentHashMap.newKeySet();
+
+        // Keyed by class name
+        private Map<String, Set<String>> excludedFieldNames;
 
-        private Map<Class<?>, Set<String>> excludedFieldNames;
+        private Map<String, Set<String>> excludedInjectorFields;
 
-        private Map<Class<?>, Set<String>> excludedInjectorFields;
+        private Map<Class<?>, Set<String>> includedFieldNames;
 
         private List<FieldFilter> fieldFilters;
 
@@ -680,6 +840,26 @@ public class ReadOptionsBuilder {
             return maxDepth;
         }
 
+        public long getMaxDocumentBytes() {
+            return maxDocumentBytes;
+        }
+
+        public int getMaxStringLength() {
+            return maxStringLength;
+        }
+
+        public int getMaxArrayLength() {
+            return maxArrayLength;
+        }
+
+        public int getMaxObjectCount() {
+            return maxObjectCount;
+        }
+
+        public int getMaxIdCount() {
+            return maxIdCount;
+        }
+
 
         /**
          * Alias Type Names, e.g. "ArrayList" instead of "java.util.ArrayList".
@@ -770,6 +950,13 @@ public class ReadOptionsBuilder {
                 return factory;
             }
 
+            if (builtInClassFactories) {
+                factory = getBuiltInClassFactory(c);
+                if (factory != null) {
+                    return factory;
+                }
+            }
+
             if (Throwable.class.isAssignableFrom(c)) {
                 return throwableFactory;
             }
@@ -836,11 +1023,15 @@ public class ReadOptionsBuilder {
         private Map<String, Injector> buildInjectors(Class<?> c) {
             final Map<String, Field> fields = getDeepDeclaredFields(c);
             final Map<String, Injector> injectors = new LinkedHashMap<>(fields.size());
+            final Set<String> inclusions = getInclusions(c);
 
             for (final Map.Entry<String, Field> entry : fields.entrySet()) {
                 final Field field = entry.getValue();
 
                 final String fieldName = entry.getKey();
+                if (inclusions != null && !inclusions.contains(fieldName)) {
+                    continue;
+                }
                 Injector injector = this.findInjector(field, fieldName);
 
                 if (injector == null) {
@@ -855,6 +1046,27 @@ public class ReadOptionsBuilder {
             return injectors;
         }
 
+        /**
+         * @return the included field names registered for c and all of its superclasses, combined, or null if none
+         * were registered for any of them.
+         */
+        private Set<String> getInclusions(Class<?> c) {
+            Set<String> inclusions = null;
+            Class<?> curr = c;
+            while (curr != null) {
+                final Set<String> includedForClass = includedFieldNames.get(curr);
+
+                if (includedForClass != null) {
+                    if (inclusions == null) {
+                        inclusions = new HashSet<>();
+                    }
+                    inclusions.addAll(includedForClass);
+                }
+                curr = curr.getSuperclass();
+            }
+            return inclusions;
+        }
+
         private Injector findInjector(Field field, String key) {
             for (final InjectorFactory factory : this.injectorFactories) {
                 try {
@@ -904,13 +1116,13 @@ public class ReadOptionsBuilder {
             while (curr != null) {
                 final Field[] fields = curr.getDeclaredFields();
 
-                final Set<String> excludedForClass = this.excludedFieldNames.get(curr);
+                final Set<String> excludedForClass = this.excludedFieldNames.get(curr.getName());
 
                 if (excludedForClass != null) {
                     exclusions.addAll(excludedForClass);
                 }
 
-                final Set<String> excludedInjectors = this.excludedInjectorFields.get(curr);
+                final Set<String> excludedInjectors = this.excludedInjectorFields.get(curr.getName());
 
                 if (excludedInjectors != null) {
                     exclusions.addAll(excludedInjectors);
@@ -0,0 +1,229 @@
+package com.cedarsoftware.util.io;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * JsonWriter's single identity table for @id / @ref bookkeeping.  traceReferences() records each object it
+ * reaches; the second time an object is reached it is given the next @id.  While writing, each object is
+ * marked written, so later occurrences are emitted as @ref.  Keys are compared by identity, with open addressing
+ * (linear probing) into an Object[], and each key's state is a primitive long in a parallel array:
+ * (id << 1) | WRITTEN, where id is 0 for an object that is not referenced more than once.
+ * <br><br>
+ * Ids keep counting up across clear(), so they stay unique across the elements of a streamed document.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class ReferenceTable {
+    private static final long WRITTEN = 1;
+    private static final int INITIAL_CAPACITY = 64;     // power of 2
+
+    private Object[] keys = new Object[INITIAL_CAPACITY];
+    private long[] states = new long[INITIAL_CAPACITY];
+    private int size = 0;
+    private int referencedCount = 0;
+    private int writtenCount = 0;
+    private long nextId = 1;
+
+    private int slot(Object key) {
+        final Object[] ks = keys;
+        final int mask = ks.length - 1;
+        int h = System.identityHashCode(key);
+        int i = (h ^ (h >>> 16)) * 0x9E3779B9 & mask;
+        Object k;
+        while ((k = ks[i]) != null && k != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private int insert(Object key, int i, long state) {
+        keys[i] = key;
+        states[i] = state;
+        if (++size * 3 >= keys.length << 1) {   // keep load factor under 2/3
+            resize();
+            return slot(key);
+        }
+        return i;
+    }
+
+    private void resize() {
+        final Object[] oldKeys = keys;
+        final long[] oldStates = states;
+        keys = new Object[oldKeys.length << 1];
+        states = new long[oldKeys.length << 1];
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object k = oldKeys[j];
+            if (k != null) {
+                int i = slot(k);
+                keys[i] = k;
+                states[i] = oldStates[j];
+            }
+        }
+    }
+
+    /**
+     * Trace visit.
+     * @return true the first time obj is visited, false afterwards (when it is given an id, if it has none yet).
+     */
+    boolean visit(Object obj) {
+        int i = slot(obj);
+        if (keys[i] == null) {
+            insert(obj, i, 0);
+            return true;
+        }
+        if (states[i] >>> 1 == 0) {
+            states[i] |= nextId++ << 1;
+            referencedCount++;
+        }
+        return false;
+    }
+
+    /**
+     * @return @id of obj, or 0 when it is not referenced more than once.
+     */
+    long getId(Object obj) {
+        int i = slot(obj);
+        return keys[i] == null ? 0 : states[i] >>> 1;
+    }
+
+    boolean isReferenced(Object obj) {
+        return getId(obj) != 0;
+    }
+
+    boolean isWritten(Object obj) {
+        int i = slot(obj);
+        return keys[i] != null && (states[i] & WRITTEN) != 0;
+    }
+
+    void markWritten(Object obj) {
+        int i = slot(obj);
+        if (keys[i] == null) {
+            insert(obj, i, WRITTEN);
+        } else if ((states[i] & WRITTEN) == 0) {
+            states[i] |= WRITTEN;
+        } else {
+            return;
+        }
+        writtenCount++;
+    }
+
+    int getReferencedCount() {
+        return referencedCount;
+    }
+
+    /**
+     * Forget all objects (ids already handed out are not reused).
+     */
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, null);
+            size = 0;
+            referencedCount = 0;
+            writtenCount = 0;
+        }
+    }
+
+    /**
+     * @return read-only Map view of the referenced objects and their ids.
+     */
+    Map<Object, Long> referencedView() {
+        return new View(false);
+    }
+
+    /**
+     * @return read-only Map view of the objects written so far, mapped to their id (null when not referenced).
+     */
+    Map<Object, Long> writtenView() {
+        return new View(true);
+    }
+
+    private final class View extends AbstractMap<Object, Long> {
+        private final boolean written;
+
+        private View(boolean written) {
+            this.written = written;
+        }
+
+        private boolean includes(long state) {
+            return written ? (state & WRITTEN) != 0 : state >>> 1 != 0;
+        }
+
+        public boolean containsKey(Object key) {
+            if (key == null) {
+                return false;
+            }
+            int i = slot(key);
+            return keys[i] != null && includes(states[i]);
+        }
+
+        public Long get(Object key) {
+            if (key == null) {
+                return null;
+            }
+            int i = slot(key);
+            if (keys[i] == null || !includes(states[i]) || states[i] >>> 1 == 0) {
+                return null;
+            }
+            return states[i] >>> 1;
+        }
+
+        public int size() {
+            return written ? writtenCount : referencedCount;
+        }
+
+        public Set<Entry<Object, Long>> entrySet() {
+            return new AbstractSet<Entry<Object, Long>>() {
+                public int size() {
+                    return View.this.size();
+                }
+
+                public Iterator<Entry<Object, Long>> iterator() {
+                    return new Iterator<Entry<Object, Long>>() {
+                        private int next = advance(0);
+
+                        private int advance(int i) {
+                            while (i < keys.length && (keys[i] == null || !includes(states[i]))) {
+                                i++;
+                            }
+                            return i;
+                        }
+
+                        public boolean hasNext() {
+                            return next < keys.length;
+                        }
+
+                        public Entry<Object, Long> next() {
+                            if (next >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            long id = states[next] >>> 1;
+                            Entry<Object, Long> entry = new SimpleImmutableEntry<>(keys[next], id == 0 ? null : id);
+                            next = advance(next + 1);
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
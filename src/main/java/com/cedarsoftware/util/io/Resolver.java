@@ -11,6 +11,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -65,6 +66,9 @@ public abstract class Resolver implements ReaderContext
 
     @Getter(AccessLevel.PUBLIC)
     private final Converter converter;
+
+    // Set by JsonReader for the duration of a read when a MetricsListener is configured, otherwise null.
+    ReadMetrics metrics;
     
     /**
      * UnresolvedReference is created to hold a logical pointer to a reference that
@@ -260,19 +264,21 @@ public abstract class Resolver implements ReaderContext
             throw new JsonIoException("Map written with " + KEYS + " and " + ITEMS + "s entries of different sizes");
         }
 
-        buildCollection(stack, keys);
-        buildCollection(stack, items);
+        final GenericTypePlan plan = jsonObj.typePlan;
+        buildCollection(stack, keys, plan == null ? null : plan.keys);
+        buildCollection(stack, items, plan == null ? null : plan.items);
 
         // Save these for later so that unresolved references inside keys or values
         // get patched first, and then build the Maps.
         prettyMaps.add(new Object[]{jsonObj, keys, items});
     }
 
-    private static void buildCollection(Deque<JsonObject> stack, Object[] arrayContent)
+    private static void buildCollection(Deque<JsonObject> stack, Object[] arrayContent, GenericTypePlan plan)
     {
         final JsonObject collection = new JsonObject();
         collection.put(ITEMS, arrayContent);
         collection.setTarget(arrayContent);
+        collection.typePlan = plan;
         stack.addFirst(collection);
     }
 
@@ -320,6 +326,17 @@ public abstract class Resolver implements ReaderContext
      * enough hints to get the right class instantiated.  It is not populated when returned.
      */
     protected Object createInstance(JsonObject jsonObj) {
+        if (metrics == null || jsonObj.getTarget() != null) {
+            return instantiate(jsonObj);
+        }
+        Object mate = instantiate(jsonObj);
+        if (mate != null) {
+            metrics.instantiated(mate.getClass());
+        }
+        return mate;
+    }
+
+    private Object instantiate(JsonObject jsonObj) {
         // Coerce class first
         Object target = jsonObj.getTarget();
         if (target != null) {
@@ -336,6 +353,13 @@ public abstract class Resolver implements ReaderContext
         }
         // TODO: Additional Factory Classes: EnumSet
 
+        // EnumMap (filled in by traverseMap, like any other Map)
+        if (jsonObj.getJavaType() != null && EnumMap.class.isAssignableFrom(jsonObj.getJavaType())) {
+            mate = extractEnumMap(jsonObj);
+            jsonObj.setTarget(mate);
+            return mate;
+        }
+
         // EnumSet
         Object mayEnumSpecial = jsonObj.get("@enum");
         if (mayEnumSpecial instanceof String) {
@@ -438,6 +462,10 @@ public abstract class Resolver implements ReaderContext
         String enumClassName = (String) jsonObj.get("@enum");
         Class enumClass = enumClassName == null ? null
                 : MetaUtils.classForName(enumClassName, readOptions.getClassLoader());
+        Object bits = jsonObj.get("@bits");
+        if (bits != null && enumClass != null) {
+            return extractEnumBits(enumClass, bits);
+        }
         Object[] items = jsonObj.getArray();
         if (items == null || items.length == 0) {
             if (enumClass != null) {
@@ -453,10 +481,10 @@ public abstract class Resolver implements ReaderContext
         for (Object item : items) {
             Enum enumItem;
             if (item instanceof String) {
-                enumItem = Enum.valueOf(enumClass, (String) item);
+                enumItem = MetaUtils.getEnumConstant(enumClass, (String) item);
             } else {
                 JsonObject jObj = (JsonObject) item;
-                enumItem = Enum.valueOf(enumClass, (String) jObj.get("name"));
+                enumItem = MetaUtils.getEnumConstant(enumClass, (String) jObj.get("name"));
             }
 
             if (enumSet == null) {   // Lazy init the EnumSet
@@ -468,12 +496,75 @@ public abstract class Resolver implements ReaderContext
         return enumSet;
     }
 
+    /**
+     * @param bits Long bitmask of ordinals, or an Object[] of them (ordinals 0-63 first) for enums with more than 64
+     *             constants, as written by WriteOptionsBuilder.writeEnumsAsOrdinals().
+     * @return EnumSet holding the constants whose ordinal bits are set.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static EnumSet<?> extractEnumBits(Class enumClass, Object bits)
+    {
+        final Object[] words = bits instanceof Object[] ? (Object[]) bits : new Object[]{bits};
+        final EnumSet enumSet = EnumSet.noneOf((Class) MetaUtils.getEnumTable(enumClass).enumClass);
+        for (int i = 0; i < words.length; i++) {
+            if (!(words[i] instanceof Long)) {
+                throw new JsonIoException("EnumSet @bits must hold whole numbers, found: " + words[i]);
+            }
+            long word = (Long) words[i];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                enumSet.add(MetaUtils.getEnumConstant(enumClass, ((long) i << 6) + bit));
+                word &= word - 1;
+            }
+        }
+        return enumSet;
+    }
+
+    /**
+     * Create the EnumMap for a JsonObject.  The key enum comes from @enum, where the keys were written by name as
+     * the keys of the JSON object (they are replaced here by the enum constants), or else from the first entry of
+     * a @keys array.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected EnumMap<?, ?> extractEnumMap(JsonObject jsonObj)
+    {
+        final Object enumName = jsonObj.remove("@enum");
+        Class<?> enumClass = null;
+        if (enumName instanceof String) {
+            enumClass = MetaUtils.classForName((String) enumName, readOptions.getClassLoader());
+            if (enumClass == null) {
+                throw new JsonIoException("Unable to load the key enum of EnumMap: " + enumName);
+            }
+            if (!jsonObj.containsKey(KEYS)) {
+                for (Object key : jsonObj.keySet().toArray()) {
+                    if (key instanceof String) {
+                        Object value = jsonObj.remove(key);
+                        jsonObj.put(MetaUtils.getEnumConstant(enumClass, (String) key), value);
+                    }
+                }
+            }
+        } else {
+            Object keys = jsonObj.get(KEYS);
+            if (keys instanceof Object[] && ((Object[]) keys).length > 0 && ((Object[]) keys)[0] instanceof JsonObject) {
+                enumClass = ((JsonObject) ((Object[]) keys)[0]).getJavaType();
+            }
+            if (enumClass == null || !MetaUtils.getClassIfEnum(enumClass).isPresent()) {
+                throw new JsonIoException("Unable to determine the key enum of EnumMap, it needs @enum");
+            }
+        }
+        return new EnumMap(MetaUtils.getEnumTable(enumClass).enumClass);
+    }
+
     /**
      * For all fields where the value was "@ref":"n" where 'n' was the id of an object
      * that had not yet been encountered in the stream, make the final substitution.
      */
     protected void patchUnresolvedReferences()
     {
+        if (metrics != null)
+        {
+            metrics.referencesPatched += unresolvedRefs.size();
+        }
         Iterator i = unresolvedRefs.iterator();
         while (i.hasNext())
         {
@@ -0,0 +1,50 @@
+package com.cedarsoftware.util.io;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Captures a generic root type for reading, which a Class literal cannot express.  Create it as an anonymous
+ * subclass, so the type argument is recorded in its generic superclass:
+ * <pre>
+ * Map&lt;String, List&lt;Dto&gt;&gt; map = JsonIo.toObjectsOfType(json, readOptions,
+ *         new TypeHolder&lt;Map&lt;String, List&lt;Dto&gt;&gt;&gt;() {});
+ * </pre>
+ * Untyped JSON objects beneath the root are then created as the classes the type declares for them (Dto above),
+ * in the same single pass that resolves the graph.
+ *
+ * @param <T> the generic type to read.
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+public abstract class TypeHolder<T> {
+    private final Type type;
+
+    protected TypeHolder() {
+        Type superclass = getClass().getGenericSuperclass();
+        if (!(superclass instanceof ParameterizedType)) {
+            throw new JsonIoException("TypeHolder must be created with a type argument, e.g. new TypeHolder<List<String>>() {}");
+        }
+        type = ((ParameterizedType) superclass).getActualTypeArguments()[0];
+    }
+
+    /**
+     * @return the captured generic Type.
+     */
+    public Type getType() {
+        return type;
+    }
+}
@@ -0,0 +1,205 @@
+package com.cedarsoftware.util.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Writer that encodes characters to UTF-8 directly into its own byte[], with no CharsetEncoder, OutputStreamWriter
+ * or intermediate char buffer in between.  The bytes either accumulate in a growing array (toByteArray() then
+ * returns an exact-size copy), or are handed to a ByteBuffer or WritableByteChannel each time the array fills and
+ * on flush().  Unpaired surrogates are written as '?', as OutputStreamWriter does.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+final class Utf8ByteWriter extends Writer {
+    private static final int CHUNK_SIZE = 8192;
+    private final ByteBuffer target;
+    private final WritableByteChannel channel;
+    private byte[] buf;
+    private int count = 0;
+    private char highSurrogate = 0;
+
+    /**
+     * Accumulate all output in memory, retrieved with toByteArray().
+     */
+    Utf8ByteWriter() {
+        this(null, null);
+    }
+
+    /**
+     * Put the output into the ByteBuffer, starting at its position.  Throws BufferOverflowException if it does not fit.
+     */
+    Utf8ByteWriter(ByteBuffer target) {
+        this(target, null);
+    }
+
+    /**
+     * Write the output to the channel, CHUNK_SIZE bytes at a time.
+     */
+    Utf8ByteWriter(WritableByteChannel channel) {
+        this(null, channel);
+    }
+
+    private Utf8ByteWriter(ByteBuffer target, WritableByteChannel channel) {
+        this.target = target;
+        this.channel = channel;
+        this.buf = new byte[CHUNK_SIZE];
+    }
+
+    public void write(int c) throws IOException {
+        if (count + 4 > buf.length) {
+            drain(4);
+        }
+        encode((char) c);
+    }
+
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        final int end = off + len;
+        while (off < end) {
+            if (count + 4 > buf.length) {
+                drain(4);
+            }
+            // ASCII run: no bounds check per byte beyond the room left in buf
+            final byte[] b = buf;
+            int n = Math.min(end - off, b.length - count - 3);
+            int pos = count;
+            while (n > 0) {
+                char c = cbuf[off];
+                if (c >= 0x80 || highSurrogate != 0) {
+                    break;
+                }
+                b[pos++] = (byte) c;
+                off++;
+                n--;
+            }
+            count = pos;
+            if (off < end && n > 0) {
+                encode(cbuf[off++]);
+            }
+        }
+    }
+
+    public void write(String str, int off, int len) throws IOException {
+        final int end = off + len;
+        while (off < end) {
+            if (count + 4 > buf.length) {
+                drain(4);
+            }
+            final byte[] b = buf;
+            int n = Math.min(end - off, b.length - count - 3);
+            int pos = count;
+            while (n > 0) {
+                char c = str.charAt(off);
+                if (c >= 0x80 || highSurrogate != 0) {
+                    break;
+                }
+                b[pos++] = (byte) c;
+                off++;
+                n--;
+            }
+            count = pos;
+            if (off < end && n > 0) {
+                encode(str.charAt(off++));
+            }
+        }
+    }
+
+    /**
+     * Encode one char; the caller has ensured at least 4 free bytes.
+     */
+    private void encode(char c) {
+        final byte[] b = buf;
+        if (highSurrogate != 0) {
+            final char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                final int cp = Character.toCodePoint(high, c);
+                b[count++] = (byte) (0xF0 | cp >> 18);
+                b[count++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                b[count++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                b[count++] = (byte) (0x80 | cp & 0x3F);
+                return;
+            }
+            b[count++] = '?';   // 3 bytes remain free for c, which is not a surrogate pair here
+        }
+
+        if (c < 0x80) {
+            buf[count++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[count++] = (byte) (0xC0 | c >> 6);
+            buf[count++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buf[count++] = '?';
+        } else {
+            buf[count++] = (byte) (0xE0 | c >> 12);
+            buf[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+            buf[count++] = (byte) (0x80 | c & 0x3F);
+        }
+    }
+
+    private void drain(int needed) throws IOException {
+        if (target == null && channel == null) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + needed));
+            return;
+        }
+        writeOut();
+    }
+
+    private void writeOut() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        if (target != null) {
+            target.put(buf, 0, count);
+        } else {
+            ByteBuffer bytes = ByteBuffer.wrap(buf, 0, count);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        count = 0;
+    }
+
+    /**
+     * @return exact-size copy of everything written (in-memory mode).
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    public void flush() throws IOException {
+        if (target != null || channel != null) {
+            writeOut();
+        }
+    }
+
+    public void close() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            if (count + 4 > buf.length) {
+                drain(4);
+            }
+            buf[count++] = '?';
+        }
+        flush();
+    }
+}
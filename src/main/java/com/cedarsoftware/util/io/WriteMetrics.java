@@ -0,0 +1,87 @@
+package com.cedarsoftware.util.io;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Measurements of one JSON write, handed to MetricsListener.writeCompleted().
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+@Getter
+public final class WriteMetrics {
+    /** Characters written, or -1 when not counted (a JFR recording started after the JsonWriter was created). */
+    long charsWritten;
+    /** Time spent tracing the graph for objects referenced more than once. */
+    long traceNanos;
+    /** Time spent writing the JSON. */
+    long writeNanos;
+    /** Values written (objects, arrays, Collections, Maps, Strings, boxed primitives), excluding null. */
+    long objectsWritten;
+    /** Objects written once with an @id and referenced elsewhere with @ref. */
+    long referencedObjects;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<Class<?>, long[]> counts = new IdentityHashMap<>();
+
+    WriteMetrics() {
+    }
+
+    void written(Class<?> c) {
+        objectsWritten++;
+        long[] count = counts.get(c);
+        if (count == null) {
+            counts.put(c, new long[] {1});
+        } else {
+            count[0]++;
+        }
+    }
+
+    /**
+     * Add the values counted by a writer that wrote part of the same output (parallel write).
+     */
+    void add(WriteMetrics other) {
+        objectsWritten += other.objectsWritten;
+        other.counts.forEach((c, count) -> {
+            long[] mine = counts.get(c);
+            if (mine == null) {
+                counts.put(c, new long[] {count[0]});
+            } else {
+                mine[0] += count[0];
+            }
+        });
+    }
+
+    /**
+     * @return Map of Class to the number of values of it written.
+     */
+    public Map<Class<?>, Long> getObjectsWrittenByClass() {
+        Map<Class<?>, Long> map = new HashMap<>();
+        counts.forEach((c, count) -> map.put(c, count[0]));
+        return Collections.unmodifiableMap(map);
+    }
+
+    public String toString() {
+        return "WriteMetrics{charsWritten=" + charsWritten + ", traceNanos=" + traceNanos + ", writeNanos=" + writeNanos +
+                ", objectsWritten=" + objectsWritten + ", referencedObjects=" + referencedObjects + '}';
+    }
+}
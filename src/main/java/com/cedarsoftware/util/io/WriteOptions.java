@@ -67,6 +67,18 @@ public interface WriteOptions {
      */
     boolean isSkipNullFields();
 
+    /**
+     * @return MetricsListener to receive the measurements of each write, or null (the default) to measure nothing.
+     */
+    MetricsListener getMetricsListener();
+
+    /**
+     * @return int minimum number of elements in a root Collection, Object array or String keyed Map for its
+     * elements to be written concurrently (in ranges, on the common ForkJoinPool), or 0 (the default) to always
+     * write on the calling thread.  See WriteOptionsBuilder.parallelWrite().
+     */
+    int getParallelWriteThreshold();
+
     /**
      * @return boolean 'forceMapOutputAsTwoArrays' setting.  true indicates that two arrays will be written to
      * represent a Java Map, one for keys, one for values.  false indicates one Java object will be used, if
@@ -90,6 +102,18 @@ public interface WriteOptions {
      */
     boolean isEnumPublicFieldsOnly();
 
+    /**
+     * @return boolean true if enums are written as their ordinal numbers and EnumSets as bitmasks of ordinals
+     * (see WriteOptionsBuilder.writeEnumsAsOrdinals()).  The default is false.
+     */
+    boolean isEnumsAsOrdinals();
+
+    /**
+     * @return boolean true if EnumMaps are written as {"@enum":"KeyEnumClass","NAME":value, ...} instead of with
+     * @keys and @items arrays (see WriteOptionsBuilder.writeEnumMapKeysAsNames()).  The default is false.
+     */
+    boolean isEnumMapKeysAsNames();
+
     /**
      * @return boolean 'true' if the OutputStream should be closed when the reading is finished.  The default is 'true.'
      */
@@ -107,6 +131,12 @@ public interface WriteOptions {
      */
     boolean isShortMetaKeys();
 
+    /**
+     * @return boolean true if @type values are written as per-document tokens ("N=className" on first use,
+     * "N" afterward), false to write the (aliased) class name every time.  'false' is the default.
+     */
+    boolean isCompactTypeNames();
+
     /**
      * Alias Type Names, e.g. "ArrayList" instead of "java.util.ArrayList".
      * @param typeName String name of type to fetch alias for.  There are no default aliases.
@@ -162,6 +192,14 @@ public interface WriteOptions {
      */
     boolean isNonReferenceableClass(Class<?> clazz);
 
+    /**
+     * @param clazz Class to check.
+     * @return boolean true if no field of any instance of the class can hold a referenceable object (every field is
+     * a primitive, a Number, a Date, or of a final non-referenceable class such as String or an enum), so reference
+     * tracing need not look inside its instances.  Arrays, Collections and Maps are never leaf classes.
+     */
+    boolean isLeafClass(Class<?> clazz);
+
     /**
      * Fetch the custom writer for the passed in Class.  If it is cached (already associated to the
      * passed in Class), return the same instance, otherwise, make a call to get the custom writer
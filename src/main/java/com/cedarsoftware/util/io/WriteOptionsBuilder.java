@@ -1,6 +1,8 @@
 package com.cedarsoftware.util.io;
 
 import com.cedarsoftware.util.Convention;
+import com.cedarsoftware.util.io.writers.ByteArrayWriter;
+import com.cedarsoftware.util.io.writers.ByteBufferWriter;
 import com.cedarsoftware.util.reflect.Accessor;
 import com.cedarsoftware.util.reflect.AccessorFactory;
 import com.cedarsoftware.util.reflect.ReflectionUtils;
@@ -16,6 +18,7 @@ import lombok.Getter;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -58,15 +61,20 @@ public class WriteOptionsBuilder {
     private static final Map<Class<?>, JsonWriter.JsonClassWriter> BASE_WRITERS = new ConcurrentHashMap<>();
     private static final Set<Class<?>> BASE_NON_REFS = new HashSet<>();
     private static final Set<String> BASE_FILTERED_METHOD_NAMES = new HashSet<>();
-    static final Map<Class<?>, Set<String>> BASE_EXCLUDED_FIELD_NAMES = new ConcurrentHashMap<>();
+    // Fields never written for JDK classes (resources/ignoredFields.txt), keyed by class name so that the classes
+    // listed do not have to be loaded.
+    static final Map<String, Set<String>> BASE_EXCLUDED_FIELD_NAMES = new ConcurrentHashMap<>();
     private static final Map<Class<?>, Map<String, String>> BASE_NONSTANDARD_MAPPINGS = new ConcurrentHashMap<>();
 
     static {
         BASE_ALIAS_MAPPINGS.putAll(MetaUtils.loadMapDefinition("aliases.txt"));
         BASE_WRITERS.putAll(loadWriters());
+        for (CompiledCodec codec : CompiledCodecSupport.getCodecs()) {
+            BASE_WRITERS.put(codec.getType(), codec);
+        }
         BASE_NON_REFS.addAll(loadNonRefs());
         BASE_FILTERED_METHOD_NAMES.addAll(MetaUtils.loadSetDefinition("excludedAccessorMethods.txt"));
-        BASE_EXCLUDED_FIELD_NAMES.putAll(MetaUtils.loadClassToSetOfStrings("ignoredFields.txt"));
+        BASE_EXCLUDED_FIELD_NAMES.putAll(MetaUtils.loadClassNameToSetOfStrings("ignoredFields.txt"));
         BASE_NONSTANDARD_MAPPINGS.putAll(MetaUtils.loadNonStandardMethodNames("nonStandardAccessors.txt"));
     }
 
@@ -105,7 +113,6 @@ public class WriteOptionsBuilder {
         options.customWrittenClasses.putAll(BASE_WRITERS);
         options.nonRefClasses.addAll(BASE_NON_REFS);
         options.filteredMethodNames.addAll(BASE_FILTERED_METHOD_NAMES);
-        options.excludedFieldNames.putAll(BASE_EXCLUDED_FIELD_NAMES);
     }
 
     /**
@@ -173,6 +180,32 @@ public class WriteOptionsBuilder {
         return this;
     }
 
+    /**
+     * @param base64 boolean true to write byte[] and ByteBuffer values as Base64 Strings, encoded directly into the
+     *               output, instead of as JSON arrays of numbers.  Reading accepts either form without any setting.
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder base64ByteArrays(boolean base64) {
+        if (base64) {
+            this.options.customWrittenClasses.put(byte[].class, new ByteArrayWriter());
+            this.options.customWrittenClasses.put(ByteBuffer.class, new ByteBufferWriter());
+        } else {
+            this.options.customWrittenClasses.remove(byte[].class);
+            this.options.customWrittenClasses.remove(ByteBuffer.class);
+        }
+        return this;
+    }
+
+    /**
+     * @param compactTypeNames boolean true to write each distinct @type class name only once per JSON document.
+     *                         The first occurrence is written as "N=className" and later occurrences as just "N".
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder compactTypeNames(boolean compactTypeNames) {
+        this.options.compactTypeNames = compactTypeNames;
+        return this;
+    }
+
     /**
      * @param aliases Map containing String class names to alias names.  The passed in Map will
      *                       be copied, and be the new baseline settings.
@@ -297,6 +330,34 @@ public class WriteOptionsBuilder {
         return this;
     }
 
+    /**
+     * @param metricsListener MetricsListener to receive timings and counters (trace and write time, values written
+     *                        per class, referenced objects, characters written) of each write.  null, the default,
+     *                        turns measuring off.
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder metricsListener(MetricsListener metricsListener) {
+        this.options.metricsListener = metricsListener;
+        return this;
+    }
+
+    /**
+     * @param minElements int minimum size of a root Collection, Object array or String keyed Map for its elements to
+     *                    be written concurrently: ranges of elements are written on the common ForkJoinPool into
+     *                    separate buffers, which are then written out in order, so the output is unchanged.  This is
+     *                    only done when no object in the graph is referenced more than once (no @id / @ref), and
+     *                    not with compactTypeNames or skipNullFields; otherwise the write is sequential.  0, the
+     *                    default, turns parallel writing off.
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder parallelWrite(int minElements) {
+        if (minElements < 0) {
+            throw new JsonIoException("parallelWrite minElements cannot be negative: " + minElements);
+        }
+        this.options.parallelWriteThreshold = minElements;
+        return this;
+    }
+
     /**
      * @param forceMapOutputAsTwoArrays boolean 'forceMapOutputAsTwoArrays' setting.  true will force Java Maps to be
      *                                  written out as two parallel arrays, once for keys, one array for values.
@@ -328,6 +389,33 @@ public class WriteOptionsBuilder {
      */
     public WriteOptionsBuilder writeEnumsAsString() {
         this.options.enumWriter = new Writers.EnumsAsStringWriter();
+        this.options.enumsAsOrdinals = false;
+        return this;
+    }
+
+    /**
+     * Option to write out enums as their ordinal() number, and EnumSets as a bitmask of ordinals ("@bits"), which
+     * is smaller and faster to read than names for payloads with many enum values.  The reader maps ordinals back
+     * through a table built once per enum class.  Only use this when the reader has the same enum declarations:
+     * adding, removing or reordering constants changes the ordinals.
+     *
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder writeEnumsAsOrdinals() {
+        this.options.enumWriter = new Writers.EnumsAsOrdinalWriter();
+        this.options.enumsAsOrdinals = true;
+        return this;
+    }
+
+    /**
+     * Option to write an EnumMap as {"@enum":"KeyEnumClass","NAME":value, ...}, with the enum keys written by name as
+     * the keys of the JSON object, instead of the default {"@keys":[...],"@items":[...]}.  The reader accepts both
+     * forms without any option.
+     *
+     * @return WriteOptionsBuilder for chained access.
+     */
+    public WriteOptionsBuilder writeEnumMapKeysAsNames() {
+        this.options.enumMapKeysAsNames = true;
         return this;
     }
 
@@ -341,6 +429,7 @@ public class WriteOptionsBuilder {
     public WriteOptionsBuilder writeEnumAsJsonObject(boolean writePublicFieldsOnly) {
         this.options.enumWriter = DefaultWriteOptions.nullWriter;
         this.options.enumPublicFieldsOnly = writePublicFieldsOnly;
+        this.options.enumsAsOrdinals = false;
         return this;
     }
 
@@ -727,6 +816,13 @@ public class WriteOptionsBuilder {
         @Getter
         private boolean shortMetaKeys = false;
 
+        /**
+         * @return boolean true if @type values are written as per-document tokens ("N=className" on first use,
+         * "N" afterward), false to write the (aliased) class name every time.  'false' is the default.
+         */
+        @Getter
+        private boolean compactTypeNames = false;
+
         private ShowType showTypeInfo = WriteOptions.ShowType.MINIMAL;
 
         /**
@@ -752,6 +848,19 @@ public class WriteOptionsBuilder {
          */
         @Getter
         private boolean skipNullFields = false;
+
+        /**
+         * @return MetricsListener to receive the measurements of each write, or null to measure nothing.
+         */
+        @Getter
+        private MetricsListener metricsListener = null;
+
+        /**
+         * @return int minimum root size for parallel writing, 0 when off.
+         */
+        @Getter
+        private int parallelWriteThreshold = 0;
+
         /**
          * @return boolean 'forceMapOutputAsTwoArrays' setting.  true indicates that two arrays will be written to
          * represent a Java Map, one for keys, one for values.  false indicates one Java object will be used, if
@@ -777,6 +886,18 @@ public class WriteOptionsBuilder {
         @Getter
         private boolean enumPublicFieldsOnly = false;
 
+        /**
+         * true if enums are written as ordinals and EnumSets as bitmasks.  The default is false.
+         */
+        @Getter
+        private boolean enumsAsOrdinals = false;
+
+        /**
+         * true if EnumMaps are written with their keys by name as the keys of a JSON object.  The default is false.
+         */
+        @Getter
+        private boolean enumMapKeysAsNames = false;
+
         /**
          * @return boolean 'true' if the OutputStream should be closed when the reading is finished.  The default is 'true.'
          */
@@ -810,6 +931,9 @@ public class WriteOptionsBuilder {
 
         private final Map<Class<?>, Map<String, Field>> classMetaCache = new ConcurrentHashMap(200, 0.8f, Runtime.getRuntime().availableProcessors());
 
+        // Classes whose instances cannot reach a referenceable object, so traceReferences() skips their fields
+        private final Map<Class<?>, Boolean> leafCache = new ConcurrentHashMap<>(200, 0.8f, Runtime.getRuntime().availableProcessors());
+
         /**
          * Default Constructor.  Prevent instantiation outside of package.
          */
@@ -895,6 +1019,32 @@ public class WriteOptionsBuilder {
                     clazz.isEnum();
         }
 
+        public boolean isLeafClass(Class<?> clazz) {
+            return leafCache.computeIfAbsent(clazz, this::buildLeaf);
+        }
+
+        private boolean buildLeaf(Class<?> clazz) {
+            if (clazz.isArray() || Collection.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz)) {
+                return false;
+            }
+            for (Accessor accessor : getAccessorsForClass(clazz)) {
+                if (!holdsOnlyNonReferenceable(accessor.getFieldType())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return true if every value that can be assigned to a field of the given type is non-referenceable.
+         */
+        private boolean holdsOnlyNonReferenceable(Class<?> type) {
+            return type.isPrimitive() ||
+                    Number.class.isAssignableFrom(type) ||
+                    Date.class.isAssignableFrom(type) ||
+                    (Modifier.isFinal(type.getModifiers()) && isNonReferenceableClass(type));
+        }
+
         /**
          * Dummy place-holder class exists only because ConcurrentHashMap cannot contain a
          * null value.  Instead, singleton instance of this class is placed where null values
@@ -927,6 +1077,7 @@ public class WriteOptionsBuilder {
 
         public void clearCaches() {
             accessorsCache.clear();
+            leafCache.clear();
         }
 
         private List<Accessor> buildDeepAccessors(final Class<?> c) {
@@ -1031,6 +1182,12 @@ public class WriteOptionsBuilder {
                     exclusions.addAll(excludedForClass);
                 }
 
+                final Set<String> baseExcludedForClass = BASE_EXCLUDED_FIELD_NAMES.get(curr.getName());
+
+                if (baseExcludedForClass != null) {
+                    exclusions.addAll(baseExcludedForClass);
+                }
+
                 for (Field field : fields) {
 
                     if (Modifier.isTransient(field.getModifiers()) ||
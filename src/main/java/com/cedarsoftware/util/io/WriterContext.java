@@ -32,4 +32,16 @@ public interface WriterContext {
      * Allows you to use the current JsonWriter to write an object out.
      */
     void writeObject(final Object obj, boolean showType, boolean bodyOnly) throws IOException;
+
+    /**
+     * Write one field of an object ("name":value, preceded by a comma unless it is the first) the same way the
+     * current JsonWriter writes fields it reads reflectively: skipNullFields, @type when the value's class differs
+     * from the declared type, and so on.
+     * @return the 'first' flag for the next field - unchanged if the field was skipped, otherwise false.
+     * The default implementation throws; JsonWriter overrides it, so only other
+     * WriterContext implementations that are handed to compiled codecs need to supply their own.
+     */
+    default boolean writeField(boolean first, String fieldName, Object value, Class<?> declaredType) throws IOException {
+        throw new JsonIoException("writeField() is not supported by " + getClass().getName());
+    }
 }
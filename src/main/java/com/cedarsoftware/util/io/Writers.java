@@ -21,6 +21,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAccessor;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.Locale;
 import java.util.TimeZone;
 import java.util.UUID;
@@ -90,7 +91,11 @@ public class Writers
          */
         @Override
         public void writePrimitiveForm(Object o, Writer output, WriterContext context) throws IOException {
-            output.write(extractString(o));
+            if (getClass() == PrimitiveValueWriter.class && (o instanceof Integer || o instanceof Short || o instanceof Byte)) {
+                JsonWriter.writeLong(output, ((Number) o).longValue());
+            } else {
+                output.write(extractString(o));
+            }
         }
     }
 
@@ -106,6 +111,8 @@ public class Writers
         public void writePrimitiveForm(Object o, Writer output, WriterContext context) throws IOException {
             if (!context.getWriteOptions().isAllowNanAndInfinity() && isNanOrInfinity((T) o)) {
                 output.write("null");
+            } else if (o instanceof Double) {
+                JsonWriter.writeDouble(output, (Double) o);
             } else {
                 output.write(o.toString());
             }
@@ -206,20 +213,74 @@ public class Writers
         public String extractString(Object o) { return ((Enum<?>)o).name(); }
     }
 
+    public static class EnumsAsOrdinalWriter extends PrimitiveValueWriter
+    {
+        @Override
+        protected String getKey() {
+            return "ordinal";
+        }
+
+        @Override
+        public String extractString(Object o) { return Integer.toString(((Enum<?>)o).ordinal()); }
+
+        @Override
+        public void writePrimitiveForm(Object o, Writer output, WriterContext context) throws IOException {
+            JsonWriter.writeLong(output, ((Enum<?>)o).ordinal());
+        }
+    }
+
     public static class CalendarWriter implements JsonWriter.JsonClassWriter
     {
         @Override
         public void write(Object obj, boolean showType, Writer output, WriterContext context) throws IOException
         {
             Calendar cal = (Calendar) obj;
-            // TODO:  shouldn't this be the one inside the WriterContext?  and shouldn't there be a back up of parseDate() here?
-            MetaUtils.dateFormat.get().setTimeZone(cal.getTimeZone());
             output.write("\"time\":\"");
-            output.write(MetaUtils.dateFormat.get().format(cal.getTime()));
+            output.write(formatTime(cal));
             output.write("\",\"zone\":\"");
             output.write(cal.getTimeZone().getID());
             output.write('"');
         }
+
+        /**
+         * Format the time as SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ") in the Calendar's zone does (Julian
+         * calendar before the 1582 cutover, year of era without a sign), without a shared or per-thread
+         * SimpleDateFormat.
+         */
+        static String formatTime(Calendar cal)
+        {
+            GregorianCalendar greg = new GregorianCalendar(cal.getTimeZone(), Locale.US);
+            greg.setTimeInMillis(cal.getTimeInMillis());
+
+            StringBuilder s = new StringBuilder(28);
+            pad(s, greg.get(Calendar.YEAR), 4).append('-');
+            pad(s, greg.get(Calendar.MONTH) + 1, 2).append('-');
+            pad(s, greg.get(Calendar.DAY_OF_MONTH), 2).append('T');
+            pad(s, greg.get(Calendar.HOUR_OF_DAY), 2).append(':');
+            pad(s, greg.get(Calendar.MINUTE), 2).append(':');
+            pad(s, greg.get(Calendar.SECOND), 2).append('.');
+            pad(s, greg.get(Calendar.MILLISECOND), 3);
+
+            int offsetMinutes = (greg.get(Calendar.ZONE_OFFSET) + greg.get(Calendar.DST_OFFSET)) / 60000;
+            s.append(offsetMinutes < 0 ? '-' : '+');
+            offsetMinutes = Math.abs(offsetMinutes);
+            pad(s, offsetMinutes / 60, 2);
+            return pad(s, offsetMinutes % 60, 2).toString();
+        }
+
+        private static StringBuilder pad(StringBuilder s, int value, int width)
+        {
+            int digits = 1;
+            for (int v = value; v >= 10; v /= 10)
+            {
+                digits++;
+            }
+            for (; digits < width; digits++)
+            {
+                s.append('0');
+            }
+            return s.append(value);
+        }
     }
 
     public static class DateAsLongWriter extends PrimitiveValueWriter {
@@ -0,0 +1,46 @@
+package com.cedarsoftware.util.io.factory;
+
+import java.nio.ByteBuffer;
+
+import com.cedarsoftware.util.io.Base64Codec;
+import com.cedarsoftware.util.io.JsonIoException;
+import com.cedarsoftware.util.io.JsonObject;
+import com.cedarsoftware.util.io.JsonReader;
+import com.cedarsoftware.util.io.ReaderContext;
+
+/**
+ * Creates a heap ByteBuffer from a Base64 String (as written with WriteOptionsBuilder.base64ByteArrays(true)), or
+ * from the byte[] the parser already decoded from one.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.*
+ */
+public class ByteBufferFactory implements JsonReader.ClassFactory {
+    public Object newInstance(Class<?> c, JsonObject jObj, ReaderContext context) {
+        Object value = jObj.getValue();
+        if (value instanceof byte[]) {
+            return ByteBuffer.wrap((byte[]) value);
+        }
+        if (value instanceof String) {
+            return ByteBuffer.wrap(Base64Codec.decode((String) value));
+        }
+        throw new JsonIoException("ByteBuffer must be written as a base64 String, value: " + value);
+    }
+
+    public boolean isObjectFinal() {
+        return true;
+    }
+}
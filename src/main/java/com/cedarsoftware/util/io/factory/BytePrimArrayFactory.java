@@ -1,5 +1,9 @@
 package com.cedarsoftware.util.io.factory;
 
+import com.cedarsoftware.util.io.Base64Codec;
+import com.cedarsoftware.util.io.JsonObject;
+import com.cedarsoftware.util.io.ReaderContext;
+
 /**
  * @author John DeRegnaucourt (jdereg@gmail.com)
  *         <br>
@@ -18,6 +22,22 @@ package com.cedarsoftware.util.io.factory;
  *         limitations under the License.*
  */
 public class BytePrimArrayFactory extends ArrayFactory {
+    /**
+     * In addition to a JSON array of numbers, accepts a Base64 String (as written with
+     * WriteOptionsBuilder.base64ByteArrays(true)), or the byte[] the parser already decoded from one.
+     */
+    @Override
+    public Object newInstance(Class<?> c, JsonObject jObj, ReaderContext context) {
+        Object value = jObj.getValue();
+        if (value instanceof byte[]) {
+            return value;
+        }
+        if (value instanceof String) {
+            return Base64Codec.decode((String) value);
+        }
+        return super.newInstance(c, jObj, context);
+    }
+
     public Class<?> getType() {
         return byte[].class;
     }
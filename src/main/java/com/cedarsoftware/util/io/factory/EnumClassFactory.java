@@ -41,17 +41,24 @@ public class EnumClassFactory implements JsonReader.ClassFactory {
         }
 
         Object value = jObj.getValue();
+        if (value == null) {
+            value = jObj.get("ordinal");
+        }
 
         if (value instanceof String) {
             return jObj.setFinishedTarget(this.fromString(c, (String) value), true);
         }
 
+        if (value instanceof Long) {   // written with WriteOptionsBuilder.writeEnumsAsOrdinals()
+            return jObj.setFinishedTarget(MetaUtils.getEnumConstant(cls.get(), (Long) value), true);
+        }
+
         throw new JsonIoException("Unable to instantiate enum: " + c + ", class not found or is not an Enum.");
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
+    @SuppressWarnings("rawtypes")
     protected Enum fromString(Class<?> c, String s) {
-        return Enum.valueOf((Class<Enum>) c, s);
+        return MetaUtils.getEnumConstant(c, s);
     }
 
 
@@ -1,6 +1,8 @@
 package com.cedarsoftware.util.io.factory;
 
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.cedarsoftware.util.io.JsonIoException;
 import com.cedarsoftware.util.io.JsonObject;
@@ -31,6 +33,9 @@ import com.cedarsoftware.util.io.ReaderContext;
  *         limitations under the License.
  */
 public class TimeZoneFactory implements JsonReader.ClassFactory {
+    // TimeZone.getTimeZone(String) is synchronized; only valid ids are cached, so the map is bounded by the JDK's id list
+    private static final Map<String, TimeZone> zones = new ConcurrentHashMap<>();
+
     @Override
     public Object newInstance(Class<?> c, JsonObject jObj, ReaderContext context) {
 
@@ -48,7 +53,15 @@ public class TimeZoneFactory implements JsonReader.ClassFactory {
     }
 
     private Object fromString(JsonObject job, String value) {
-        return job.setFinishedTarget(TimeZone.getTimeZone(value), true);
+        TimeZone zone = zones.get(value);
+        if (zone == null) {
+            zone = TimeZone.getTimeZone(value);
+            if (zone.getID().equals(value)) {
+                zones.putIfAbsent(value, zone);
+            }
+        }
+        // TimeZone is mutable, so every caller gets its own copy
+        return job.setFinishedTarget(zone.clone(), true);
     }
 
     @Override
@@ -2,23 +2,22 @@ package com.cedarsoftware.util.io.writers;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Base64;
 
+import com.cedarsoftware.util.io.Base64Codec;
 import com.cedarsoftware.util.io.WriterContext;
+import com.cedarsoftware.util.io.Writers;
 
-import static com.cedarsoftware.util.io.JsonWriter.JsonClassWriter;
-import static com.cedarsoftware.util.io.JsonWriter.writeBasicString;
-
-public class ByteArrayWriter implements JsonClassWriter {
+/**
+ * Writes byte[] as a Base64 String, encoded directly into the output in chunks.
+ * Enabled with WriteOptionsBuilder.base64ByteArrays(true).
+ */
+public class ByteArrayWriter extends Writers.PrimitiveTypeWriter {
 
     @Override
     public void writePrimitiveForm(Object o, Writer output, WriterContext context) throws IOException {
         final byte[] bytes = (byte[]) o;
-        writeBasicString(output, Base64.getEncoder().encodeToString(bytes));
-    }
-
-    @Override
-    public boolean hasPrimitiveForm(WriterContext context) {
-        return true;
+        output.write('"');
+        Base64Codec.encode(output, bytes, 0, bytes.length);
+        output.write('"');
     }
 }
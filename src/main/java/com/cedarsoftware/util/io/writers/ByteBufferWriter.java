@@ -0,0 +1,39 @@
+package com.cedarsoftware.util.io.writers;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+
+import com.cedarsoftware.util.io.Base64Codec;
+import com.cedarsoftware.util.io.WriterContext;
+import com.cedarsoftware.util.io.Writers;
+
+/**
+ * Writes the remaining bytes (position to limit) of a ByteBuffer as a Base64 String, encoded directly into the
+ * output in chunks.  The buffer's position is not changed.  Enabled with WriteOptionsBuilder.base64ByteArrays(true).
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ *         <br>
+ *         Copyright (c) Cedar Software LLC
+ *         <br><br>
+ *         Licensed under the Apache License, Version 2.0 (the "License");
+ *         you may not use this file except in compliance with the License.
+ *         You may obtain a copy of the License at
+ *         <br><br>
+ *         <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ *         <br><br>
+ *         Unless required by applicable law or agreed to in writing, software
+ *         distributed under the License is distributed on an "AS IS" BASIS,
+ *         WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *         See the License for the specific language governing permissions and
+ *         limitations under the License.*
+ */
+public class ByteBufferWriter extends Writers.PrimitiveTypeWriter {
+
+    @Override
+    public void writePrimitiveForm(Object o, Writer output, WriterContext context) throws IOException {
+        output.write('"');
+        Base64Codec.encode(output, (ByteBuffer) o);
+        output.write('"');
+    }
+}
@@ -0,0 +1,155 @@
+package com.cedarsoftware.util.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import com.cedarsoftware.util.FastByteArrayOutputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class Base64ByteArrayTest
+{
+    private static final WriteOptions base64 = new WriteOptionsBuilder().base64ByteArrays(true).build();
+
+    static class Blob
+    {
+        String name;
+        byte[] thumbnail;
+        byte[] same;
+        ByteBuffer payload;
+        Object anything;
+        List<byte[]> parts = new ArrayList<>();
+    }
+
+    private static byte[] randomBytes(int len)
+    {
+        byte[] bytes = new byte[len];
+        new Random(len).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    void testFieldsRoundTrip()
+    {
+        Blob blob = new Blob();
+        blob.name = "thumb";
+        blob.thumbnail = randomBytes(1000);
+        blob.same = blob.thumbnail;
+        blob.payload = ByteBuffer.wrap(randomBytes(20), 5, 10);
+        blob.anything = randomBytes(7);
+        blob.parts.add(randomBytes(1));
+        blob.parts.add(randomBytes(2));
+        blob.parts.add(new byte[0]);
+
+        String json = TestUtil.toJson(blob, base64);
+        assertThat(json).contains(Base64.getEncoder().encodeToString(blob.thumbnail));
+        assertThat(json).contains("\"" + Base64.getEncoder().encodeToString(new byte[] {blob.payload.get(5), blob.payload.get(6)}).substring(0, 2));
+
+        Blob clone = TestUtil.toObjects(json, null);
+        assertThat(clone.thumbnail).isEqualTo(blob.thumbnail);
+        assertThat(clone.same).isSameAs(clone.thumbnail);
+        assertThat(clone.payload).isEqualTo(blob.payload);
+        assertThat(blob.payload.position()).isEqualTo(5);
+        assertThat((byte[]) clone.anything).isEqualTo((byte[]) blob.anything);
+        assertThat(clone.parts).hasSize(3);
+        assertThat(clone.parts.get(0)).isEqualTo(blob.parts.get(0));
+        assertThat(clone.parts.get(1)).isEqualTo(blob.parts.get(1));
+        assertThat(clone.parts.get(2)).isEmpty();
+    }
+
+    @Test
+    void testLargeBlob()
+    {
+        Blob blob = new Blob();
+        blob.thumbnail = randomBytes(3 * 1024 * 1024 + 1);
+        blob.payload = ByteBuffer.allocateDirect(100_001);
+        blob.payload.put(randomBytes(100_001));
+        blob.payload.flip();
+
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream();
+        JsonIo.toJson(out, blob, base64);
+        String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertThat(json.length()).isLessThan(blob.thumbnail.length * 3 / 2);
+
+        Blob clone = JsonIo.toObjects(json, null, Blob.class);
+        assertThat(clone.thumbnail).isEqualTo(blob.thumbnail);
+        assertThat(clone.payload).isEqualTo(blob.payload);
+    }
+
+    @Test
+    void testDefaultIsNumbers()
+    {
+        Blob blob = new Blob();
+        blob.thumbnail = new byte[] {1, 2, 3};
+        String json = TestUtil.toJson(blob);
+        assertThat(json).contains("[1,2,3]");
+        Blob clone = TestUtil.toObjects(json, null);
+        assertThat(clone.thumbnail).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void testMapsMode()
+    {
+        Blob blob = new Blob();
+        blob.thumbnail = new byte[] {1, 2, 3};
+        String json = TestUtil.toJson(blob, base64);
+        JsonObject map = TestUtil.toObjects(json, new ReadOptionsBuilder().returnAsNativeJsonObjects().build(), null);
+        assertThat(map.get("thumbnail")).isEqualTo("AQID");
+    }
+
+    @Test
+    void testDecoderLeniency()
+    {
+        byte[] bytes = randomBytes(100);
+        String standard = Base64.getEncoder().encodeToString(bytes);
+        assertThat(Base64Codec.decode(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes))).isEqualTo(bytes);
+        assertThat(Base64Codec.decode(Base64.getMimeEncoder().encodeToString(bytes))).isEqualTo(bytes);
+
+        String json = "{\"@type\":\"" + Blob.class.getName() + "\",\"thumbnail\":\"" + standard.replace("/", "\\/") + "\"}";
+        Blob clone = TestUtil.toObjects(json, null);
+        assertThat(clone.thumbnail).isEqualTo(bytes);
+    }
+
+    @Test
+    void testEscapedCharacters()
+    {
+        String json = "{\"@type\":\"" + Blob.class.getName() + "\",\"thumbnail\":\"\\u0041QID\\u003d\\n\",\"same\":\"AQ\\tID\"}";
+        Blob clone = TestUtil.toObjects(json, null);
+        assertThat(clone.thumbnail).containsExactly(1, 2, 3);
+        assertThat(clone.same).containsExactly(1, 2, 3);
+
+        String bad = "{\"@type\":\"" + Blob.class.getName() + "\",\"thumbnail\":\"AQ\\u00zz\"}";
+        assertThatThrownBy(() -> TestUtil.toObjects(bad, null)).isInstanceOf(JsonIoException.class).hasMessageContaining("hexadecimal");
+    }
+
+    @Test
+    void testInvalidBase64()
+    {
+        assertThatThrownBy(() -> Base64Codec.decode("AB$C")).isInstanceOf(JsonIoException.class).hasMessageContaining("Invalid base64");
+        assertThatThrownBy(() -> Base64Codec.decode("ABCDE")).isInstanceOf(JsonIoException.class).hasMessageContaining("incomplete");
+        assertThatThrownBy(() -> Base64Codec.decode("AB==CD")).isInstanceOf(JsonIoException.class).hasMessageContaining("padding");
+    }
+}
@@ -0,0 +1,284 @@
+package com.cedarsoftware.util.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.cedarsoftware.util.FastByteArrayInputStream;
+import com.cedarsoftware.util.FastByteArrayOutputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class BinaryJsonTest
+{
+    enum Color { RED, GREEN }
+
+    static class Node
+    {
+        String name;
+        Node next;
+        Object anything;
+        int[] ints;
+        double[] doubles;
+        byte[] bytes;
+        char[] chars;
+        boolean[] flags;
+        List<Object> items = new ArrayList<>();
+        Map<String, Object> attrs = new LinkedHashMap<>();
+        Map<Object, String> byKey = new HashMap<>();
+        Color color;
+        Date when;
+        UUID uuid;
+        BigDecimal amount;
+        LocalDate day;
+        long big;
+        float ratio;
+    }
+
+    static class Packed
+    {
+        long[] longs;
+        short[] shorts;
+        float[] floats;
+        byte[] bytes;
+        int[][] grid;
+        int[] shared;
+        int[] sameShared;
+        Object anyArray;
+    }
+
+    static class Point
+    {
+        int x;
+        int y;
+
+        Point(int x, int y)
+        {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    static class PointWriter implements JsonWriter.JsonClassWriter
+    {
+        public void write(Object o, boolean showType, Writer output, WriterContext context) throws IOException
+        {
+            Point p = (Point) o;
+            output.write("\"xy\":\"" + p.x + "," + p.y + "\"");
+        }
+    }
+
+    static class PointFactory implements JsonReader.ClassFactory
+    {
+        public Object newInstance(Class<?> c, JsonObject jObj, ReaderContext context)
+        {
+            String[] xy = ((String) jObj.get("xy")).split(",");
+            return new Point(Integer.parseInt(xy[0]), Integer.parseInt(xy[1]));
+        }
+
+        public boolean isObjectFinal()
+        {
+            return true;
+        }
+    }
+
+    @Test
+    void testGraphRoundTrip()
+    {
+        Node a = new Node();
+        Node b = new Node();
+        a.name = "a";
+        b.name = "bé中";
+        a.next = b;
+        b.next = a;
+        a.anything = 42;
+        b.anything = 1.5f;
+        a.ints = new int[] {0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        a.doubles = new double[] {0.1, -2.5e300, Double.MIN_VALUE};
+        a.bytes = new byte[] {-128, 0, 127};
+        a.chars = "hello".toCharArray();
+        a.flags = new boolean[] {true, false, true};
+        a.items.add(b);
+        a.items.add("text");
+        a.items.add(7L);
+        a.items.add(null);
+        a.items.add(Color.GREEN);
+        a.attrs.put("self", a);
+        a.attrs.put("pi", 3.14159d);
+        a.byKey.put(5L, "five");
+        a.byKey.put(Color.RED, "red");
+        a.color = Color.RED;
+        a.when = new Date(1234567890123L);
+        a.uuid = UUID.fromString("6ba7b810-9dad-11d1-80b4-00c04fd430c8");
+        a.amount = new BigDecimal("12345.6789");
+        a.day = LocalDate.of(2024, 2, 29);
+        a.big = Long.MIN_VALUE;
+        a.ratio = 0.1f;
+
+        byte[] binary = JsonIo.toBinary(a, null);
+        Node copy = JsonIo.fromBinary(binary, null, Node.class);
+
+        assertThat(copy.name).isEqualTo("a");
+        assertThat(copy.next.name).isEqualTo("bé中");
+        assertThat(copy.next.next).isSameAs(copy);
+        assertThat(copy.anything).isEqualTo(42);
+        assertThat(copy.next.anything).isEqualTo(1.5f);
+        assertThat(copy.ints).containsExactly(0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE);
+        assertThat(copy.doubles).containsExactly(0.1, -2.5e300, Double.MIN_VALUE);
+        assertThat(copy.bytes).containsExactly(-128, 0, 127);
+        assertThat(copy.chars).containsExactly('h', 'e', 'l', 'l', 'o');
+        assertThat(copy.flags).containsExactly(true, false, true);
+        assertThat(copy.items).hasSize(5);
+        assertThat(copy.items.get(0)).isSameAs(copy.next);
+        assertThat(copy.items.get(1)).isEqualTo("text");
+        assertThat(copy.items.get(2)).isEqualTo(7L);
+        assertThat(copy.items.get(3)).isNull();
+        assertThat(copy.items.get(4)).isEqualTo(Color.GREEN);
+        assertThat(copy.attrs.get("self")).isSameAs(copy);
+        assertThat(copy.attrs.get("pi")).isEqualTo(3.14159d);
+        assertThat(copy.byKey).containsEntry(5L, "five").containsEntry(Color.RED, "red");
+        assertThat(copy.color).isEqualTo(Color.RED);
+        assertThat(copy.when).isEqualTo(a.when);
+        assertThat(copy.uuid).isEqualTo(a.uuid);
+        assertThat(copy.amount).isEqualTo(a.amount);
+        assertThat(copy.day).isEqualTo(a.day);
+        assertThat(copy.big).isEqualTo(Long.MIN_VALUE);
+        assertThat(copy.ratio).isEqualTo(0.1f);
+    }
+
+    @Test
+    void testSmallerThanJson()
+    {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+        {
+            Node node = new Node();
+            node.name = "node" + i;
+            node.ints = new int[] {i, i * 1000, i * 1000000};
+            list.add(node);
+        }
+
+        byte[] binary = JsonIo.toBinary(list, null);
+        byte[] json = TestUtil.toJson(list).getBytes(StandardCharsets.UTF_8);
+        assertThat(binary.length).isLessThan(json.length / 2);
+
+        List<Node> copy = JsonIo.fromBinary(binary, null, List.class);
+        assertThat(copy).hasSize(100);
+        assertThat(copy.get(99).name).isEqualTo("node99");
+        assertThat(copy.get(99).ints).containsExactly(99, 99000, 99000000);
+    }
+
+    @Test
+    void testCustomWriterAndFactory()
+    {
+        WriteOptions writeOptions = new WriteOptionsBuilder().addCustomWrittenClass(Point.class, new PointWriter()).build();
+        ReadOptions readOptions = new ReadOptionsBuilder().addClassFactory(Point.class, new PointFactory()).build();
+
+        List<Object> points = new ArrayList<>();
+        Point p = new Point(3, 4);
+        points.add(p);
+        points.add(p);
+
+        byte[] binary = JsonIo.toBinary(points, writeOptions);
+        List<Point> copy = JsonIo.fromBinary(binary, readOptions, List.class);
+        assertThat(copy).hasSize(2);
+        assertThat(copy.get(0).x).isEqualTo(3);
+        assertThat(copy.get(0).y).isEqualTo(4);
+        assertThat(copy.get(1)).isSameAs(copy.get(0));
+    }
+
+    @Test
+    void testReturnAsJsonObjects()
+    {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "json-io");
+        map.put("count", 3L);
+        map.put("values", new long[] {1, 2, 3});
+
+        byte[] binary = JsonIo.toBinary(map, null);
+        Map<String, Object> maps = JsonIo.fromBinary(binary, new ReadOptionsBuilder().returnAsNativeJsonObjects().build(), null);
+        assertThat(maps.get("name")).isEqualTo("json-io");
+        assertThat(maps.get("count")).isEqualTo(3L);
+    }
+
+    @Test
+    void testPackedArrays()
+    {
+        Packed packed = new Packed();
+        packed.longs = new long[] {Long.MIN_VALUE, -1, 0, Long.MAX_VALUE};
+        packed.shorts = new short[] {Short.MIN_VALUE, 7, Short.MAX_VALUE};
+        packed.floats = new float[] {0.1f, -2.5f, Float.MAX_VALUE};
+        packed.bytes = new byte[0];
+        packed.grid = new int[][] {{1, 2}, {3}};
+        packed.shared = new int[] {9, 8};
+        packed.sameShared = packed.shared;
+        packed.anyArray = new double[] {1.5, -0.25};
+
+        Packed copy = JsonIo.fromBinary(JsonIo.toBinary(packed, null), null, Packed.class);
+        assertThat(copy.longs).containsExactly(packed.longs);
+        assertThat(copy.shorts).containsExactly(packed.shorts);
+        assertThat(copy.floats).containsExactly(packed.floats);
+        assertThat(copy.bytes).isEmpty();
+        assertThat(copy.grid[0]).containsExactly(1, 2);
+        assertThat(copy.grid[1]).containsExactly(3);
+        assertThat(copy.shared).containsExactly(9, 8);
+        assertThat(copy.sameShared).isSameAs(copy.shared);
+        assertThat((double[]) copy.anyArray).containsExactly(1.5, -0.25);
+
+        Map<String, Object> maps = JsonIo.fromBinary(JsonIo.toBinary(packed, null),
+                new ReadOptionsBuilder().returnAsNativeJsonObjects().build(), null);
+        assertThat((Object[]) maps.get("longs")).containsExactly(Long.MIN_VALUE, -1L, 0L, Long.MAX_VALUE);
+    }
+
+    @Test
+    void testMultipleDocumentsOnOneStream()
+    {
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream();
+        BinaryJsonWriter writer = new BinaryJsonWriter(out, null);
+        writer.write("first");
+        writer.write(new int[] {1, 2});
+        writer.close();
+
+        BinaryJsonReader reader = new BinaryJsonReader(new FastByteArrayInputStream(out.toByteArray()), null);
+        assertThat((String) reader.readObject(String.class)).isEqualTo("first");
+        assertThat((int[]) reader.readObject(int[].class)).containsExactly(1, 2);
+        reader.close();
+    }
+
+    @Test
+    void testNotBinary()
+    {
+        byte[] json = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> JsonIo.fromBinary(json, null, Map.class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("not json-io binary");
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.Serializable;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
@@ -344,6 +345,27 @@ public class CalendarTest
         Assertions.assertEquals((oa[1]), utcCal);
     }
 
+    @Test
+    void testTimeFormattedAsSimpleDateFormat()
+    {
+        int[][] dates = {{1500, 0, 1}, {1582, 9, 4}, {1582, 9, 15}, {12000, 5, 30}, {1, 0, 1}, {2011, 11, 8}};
+        for (String zone : new String[] {"UTC", "America/New_York", "Asia/Kolkata"})
+        {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+            format.setTimeZone(TimeZone.getTimeZone(zone));
+            for (int[] date : dates)
+            {
+                Calendar cal = new GregorianCalendar(TimeZone.getTimeZone(zone));
+                cal.clear();
+                cal.set(date[0], date[1], date[2], 13, 29, 48);
+                cal.set(Calendar.MILLISECOND, 7);
+                String time = format.format(cal.getTime());
+                assertThat(TestUtil.toJson(cal)).contains("\"time\":\"" + time + "\"");
+            }
+        }
+        assertThat(Writers.CalendarWriter.formatTime(new GregorianCalendar(1500, 0, 1))).startsWith("1500-01-01T00:00:00.000");
+    }
+
     static class TestCalendar implements Serializable
     {
         private Calendar _cal;
@@ -0,0 +1,90 @@
+package com.cedarsoftware.util.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.cedarsoftware.util.DeepEquals;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class CompactTypeNamesTest
+{
+    @Test
+    void testTypeNamesWrittenOnce()
+    {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+        {
+            TestObject a = new TestObject("A" + i);
+            a._other = new TestObjectKid("K" + i, "kid" + i + "@home.com");
+            list.add(a);
+        }
+
+        String json = TestUtil.toJson(list, new WriteOptionsBuilder().compactTypeNames(true).build());
+        assertThat(TestUtil.count(json, TestObject.class.getName() + "\"")).isEqualTo(1);
+        assertThat(TestUtil.count(json, TestObjectKid.class.getName() + "\"")).isEqualTo(1);
+        assertThat(json.length()).isLessThan(TestUtil.toJson(list).length());
+
+        List<Object> clone = TestUtil.toObjects(json, null);
+        assertThat(DeepEquals.deepEquals(list, clone)).isTrue();
+    }
+
+    @Test
+    void testWithShortMetaKeysAndAliases()
+    {
+        TestObject a = new TestObject("A");
+        TestObject b = new TestObject("B");
+        a._other = b;
+        b._other = a;
+        List<Object> list = MetaUtils.listOf(a, b, a);
+
+        Map<String, String> shortNames = MetaUtils.mapOf(TestObject.class.getName(), "to");
+        WriteOptions writeOptions = new WriteOptionsBuilder().compactTypeNames(true).shortMetaKeys(true).aliasTypeNames(shortNames).build();
+        String json = TestUtil.toJson(list, writeOptions);
+        assertThat(json).contains("=to\"");
+
+        List<Object> clone = TestUtil.toObjects(json, new ReadOptionsBuilder().aliasTypeNames(shortNames).build(), null);
+        assertThat(DeepEquals.deepEquals(list, clone)).isTrue();
+    }
+
+    @Test
+    void testTokensRestartPerDocument()
+    {
+        WriteOptions writeOptions = new WriteOptionsBuilder().compactTypeNames(true).build();
+        String json1 = TestUtil.toJson(new TestObject("one"), writeOptions);
+        String json2 = TestUtil.toJson(new TestObject("two"), writeOptions);
+        assertThat(json1).contains("\"0=" + TestObject.class.getName() + "\"");
+        assertThat(json2).contains("\"0=" + TestObject.class.getName() + "\"");
+
+        TestObject two = TestUtil.toObjects(json2, null);
+        assertThat(two.getName()).isEqualTo("two");
+    }
+
+    @Test
+    void testUndefinedToken()
+    {
+        assertThatThrownBy(() -> TestUtil.toObjects("{\"@type\":\"3\",\"_name\":\"x\"}", null))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Undefined @type token");
+    }
+}
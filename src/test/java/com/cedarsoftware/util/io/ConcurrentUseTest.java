@@ -0,0 +1,159 @@
+package com.cedarsoftware.util.io;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round trips JSON from many threads at once: 10,000 tasks started together, on virtual threads when the JVM has
+ * them (Java 21+), otherwise on a large pool of platform threads.  Every result is checked, and throughput is
+ * printed so runs can be compared.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class ConcurrentUseTest
+{
+    private static final int TASKS = 10_000;
+
+    static class Order
+    {
+        long id;
+        String customer;
+        double total;
+        Calendar placed;
+        TimeZone zone;
+        List<String> items;
+        Map<String, Object> attributes;
+        Order self;
+    }
+
+    private static Order order(int i)
+    {
+        Order order = new Order();
+        order.id = i;
+        order.customer = "customer-" + (i % 500);     // repeats, so the shared string cache is hit and replaced
+        order.total = i * 1.25;
+        order.placed = Calendar.getInstance(TimeZone.getTimeZone(i % 2 == 0 ? "America/New_York" : "Asia/Tokyo"));
+        order.placed.setTimeInMillis(1_700_000_000_000L + i * 1000L);
+        order.zone = TimeZone.getTimeZone("Europe/Paris");
+        order.items = new ArrayList<>();
+        for (int j = 0; j < 5; j++) {
+            order.items.add("item-" + (i + j));
+        }
+        order.attributes = new LinkedHashMap<>();
+        order.attributes.put("priority", (long) (i % 3));
+        order.attributes.put("note", "n" + i);
+        order.self = order;
+        return order;
+    }
+
+    private static ExecutorService newExecutor()
+    {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(256);
+        }
+    }
+
+    @Test
+    void testManyThreadsRoundTrip() throws Exception
+    {
+        final WriteOptions writeOptions = new WriteOptionsBuilder().build();
+        final ReadOptions readOptions = new ReadOptionsBuilder().build();
+        final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(TASKS);
+        final ExecutorService executor = newExecutor();
+        try {
+            for (int t = 0; t < TASKS; t++) {
+                final int i = t;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        Order expected = order(i);
+                        String json = JsonIo.toJson(expected, writeOptions);
+                        Order actual = JsonIo.toObjects(json, readOptions, Order.class);
+                        assertThat(actual.id).isEqualTo(expected.id);
+                        assertThat(actual.customer).isEqualTo(expected.customer);
+                        assertThat(actual.total).isEqualTo(expected.total);
+                        assertThat(actual.placed.getTimeInMillis()).isEqualTo(expected.placed.getTimeInMillis());
+                        assertThat(actual.placed.getTimeZone().getID()).isEqualTo(expected.placed.getTimeZone().getID());
+                        assertThat(actual.zone.getID()).isEqualTo("Europe/Paris");
+                        assertThat(actual.items).isEqualTo(expected.items);
+                        assertThat(actual.attributes).isEqualTo(expected.attributes);
+                        assertThat(actual.self).isSameAs(actual);
+                    }
+                    catch (Throwable e) {
+                        failures.add(e);
+                    }
+                    finally {
+                        done.countDown();
+                    }
+                });
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            assertThat(done.await(2, TimeUnit.MINUTES)).isTrue();
+            long elapsed = System.nanoTime() - begin;
+            TestUtil.printLine("ConcurrentUseTest: " + TASKS + " round trips in " + elapsed / 1_000_000 + " ms (" +
+                    (long) (TASKS / (elapsed / 1e9)) + " per second)");
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    void testTimeZonesAreNotShared()
+    {
+        String json = "{\"@type\":\"java.util.TimeZone\",\"zone\":\"Europe/Paris\"}";
+        TimeZone first = JsonIo.toObjects(json, null, TimeZone.class);
+        first.setRawOffset(0);
+        TimeZone second = JsonIo.toObjects(json, null, TimeZone.class);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getRawOffset()).isEqualTo(TimeZone.getTimeZone("Europe/Paris").getRawOffset());
+    }
+
+    @Test
+    void testInternCache()
+    {
+        InternCache<String> cache = new InternCache<>(100);
+        String a = new String("json");
+        String b = new String("json");
+        assertThat(cache.intern(a)).isSameAs(a);
+        assertThat(cache.intern(b)).isSameAs(a);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(cache.intern("v" + i)).isEqualTo("v" + i);
+        }
+    }
+}
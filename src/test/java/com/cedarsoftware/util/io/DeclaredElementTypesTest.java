@@ -0,0 +1,187 @@
+package com.cedarsoftware.util.io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class DeclaredElementTypesTest
+{
+    static class Foo
+    {
+        String name;
+        int n;
+
+        Foo() { }
+
+        Foo(String name, int n)
+        {
+            this.name = name;
+            this.n = n;
+        }
+    }
+
+    static class SubFoo extends Foo
+    {
+        String extra;
+    }
+
+    static final class Bar
+    {
+        long v;
+    }
+
+    static class Holder
+    {
+        List<Foo> foos = new ArrayList<>();
+        ArrayList<Foo> bare = new ArrayList<>();
+        Map<String, Bar> bars = new LinkedHashMap<>();
+        Map<Foo, Bar> objectKeys = new LinkedHashMap<>();
+        Foo[] array;
+        List<Integer> ints = new ArrayList<>();
+        List<Object> objects = new ArrayList<>();
+    }
+
+    static class StringKeys
+    {
+        Map<String, Foo> map;
+    }
+
+    private static Holder holder()
+    {
+        Holder holder = new Holder();
+        holder.foos.add(new Foo("a", 1));
+        SubFoo sub = new SubFoo();
+        sub.name = "s";
+        sub.extra = "x";
+        holder.foos.add(sub);
+        holder.foos.add(null);
+        holder.bare.add(new Foo("b", 2));
+        Bar bar = new Bar();
+        bar.v = 5;
+        holder.bars.put("k", bar);
+        holder.objectKeys.put(new Foo("key", 9), new Bar());
+        holder.array = new Foo[] {new Foo("c", 3)};
+        holder.ints.add(7);
+        holder.objects.add(new Foo("o", 4));
+        return holder;
+    }
+
+    @Test
+    void testDeclaredElementsWrittenWithoutType()
+    {
+        String json = JsonIo.toJson(holder(), new WriteOptionsBuilder().build());
+        // Only the element of the List<Object> needs its @type
+        assertThat(json.split("\"@type\":\"" + Foo.class.getName().replace("$", "\\$") + "\"", -1)).hasSize(2);
+        assertThat(json).doesNotContain("\"@type\":\"" + Bar.class.getName() + "\"");
+        assertThat(json).contains("\"@type\":\"" + SubFoo.class.getName() + "\"");     // subclass keeps its @type
+
+        Holder read = JsonIo.toObjects(json, null, Holder.class);
+        assertThat(read.foos).hasSize(3);
+        assertThat(read.foos.get(0)).isExactlyInstanceOf(Foo.class);
+        assertThat(read.foos.get(0).name).isEqualTo("a");
+        assertThat(read.foos.get(1)).isExactlyInstanceOf(SubFoo.class);
+        assertThat(((SubFoo) read.foos.get(1)).extra).isEqualTo("x");
+        assertThat(read.foos.get(2)).isNull();
+        assertThat(read.bare.get(0)).isExactlyInstanceOf(Foo.class);
+        assertThat(read.bare.get(0).n).isEqualTo(2);
+        assertThat(read.bars.get("k").v).isEqualTo(5);
+        assertThat(read.objectKeys.keySet().iterator().next().name).isEqualTo("key");
+        assertThat(read.objectKeys.values().iterator().next()).isExactlyInstanceOf(Bar.class);
+        assertThat(read.array[0].name).isEqualTo("c");
+        assertThat(read.ints.get(0)).isEqualTo(7);
+        assertThat(read.objects.get(0)).isExactlyInstanceOf(Foo.class);
+    }
+
+    @Test
+    void testAlwaysShowingTypeKeepsTypes()
+    {
+        String json = JsonIo.toJson(holder(), new WriteOptionsBuilder().showTypeInfoAlways().build());
+        assertThat(json).contains("\"@type\":\"" + Foo.class.getName() + "\"");
+        assertThat(json).contains("\"@type\":\"" + Bar.class.getName() + "\"");
+    }
+
+    @Test
+    void testUntypedCollectionElementsRead()
+    {
+        Holder read = JsonIo.toObjects("{\"bare\":[{\"name\":\"x\"},{\"name\":\"y\"}],\"foos\":[{\"n\":3}],\"array\":[{\"n\":4}]}", null, Holder.class);
+        assertThat(read.bare).extracting(foo -> foo.name).containsExactly("x", "y");
+        assertThat(read.foos.get(0).n).isEqualTo(3);
+        assertThat(read.array[0].n).isEqualTo(4);
+    }
+
+    @Test
+    void testStringKeyedMap()
+    {
+        StringKeys keys = new StringKeys();
+        keys.map = new TreeMap<>();
+        keys.map.put("b", new Foo("b", 2));
+        keys.map.put("a", new Foo("a", 1));
+        String json = JsonIo.toJson(keys, null);
+        assertThat(json).contains("\"a\":{").doesNotContain("@keys");
+        assertThat(JsonIo.toObjects(json, null, StringKeys.class).map.get("b").n).isEqualTo(2);
+
+        keys.map = new HashMap<>();
+        keys.map.put(null, new Foo("null", 0));
+        keys.map.put("x", new Foo("x", 1));
+        json = JsonIo.toJson(keys, null);
+        assertThat(json).contains("@keys");
+        StringKeys read = JsonIo.toObjects(json, null, StringKeys.class);
+        assertThat(read.map.get(null).name).isEqualTo("null");
+        assertThat(read.map.get("x").name).isEqualTo("x");
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void testNonStringKeyInStringKeyedMap()
+    {
+        StringKeys keys = new StringKeys();
+        keys.map = new LinkedHashMap<>();
+        keys.map.put("a", new Foo("a", 1));
+        ((Map) keys.map).put(1L, new Foo("one", 2));
+        String json = JsonIo.toJson(keys, null);
+        assertThat(json).contains("@keys");
+        Map<Object, Foo> read = (Map) JsonIo.toObjects(json, null, StringKeys.class).map;
+        assertThat(read.get("a").n).isEqualTo(1);
+        assertThat(read.get(1L).name).isEqualTo("one");
+    }
+
+    @Test
+    void testDeclaredTypes() throws Exception
+    {
+        DeclaredElementTypes foos = DeclaredElementTypes.of(Holder.class.getDeclaredField("foos").getGenericType());
+        assertThat(foos.element).isEqualTo(Foo.class);
+
+        DeclaredElementTypes bars = DeclaredElementTypes.of(Holder.class.getDeclaredField("bars").getGenericType());
+        assertThat(bars.key).isNull();
+        assertThat(bars.value).isEqualTo(Bar.class);
+
+        assertThat(DeclaredElementTypes.of(Holder.class.getDeclaredField("ints").getGenericType())).isNull();
+        assertThat(DeclaredElementTypes.of(Holder.class.getDeclaredField("objects").getGenericType())).isNull();
+        assertThat(DeclaredElementTypes.of(Holder.class.getDeclaredField("array").getGenericType())).isNull();
+        assertThat(DeclaredElementTypes.of(Holder.class.getDeclaredField("foos").getGenericType())).isSameAs(foos);
+    }
+}
@@ -0,0 +1,206 @@
+package com.cedarsoftware.util.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class DirectDeepCopyTest
+{
+    enum Kind { A, B }
+
+    static class Key
+    {
+        String name;
+        List<String> parts = new ArrayList<>();
+
+        public boolean equals(Object o)
+        {
+            return o instanceof Key && Objects.equals(name, ((Key) o).name) && parts.equals(((Key) o).parts);
+        }
+
+        public int hashCode()
+        {
+            return Objects.hash(name, parts);
+        }
+    }
+
+    static class Node
+    {
+        String name;
+        int count;
+        double[] weights;
+        Node parent;
+        List<Node> children = new ArrayList<>();
+        Map<Key, Node> byKey = new HashMap<>();
+        Set<Key> keys = new HashSet<>();
+        TreeSet<String> sorted = new TreeSet<>();
+        Object[] mixed;
+        Date created;
+        LocalDate day;
+        AtomicInteger counter;
+        transient String cache;
+    }
+
+    static class Money
+    {
+        long cents;
+
+        Money(long cents)
+        {
+            this.cents = cents;
+        }
+    }
+
+    static class Wallet
+    {
+        Money balance;
+    }
+
+    static class MoneyWriter implements JsonWriter.JsonClassWriter
+    {
+        public void write(Object o, boolean showType, Writer output, WriterContext context) throws IOException
+        {
+            output.write("\"cents\":" + (((Money) o).cents + 1));
+        }
+    }
+
+    private static Node graph()
+    {
+        Node root = new Node();
+        root.name = "root";
+        root.count = 3;
+        root.weights = new double[] {1.5, 2.5};
+        root.created = new Date(1000);
+        root.day = LocalDate.of(2024, 1, 2);
+        root.counter = new AtomicInteger(7);
+        root.cache = "not copied";
+        for (int i = 0; i < 3; i++)
+        {
+            Node child = new Node();
+            child.name = "child" + i;
+            child.parent = root;
+            root.children.add(child);
+            Key key = new Key();
+            key.name = "k" + i;
+            key.parts.add("p" + i);
+            root.byKey.put(key, child);
+            root.keys.add(key);
+        }
+        root.sorted.add("b");
+        root.sorted.add("a");
+        root.mixed = new Object[] {root, root.children.get(0), "text", 5L, Kind.A, null};
+        return root;
+    }
+
+    @Test
+    void testGraphCopiedWithSharingAndCycles()
+    {
+        Node src = graph();
+        Node copy = JsonIo.deepCopy(src, null, null);
+
+        assertThat(copy).isNotSameAs(src);
+        assertThat(copy.name).isEqualTo("root");
+        assertThat(copy.count).isEqualTo(3);
+        assertThat(copy.weights).containsExactly(1.5, 2.5).isNotSameAs(src.weights);
+        assertThat(copy.children).hasSize(3);
+        assertThat(copy.children.get(1).parent).isSameAs(copy);
+        assertThat(copy.children.get(1)).isNotSameAs(src.children.get(1));
+        assertThat(copy.mixed[0]).isSameAs(copy);
+        assertThat(copy.mixed[1]).isSameAs(copy.children.get(0));
+        assertThat(copy.mixed).endsWith("text", 5L, Kind.A, null);
+        assertThat(copy.sorted).containsExactly("a", "b");
+        assertThat(copy.created).isEqualTo(src.created).isNotSameAs(src.created);
+        assertThat(copy.day).isEqualTo(src.day);
+        assertThat(copy.counter.get()).isEqualTo(7);
+        assertThat(copy.counter).isNotSameAs(src.counter);
+        assertThat(copy.cache).isNull();
+    }
+
+    @Test
+    void testHashedContainersSeeFinalHashCodes()
+    {
+        Node copy = JsonIo.deepCopy(graph(), null, null);
+        for (Key key : copy.keys)
+        {
+            assertThat(copy.keys.contains(key)).isTrue();
+            assertThat(copy.byKey.get(key)).isNotNull();
+            assertThat(copy.byKey.get(key).name).isEqualTo("child" + key.name.substring(1));
+        }
+        Key first = copy.keys.iterator().next();
+        assertThat(copy.byKey.keySet()).anySatisfy(k -> assertThat(k).isSameAs(first));
+    }
+
+    @Test
+    void testMatchesJsonRoundTrip()
+    {
+        Node src = graph();
+        Node direct = JsonIo.deepCopy(src, null, null);
+        Node viaJson = TestUtil.toObjects(TestUtil.toJson(src), Node.class);
+        assertThat(TestUtil.toJson(direct)).isEqualTo(TestUtil.toJson(viaJson));
+    }
+
+    @Test
+    void testEnumMap()
+    {
+        Date date = new Date(5000);
+        EnumMap<Kind, Object> map = new EnumMap<>(Kind.class);
+        map.put(Kind.B, date);
+        map.put(Kind.A, new Object[] {date});
+        EnumMap<Kind, Object> copy = JsonIo.deepCopy(map, null, null);
+        assertThat(copy.keySet()).containsExactly(Kind.A, Kind.B);
+        assertThat(copy.get(Kind.B)).isEqualTo(date).isNotSameAs(date);
+        assertThat(((Object[]) copy.get(Kind.A))[0]).isSameAs(copy.get(Kind.B));
+    }
+
+    @Test
+    void testCustomWriterFallsBackToJson()
+    {
+        Wallet wallet = new Wallet();
+        wallet.balance = new Money(100);
+        WriteOptions writeOptions = new WriteOptionsBuilder().addCustomWrittenClass(Money.class, new MoneyWriter()).build();
+        Wallet copy = JsonIo.deepCopy(wallet, null, writeOptions);
+        assertThat(copy.balance.cents).isEqualTo(101);   // went through the custom writer
+    }
+
+    @Test
+    void testExcludedFieldsHonored()
+    {
+        Node src = graph();
+        WriteOptions writeOptions = new WriteOptionsBuilder().addExcludedField(Node.class, "name").build();
+        Node copy = JsonIo.deepCopy(src, null, writeOptions);
+        assertThat(copy.name).isNull();
+        assertThat(copy.count).isEqualTo(3);
+    }
+}
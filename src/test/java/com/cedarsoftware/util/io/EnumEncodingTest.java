@@ -0,0 +1,141 @@
+package com.cedarsoftware.util.io;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class EnumEncodingTest
+{
+    enum Level { LOW, MEDIUM, HIGH { public String toString() { return "high!"; } } }
+
+    enum Big { B0, B1, B2, B3, B4, B5, B6, B7, B8, B9, B10, B11, B12, B13, B14, B15, B16, B17, B18, B19, B20, B21, B22, B23, B24, B25, B26, B27, B28, B29, B30, B31, B32, B33, B34, B35, B36, B37, B38, B39, B40, B41, B42, B43, B44, B45, B46, B47, B48, B49, B50, B51, B52, B53, B54, B55, B56, B57, B58, B59, B60, B61, B62, B63, B64, B65, B66, B67, B68, B69 }
+
+    static class Event
+    {
+        Level level = Level.MEDIUM;
+        Level other = Level.HIGH;
+        Level none;
+        Object any = Level.LOW;
+        Level[] history = {Level.MEDIUM, Level.LOW};
+        EnumSet<Level> flags = EnumSet.of(Level.LOW, Level.HIGH);
+        EnumSet<Level> empty = EnumSet.noneOf(Level.class);
+        EnumSet<Big> big = EnumSet.of(Big.B0, Big.B63, Big.B64, Big.B69);
+        EnumMap<Level, String> labels = new EnumMap<>(Level.class);
+    }
+
+    private static Event event()
+    {
+        Event event = new Event();
+        event.labels.put(Level.HIGH, "h");
+        event.labels.put(Level.LOW, "l");
+        return event;
+    }
+
+    private static void assertEvent(Event event)
+    {
+        assertThat(event.level).isSameAs(Level.MEDIUM);
+        assertThat(event.other).isSameAs(Level.HIGH);
+        assertThat(event.none).isNull();
+        assertThat(event.any).isSameAs(Level.LOW);
+        assertThat(event.history).containsExactly(Level.MEDIUM, Level.LOW);
+        assertThat(event.flags).containsExactly(Level.LOW, Level.HIGH);
+        assertThat(event.empty).isEmpty();
+        assertThat(event.big).containsExactly(Big.B0, Big.B63, Big.B64, Big.B69);
+        assertThat(event.labels).isInstanceOf(EnumMap.class);
+        assertThat(event.labels).containsExactly(entry(Level.LOW, "l"), entry(Level.HIGH, "h"));
+    }
+
+    private static java.util.Map.Entry<Level, String> entry(Level level, String label)
+    {
+        return new java.util.AbstractMap.SimpleEntry<>(level, label);
+    }
+
+    @Test
+    void testNamesRoundTrip()
+    {
+        String json = JsonIo.toJson(event(), new WriteOptionsBuilder().build());
+        assertThat(json).contains("\"level\":\"MEDIUM\"", "\"labels\":{\"@keys\":[", "\"@items\":[\"l\",\"h\"]");
+        assertThat(json).doesNotContain("@bits");
+        assertEvent(JsonIo.toObjects(json, new ReadOptionsBuilder().build(), Event.class));
+    }
+
+    @Test
+    void testEnumMapKeysAsNamesRoundTrip()
+    {
+        String json = JsonIo.toJson(event(), new WriteOptionsBuilder().writeEnumMapKeysAsNames().build());
+        assertThat(json).contains("\"@enum\":\"" + Level.class.getName() + "\",\"LOW\":\"l\",\"HIGH\":\"h\"");
+        assertThat(json).doesNotContain("@keys");
+        assertEvent(JsonIo.toObjects(json, new ReadOptionsBuilder().build(), Event.class));
+        assertEvent(JsonIo.fromBinary(JsonIo.toBinary(event(), new WriteOptionsBuilder().writeEnumMapKeysAsNames().build()),
+                new ReadOptionsBuilder().build(), Event.class));
+    }
+
+    @Test
+    void testOrdinalsRoundTrip()
+    {
+        String json = JsonIo.toJson(event(), new WriteOptionsBuilder().writeEnumsAsOrdinals().build());
+        assertThat(json).contains("\"level\":1", "\"history\":[1,0]", "\"@bits\":5", "\"@bits\":[-9223372036854775807,33]");
+        assertThat(json).doesNotContain("MEDIUM", "\"@items\":[\"LOW\"");
+        assertEvent(JsonIo.toObjects(json, new ReadOptionsBuilder().build(), Event.class));
+    }
+
+    @Test
+    void testBinaryRoundTrip()
+    {
+        for (WriteOptions options : new WriteOptions[]{new WriteOptionsBuilder().build(), new WriteOptionsBuilder().writeEnumsAsOrdinals().build()})
+        {
+            byte[] bytes = JsonIo.toBinary(event(), options);
+            assertEvent(JsonIo.fromBinary(bytes, new ReadOptionsBuilder().build(), Event.class));
+        }
+    }
+
+    @Test
+    void testRootEnumMapAndSet()
+    {
+        EnumMap<Level, List<String>> map = new EnumMap<>(Level.class);
+        map.put(Level.MEDIUM, MetaUtils.listOf("a", "b"));
+        EnumMap<?, ?> read = JsonIo.toObjects(JsonIo.toJson(map, null), null, EnumMap.class);
+        assertThat(read.get(Level.MEDIUM)).isEqualTo(MetaUtils.listOf("a", "b"));
+
+        String json = JsonIo.toJson(EnumSet.of(Level.HIGH), new WriteOptionsBuilder().writeEnumsAsOrdinals().build());
+        EnumSet<?> set = JsonIo.toObjects(json, null, EnumSet.class);
+        assertThat(set).hasSize(1);
+        assertThat(set.contains(Level.HIGH)).isTrue();
+    }
+
+    @Test
+    void testLookupTables()
+    {
+        assertThat(MetaUtils.getEnumConstant(Level.class, "HIGH")).isSameAs(Level.HIGH);
+        assertThat(MetaUtils.getEnumConstant(Level.HIGH.getClass(), 0L)).isSameAs(Level.LOW);
+        assertThat(MetaUtils.getEnumTable(Level.HIGH.getClass())).isSameAs(MetaUtils.getEnumTable(Level.class));
+        assertThatThrownBy(() -> MetaUtils.getEnumConstant(Level.class, "NONE"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("No enum constant");
+        assertThatThrownBy(() -> JsonIo.toObjects("{\"level\":3}", null, Event.class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("ordinal 3 out of range");
+    }
+}
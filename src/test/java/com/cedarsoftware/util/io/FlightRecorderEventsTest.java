@@ -0,0 +1,120 @@
+package com.cedarsoftware.util.io;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class FlightRecorderEventsTest
+{
+    private static final String READ = "com.cedarsoftware.jsonio.Read";
+    private static final String WRITE = "com.cedarsoftware.jsonio.Write";
+    private static final String DEEP_COPY = "com.cedarsoftware.jsonio.DeepCopy";
+
+    static class Node
+    {
+        String name;
+        Node next;
+    }
+
+    @Test
+    void testEventsRecorded() throws Exception
+    {
+        assumeThat(FlightRecorderSupport.INSTANCE).isNotNull();
+        assertThat(FlightRecorderSupport.readEnabled()).isFalse();
+
+        Node a = new Node();
+        a.name = "a";
+        a.next = new Node();
+        a.next.name = "b";
+        a.next.next = a;
+
+        List<RecordedEvent> events;
+        Path file = Files.createTempFile("json-io", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(READ).withoutThreshold();
+            recording.enable(WRITE).withoutThreshold();
+            recording.enable(DEEP_COPY).withoutThreshold();
+            recording.start();
+
+            String json = JsonIo.toJson(a, null);
+            Node copy = JsonIo.toObjects(json, null, Node.class);
+            assertThat(copy.next.next).isSameAs(copy);
+            Node deep = JsonIo.deepCopy(a, null, null);
+            assertThat(deep.next.next).isSameAs(deep);
+
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        Map<String, List<RecordedEvent>> byName = events.stream()
+                .collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+
+        assertThat(byName.get(WRITE)).hasSize(1);
+        RecordedEvent write = byName.get(WRITE).get(0);
+        assertThat(write.getLong("documentSize")).isPositive();
+        assertThat(write.<RecordedClass>getValue("rootType").getName()).isEqualTo(Node.class.getName());
+        assertThat(write.getLong("objectsWritten")).isEqualTo(4);     // 2 Nodes and their 2 names
+        assertThat(write.getLong("referencedObjects")).isEqualTo(1);
+
+        assertThat(byName.get(READ)).hasSize(1);
+        RecordedEvent read = byName.get(READ).get(0);
+        assertThat(read.getLong("documentSize")).isEqualTo(JsonIo.toJson(a, null).length());
+        assertThat(read.<RecordedClass>getValue("rootType").getName()).isEqualTo(Node.class.getName());
+        assertThat(read.getLong("objectsInstantiated")).isEqualTo(2);
+        assertThat(read.getLong("parseTime")).isPositive();
+
+        assertThat(byName.get(DEEP_COPY)).hasSize(1);
+        RecordedEvent deepCopy = byName.get(DEEP_COPY).get(0);
+        assertThat(deepCopy.getBoolean("viaJson")).isFalse();
+        assertThat(deepCopy.getLong("objectsCopied")).isEqualTo(2);
+    }
+
+    @Test
+    void testNoEventsWithoutRecording()
+    {
+        List<ReadMetrics> reads = new ArrayList<>();
+        ReadOptions options = new ReadOptionsBuilder().metricsListener(new MetricsListener()
+        {
+            public void readCompleted(ReadMetrics metrics)
+            {
+                reads.add(metrics);
+            }
+        }).build();
+        JsonIo.toObjects("{\"name\":\"x\"}", options, Node.class);
+        assertThat(reads).hasSize(1);
+        assertThat(reads.get(0).getCleanupNanos()).isNotNegative();
+        assertThat(FlightRecorderSupport.writeEnabled()).isFalse();
+    }
+}
@@ -0,0 +1,129 @@
+package com.cedarsoftware.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class GenericTypePlanTest
+{
+    static class Dto
+    {
+        String name;
+    }
+
+    static class Item
+    {
+        int qty;
+    }
+
+    static class Pair<A, B>
+    {
+        A first;
+        B second;
+        List<B> rest;
+    }
+
+    static class Named<X> extends Pair<String, X>
+    {
+    }
+
+    static class Holder
+    {
+        Map<String, List<Dto>> byKey;
+        List<List<Dto>> nested;
+        Pair<Dto, Item> pair;
+        Named<Dto> named;
+    }
+
+    @Test
+    void testNestedCollectionsInField()
+    {
+        String json = "{\"byKey\":{\"a\":[{\"name\":\"x\"},{\"name\":\"y\"}],\"b\":[]},\"nested\":[[{\"name\":\"z\"}],[]]}";
+        Holder holder = JsonIo.toObjects(json, new ReadOptionsBuilder().build(), Holder.class);
+        assertThat(holder.byKey).containsOnlyKeys("a", "b");
+        assertThat(holder.byKey.get("a")).hasSize(2);
+        assertThat(holder.byKey.get("a").get(1).name).isEqualTo("y");
+        assertThat(holder.byKey.get("b")).isEmpty();
+        assertThat(holder.nested).hasSize(2);
+        assertThat(holder.nested.get(0).get(0).name).isEqualTo("z");
+        assertThat(holder.nested.get(1)).isEmpty();
+    }
+
+    @Test
+    void testHolderTypeVariables()
+    {
+        String json = "{\"pair\":{\"first\":{\"name\":\"f\"},\"second\":{\"qty\":2},\"rest\":[{\"qty\":3},{\"qty\":4}]}," +
+                "\"named\":{\"first\":\"label\",\"second\":{\"name\":\"s\"},\"rest\":[{\"name\":\"r\"}]}}";
+        Holder holder = JsonIo.toObjects(json, new ReadOptionsBuilder().build(), Holder.class);
+        assertThat(holder.pair.first.name).isEqualTo("f");
+        assertThat(holder.pair.second.qty).isEqualTo(2);
+        assertThat(holder.pair.rest).extracting(item -> item.qty).containsExactly(3, 4);
+        assertThat(holder.named.first).isEqualTo("label");
+        assertThat(holder.named.second.name).isEqualTo("s");
+        assertThat(holder.named.rest.get(0).name).isEqualTo("r");
+    }
+
+    @Test
+    void testGenericRoot()
+    {
+        String json = "{\"a\":[{\"name\":\"x\"}],\"b\":[{\"name\":\"y\"},{\"name\":\"z\"}]}";
+        Map<String, List<Dto>> map = JsonIo.toObjectsOfType(json, new ReadOptionsBuilder().build(),
+                new TypeHolder<Map<String, List<Dto>>>() {});
+        assertThat(map.get("a").get(0).name).isEqualTo("x");
+        assertThat(map.get("b")).extracting(dto -> dto.name).containsExactly("y", "z");
+
+        List<Dto> list = JsonIo.toObjectsOfType(new ByteArrayInputStream("[{\"name\":\"q\"}]".getBytes(StandardCharsets.UTF_8)),
+                new ReadOptionsBuilder().build(), new TypeHolder<List<Dto>>() {});
+        assertThat(list).hasSize(1);
+        assertThat(list.get(0).name).isEqualTo("q");
+
+        Pair<Item, Dto> pair = JsonIo.toObjectsOfType("{\"first\":{\"qty\":1},\"rest\":[{\"name\":\"w\"}]}",
+                new ReadOptionsBuilder().build(), new TypeHolder<Pair<Item, Dto>>() {});
+        assertThat(pair.first.qty).isEqualTo(1);
+        assertThat(pair.rest.get(0).name).isEqualTo("w");
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void testTypeHolderNeedsTypeArgument()
+    {
+        assertThatThrownBy(() -> new TypeHolder() {})
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("type argument");
+    }
+
+    @Test
+    void testPlanIsCached()
+    {
+        Type type = new TypeHolder<Map<String, List<Dto>>>() {}.getType();
+        GenericTypePlan plan = GenericTypePlan.of(type);
+        assertThat(GenericTypePlan.of(type)).isSameAs(plan);
+        assertThat(plan.items.element.raw).isEqualTo(List.class);
+        assertThat(plan.items.element.element.raw).isEqualTo(Dto.class);
+        assertThat(plan.keys.element.raw).isEqualTo(String.class);
+    }
+}
@@ -0,0 +1,101 @@
+package com.cedarsoftware.util.io;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.cedarsoftware.util.FastByteArrayInputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class InMemoryInputTest
+{
+    private static final String JSON = "{\"name\":\"café 中 😀\",\"ids\":[1,2,3],\"nested\":{\"pi\":3.14}}";
+
+    @Test
+    void testAllEntryPointsAgree()
+    {
+        ReadOptions options = new ReadOptionsBuilder().returnAsNativeJsonObjects().build();
+        byte[] utf8 = JSON.getBytes(StandardCharsets.UTF_8);
+
+        Map<String, Object> fromStream = JsonIo.toObjects(new FastByteArrayInputStream(utf8), options, null);
+        Map<String, Object> fromString = JsonIo.toObjects(JSON, options, null);
+        Map<String, Object> fromChars = JsonIo.toObjects(JSON.toCharArray(), options, null);
+        Map<String, Object> fromBytes = JsonIo.toObjects(utf8, 0, utf8.length, options, null);
+
+        assertThat(fromStream.get("name")).isEqualTo("café 中 😀");
+        for (Map<String, Object> map : new Map[] {fromString, fromChars, fromBytes})
+        {
+            assertThat(map.get("name")).isEqualTo(fromStream.get("name"));
+            assertThat((Object[]) map.get("ids")).containsExactly(1L, 2L, 3L);
+            assertThat(((Map<?, ?>) map.get("nested")).get("pi")).isEqualTo(3.14d);
+        }
+    }
+
+    @Test
+    void testByteSlice()
+    {
+        byte[] frame = ("garbage" + JSON + "trailer").getBytes(StandardCharsets.UTF_8);
+        int offset = "garbage".length();
+        int length = JSON.getBytes(StandardCharsets.UTF_8).length;
+        Map<String, Object> map = JsonIo.toObjects(frame, offset, length, null, Map.class);
+        assertThat(map.get("name")).isEqualTo("café 中 😀");
+
+        char[] chars = ("xx[true,false]yy").toCharArray();
+        Object[] array = new JsonReader(chars, 2, 12, null).readObject(Object[].class);
+        assertThat(array).containsExactly(true, false);
+    }
+
+    @Test
+    void testStringBuilderInput()
+    {
+        StringBuilder json = new StringBuilder("[\"a\",");
+        json.append("\"b\"]");
+        Object[] array = new JsonReader(json, null).readObject(null);
+        assertThat(array).containsExactly("a", "b");
+    }
+
+    @Test
+    void testMalformedUtf8IsReplaced()
+    {
+        byte[] json = {'"', 'a', (byte) 0xC3, '"'};   // truncated 2-byte sequence
+        String s = JsonIo.toObjects(json, 0, json.length, null, String.class);
+        assertThat(s).isEqualTo("a�");
+    }
+
+    @Test
+    void testErrorReportsPosition()
+    {
+        String json = "{\n  \"a\": 1,\n  \"b\": x\n}";
+        assertThatThrownBy(() -> JsonIo.toObjects(json, null, Map.class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("line: 3, col: 8");
+    }
+
+    @Test
+    void testInvalidRange()
+    {
+        byte[] json = "[]".getBytes(StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> JsonIo.toObjects(json, 1, 5, null, Object[].class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Invalid offset/length");
+    }
+}
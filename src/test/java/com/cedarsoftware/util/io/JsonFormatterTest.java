@@ -0,0 +1,122 @@
+package com.cedarsoftware.util.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.cedarsoftware.util.FastByteArrayInputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class JsonFormatterTest
+{
+    private static final String NL = System.getProperty("line.separator");
+
+    @Test
+    void testPrettyPrintMatchesJsonWriterLayout()
+    {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "json-io");
+        map.put("empty", new Object[0]);
+        map.put("nested", new LinkedHashMap<>());
+        List<Object> list = new ArrayList<>();
+        list.add(1L);
+        list.add("two");
+        list.add(null);
+        map.put("list", list);
+
+        WriteOptions pretty = new WriteOptionsBuilder().prettyPrint(true).build();
+        String expected = TestUtil.toJson(map, pretty);
+        String compact = TestUtil.toJson(map);
+        assertThat(JsonIo.formatJson(compact)).isEqualTo(expected);
+        assertThat(JsonIo.minifyJson(expected)).isEqualTo(compact);
+    }
+
+    @Test
+    void testLexemesCopiedVerbatim()
+    {
+        String json = "{ \"a\" : 1.50E+3 , \"b\":\"x\\\"y\\u00e9 [{,:}]\", \"c\" : [ true,false , null ] ,\"d\":\"中文\"}";
+        assertThat(JsonIo.minifyJson(json)).isEqualTo("{\"a\":1.50E+3,\"b\":\"x\\\"y\\u00e9 [{,:}]\",\"c\":[true,false,null],\"d\":\"中文\"}");
+        assertThat(JsonIo.formatJson("[1,{\"k\":[]}]")).isEqualTo("[" + NL + "  1," + NL + "  {" + NL + "    \"k\":[]" + NL + "  }" + NL + "]");
+    }
+
+    @Test
+    void testNdjson()
+    {
+        String ndjson = "{\"a\":1}\n{\"a\":2}\n\"s\" 3";
+        assertThat(JsonIo.minifyJson(ndjson)).isEqualTo("{\"a\":1}\n{\"a\":2}\n\"s\"\n3");
+    }
+
+    @Test
+    void testStreamsWithLargeInput()
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 50000; i++)
+        {
+            sb.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"text\":\"value é ").append(i).append("\"}");
+        }
+        sb.append(']');
+        String json = sb.toString();
+
+        InputStream in = new FastByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream pretty = new ByteArrayOutputStream();
+        JsonIo.formatJson(in, pretty, true);
+
+        ByteArrayOutputStream minified = new ByteArrayOutputStream();
+        JsonIo.formatJson(new FastByteArrayInputStream(pretty.toByteArray()), minified, false);
+        assertThat(new String(minified.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(json);
+    }
+
+    @Test
+    void testInvalidStructure()
+    {
+        assertThatThrownBy(() -> JsonIo.minifyJson("{\"a\" 1}"))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Unexpected character '1'");
+        assertThatThrownBy(() -> JsonIo.minifyJson("[1,2}"))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Unexpected character '}'");
+        assertThatThrownBy(() -> JsonIo.minifyJson("[1,2"))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("EOF");
+        assertThatThrownBy(() -> JsonIo.minifyJson("[\"abc"))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("inside a string");
+    }
+
+    @Test
+    void testInvalidNumbersAndLiterals()
+    {
+        assertThat(JsonIo.minifyJson("[0, -0.5e-7, 12E+3, 1.0, NaN, Infinity, -Infinity, true, false, null]"))
+                .isEqualTo("[0,-0.5e-7,12E+3,1.0,NaN,Infinity,-Infinity,true,false,null]");
+        for (String bad : new String[] {"tru", "nulll", "True", "abc", "01", "-", "1.", ".5", "+1", "1e", "1e+", "1.2.3", "--1", "0x10"}) {
+            assertThatThrownBy(() -> JsonIo.minifyJson("[1," + bad + "]"))
+                    .as(bad)
+                    .isInstanceOf(JsonIoException.class)
+                    .hasMessageContaining("Invalid number or literal '" + bad + "' at offset: 3");
+        }
+    }
+}
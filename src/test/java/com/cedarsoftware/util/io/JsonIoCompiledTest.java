@@ -0,0 +1,264 @@
+package com.cedarsoftware.util.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compiles annotated classes with JsonIoCompiledProcessor and checks that the generated codecs write exactly the
+ * JSON the reflective writer produces, and read it back to equal objects.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class JsonIoCompiledTest
+{
+    private static final String POINT = "package compiled;\n" +
+            "@com.cedarsoftware.util.io.JsonIoCompiled\n" +
+            "public class Point {\n" +
+            "    int x;\n" +
+            "    public long y;\n" +
+            "    private String label;\n" +
+            "    Double weight;\n" +
+            "    char tag;\n" +
+            "    boolean on;\n" +
+            "    transient int cache = 5;\n" +
+            "    static int count;\n" +
+            "    public String getLabel() { return label; }\n" +
+            "    public void setLabel(String label) { this.label = label; }\n" +
+            "    public static Point sample(int x) {\n" +
+            "        Point p = new Point(); p.x = x; p.y = 1L << 40; p.label = \"p\\\"\" + x; p.tag = 'q'; p.on = true;\n" +
+            "        return p;\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String ORDER = "package compiled;\n" +
+            "import java.util.*;\n" +
+            "public class Order {\n" +
+            "    @com.cedarsoftware.util.io.JsonIoCompiled\n" +
+            "    public static class Line extends Base {\n" +
+            "        String name;\n" +
+            "        Point point;\n" +
+            "        Object any;\n" +
+            "        List<Point> points = new ArrayList<>();\n" +
+            "        long[] counts;\n" +
+            "    }\n" +
+            "    public static class Base {\n" +
+            "        String name = \"base\";\n" +
+            "        final int version;\n" +
+            "        Base() { version = 2; }\n" +
+            "    }\n" +
+            "    public static class BigLine extends Line {\n" +
+            "        int extra = 9;\n" +
+            "    }\n" +
+            "    public static Line sample(boolean big) {\n" +
+            "        Line line = big ? new BigLine() : new Line();\n" +
+            "        line.name = \"line\";\n" +
+            "        line.point = Point.sample(1);\n" +
+            "        line.any = Point.sample(2);\n" +
+            "        line.points.add(line.point);\n" +
+            "        line.points.add(null);\n" +
+            "        line.counts = new long[] {3, 4};\n" +
+            "        return line;\n" +
+            "    }\n" +
+            "}\n";
+
+    private static Path dir;
+    private static URLClassLoader loader;
+
+    @BeforeAll
+    static void compile() throws Exception
+    {
+        dir = Files.createTempDirectory("json-io-compiled");
+        List<String> errors = compile(dir, "compiled/Point.java", POINT, "compiled/Order.java", ORDER);
+        assertThat(errors).isEmpty();
+        loader = new URLClassLoader(new URL[] {dir.resolve("classes").toUri().toURL()}, JsonIoCompiledTest.class.getClassLoader());
+    }
+
+    @AfterAll
+    static void cleanUp() throws IOException
+    {
+        loader.close();
+        Files.walk(dir).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+    }
+
+    /**
+     * Compile the (path, source) pairs into dir/classes with the processor.
+     * @return error messages
+     */
+    private static List<String> compile(Path dir, String... pathsAndSources) throws IOException
+    {
+        Path src = dir.resolve("src");
+        Path classes = dir.resolve("classes");
+        Files.createDirectories(classes);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < pathsAndSources.length; i += 2) {
+            Path file = src.resolve(pathsAndSources[i]);
+            Files.createDirectories(file.getParent());
+            Files.write(file, pathsAndSources[i + 1].getBytes(StandardCharsets.UTF_8));
+            files.add(file.toFile());
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                    "-processor", JsonIoCompiledProcessor.class.getName(),
+                    "-d", classes.toString(), "-s", src.toString());
+            compiler.getTask(null, fileManager, diagnostics, options, null, fileManager.getJavaFileObjectsFromFiles(files)).call();
+        }
+        List<String> errors = new ArrayList<>();
+        diagnostics.getDiagnostics().stream()
+                .filter(d -> d.getKind() == javax.tools.Diagnostic.Kind.ERROR)
+                .forEach(d -> errors.add(d.getMessage(null)));
+        return errors;
+    }
+
+    private static Class<?> load(String name) throws ClassNotFoundException
+    {
+        return Class.forName(name, true, loader);
+    }
+
+    private static Object sample(String className, Object arg) throws Exception
+    {
+        Class<?> c = load(className);
+        return c.getMethod("sample", arg instanceof Boolean ? boolean.class : int.class).invoke(null, arg);
+    }
+
+    private static CompiledCodec codec(String className) throws Exception
+    {
+        return (CompiledCodec) load(className + JsonIoCompiledProcessor.CODEC_SUFFIX).getDeclaredConstructor().newInstance();
+    }
+
+    private static WriteOptionsBuilder compiledWriter() throws Exception
+    {
+        return new WriteOptionsBuilder()
+                .addCustomWrittenClass(load("compiled.Point"), codec("compiled.Point"))
+                .addCustomWrittenClass(load("compiled.Order$Line"), codec("compiled.Order_Line"));
+    }
+
+    private static ReadOptionsBuilder compiledReader() throws Exception
+    {
+        return new ReadOptionsBuilder()
+                .classLoader(loader)
+                .addClassFactory(load("compiled.Point"), codec("compiled.Point"))
+                .addClassFactory(load("compiled.Order$Line"), codec("compiled.Order_Line"));
+    }
+
+    @Test
+    void testServiceFileListsCodecs() throws Exception
+    {
+        List<String> names = new ArrayList<>();
+        for (CompiledCodec codec : ServiceLoader.load(CompiledCodec.class, loader)) {
+            names.add(codec.getType().getName());
+        }
+        assertThat(names).containsExactlyInAnyOrder("compiled.Point", "compiled.Order$Line");
+        assertThat(dir.resolve("src/compiled/Order_Line_JsonIoCodec.java")).exists();
+    }
+
+    @Test
+    void testWritesSameJsonAsReflection() throws Exception
+    {
+        for (boolean big : new boolean[] {false, true}) {
+            Object line = sample("compiled.Order", big);
+            assertThat(JsonIo.toJson(line, compiledWriter().build()))
+                    .isEqualTo(JsonIo.toJson(line, new WriteOptionsBuilder().build()));
+            assertThat(JsonIo.toJson(line, compiledWriter().showTypeInfoAlways().prettyPrint(true).build()))
+                    .isEqualTo(JsonIo.toJson(line, new WriteOptionsBuilder().showTypeInfoAlways().prettyPrint(true).build()));
+            assertThat(JsonIo.toJson(line, compiledWriter().skipNullFields(true).showTypeInfoNever().build()))
+                    .isEqualTo(JsonIo.toJson(line, new WriteOptionsBuilder().skipNullFields(true).showTypeInfoNever().build()));
+        }
+        Object point = sample("compiled.Point", 7);
+        String json = JsonIo.toJson(point, compiledWriter().build());
+        assertThat(json).isEqualTo(JsonIo.toJson(point, new WriteOptionsBuilder().build()));
+        assertThat(json).contains("\"label\":\"p\\\"7\"").doesNotContain("cache");
+    }
+
+    @Test
+    void testReadsBack() throws Exception
+    {
+        WriteOptions reflective = new WriteOptionsBuilder().build();
+        for (boolean big : new boolean[] {false, true}) {
+            String json = JsonIo.toJson(sample("compiled.Order", big), reflective);
+            Object line = JsonIo.toObjects(json, compiledReader().build(), load("compiled.Order$Line"));
+            assertThat(line.getClass().getSimpleName()).isEqualTo(big ? "BigLine" : "Line");
+            assertThat(JsonIo.toJson(line, reflective)).isEqualTo(json);
+        }
+
+        Class<?> pointClass = load("compiled.Point");
+        String json = "{\"x\":\"12\",\"y\":5.0,\"label\":\"L\",\"weight\":2,\"tag\":\"z\",\"on\":\"true\",\"unknown\":[1]}";
+        Object point = JsonIo.toObjects(json, compiledReader().build(), pointClass);
+        assertThat(JsonIo.toJson(point, reflective))
+                .isEqualTo("{\"@type\":\"compiled.Point\",\"x\":12,\"y\":5,\"label\":\"L\",\"weight\":2.0,\"tag\":\"z\",\"on\":true}");
+
+        List<String> missing = new ArrayList<>();
+        JsonIo.toObjects(json, compiledReader().missingFieldHandler((o, name, value) -> missing.add(name)).build(), pointClass);
+        assertThat(missing).containsExactly("unknown");
+    }
+
+    @Test
+    void testOptionsChangingFieldsUseReflection() throws Exception
+    {
+        Class<?> pointClass = load("compiled.Point");
+        Object line = sample("compiled.Order", false);
+        String json = JsonIo.toJson(line, compiledWriter().addExcludedField(pointClass, "label").build());
+        assertThat(json).isEqualTo(JsonIo.toJson(line, new WriteOptionsBuilder().addExcludedField(pointClass, "label").build()));
+        assertThat(json).doesNotContain("label");
+        json = JsonIo.toJson(line, compiledWriter().addIncludedField(pointClass, "x").build());
+        assertThat(json).isEqualTo(JsonIo.toJson(line, new WriteOptionsBuilder().addIncludedField(pointClass, "x").build()));
+        assertThat(json).doesNotContain("\"y\"");
+
+        WriteOptions reflective = new WriteOptionsBuilder().build();
+        String point = "{\"x\":12,\"y\":5,\"label\":\"L\",\"on\":true}";
+        Object compiled = JsonIo.toObjects(point, compiledReader().addIncludedField(pointClass, "x").build(), pointClass);
+        Object plain = JsonIo.toObjects(point, new ReadOptionsBuilder().classLoader(loader).addIncludedField(pointClass, "x").build(), pointClass);
+        assertThat(JsonIo.toJson(compiled, reflective)).isEqualTo(JsonIo.toJson(plain, reflective)).doesNotContain("\"L\"");
+    }
+
+    @Test
+    void testInaccessibleFieldRejected() throws Exception
+    {
+        Path other = Files.createTempDirectory("json-io-compiled-error");
+        try {
+            List<String> errors = compile(other, "bad/Bad.java", "package bad;\n" +
+                    "@com.cedarsoftware.util.io.JsonIoCompiled\n" +
+                    "public class Bad { private int hidden; }\n");
+            assertThat(errors).anyMatch(e -> e.contains("Bad.hidden") && e.contains("has no getter"));
+        } finally {
+            Files.walk(other).sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.cedarsoftware.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class JsonPointerExtractTest
+{
+    private static final String DOC = "{\"header\":{\"tenantId\":\"acme\",\"version\":3,\"tags\":[\"x\",\"y\"]}," +
+            "\"skip\":{\"deep\":[[1,2,{\"s\":\"a\\\"]}\"}],-1.5e3,true,null]}," +
+            "\"a/b\":{\"m~n\":42}," +
+            "\"items\":[{\"name\":\"first\",\"point\":{\"@type\":\"com.cedarsoftware.util.io.JsonPointerExtractTest$Point\",\"x\":1,\"y\":2}},{\"name\":\"second\"}]}";
+
+    static class Point
+    {
+        int x;
+        int y;
+    }
+
+    private static InputStream in(String json)
+    {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSinglePointers()
+    {
+        assertThat(JsonIo.extract(in(DOC), "/header/tenantId", null, String.class)).isEqualTo("acme");
+        assertThat((Object) JsonIo.extract(in(DOC), "/header/version", null, Integer.class)).isEqualTo(3);
+        assertThat(JsonIo.extract(in(DOC), "/header/tags/1", null, String.class)).isEqualTo("y");
+        assertThat(JsonIo.extract(in(DOC), "/items/1/name", null, String.class)).isEqualTo("second");
+        assertThat((Object) JsonIo.extract(in(DOC), "/a~1b/m~0n", null, Long.class)).isEqualTo(42L);
+
+        Point p = JsonIo.extract(in(DOC), "/items/0/point", null, Point.class);
+        assertThat(p.x).isEqualTo(1);
+        assertThat(p.y).isEqualTo(2);
+    }
+
+    @Test
+    void testMissingPathIsNull()
+    {
+        assertThat(JsonIo.extract(in(DOC), "/header/nope", null, String.class)).isNull();
+        assertThat(JsonIo.extract(in(DOC), "/items/7/name", null, String.class)).isNull();
+        assertThat(JsonIo.extract(in(DOC), "/header/tenantId/x", null, String.class)).isNull();
+    }
+
+    @Test
+    void testMultiplePointersInOnePass()
+    {
+        Map<String, Object> found = JsonIo.extract(in(DOC), Arrays.asList("/items/0/name", "/header/tenantId", "/header", "/nope"), null);
+        assertThat(found).containsOnlyKeys("/header", "/header/tenantId", "/items/0/name");
+        assertThat(found.get("/header/tenantId")).isEqualTo("acme");
+        assertThat(found.get("/items/0/name")).isEqualTo("first");
+        assertThat(((Map<?, ?>) found.get("/header")).get("version")).isEqualTo(3L);
+    }
+
+    @Test
+    void testStopsReadingOnceFound()
+    {
+        // Everything after the requested value is malformed; it must never be read.
+        String json = "{\"id\":7,\"rest\":[1,2,}}}} garbage";
+        assertThat((Object) JsonIo.extract(in(json), "/id", null, Long.class)).isEqualTo(7L);
+    }
+
+    @Test
+    void testWholeDocumentAndErrors()
+    {
+        Map<?, ?> all = JsonIo.extract(in("{\"k\":\"v\"}"), "", null, Map.class);
+        assertThat(all.get("k")).isEqualTo("v");
+
+        assertThatThrownBy(() -> JsonIo.extract(in(DOC), "header", null, Object.class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Invalid JSON Pointer");
+        assertThatThrownBy(() -> JsonIo.extract(in("{\"a\":[1,2},\"b\":1}"), "/b", null, Object.class))
+                .isInstanceOf(JsonIoException.class);
+    }
+}
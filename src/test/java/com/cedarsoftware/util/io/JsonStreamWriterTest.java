@@ -0,0 +1,140 @@
+package com.cedarsoftware.util.io;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import com.cedarsoftware.util.FastByteArrayOutputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class JsonStreamWriterTest
+{
+    @Test
+    void testSameOutputAsArray()
+    {
+        Object[] items = new Object[] {new TestObject("a"), "text", 5L, null, true, 3.5d, new int[] {1, 2}};
+        for (boolean pretty : new boolean[] {false, true})
+        {
+            WriteOptions writeOptions = new WriteOptionsBuilder().prettyPrint(pretty).build();
+            FastByteArrayOutputStream out = new FastByteArrayOutputStream();
+            try (JsonStreamWriter writer = new JsonStreamWriter(out, writeOptions))
+            {
+                writer.beginArray().writeAll(Arrays.stream(items)).endArray();
+            }
+            String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+            assertThat(json).isEqualTo(TestUtil.toJson(items, writeOptions));
+        }
+    }
+
+    @Test
+    void testStreamedRowsInsideObject()
+    {
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream();
+        try (JsonStreamWriter writer = new JsonStreamWriter(out, null, 100))
+        {
+            writer.beginObject();
+            writer.name("count").value(1000);
+            writer.name("rows").beginArray();
+            writer.writeAll(IntStream.range(0, 1000).mapToObj(i -> new TestObject("row" + i)).iterator());
+            writer.endArray();
+            writer.name("empty").beginObject().endObject();
+            writer.endObject();
+        }
+
+        Map<String, Object> result = TestUtil.toObjects(new String(out.toByteArray(), StandardCharsets.UTF_8), null);
+        assertThat(result.get("count")).isEqualTo(1000);
+        Object[] rows = (Object[]) result.get("rows");
+        assertThat(rows).hasSize(1000);
+        assertThat(((TestObject) rows[999]).getName()).isEqualTo("row999");
+        assertThat((Map) result.get("empty")).isEmpty();
+    }
+
+    @Test
+    void testReferencesWithinElement()
+    {
+        TestObject a = new TestObject("a");
+        TestObject b = new TestObject("b");
+        a._other = b;
+        b._other = a;
+
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream();
+        try (JsonStreamWriter writer = new JsonStreamWriter(out, null))
+        {
+            writer.beginArray().value(a).value(a).endArray();
+        }
+
+        Object[] array = TestUtil.toObjects(new String(out.toByteArray(), StandardCharsets.UTF_8), null);
+        assertThat(array).hasSize(2);
+        for (Object copy : array)
+        {
+            assertThat(((TestObject) copy)._other._other).isSameAs(copy);
+        }
+        assertThat(array[0]).isNotSameAs(array[1]);
+    }
+
+    @Test
+    void testFlushEvery()
+    {
+        int[] flushes = new int[1];
+        FastByteArrayOutputStream sink = new FastByteArrayOutputStream();
+        OutputStream out = new OutputStream()
+        {
+            public void write(int b)
+            {
+                sink.write(b);
+            }
+
+            public void write(byte[] b, int off, int len)
+            {
+                sink.write(b, off, len);
+            }
+
+            public void flush()
+            {
+                flushes[0]++;
+            }
+        };
+
+        JsonStreamWriter writer = new JsonStreamWriter(out, null, 10);
+        writer.beginArray();
+        writer.writeAll(IntStream.range(0, 95).boxed());
+        assertThat(flushes[0]).isGreaterThanOrEqualTo(9);
+        assertThat(sink.size()).isGreaterThan(0);
+        writer.endArray();
+        writer.close();
+    }
+
+    @Test
+    void testMisuse()
+    {
+        JsonStreamWriter writer = new JsonStreamWriter(new FastByteArrayOutputStream(), null);
+        assertThatThrownBy(() -> writer.name("x")).isInstanceOf(JsonIoException.class).hasMessageContaining("inside a JSON object");
+        writer.beginObject();
+        assertThatThrownBy(() -> writer.value(1)).isInstanceOf(JsonIoException.class).hasMessageContaining("name() must be called");
+        assertThatThrownBy(writer::endArray).isInstanceOf(JsonIoException.class).hasMessageContaining("endArray()");
+        writer.endObject();
+        assertThatThrownBy(() -> writer.value(1)).isInstanceOf(JsonIoException.class).hasMessageContaining("complete root value");
+    }
+}
@@ -0,0 +1,148 @@
+package com.cedarsoftware.util.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class JsonValueFramerTest
+{
+    static class Person
+    {
+        String name;
+        int age;
+        List<Person> friends = new ArrayList<>();
+    }
+
+    private static <T> List<T> feedInChunks(JsonValueFramer<T> framer, byte[] json, int maxChunk, long seed)
+    {
+        Random random = new Random(seed);
+        List<T> values = new ArrayList<>();
+        int pos = 0;
+        while (pos < json.length) {
+            int n = Math.min(json.length - pos, 1 + random.nextInt(maxChunk));
+            framer.feed(ByteBuffer.wrap(json, pos, n));
+            pos += n;
+            while (framer.hasNext()) {
+                values.add(framer.next());
+            }
+        }
+        framer.endOfInput();
+        while (framer.hasNext()) {
+            values.add(framer.next());
+        }
+        return values;
+    }
+
+    @Test
+    void testTypedResultMatchesJsonReader()
+    {
+        Person a = new Person();
+        a.name = "Zoë 東京 😀 \"quoted\" \\ {not} [structure]";
+        a.age = 41;
+        Person b = new Person();
+        b.name = "b";
+        a.friends.add(b);
+        b.friends.add(a);
+        String json = JsonIo.toJson(a, null);
+        byte[] utf8 = json.getBytes(StandardCharsets.UTF_8);
+
+        for (int maxChunk : new int[] {1, 2, 3, 7, 64, 100000}) {
+            List<Person> values = feedInChunks(new JsonValueFramer<>(Person.class, null), utf8, maxChunk, maxChunk);
+            assertThat(values).hasSize(1);
+            Person copy = values.get(0);
+            assertThat(copy.name).isEqualTo(a.name);
+            assertThat(copy.age).isEqualTo(41);
+            assertThat(copy.friends.get(0).friends.get(0)).isSameAs(copy);
+        }
+    }
+
+    @Test
+    void testJsonObjectTreeMatchesJsonReader()
+    {
+        String json = "{\"a\":[1,2.5,\"x\",true,null,{\"b\":{}}],\"c\":\"\\u0041\\\\\"}";
+        ReadOptions options = new ReadOptionsBuilder().returnAsNativeJsonObjects().build();
+        Map<?, ?> expected = JsonIo.toObjects(json, options, Map.class);
+        List<Map> values = feedInChunks(new JsonValueFramer<>(Map.class, options), json.getBytes(StandardCharsets.UTF_8), 3, 1);
+        assertThat(values).hasSize(1);
+        assertThat(values.get(0)).isInstanceOf(JsonObject.class);
+        assertThat(JsonIo.toJson(values.get(0), null)).isEqualTo(JsonIo.toJson(expected, null));
+    }
+
+    @Test
+    void testNdjsonRootValues()
+    {
+        String ndjson = "{\"n\":1}\n[1,2]\n\"str\" 42 -7.5e3\r\ntrue null {\"n\":2}";
+        byte[] utf8 = ndjson.getBytes(StandardCharsets.UTF_8);
+        for (int maxChunk : new int[] {1, 4, 1000}) {
+            List<Object> values = feedInChunks(new JsonValueFramer<>(null, null), utf8, maxChunk, 7);
+            assertThat(values).hasSize(8);
+            assertThat(((Map<?, ?>) values.get(0)).get("n")).isEqualTo(1L);
+            assertThat(values.get(2)).isEqualTo("str");
+            assertThat(values.get(3)).isEqualTo(42L);
+            assertThat(values.get(4)).isEqualTo(-7500.0);
+            assertThat(values.get(5)).isEqualTo(true);
+            assertThat(values.get(6)).isNull();
+            assertThat(((Map<?, ?>) values.get(7)).get("n")).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    void testValuesAvailableAsSoonAsComplete()
+    {
+        JsonValueFramer<Object> framer = new JsonValueFramer<>(null, null);
+        framer.feed("{\"a\":1}{\"b\"".getBytes(StandardCharsets.UTF_8), 0, 11);
+        assertThat(framer.hasNext()).isTrue();
+        assertThat(((Map<?, ?>) framer.next()).get("a")).isEqualTo(1L);
+        assertThat(framer.hasNext()).isFalse();
+        assertThatThrownBy(framer::next).isInstanceOf(NoSuchElementException.class);
+
+        framer.feed(ByteBuffer.wrap(":2} 12".getBytes(StandardCharsets.UTF_8)));
+        assertThat(((Map<?, ?>) framer.next()).get("b")).isEqualTo(2L);
+        assertThat(framer.hasNext()).isFalse();   // 12 might continue in the next chunk
+        framer.endOfInput();
+        assertThat(framer.next()).isEqualTo(12L);
+    }
+
+    @Test
+    void testErrors()
+    {
+        JsonValueFramer<Object> truncated = new JsonValueFramer<>(null, null);
+        truncated.feed(ByteBuffer.wrap("{\"a\":\"unterminated".getBytes(StandardCharsets.UTF_8)));
+        assertThatThrownBy(truncated::endOfInput).isInstanceOf(JsonIoException.class).hasMessageContaining("EOF");
+        assertThatThrownBy(() -> truncated.feed(ByteBuffer.wrap(new byte[] {'1'}))).isInstanceOf(JsonIoException.class);
+
+        JsonValueFramer<Object> stray = new JsonValueFramer<>(null, null);
+        assertThatThrownBy(() -> stray.feed(ByteBuffer.wrap("{} ]".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(JsonIoException.class).hasMessageContaining("offset: 3");
+
+        JsonValueFramer<Object> invalid = new JsonValueFramer<>(null, null);
+        assertThatThrownBy(() -> invalid.feed(ByteBuffer.wrap("{\"a\" 1}".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(JsonIoException.class);
+    }
+}
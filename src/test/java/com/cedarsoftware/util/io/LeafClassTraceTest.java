@@ -0,0 +1,121 @@
+package com.cedarsoftware.util.io;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class LeafClassTraceTest
+{
+    enum Plain { A, B }
+
+    enum WithBody
+    {
+        X { public String toString() { return "x"; } }
+    }
+
+    static class Leaf
+    {
+        int count;
+        String name;
+        Plain plain;
+        Number number;
+        Date date;
+        BigDecimal amount;
+        Long boxed;
+    }
+
+    static class HoldsObject
+    {
+        int count;
+        Object any;
+    }
+
+    static class HoldsBodyEnum
+    {
+        WithBody value;
+    }
+
+    static class HoldsList
+    {
+        List<String> names;
+    }
+
+    static class Holder
+    {
+        Leaf first;
+        Leaf second;
+        List<Leaf> more = new ArrayList<>();
+    }
+
+    @Test
+    void testLeafClassDetection()
+    {
+        WriteOptions options = new WriteOptionsBuilder().build();
+        assertThat(options.isLeafClass(Leaf.class)).isTrue();
+        assertThat(options.isLeafClass(HoldsObject.class)).isFalse();
+        assertThat(options.isLeafClass(HoldsBodyEnum.class)).isFalse();
+        assertThat(options.isLeafClass(HoldsList.class)).isFalse();
+        assertThat(options.isLeafClass(Holder.class)).isFalse();
+        assertThat(options.isLeafClass(ArrayList.class)).isFalse();
+        assertThat(options.isLeafClass(Leaf[].class)).isFalse();
+    }
+
+    @Test
+    void testSharedLeafStillReferenced()
+    {
+        Leaf leaf = new Leaf();
+        leaf.count = 3;
+        leaf.name = "leaf";
+        leaf.plain = Plain.B;
+        Holder holder = new Holder();
+        holder.first = leaf;
+        holder.second = leaf;
+        holder.more.add(leaf);
+        holder.more.add(new Leaf());
+
+        String json = JsonIo.toJson(holder, null);
+        assertThat(json).contains("\"@id\":1").contains("\"@ref\":1");
+
+        Holder copy = JsonIo.toObjects(json, null, Holder.class);
+        assertThat(copy.second).isSameAs(copy.first);
+        assertThat(copy.more.get(0)).isSameAs(copy.first);
+        assertThat(copy.more.get(1)).isNotSameAs(copy.first);
+        assertThat(copy.first.name).isEqualTo("leaf");
+        assertThat(copy.first.plain).isEqualTo(Plain.B);
+    }
+
+    @Test
+    void testObjectFieldStillTraced()
+    {
+        List<String> shared = new ArrayList<>();
+        shared.add("s");
+        HoldsObject a = new HoldsObject();
+        a.any = shared;
+        HoldsObject b = new HoldsObject();
+        b.any = shared;
+        Object[] copy = JsonIo.toObjects(JsonIo.toJson(new Object[] {a, b}, null), null, Object[].class);
+        assertThat(((HoldsObject) copy[1]).any).isSameAs(((HoldsObject) copy[0]).any);
+    }
+}
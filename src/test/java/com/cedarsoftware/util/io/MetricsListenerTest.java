@@ -0,0 +1,136 @@
+package com.cedarsoftware.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import com.cedarsoftware.util.convert.Converter;
+import com.cedarsoftware.util.convert.DefaultConverterOptions;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class MetricsListenerTest
+{
+    static class Node
+    {
+        String name;
+        Node next;
+        List<Node> children = new ArrayList<>();
+    }
+
+    static class Recorder implements MetricsListener
+    {
+        final List<ReadMetrics> reads = new ArrayList<>();
+        final List<WriteMetrics> writes = new ArrayList<>();
+
+        public void readCompleted(ReadMetrics metrics)
+        {
+            reads.add(metrics);
+        }
+
+        public void writeCompleted(WriteMetrics metrics)
+        {
+            writes.add(metrics);
+        }
+    }
+
+    private static Node graph()
+    {
+        Node a = new Node();
+        Node b = new Node();
+        a.name = "a";
+        b.name = "b";
+        a.next = b;
+        b.next = a;
+        a.children.add(b);
+        return a;
+    }
+
+    @Test
+    void testWriteMetrics()
+    {
+        Recorder recorder = new Recorder();
+        String json = JsonIo.toJson(graph(), new WriteOptionsBuilder().metricsListener(recorder).build());
+
+        assertThat(recorder.writes).hasSize(1);
+        WriteMetrics metrics = recorder.writes.get(0);
+        assertThat(metrics.getCharsWritten()).isEqualTo(json.length());
+        assertThat(metrics.getReferencedObjects()).isEqualTo(2);
+        assertThat(metrics.getObjectsWrittenByClass().get(Node.class)).isEqualTo(2L);
+        assertThat(metrics.getObjectsWrittenByClass().get(String.class)).isEqualTo(2L);
+        assertThat(metrics.getObjectsWritten()).isGreaterThanOrEqualTo(5);
+        assertThat(metrics.getWriteNanos()).isPositive();
+        assertThat(json).isEqualTo(JsonIo.toJson(graph(), new WriteOptionsBuilder().build()));
+    }
+
+    @Test
+    void testReadMetrics()
+    {
+        String json = JsonIo.toJson(graph(), new WriteOptionsBuilder().build());
+        Recorder recorder = new Recorder();
+        ReadOptions options = new ReadOptionsBuilder().metricsListener(recorder).build();
+
+        Node a = JsonIo.toObjects(json, options, Node.class);
+        assertThat(a.next.next).isSameAs(a);
+        assertThat(recorder.reads).hasSize(1);
+        ReadMetrics metrics = recorder.reads.get(0);
+        assertThat(metrics.getInputSize()).isEqualTo(json.length());
+        assertThat(metrics.getObjectsReadByClass().get(Node.class)).isEqualTo(2L);
+        assertThat(metrics.getObjectsInstantiated()).isGreaterThanOrEqualTo(2);
+        assertThat(metrics.getStringCacheHits() + metrics.getStringCacheMisses()).isGreaterThanOrEqualTo(2);
+        assertThat(metrics.getParseNanos()).isPositive();
+        assertThat(metrics.getResolveNanos()).isPositive();
+
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        JsonIo.toObjects(new ByteArrayInputStream(bytes), options, Node.class);
+        assertThat(recorder.reads).hasSize(2);
+        assertThat(recorder.reads.get(1).getInputSize()).isEqualTo(bytes.length);
+    }
+
+    @Test
+    void testForwardReferencesCounted()
+    {
+        String type = "\"@type\":\"" + Node.class.getName() + "\"";
+        String json = "[{\"@ref\":2},{\"@id\":2," + type + ",\"name\":\"b\"}]";
+        Recorder recorder = new Recorder();
+        Object[] nodes = JsonIo.toObjects(json, new ReadOptionsBuilder().metricsListener(recorder).build(), Object[].class);
+        assertThat(nodes[0]).isSameAs(nodes[1]);
+        assertThat(recorder.reads.get(0).getReferencesPatched()).isEqualTo(1);
+    }
+
+    @Test
+    void testInheritedConversionsCounted()
+    {
+        Converter converter = new Converter(new DefaultConverterOptions());
+        DoubleAdder adder = new DoubleAdder();
+        adder.add(5);
+        converter.convert(adder, Long.class);
+        assertThat(converter.getInheritedConversionCount()).isZero();     // not counted until asked for
+
+        converter.countInheritedConversions();
+        converter.convert("5", Long.class);
+        assertThat(converter.getInheritedConversionCount()).isZero();
+        assertThat(converter.convert(adder, Long.class)).isEqualTo(5L);
+        assertThat(converter.getInheritedConversionCount()).isEqualTo(1);
+    }
+}
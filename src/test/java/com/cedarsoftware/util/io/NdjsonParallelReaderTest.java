@@ -0,0 +1,123 @@
+package com.cedarsoftware.util.io;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class NdjsonParallelReaderTest
+{
+    private static final int RECORDS = 5000;
+    private Path file;
+    private ForkJoinPool pool;
+
+    static class Record
+    {
+        int index;
+        String label;
+        Record self;
+    }
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        file = Files.createTempFile("json-io", ".ndjson");
+        pool = new ForkJoinPool(4);
+        StringBuilder ndjson = new StringBuilder();
+        WriteOptions writeOptions = new WriteOptionsBuilder().showTypeInfoNever().build();
+        for (int i = 0; i < RECORDS; i++) {
+            Record record = new Record();
+            record.index = i;
+            record.label = "r\u00e9cord \u6771 " + i;
+            record.self = record;
+            ndjson.append(JsonIo.toJson(record, writeOptions)).append(i % 7 == 0 ? "\r\n\n  \n" : "\n");
+        }
+        Files.write(file, ndjson.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        pool.shutdown();
+        Files.deleteIfExists(file);
+    }
+
+    private void read(int chunkSize, boolean ordered, Consumer<Record> consumer) throws Exception
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new NdjsonParallelReader<>(channel, null, Record.class, pool, chunkSize).read(ordered, consumer);
+        }
+    }
+
+    @Test
+    void testOrdered() throws Exception
+    {
+        List<Record> records = new ArrayList<>();
+        read(1000, true, records::add);     // chunks much smaller than the file, some holding one record
+        assertThat(records).hasSize(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            Record record = records.get(i);
+            assertThat(record.index).isEqualTo(i);
+            assertThat(record.label).isEqualTo("r\u00e9cord \u6771 " + i);
+            assertThat(record.self).isSameAs(record);
+        }
+    }
+
+    @Test
+    void testUnordered() throws Exception
+    {
+        Queue<Record> records = new ConcurrentLinkedQueue<>();
+        read(4096, false, records::add);
+        assertThat(records).hasSize(RECORDS);
+        assertThat(records.stream().mapToInt(r -> r.index).distinct().count()).isEqualTo(RECORDS);
+    }
+
+    @Test
+    void testJsonIoEntryPoint()
+    {
+        List<Record> records = new ArrayList<>();
+        JsonIo.readNdjson(file, null, Record.class, true, records::add);
+        assertThat(records).hasSize(RECORDS);
+        assertThat(records.get(RECORDS - 1).index).isEqualTo(RECORDS - 1);
+    }
+
+    @Test
+    void testInvalidRecord() throws Exception
+    {
+        Files.write(file, "{\"index\":1}\n{\"index\":2,}\n".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> JsonIo.readNdjson(file, null, Record.class, true, r -> { }))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("offset: 12");
+    }
+}
@@ -0,0 +1,122 @@
+package com.cedarsoftware.util.io;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class NumberCharsTest
+{
+    private static String format(double d)
+    {
+        char[] buf = new char[NumberChars.MAX_CHARS];
+        return new String(buf, 0, NumberChars.formatDouble(d, buf, 0));
+    }
+
+    private static String format(long l)
+    {
+        char[] buf = new char[NumberChars.MAX_CHARS];
+        return new String(buf, 0, NumberChars.formatLong(l, buf, 0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.0, -0.0, 1.0, -1.0, 0.1, 0.001, 0.0009, 1.0e7, 9999999.0, 123.45, 3.14159, 100.0,
+            1234567.0, 12345678.0, 1.0e22, 4.35, 0.3, 1.1, Double.MIN_VALUE, Double.MAX_VALUE, Double.MIN_NORMAL,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY})
+    void testSameLayoutAsDoubleToString(double d)
+    {
+        assertThat(format(d)).isEqualTo(Double.toString(d));
+    }
+
+    @Test
+    void testShortestRoundTrip()
+    {
+        assertThat(format(2.0 / 3)).isEqualTo("0.6666666666666666");
+        assertThat(format(1.0e23)).isEqualTo("1.0E23");    // Double.toString() before JDK 19: 9.999999999999999E22
+        assertThat(format(2.0e-3)).isEqualTo("0.002");
+
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++)
+        {
+            double d = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(d))
+            {
+                continue;
+            }
+            String s = format(d);
+            assertThat(Double.doubleToRawLongBits(Double.parseDouble(s))).isEqualTo(Double.doubleToRawLongBits(d));
+            assertThat(s.length()).isLessThanOrEqualTo(Double.toString(d).length());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, -1, 9, 10, -10, 99, 100, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+            -Long.MAX_VALUE, 1000000000000000000L, 999999999999999999L})
+    void testLongs(long l)
+    {
+        assertThat(format(l)).isEqualTo(Long.toString(l));
+    }
+
+    @Test
+    void testNumericArraysAndFields()
+    {
+        Object[] values = new Object[] {
+                new int[] {Integer.MIN_VALUE, -1, 0, 7, Integer.MAX_VALUE},
+                new long[] {Long.MIN_VALUE, -1, 0, Long.MAX_VALUE},
+                new short[] {Short.MIN_VALUE, 0, Short.MAX_VALUE},
+                new double[] {0.1, -2.5e300, Double.MIN_VALUE, 1.0e23},
+                12345678901L, 3.25d, 17, (short) 4, (byte) -3};
+
+        String json = TestUtil.toJson(values);
+        assertThat(json).contains("[-2147483648,-1,0,7,2147483647]");
+        assertThat(json).contains("[-9223372036854775808,-1,0,9223372036854775807]");
+        assertThat(json).contains("[0.1,-2.5E300,4.9E-324,1.0E23]");
+
+        Object[] clone = TestUtil.toObjects(json, null);
+        assertThat((int[]) clone[0]).containsExactly(Integer.MIN_VALUE, -1, 0, 7, Integer.MAX_VALUE);
+        assertThat((long[]) clone[1]).containsExactly(Long.MIN_VALUE, -1, 0, Long.MAX_VALUE);
+        assertThat((short[]) clone[2]).containsExactly(Short.MIN_VALUE, (short) 0, Short.MAX_VALUE);
+        assertThat((double[]) clone[3]).containsExactly(0.1, -2.5e300, Double.MIN_VALUE, 1.0e23);
+        assertThat(clone[4]).isEqualTo(12345678901L);
+        assertThat(clone[5]).isEqualTo(3.25d);
+        assertThat(clone[6]).isEqualTo(17);
+        assertThat(clone[7]).isEqualTo((short) 4);
+        assertThat(clone[8]).isEqualTo((byte) -3);
+    }
+
+    @Test
+    void testLongsAsStrings()
+    {
+        String json = TestUtil.toJson(new long[] {1, Long.MIN_VALUE}, new WriteOptionsBuilder().writeLongsAsStrings(true).build());
+        assertThat(json).contains("\"1\",\"-9223372036854775808\"");
+    }
+
+    @Test
+    void testNanAndInfinityInArrays()
+    {
+        double[] doubles = new double[] {Double.NaN, 1.5, Double.NEGATIVE_INFINITY};
+        assertThat(TestUtil.toJson(doubles)).contains("[null,1.5,null]");
+        String json = TestUtil.toJson(doubles, new WriteOptionsBuilder().allowNanAndInfinity(true).build());
+        assertThat(json).contains("[NaN,1.5,-Infinity]");
+    }
+}
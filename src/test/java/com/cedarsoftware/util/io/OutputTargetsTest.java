@@ -0,0 +1,126 @@
+package com.cedarsoftware.util.io;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class OutputTargetsTest
+{
+    private static Map<String, Object> sample()
+    {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("ascii", "hello");
+        map.put("latin", "café");
+        map.put("cjk", "中文");
+        map.put("emoji", "😀 smile");
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+        {   // large enough to cross the internal chunk size several times
+            list.add("item-" + i + "-é");
+        }
+        map.put("list", list);
+        return map;
+    }
+
+    private static String viaStream(Object o)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonIo.toJson(out, o, new WriteOptionsBuilder().build());
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testBytesMatchStreamOutput()
+    {
+        Map<String, Object> map = sample();
+        byte[] bytes = JsonIo.toJsonBytes(map, null);
+        String expected = viaStream(map);
+        assertThat(bytes).isEqualTo(expected.getBytes(StandardCharsets.UTF_8));
+        assertThat(JsonIo.toJson(map, null)).isEqualTo(expected);
+    }
+
+    @Test
+    void testAppendable()
+    {
+        StringBuilder sb = new StringBuilder("prefix:");
+        JsonIo.toJson(sb, new int[] {1, 2, 3}, new WriteOptionsBuilder().showTypeInfoNever().build());
+        assertThat(sb.toString()).isEqualTo("prefix:[1,2,3]");
+    }
+
+    @Test
+    void testByteBuffer()
+    {
+        Map<String, Object> map = sample();
+        byte[] expected = JsonIo.toJsonBytes(map, null);
+
+        ByteBuffer heap = ByteBuffer.allocate(expected.length + 10);
+        heap.put((byte) '#');
+        int written = JsonIo.toJson(heap, map, null);
+        assertThat(written).isEqualTo(expected.length);
+        assertThat(heap.position()).isEqualTo(expected.length + 1);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+        JsonIo.toJson(direct, map, null);
+        direct.flip();
+        byte[] copy = new byte[direct.remaining()];
+        direct.get(copy);
+        assertThat(copy).isEqualTo(expected);
+    }
+
+    @Test
+    void testByteBufferTooSmall()
+    {
+        ByteBuffer small = ByteBuffer.allocate(100);
+        small.put((byte) 1);
+        assertThatThrownBy(() -> JsonIo.toJson(small, sample(), null))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("does not fit");
+        assertThat(small.position()).isEqualTo(1);
+    }
+
+    @Test
+    void testChannel()
+    {
+        Map<String, Object> map = sample();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        JsonIo.toJson(channel, map, new WriteOptionsBuilder().closeStream(false).build());
+        assertThat(channel.isOpen()).isTrue();
+        assertThat(out.toByteArray()).isEqualTo(JsonIo.toJsonBytes(map, null));
+    }
+
+    @Test
+    void testUnpairedSurrogateMatchesStream()
+    {
+        String s = "a\uD800b\uDC00c";
+        assertThat(new String(JsonIo.toJsonBytes(s, null), StandardCharsets.UTF_8)).isEqualTo(viaStream(s));
+    }
+}
@@ -0,0 +1,142 @@
+package com.cedarsoftware.util.io;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class ParallelWriteTest
+{
+    static class Item
+    {
+        int id;
+        String name;
+        double[] values;
+        List<String> tags = new ArrayList<>();
+        Object any;
+    }
+
+    private static Item item(int i)
+    {
+        Item item = new Item();
+        item.id = i;
+        item.name = "item \"" + i + "\"";
+        item.values = new double[] {i, i / 2.0};
+        item.tags.add("t" + (i % 3));
+        item.any = i % 4 == 0 ? new Date(i) : i % 4 == 1 ? (Object) ("s" + i) : i % 4 == 2 ? new long[] {i} : null;
+        return item;
+    }
+
+    private static void assertSameOutput(Object root, WriteOptionsBuilder builder)
+    {
+        String sequential = JsonIo.toJson(root, builder.parallelWrite(0).build());
+        String parallel = JsonIo.toJson(root, builder.parallelWrite(10).build());
+        assertThat(parallel).isEqualTo(sequential);
+    }
+
+    @Test
+    void testListMatchesSequential()
+    {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            list.add(item(i));
+        }
+        assertSameOutput(list, new WriteOptionsBuilder());
+        assertSameOutput(list, new WriteOptionsBuilder().prettyPrint(true));
+        assertSameOutput(list, new WriteOptionsBuilder().showTypeInfoNever());
+        assertSameOutput(list, new WriteOptionsBuilder().showTypeInfoAlways().shortMetaKeys(true));
+
+        List<?> read = JsonIo.toObjects(JsonIo.toJson(list, new WriteOptionsBuilder().parallelWrite(10).build()), null, List.class);
+        assertThat(read).hasSize(3000);
+        assertThat(((Item) read.get(2999)).name).isEqualTo("item \"2999\"");
+    }
+
+    @Test
+    void testArraysMatchSequential()
+    {
+        Object[] objects = new Object[2000];
+        Item[] items = new Item[2000];
+        String[] strings = new String[2000];
+        for (int i = 0; i < 2000; i++) {
+            objects[i] = i % 2 == 0 ? item(i) : (Object) (long) i;
+            items[i] = i % 5 == 0 ? null : item(i);
+            strings[i] = "s" + i;
+        }
+        assertSameOutput(objects, new WriteOptionsBuilder().prettyPrint(true));
+        assertSameOutput(items, new WriteOptionsBuilder());
+        assertSameOutput(strings, new WriteOptionsBuilder());
+    }
+
+    @Test
+    void testMapsMatchSequential()
+    {
+        Map<String, Object> map = new LinkedHashMap<>();
+        Map<Object, Object> nonStringKeys = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            map.put("k" + i, item(i));
+            nonStringKeys.put(i, "v" + i);
+        }
+        assertSameOutput(map, new WriteOptionsBuilder().prettyPrint(true));
+        assertSameOutput(nonStringKeys, new WriteOptionsBuilder());
+    }
+
+    @Test
+    void testSharedReferencesFallBackToSequential()
+    {
+        List<Object> list = new ArrayList<>();
+        Item shared = item(-1);
+        for (int i = 0; i < 1000; i++) {
+            list.add(i % 100 == 0 ? shared : item(i));
+        }
+        assertSameOutput(list, new WriteOptionsBuilder());
+        String json = JsonIo.toJson(list, new WriteOptionsBuilder().parallelWrite(10).build());
+        assertThat(json).contains("\"@ref\":1");
+    }
+
+    @Test
+    void testMetricsCountRanges()
+    {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(item(i));
+        }
+        List<WriteMetrics> measured = new ArrayList<>();
+        MetricsListener listener = new MetricsListener()
+        {
+            public void writeCompleted(WriteMetrics metrics)
+            {
+                measured.add(metrics);
+            }
+        };
+        String sequential = JsonIo.toJson(list, new WriteOptionsBuilder().metricsListener(listener).build());
+        String parallel = JsonIo.toJson(list, new WriteOptionsBuilder().metricsListener(listener).parallelWrite(10).build());
+        assertThat(parallel).isEqualTo(sequential);
+        assertThat(measured).hasSize(2);
+        assertThat(measured.get(1).getObjectsWritten()).isEqualTo(measured.get(0).getObjectsWritten());
+        assertThat(measured.get(1).getObjectsWrittenByClass()).isEqualTo(measured.get(0).getObjectsWrittenByClass());
+        assertThat(measured.get(1).getCharsWritten()).isEqualTo(sequential.length());
+    }
+}
@@ -0,0 +1,121 @@
+package com.cedarsoftware.util.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class ReferenceTableTest
+{
+    @Test
+    void testTraceAndWriteStates()
+    {
+        ReferenceTable table = new ReferenceTable();
+        List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {    // forces several resizes
+            Object o = new Object();
+            objects.add(o);
+            assertThat(table.visit(o)).isTrue();
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertThat(table.visit(objects.get(i))).isFalse();
+            assertThat(table.visit(objects.get(i))).isFalse();     // id is assigned once
+        }
+        assertThat(table.getReferencedCount()).isEqualTo(500);
+        assertThat(table.getId(objects.get(0))).isEqualTo(1);
+        assertThat(table.getId(objects.get(998))).isEqualTo(500);
+        assertThat(table.getId(objects.get(1))).isZero();
+        assertThat(table.isReferenced(new Object())).isFalse();
+
+        Object late = new Object();
+        assertThat(table.isWritten(objects.get(0))).isFalse();
+        table.markWritten(objects.get(0));
+        table.markWritten(late);
+        assertThat(table.isWritten(objects.get(0))).isTrue();
+        assertThat(table.isWritten(late)).isTrue();
+        assertThat(table.isWritten(objects.get(2))).isFalse();
+
+        Map<Object, Long> written = table.writtenView();
+        assertThat(written).hasSize(2).containsEntry(objects.get(0), 1L).containsKey(late);
+        assertThat(written.get(late)).isNull();
+        Map<Object, Long> referenced = table.referencedView();
+        assertThat(referenced).hasSize(500).containsEntry(objects.get(4), 3L).doesNotContainKey(late);
+        assertThat(referenced.entrySet()).hasSize(500);
+
+        table.clear();
+        assertThat(table.getId(objects.get(0))).isZero();
+        assertThat(referenced).isEmpty();
+        table.visit(objects.get(0));
+        table.visit(objects.get(0));
+        assertThat(table.getId(objects.get(0))).isEqualTo(501);  // ids are not reused
+    }
+
+    @Test
+    void testReaderDenseAndSparseIds()
+    {
+        JsonReader.DefaultReferenceTracker tracker = new JsonReader.DefaultReferenceTracker();
+        JsonObject one = new JsonObject();
+        JsonObject big = new JsonObject();
+        JsonObject negative = new JsonObject();
+        tracker.put(1L, one);
+        tracker.put(5_000_000_000L, big);
+        tracker.put(-7L, negative);
+        for (long id = 2; id <= 3000; id++) {
+            tracker.put(id, new JsonObject());
+        }
+        assertThat(tracker.size()).isEqualTo(3002);
+        assertThat(tracker.get(1L)).isSameAs(one);
+        assertThat(tracker.get(5_000_000_000L)).isSameAs(big);
+        assertThat(tracker.get(-7L)).isSameAs(negative);
+
+        JsonObject ref = new JsonObject();
+        ref.setReferenceId(1L);
+        tracker.put(3001L, ref);
+        assertThat(tracker.get(3001L)).isSameAs(one);      // chain followed
+        assertThat(tracker.get(ref)).isSameAs(one);
+
+        assertThatThrownBy(() -> tracker.get(4000L)).isInstanceOf(JsonIoException.class).hasMessageContaining("4000");
+        tracker.clear();
+        assertThat(tracker.size()).isZero();
+        assertThatThrownBy(() -> tracker.get(1L)).isInstanceOf(JsonIoException.class);
+    }
+
+    @Test
+    void testSharedNodesRoundTrip()
+    {
+        List<Object> shared = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            shared.add(new ArrayList<>());
+        }
+        Object[] graph = new Object[] {shared, shared.toArray()};
+        String json = JsonIo.toJson(graph, null);
+        Object[] copy = JsonIo.toObjects(json, null, Object[].class);
+        List<?> list = (List<?>) copy[0];
+        Object[] array = (Object[]) copy[1];
+        assertThat(list).hasSize(2000);
+        for (int i = 0; i < 2000; i++) {
+            assertThat(array[i]).isSameAs(list.get(i));
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.cedarsoftware.util.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class ResourceBudgetTest
+{
+    private static String repeat(String s, int count)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
+
+    private static Object read(String json, ReadOptions options)
+    {
+        return JsonIo.toObjects(json, options, null);
+    }
+
+    @Test
+    void testDefaultsAreUnlimited()
+    {
+        ReadOptions options = new ReadOptionsBuilder().build();
+        assertThat(options.getMaxDocumentBytes()).isEqualTo(Long.MAX_VALUE);
+        assertThat(options.getMaxStringLength()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(options.getMaxArrayLength()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(options.getMaxObjectCount()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(options.getMaxIdCount()).isEqualTo(Integer.MAX_VALUE);
+        assertThat((Object[]) read("[" + repeat("\"abcdefghij\",", 999) + "\"x\"]", options)).hasSize(1000);
+    }
+
+    @Test
+    void testInvalidBudgets()
+    {
+        assertThatThrownBy(() -> new ReadOptionsBuilder().maxStringLength(0)).isInstanceOf(JsonIoException.class);
+        assertThatThrownBy(() -> new ReadOptionsBuilder().maxDocumentBytes(-1)).isInstanceOf(JsonIoException.class);
+        assertThatThrownBy(() -> new ReadOptionsBuilder().maxArrayLength(0)).isInstanceOf(JsonIoException.class);
+        assertThatThrownBy(() -> new ReadOptionsBuilder().maxObjectCount(0)).isInstanceOf(JsonIoException.class);
+        assertThatThrownBy(() -> new ReadOptionsBuilder().maxIdCount(0)).isInstanceOf(JsonIoException.class);
+    }
+
+    @Test
+    void testMaxStringLength()
+    {
+        ReadOptions options = new ReadOptionsBuilder().maxStringLength(8).build();
+        assertThat(read("\"12345678\"", options)).isEqualTo("12345678");
+        assertThat(read("\"\\u0041\\t345678\"", options)).isEqualTo("A\t345678");
+        assertThatThrownBy(() -> read("\"123456789\"", options))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum string length exceeded: 8");
+        assertThatThrownBy(() -> read("{\"" + repeat("k", 20) + "\":1}", options))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum string length exceeded");
+    }
+
+    @Test
+    void testMaxStringLengthRejectsBeforeEndOfString()
+    {
+        // The string is never terminated: the budget fails first, so no EOF error and no full-size String.
+        ReadOptions options = new ReadOptionsBuilder().maxStringLength(100).build();
+        assertThatThrownBy(() -> read("\"" + repeat("x", 100_000), options))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum string length exceeded");
+    }
+
+    @Test
+    void testMaxArrayLength()
+    {
+        ReadOptions options = new ReadOptionsBuilder().maxArrayLength(3).build();
+        assertThat((Object[]) read("[1,2,3]", options)).hasSize(3);
+        assertThat((Object[]) read("[[1,2,3],[4,5,6],[]]", options)).hasSize(3);
+        assertThatThrownBy(() -> read("[1,2,3,4]", options))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum array length exceeded: 3");
+        assertThatThrownBy(() -> JsonIo.toObjects("{\"list\":[1,2,3,4]}", options, Map.class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum array length exceeded");
+    }
+
+    @Test
+    void testMaxObjectCount()
+    {
+        ReadOptions options = new ReadOptionsBuilder().maxObjectCount(4).build();
+        assertThat(read("{\"a\":{},\"b\":[{}]}", options)).isNotNull();
+        assertThatThrownBy(() -> read("[{},{},{},{}]", options))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum object count exceeded: 4");
+    }
+
+    @Test
+    void testMaxIdCount()
+    {
+        ReadOptions options = new ReadOptionsBuilder().maxIdCount(2).build();
+        Object[] ok = (Object[]) read("[{\"@id\":1,\"a\":1},{\"@id\":2,\"a\":2},{\"@ref\":1}]", options);
+        assertThat(ok).hasSize(3);
+        assertThat(ok[2]).isSameAs(ok[0]);
+        assertThatThrownBy(() -> read("[{\"@id\":1},{\"@id\":2},{\"@id\":3}]", options))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum @id count exceeded: 2");
+    }
+
+    @Test
+    void testCountsArePerDocument()
+    {
+        ReadOptions options = new ReadOptionsBuilder().maxObjectCount(2).maxIdCount(1).build();
+        String json = "{\"@id\":1,\"a\":[]} {\"@id\":2,\"a\":[]} {\"@id\":3,\"a\":[]}";
+        try (JsonReader reader = new JsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), options)) {
+            for (int i = 0; i < 3; i++) {
+                assertThat((Object) reader.readObject(Map.class)).isNotNull();
+            }
+        }
+    }
+
+    @Test
+    void testMaxDocumentBytesInMemory()
+    {
+        ReadOptions options = new ReadOptionsBuilder().maxDocumentBytes(10).build();
+        assertThat(read("[1,2,3,4]", options)).isNotNull();
+        assertThatThrownBy(() -> read("[1,2,3,4,5,6]", options))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum document size exceeded: 10");
+    }
+
+    @Test
+    void testMaxDocumentBytesStream()
+    {
+        ReadOptions options = new ReadOptionsBuilder().maxDocumentBytes(1000).build();
+        String small = "[" + repeat("1,", 100) + "1]";
+        assertThat((Object[]) JsonIo.toObjects(stream(small), options, null)).hasSize(101);
+
+        // Rejected once the stream passes the limit (plus read-ahead), not after the whole document is read.
+        CountingStream big = new CountingStream("[" + repeat("\"abcdefghij\",", 100_000) + "1]");
+        assertThatThrownBy(() -> JsonIo.toObjects(big, options, null))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum document size exceeded: 1000");
+        assertThat(big.read).isLessThan(100_000);
+    }
+
+    @Test
+    void testValueFramerMaxDocumentBytes()
+    {
+        JsonValueFramer<Object> framer = new JsonValueFramer<>(null, new ReadOptionsBuilder().maxDocumentBytes(16).build());
+        byte[] ok = "[1,2,3] [4,5]".getBytes(StandardCharsets.UTF_8);
+        framer.feed(ok, 0, ok.length);
+        assertThat(framer.next()).isNotNull();
+        assertThat(framer.next()).isNotNull();
+        byte[] big = "[\"0123456789\",\"0123".getBytes(StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> framer.feed(big, 0, big.length))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum document size exceeded: 16");
+    }
+
+    @Test
+    void testBinaryLengthsCheckedBeforeAllocating()
+    {
+        // Packed long[] claiming 2^31 - 16 elements, with no elements following
+        byte[] packed = {'J', 'B', 1, BinaryFormat.PACKED, BinaryFormat.PACKED_LONG, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThatThrownBy(() -> JsonIo.fromBinary(packed, null, null))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("more than the bytes left in the input");
+        assertThatThrownBy(() -> JsonIo.fromBinary(new BufferedInputStream(new ByteArrayInputStream(packed)), null, null))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("EOF reached prematurely");
+        assertThatThrownBy(() -> JsonIo.fromBinary(new BufferedInputStream(new ByteArrayInputStream(packed)),
+                new ReadOptionsBuilder().maxArrayLength(1000).build(), null))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum array length exceeded: 1000");
+
+        byte[] string = {'J', 'B', 1, BinaryFormat.STRING, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThatThrownBy(() -> JsonIo.fromBinary(string, null, null))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("more than the bytes left in the input");
+        assertThatThrownBy(() -> JsonIo.fromBinary(new BufferedInputStream(new ByteArrayInputStream(string)),
+                new ReadOptionsBuilder().maxDocumentBytes(1 << 20).build(), null))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("more than the bytes left in the input");
+    }
+
+    @Test
+    void testBinaryBudgets()
+    {
+        byte[] longs = JsonIo.toBinary(new long[10], null);
+        assertThat(JsonIo.fromBinary(longs, new ReadOptionsBuilder().maxArrayLength(10).build(), long[].class)).hasSize(10);
+        assertThatThrownBy(() -> JsonIo.fromBinary(longs, new ReadOptionsBuilder().maxArrayLength(9).build(), long[].class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum array length exceeded: 9");
+
+        byte[] string = JsonIo.toBinary(repeat("\u00e9", 20), null);
+        assertThat(JsonIo.fromBinary(string, new ReadOptionsBuilder().maxStringLength(20).build(), String.class)).hasSize(20);
+        assertThatThrownBy(() -> JsonIo.fromBinary(string, new ReadOptionsBuilder().maxStringLength(19).build(), String.class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum string length exceeded: 19");
+
+        byte[] nested = JsonIo.toBinary(new Object[] {new Object[0], new Object[0], new Object[0]}, null);
+        assertThat(JsonIo.fromBinary(nested, new ReadOptionsBuilder().maxObjectCount(4).build(), Object[].class)).hasSize(3);
+        assertThatThrownBy(() -> JsonIo.fromBinary(nested, new ReadOptionsBuilder().maxObjectCount(3).build(), Object[].class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum object count exceeded: 3");
+
+        Object a = new HashMap<>();
+        Object b = new HashMap<>();
+        byte[] shared = JsonIo.toBinary(new Object[] {a, a, b, b}, null);
+        assertThat(JsonIo.fromBinary(shared, new ReadOptionsBuilder().maxIdCount(2).build(), Object[].class)).hasSize(4);
+        assertThatThrownBy(() -> JsonIo.fromBinary(shared, new ReadOptionsBuilder().maxIdCount(1).build(), Object[].class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum @id count exceeded: 1");
+
+        assertThat(JsonIo.fromBinary(shared, new ReadOptionsBuilder().maxDocumentBytes(shared.length).build(), Object[].class)).hasSize(4);
+        assertThatThrownBy(() -> JsonIo.fromBinary(shared, new ReadOptionsBuilder().maxDocumentBytes(shared.length - 1).build(), Object[].class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("Maximum document size exceeded: " + (shared.length - 1));
+    }
+
+    private static InputStream stream(String json)
+    {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class CountingStream extends ByteArrayInputStream
+    {
+        int read;
+
+        CountingStream(String json)
+        {
+            super(json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public synchronized int read(byte[] b, int off, int len)
+        {
+            int n = super.read(b, off, len);
+            read += Math.max(n, 0);
+            return n;
+        }
+    }
+}
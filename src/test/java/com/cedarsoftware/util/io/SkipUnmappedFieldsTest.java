@@ -0,0 +1,148 @@
+package com.cedarsoftware.util.io;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class SkipUnmappedFieldsTest
+{
+    private static final String JSON = "{\"extra1\":\"x\\\"}]\",\"name\":\"widget\",\"extra2\":[1,{\"a\":[true,null]},-2.5e3]," +
+            "\"count\":7,\"inner\":{\"junk\":{\"deep\":{}},\"v\":3,\"more\":[]},\"extra3\":false}";
+
+    static class Inner
+    {
+        int v;
+    }
+
+    static class Dto
+    {
+        String name;
+        int count;
+        Inner inner;
+    }
+
+    static class SubDto extends Dto
+    {
+        String color;
+    }
+
+    private static ReadOptions skipping()
+    {
+        return new ReadOptionsBuilder().skipUnmappedFields(true).build();
+    }
+
+    @Test
+    void testUnmappedValuesSkipped()
+    {
+        Dto dto = JsonIo.toObjects(JSON, skipping(), Dto.class);
+        assertThat(dto.name).isEqualTo("widget");
+        assertThat(dto.count).isEqualTo(7);
+        assertThat(dto.inner.v).isEqualTo(3);
+
+        Dto same = JsonIo.toObjects(JSON, new ReadOptionsBuilder().build(), Dto.class);
+        assertThat(same.name).isEqualTo(dto.name);
+        assertThat(same.count).isEqualTo(dto.count);
+        assertThat(same.inner.v).isEqualTo(dto.inner.v);
+    }
+
+    @Test
+    void testSkippedValueStillValidated()
+    {
+        assertThatThrownBy(() -> JsonIo.toObjects("{\"extra\":[1,2},\"name\":\"a\"}", skipping(), Dto.class))
+                .isInstanceOf(JsonIoException.class);
+        assertThatThrownBy(() -> JsonIo.toObjects("{\"extra\":{\"a\" 1},\"name\":\"a\"}", skipping(), Dto.class))
+                .isInstanceOf(JsonIoException.class);
+    }
+
+    @Test
+    void testIncludedFields()
+    {
+        ReadOptions options = new ReadOptionsBuilder().addIncludedField(Dto.class, "name").build();
+        Dto dto = JsonIo.toObjects(JSON, options, Dto.class);
+        assertThat(dto.name).isEqualTo("widget");
+        assertThat(dto.count).isZero();
+        assertThat(dto.inner).isNull();
+
+        options = new ReadOptionsBuilder().skipUnmappedFields(true).addIncludedField(Dto.class, "inner").build();
+        dto = JsonIo.toObjects(JSON, options, Dto.class);
+        assertThat(dto.name).isNull();
+        assertThat(dto.inner.v).isEqualTo(3);
+    }
+
+    @Test
+    void testIncludedFieldsApplyToSubclasses()
+    {
+        String json = "{\"@type\":\"" + SubDto.class.getName() + "\",\"color\":\"red\",\"name\":\"n\",\"count\":4}";
+        ReadOptions options = new ReadOptionsBuilder().addIncludedField(Dto.class, "name").build();
+        SubDto dto = (SubDto) JsonIo.toObjects(json, options, Dto.class);
+        assertThat(dto.name).isEqualTo("n");
+        assertThat(dto.count).isZero();
+        assertThat(dto.color).isNull();
+
+        options = new ReadOptionsBuilder().skipUnmappedFields(true)
+                .addIncludedField(Dto.class, "name")
+                .addIncludedField(SubDto.class, "color")
+                .build();
+        dto = (SubDto) JsonIo.toObjects(json, options, Dto.class);
+        assertThat(dto.name).isEqualTo("n");
+        assertThat(dto.color).isEqualTo("red");
+        assertThat(dto.count).isZero();
+    }
+
+    @Test
+    void testTypeSelectsFields()
+    {
+        String json = "{\"@type\":\"" + SubDto.class.getName() + "\",\"color\":\"red\",\"name\":\"n\",\"extra\":1}";
+        Dto dto = JsonIo.toObjects(json, skipping(), Dto.class);
+        assertThat(dto).isInstanceOf(SubDto.class);
+        assertThat(((SubDto) dto).color).isEqualTo("red");
+        assertThat(dto.name).isEqualTo("n");
+
+        String late = "{\"color\":\"red\",\"@type\":\"" + SubDto.class.getName() + "\"}";
+        assertThatThrownBy(() -> JsonIo.toObjects(late, skipping(), Dto.class))
+                .isInstanceOf(JsonIoException.class)
+                .hasMessageContaining("@type must come before");
+    }
+
+    @Test
+    void testMissingFieldHandlerSeesEverything()
+    {
+        List<String> missing = new ArrayList<>();
+        ReadOptions options = new ReadOptionsBuilder()
+                .skipUnmappedFields(true)
+                .missingFieldHandler((object, fieldName, value) -> missing.add(fieldName))
+                .build();
+        Dto dto = JsonIo.toObjects(JSON, options, Dto.class);
+        assertThat(dto.count).isEqualTo(7);
+        assertThat(missing).contains("extra1", "extra2", "extra3");
+    }
+
+    @Test
+    void testMapsKeepAllFields()
+    {
+        Map<String, Object> map = JsonIo.toObjects(JSON, new ReadOptionsBuilder().skipUnmappedFields(true).returnAsNativeJsonObjects().build(), null);
+        assertThat(map).containsKeys("extra1", "extra2", "extra3", "name", "count", "inner");
+    }
+}
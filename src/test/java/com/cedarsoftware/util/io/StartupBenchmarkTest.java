@@ -0,0 +1,107 @@
+package com.cedarsoftware.util.io;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.cedarsoftware.util.convert.Converter;
+import com.cedarsoftware.util.convert.DefaultConverterOptions;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures time-to-first-toJson and time-to-first-toObjects in a freshly started JVM, where none of json-io's
+ * registries (conversions, class factories, readers, writers, excluded fields) have been loaded yet.  Timings are
+ * printed, not asserted; the test only verifies that the first calls succeed from a cold start.
+ *
+ * @author John DeRegnaucourt (jdereg@gmail.com)
+ * <br>
+ * Copyright (c) Cedar Software LLC
+ * <br><br>
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <br><br>
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">License</a>
+ * <br><br>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+class StartupBenchmarkTest
+{
+    static class Sample
+    {
+        String name = "sample";
+        int count = 3;
+        long[] values = {1, 2, 3};
+        Map<String, Object> attributes = MetaUtils.mapOf("a", 1L, "b", "two");
+    }
+
+    /**
+     * Runs in the forked JVM.  Prints one line: toJson=&lt;ms&gt; toObjects=&lt;ms&gt;
+     */
+    public static void main(String[] args)
+    {
+        long start = System.nanoTime();
+        String json = JsonIo.toJson(new Sample(), null);
+        long written = System.nanoTime();
+        Sample sample = JsonIo.toObjects(json, null, Sample.class);
+        long read = System.nanoTime();
+
+        if (sample.count != 3 || !"two".equals(sample.attributes.get("b"))) {
+            throw new JsonIoException("Cold start round trip failed: " + json);
+        }
+        System.out.println("toJson=" + TimeUnit.NANOSECONDS.toMillis(written - start) +
+                " toObjects=" + TimeUnit.NANOSECONDS.toMillis(read - written));
+    }
+
+    @Test
+    void testColdStart() throws Exception
+    {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StartupBenchmarkTest.class.getName());
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append('\n');
+            }
+        }
+        assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+        assertThat(process.exitValue()).as(output.toString()).isZero();
+        assertThat(output.toString()).contains("toJson=", "toObjects=");
+        TestUtil.printLine("Cold start: " + output.toString().trim());
+    }
+
+    @Test
+    void testLazyConversionsComplete()
+    {
+        Converter converter = new Converter(new DefaultConverterOptions());
+        assertThat(converter.convert("42", Integer.class)).isEqualTo(42);
+        assertThat(converter.isConversionSupportedFor(String.class, AtomicLong.class)).isTrue();
+
+        // Listing the supported conversions loads every section
+        Map<Class<?>, Set<Class<?>>> supported = converter.allSupportedConversions();
+        assertThat(supported.values().stream().mapToInt(Set::size).sum()).isGreaterThan(300);
+        assertThat(supported.get(String.class)).contains(ZonedDateTime.class, UUID.class, Character.class);
+    }
+}